@@ -0,0 +1,87 @@
+#!/bin/bash
+# Açılış ölçümü - uygulamayı her profil için birkaç kez başlatıp JVM'in başlatılmasından
+# ilk başarılı HTTP yanıtına kadar geçen süreyi (ms) ölçer ve ortalamayı yazar.
+#
+# Kullanım: scripts/baslangic-olcumu.sh [tekrar] [profil...]
+#   scripts/baslangic-olcumu.sh 5 default hizli
+# Önce jar derlenmelidir: mvn -B package -DskipTests
+# Ölçüm geçici bir dizinde, mevcut veritabanının kopyasıyla yapılır; gerçek veritabanı değişmez.
+# Başarısız denemelerin logları LOG_DIZINI altında (varsayılan target/baslangic-olcumu) kalır.
+
+set -u
+
+TEKRAR=${1:-3}
+shift || true
+PROFILLER=${*:-default hizli}
+
+PROJE=$(cd "$(dirname "$0")/.." && pwd)
+JAR=$(ls "$PROJE"/target/kitap-satis-sistemi-*.jar 2>/dev/null | grep -v original | head -1)
+PORT=${PORT:-18081}
+URL="http://localhost:$PORT/"
+ZAMAN_ASIMI_SN=${ZAMAN_ASIMI_SN:-120}
+LOG_DIZINI=${LOG_DIZINI:-$PROJE/target/baslangic-olcumu}
+
+if [ -z "$JAR" ]; then
+    echo "Jar bulunamadı; önce 'mvn -B package -DskipTests' çalıştırın" >&2
+    exit 1
+fi
+
+ms() {
+    date +%s%3N
+}
+
+calisma_dizini=$(mktemp -d)
+trap 'rm -rf "$calisma_dizini"' EXIT
+mkdir -p "$LOG_DIZINI"
+
+for profil in $PROFILLER; do
+    toplam=0
+    basarili=0
+    for i in $(seq 1 "$TEKRAR"); do
+        rm -f "$calisma_dizini"/kitapsatissistemi.db*
+        if [ -f "$PROJE/kitapsatissistemi.db" ]; then
+            cp "$PROJE/kitapsatissistemi.db" "$calisma_dizini/"
+        fi
+
+        profil_arg=""
+        if [ "$profil" != "default" ]; then
+            profil_arg="--spring.profiles.active=$profil"
+        fi
+
+        # Log geçici dizinin dışında; çıkışta silinmez
+        log="$LOG_DIZINI/log-$profil-$i.txt"
+        baslama=$(ms)
+        (cd "$calisma_dizini" && exec java ${JAVA_OPTS:-} -jar "$JAR" --server.port="$PORT" $profil_arg \
+            > "$log" 2>&1) &
+        pid=$!
+
+        sure=""
+        while [ $(( $(ms) - baslama )) -lt $(( ZAMAN_ASIMI_SN * 1000 )) ]; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                break
+            fi
+            if [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" = "200" ]; then
+                sure=$(( $(ms) - baslama ))
+                break
+            fi
+            sleep 0.05
+        done
+
+        kill "$pid" 2>/dev/null
+        wait "$pid" 2>/dev/null
+
+        if [ -z "$sure" ]; then
+            echo "$profil #$i: ilk yanıt alınamadı (log: $log)"
+            tail -20 "$log"
+            continue
+        fi
+        hazir=$(grep -a "BaslangicOlcumu - Uygulama" "$log" | grep -o "[0-9]* ms")
+        rm -f "$log"
+        echo "$profil #$i: ilk yanıt $sure ms (uygulama hazır: ${hazir:-?})"
+        toplam=$(( toplam + sure ))
+        basarili=$(( basarili + 1 ))
+    done
+    if [ "$basarili" -gt 0 ]; then
+        echo "$profil: ortalama ilk yanıt $(( toplam / basarili )) ms ($basarili ölçüm)"
+    fi
+done
@@ -1,10 +1,15 @@
 package com.alperen.kitapsatissistemi;
 
+import com.alperen.kitapsatissistemi.config.DataLoader;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import java.util.Arrays;
+
 /**
  * Alperen Sarıçayır Kitap Satış Sistemi
  * Java Spring Boot uygulaması
@@ -16,7 +21,14 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 public class KitapSatisSistemiApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(KitapSatisSistemiApplication.class, args);
+        SpringApplication uygulama = new SpringApplication(KitapSatisSistemiApplication.class);
+        if (Arrays.asList(args).contains(DataLoader.KOMUT)) {
+            // Örnek veri komutu: web sunucusu açılmaz, veriler yüklenince çıkılır
+            uygulama.setWebApplicationType(WebApplicationType.NONE);
+            ConfigurableApplicationContext context = uygulama.run(args);
+            System.exit(SpringApplication.exit(context));
+        }
+        uygulama.run(args);
     }
 
 }
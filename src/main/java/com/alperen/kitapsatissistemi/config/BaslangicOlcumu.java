@@ -0,0 +1,52 @@
+package com.alperen.kitapsatissistemi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Açılış ölçümü - JVM'in başlamasından uygulamanın hazır olmasına ve ilk isteğin
+ * tamamlanmasına kadar geçen süreyi loglar. Tembel başlatmada bean'lerin bir kısmı ilk
+ * istekte oluşturulduğu için asıl ölçüt ilk isteğin süresidir.
+ * Tekrarlı ölçüm için: scripts/baslangic-olcumu.sh
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BaslangicOlcumu extends OncePerRequestFilter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BaslangicOlcumu.class);
+
+    private final AtomicBoolean ilkIstekTamamlandi = new AtomicBoolean();
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        logger.info("Uygulama hazır: JVM açılışından {} ms sonra", ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!ilkIstekTamamlandi.get() && ilkIstekTamamlandi.compareAndSet(false, true)) {
+                logger.info("İlk istek tamamlandı ({} {} -> {}): JVM açılışından {} ms sonra",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        ManagementFactory.getRuntimeMXBean().getUptime());
+            }
+        }
+    }
+}
@@ -7,8 +7,9 @@ import com.alperen.kitapsatissistemi.repository.KategoriRepository;
 import com.alperen.kitapsatissistemi.repository.KitapRepository;
 import com.alperen.kitapsatissistemi.repository.KullaniciRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -17,28 +18,41 @@ import java.util.Arrays;
 import java.util.List;
 
 /**
- * DataLoader - Uygulama başlatıldığında örnek verileri yükler
+ * DataLoader - Örnek verileri yükler
  * .NET C# projesindeki DataSeeder'dan dönüştürülmüştür
+ * ornek-veri.yukle=false ise açılışta çalışmaz; yükleme ayrı bir komutla yapılır:
+ * java -jar app.jar ornek-veri
  */
 @Component
 public class DataLoader implements CommandLineRunner {
 
+    /**
+     * Yalnızca örnek verileri yükleyip çıkan komut satırı argümanı
+     */
+    public static final String KOMUT = "ornek-veri";
+
     private final KategoriRepository kategoriRepository;
     private final KitapRepository kitapRepository;
     private final KullaniciRepository kullaniciRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${ornek-veri.yukle:true}")
+    private boolean acilistaYukle;
 
     @Autowired
     public DataLoader(KategoriRepository kategoriRepository, KitapRepository kitapRepository, 
-                     KullaniciRepository kullaniciRepository) {
+                     KullaniciRepository kullaniciRepository, PasswordEncoder passwordEncoder) {
         this.kategoriRepository = kategoriRepository;
         this.kitapRepository = kitapRepository;
         this.kullaniciRepository = kullaniciRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordEncoder = passwordEncoder;
     }
 
     @Override
     public void run(String... args) throws Exception {
+        if (!acilistaYukle && !Arrays.asList(args).contains(KOMUT)) {
+            return;
+        }
         System.out.println("DataLoader run metodu çağrıldı");
         loadData();
     }
@@ -0,0 +1,92 @@
+package com.alperen.kitapsatissistemi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * SQLite DataSource Konfigürasyonu
+ * Veritabanı WAL modunda açılır: okuyucular yazıcıyı beklemez.
+ * SQLite aynı anda tek yazıcıya izin verdiği için yazma transaction'ları tek
+ * bağlantılı bir havuzdan, okumalar çok bağlantılı ayrı bir havuzdan geçer.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${sqlite.okuyucu-havuzu.boyut:8}")
+    private int okuyucuHavuzuBoyutu;
+
+    @Value("${sqlite.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Value("${sqlite.synchronous:NORMAL}")
+    private String synchronous;
+
+    @Value("${sqlite.cache-size:-16000}")
+    private int cacheSize;
+
+    @Value("${sqlite.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Value("${sqlite.temp-store:MEMORY}")
+    private String tempStore;
+
+    @Value("${siparis.arsiv.dosya:}")
+    private String arsivDosyasi;
+
+    // Flyway migration'ları yazıcı bağlantısından çalıştırır
+    @Bean(destroyMethod = "close")
+    @FlywayDataSource
+    public HikariDataSource yaziciDataSource() {
+        HikariDataSource dataSource = havuzOlustur("sqlite-yazici", 1);
+        // Yazma transaction'ları kilidi baştan alır; okumadan yazmaya geçerken SQLITE_BUSY oluşmaz
+        dataSource.addDataSourceProperty("transaction_mode", "IMMEDIATE");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource okuyucuDataSource() {
+        return havuzOlustur("sqlite-okuyucu", okuyucuHavuzuBoyutu);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("yaziciDataSource") DataSource yazici,
+                                 @Qualifier("okuyucuDataSource") DataSource okuyucu) {
+        OkumaYazmaDataSource yonlendirici = new OkumaYazmaDataSource(yazici, okuyucu);
+        yonlendirici.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(yonlendirici);
+    }
+
+    private HikariDataSource havuzOlustur(String ad, int boyut) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(ad);
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        dataSource.setJdbcUrl(url);
+        dataSource.setMaximumPoolSize(boyut);
+        dataSource.setMinimumIdle(1);
+        // Bağlantı bazlı PRAGMA'lar her yeni bağlantıda sürücü tarafından uygulanır
+        dataSource.addDataSourceProperty("journal_mode", "WAL");
+        dataSource.addDataSourceProperty("synchronous", synchronous);
+        dataSource.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMs));
+        dataSource.addDataSourceProperty("cache_size", String.valueOf(cacheSize));
+        dataSource.addDataSourceProperty("mmap_size", String.valueOf(mmapSize));
+        dataSource.addDataSourceProperty("temp_store", tempStore);
+        if (StringUtils.hasText(arsivDosyasi)) {
+            // Sipariş arşivi ayrı dosyadaysa her bağlantıya "arsiv" şeması olarak bağlanır
+            dataSource.setConnectionInitSql("ATTACH DATABASE '" + arsivDosyasi.replace("'", "''") + "' AS arsiv");
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,70 @@
+package com.alperen.kitapsatissistemi.config;
+
+import com.alperen.kitapsatissistemi.util.ZamanSiraliIdUretici;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ID Üretici Konfigürasyonu
+ * Tüm entity'ler ve JDBC ile yazılan satırlar tek bir zaman sıralı üreticiden ID alır.
+ * Birden fazla uygulama örneği aynı veritabanına yazıyorsa her birine farklı
+ * id.uretici.dugum-id verilmelidir.
+ *
+ * Geçiş: IDENTITY ile oluşmuş mevcut satırlar ID'lerini korur. Başlangıçta
+ * tablolardaki en büyük ID okunur ve üretici bunun üzerinden başlar; eski küçük
+ * ID'ler ile yeni ID'ler çakışmaz ve ID sırası oluşturma sırasını korur.
+ */
+@Configuration
+public class IdConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdConfig.class);
+
+    private static final List<String> ID_TABLOLARI = Arrays.asList(
+            "siparisler", "siparis_detaylari", "favoriler", "kitaplar", "kullanicilar", "kategoriler", "sepet_kalemleri");
+
+    @Bean
+    public ZamanSiraliIdUretici zamanSiraliIdUretici(@Value("${id.uretici.dugum-id:0}") int dugumId) {
+        ZamanSiraliIdUretici uretici = new ZamanSiraliIdUretici(dugumId);
+        ZamanSiraliIdUretici.setAktif(uretici);
+        return uretici;
+    }
+
+    /**
+     * EntityManagerFactory üretici hazır olmadan oluşturulmaz
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor zamanSiraliIdUreticiBagimliligi() {
+        return new EntityManagerFactoryDependsOnPostProcessor("zamanSiraliIdUretici") {
+        };
+    }
+
+    /**
+     * Şema güncellendikten sonra, ilk kayıtlar yazılmadan önce mevcut en büyük ID'leri oku
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void mevcutIdleriOku(ContextRefreshedEvent event) {
+        JdbcTemplate jdbcTemplate = event.getApplicationContext().getBean(JdbcTemplate.class);
+        ZamanSiraliIdUretici uretici = event.getApplicationContext().getBean(ZamanSiraliIdUretici.class);
+        for (String tablo : ID_TABLOLARI) {
+            try {
+                Long enBuyukId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + tablo, Long.class);
+                if (enBuyukId != null) {
+                    uretici.enAzindan(enBuyukId);
+                }
+            } catch (Exception e) {
+                logger.debug("{} tablosunun en büyük ID'si okunamadı: {}", tablo, e.getMessage());
+            }
+        }
+        logger.info("Zaman sıralı ID üretici hazır (düğüm {})", uretici.getDugumId());
+    }
+}
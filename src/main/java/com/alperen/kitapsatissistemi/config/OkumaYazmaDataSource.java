@@ -0,0 +1,38 @@
+package com.alperen.kitapsatissistemi.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Okuma/yazma yönlendirici DataSource.
+ * Yazma transaction'ları tek bağlantılı yazıcı havuzuna, readOnly transaction'lar
+ * ve transaction dışı okumalar (open-in-view lazy yüklemeleri gibi) okuyucu havuzuna gider.
+ * Karar bağlantı ilk kullanıldığında verilir; bu yüzden LazyConnectionDataSourceProxy
+ * arkasında kullanılmalıdır.
+ */
+public class OkumaYazmaDataSource extends AbstractRoutingDataSource {
+
+    private static final String YAZICI = "yazici";
+    private static final String OKUYUCU = "okuyucu";
+
+    public OkumaYazmaDataSource(DataSource yazici, DataSource okuyucu) {
+        Map<Object, Object> hedefler = new HashMap<>();
+        hedefler.put(YAZICI, yazici);
+        hedefler.put(OKUYUCU, okuyucu);
+        setTargetDataSources(hedefler);
+        setDefaultTargetDataSource(okuyucu);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return YAZICI;
+        }
+        return OKUYUCU;
+    }
+}
@@ -0,0 +1,32 @@
+package com.alperen.kitapsatissistemi.config;
+
+import com.alperen.kitapsatissistemi.service.SqliteOturumDeposu;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Session deposu konfigürasyonu - oturum.depo ile seçilir.
+ * tomcat (varsayılan): session'lar sunucu belleğinde tutulur; tek düğüm için en hızlısıdır.
+ * sqlite: session'lar paylaşılan veritabanında tutulur (SqliteOturumDeposu); istekler herhangi
+ * bir düğüme düşebilir, yeniden başlatmada session'lar kaybolmaz. Cookie adı SESSION olur.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "oturum.depo", havingValue = "sqlite")
+@EnableSpringHttpSession
+public class OturumConfig {
+
+    @Bean
+    public SqliteOturumDeposu sessionRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                                ServerProperties serverProperties) {
+        Duration zamanAsimi = serverProperties.getServlet().getSession().getTimeout();
+        return new SqliteOturumDeposu(jdbcTemplate, transactionTemplate,
+                zamanAsimi != null ? zamanAsimi : Duration.ofMinutes(30));
+    }
+}
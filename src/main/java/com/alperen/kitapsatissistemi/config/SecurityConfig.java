@@ -1,15 +1,24 @@
 package com.alperen.kitapsatissistemi.config;
 
+import com.alperen.kitapsatissistemi.security.JwtKimlikDogrulamaFiltresi;
 import com.alperen.kitapsatissistemi.security.RateLimitingFilter;
+import com.alperen.kitapsatissistemi.security.SifreKodlayici;
+import com.alperen.kitapsatissistemi.service.JwtService;
+import com.alperen.kitapsatissistemi.service.SifreMaliyetiDeposu;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -19,6 +28,8 @@ import java.util.Arrays;
 /**
  * Spring Security Konfigürasyonu
  * .NET C# projesindeki güvenlik ayarlarından uyarlanmıştır
+ * /api/** ayrı, durumsuz bir zincirden geçer: kimlik JWT (Authorization: Bearer) ile doğrulanır,
+ * session oluşturulmaz. Web sayfaları form girişi ve session ile çalışmaya devam eder.
  */
 @Configuration
 @EnableWebSecurity
@@ -27,6 +38,63 @@ public class SecurityConfig {
     @Autowired
     private RateLimitingFilter rateLimitingFilter;
 
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private SifreMaliyetiDeposu sifreMaliyetiDeposu;
+
+    // 0 ise BCrypt maliyeti hedef doğrulama süresine göre ölçülerek seçilir
+    @Value("${security.password.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${security.password.bcrypt.hedef-ms:250}")
+    private long bcryptHedefMs;
+
+    @Value("${security.password.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+
+    @Value("${security.password.bcrypt.max-strength:14}")
+    private int bcryptMaxStrength;
+
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+        http
+            .antMatcher("/api/**")
+            .cors().and()
+            .csrf().disable()
+            // API istekleri session oluşturmaz ve SecurityContext'i session'a yazmaz.
+            // Tarayıcıdan (admin sayfaları) gelen isteklerde mevcut session yine okunur.
+            .sessionManagement()
+                .sessionCreationPolicy(SessionCreationPolicy.NEVER)
+            .and()
+            .securityContext(securityContext -> securityContext.requireExplicitSave(true))
+            .requestCache()
+                .requestCache(new NullRequestCache())
+            .and()
+            .authorizeRequests()
+                // Public API endpoints
+                .antMatchers("/api/kullanicilar/register", "/api/kullanicilar/login").permitAll()
+                .antMatchers("/api/kullanicilar/token/yenile", "/api/kullanicilar/logout").permitAll()
+                .antMatchers("/api/kategoriler", "/api/kategoriler/*/kitaplar").permitAll()
+                .antMatchers("/api/kitaplar", "/api/kitaplar/*").permitAll()
+                // Protected API endpoints
+                .antMatchers("/api/favoriler/**", "/api/siparisler/**", "/api/siparis-detaylar/**").authenticated()
+                .antMatchers("/api/kullanicilar/**").authenticated()
+                .anyRequest().authenticated()
+            .and()
+            // Giriş sayfasına yönlendirmek yerine 401
+            .exceptionHandling()
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            .and()
+            .logout().disable()
+            .addFilterBefore(rateLimitingFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(new JwtKimlikDogrulamaFiltresi(jwtService), UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -46,10 +114,6 @@ public class SecurityConfig {
                 // Static resources
                 .antMatchers("/css/**", "/js/**", "/images/**", "/fonts/**", "/lib/**").permitAll()
                 .antMatchers("/favicon.ico").permitAll()
-                // Public API endpoints
-                .antMatchers("/api/kullanicilar/register", "/api/kullanicilar/login").permitAll()
-                .antMatchers("/api/kategoriler", "/api/kategoriler/*/kitaplar").permitAll()
-                .antMatchers("/api/kitaplar", "/api/kitaplar/*").permitAll()
                 // H2 Console (sadece development için)
                 .antMatchers("/h2-console/**").permitAll()
                 // Swagger UI
@@ -65,9 +129,6 @@ public class SecurityConfig {
                 // Sepet işlemleri - sepete ekleme herkese açık, diğerleri authentication gerekli
                 .antMatchers("/sepet/count", "/sepet/ekle").permitAll()
                 .antMatchers("/sepet/**", "/favoriler/**", "/siparisler/**").authenticated()
-                // Protected API endpoints
-                .antMatchers("/api/favoriler/**", "/api/siparisler/**", "/api/siparis-detaylar/**").authenticated()
-                .antMatchers("/api/kullanicilar/**").authenticated()
                 // Diğer tüm endpoint'ler için authentication gerekli
                 .anyRequest().authenticated()
             .and()
@@ -106,7 +167,8 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new SifreKodlayici(bcryptStrength, bcryptHedefMs, bcryptMinStrength, bcryptMaxStrength,
+                sifreMaliyetiDeposu);
     }
 
     @Bean
@@ -0,0 +1,82 @@
+package com.alperen.kitapsatissistemi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.ui.ModelMap;
+import org.springframework.web.context.request.AsyncWebRequestInterceptor;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Web MVC Konfigürasyonu
+ * Open-in-view, sipariş kabul ve giriş istekleri (POST) hariç tüm isteklerde açık tutulur.
+ * Bu istekler yazıcı thread'ini veya şifre doğrulama havuzunu beklerken JDBC bağlantısı
+ * tutmamalıdır; aksi halde bekleyen istekler bağlantı havuzunu tüketir.
+ * Asenkron isteklerde EntityManager, istek thread'i serbest kalırken ondan ayrılır.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final Set<String> SIPARIS_KABUL_YOLLARI =
+            new HashSet<>(Arrays.asList("/api/siparisler", "/sepet/siparis-tamamla"));
+
+    private static final Set<String> GIRIS_YOLLARI =
+            new HashSet<>(Arrays.asList("/api/kullanicilar/login", "/kullanici/login", "/admin/login"));
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public WebConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor openInView = new OpenEntityManagerInViewInterceptor();
+        openInView.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(new AsyncWebRequestInterceptor() {
+            @Override
+            public void preHandle(WebRequest request) {
+                if (!openInViewDisi(request)) {
+                    openInView.preHandle(request);
+                }
+            }
+
+            @Override
+            public void postHandle(WebRequest request, @Nullable ModelMap model) {
+            }
+
+            @Override
+            public void afterCompletion(WebRequest request, @Nullable Exception ex) {
+                if (!openInViewDisi(request)) {
+                    openInView.afterCompletion(request, ex);
+                }
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(WebRequest request) {
+                if (!openInViewDisi(request)) {
+                    openInView.afterConcurrentHandlingStarted(request);
+                }
+            }
+        });
+    }
+
+    private static boolean openInViewDisi(WebRequest request) {
+        if (!(request instanceof ServletWebRequest)) {
+            return false;
+        }
+        ServletWebRequest servletRequest = (ServletWebRequest) request;
+        String yol = servletRequest.getRequest().getServletPath();
+        return servletRequest.getHttpMethod() == HttpMethod.POST
+                && (SIPARIS_KABUL_YOLLARI.contains(yol) || GIRIS_YOLLARI.contains(yol));
+    }
+}
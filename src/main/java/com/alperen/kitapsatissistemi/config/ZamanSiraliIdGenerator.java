@@ -0,0 +1,23 @@
+package com.alperen.kitapsatissistemi.config;
+
+import com.alperen.kitapsatissistemi.util.ZamanSiraliIdUretici;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+
+/**
+ * Hibernate ID generator - entity ID'lerini uygulamada zaman sıralı olarak üretir.
+ * IDENTITY'den farklı olarak ID insert öncesi bilindiği için Hibernate
+ * insert'leri JDBC batch olarak gönderebilir.
+ */
+public class ZamanSiraliIdGenerator implements IdentifierGenerator {
+
+    public static final String AD = "zaman-sirali";
+    public static final String STRATEJI = "com.alperen.kitapsatissistemi.config.ZamanSiraliIdGenerator";
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return ZamanSiraliIdUretici.getAktif().sonrakiId();
+    }
+}
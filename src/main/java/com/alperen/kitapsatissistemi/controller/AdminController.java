@@ -1,22 +1,19 @@
 package com.alperen.kitapsatissistemi.controller;
 
 import com.alperen.kitapsatissistemi.entity.Kullanici;
-import com.alperen.kitapsatissistemi.entity.Kitap;
 import com.alperen.kitapsatissistemi.entity.Kategori;
-import com.alperen.kitapsatissistemi.entity.Siparis;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
 import com.alperen.kitapsatissistemi.service.KullaniciService;
-import com.alperen.kitapsatissistemi.service.KitapService;
-import com.alperen.kitapsatissistemi.service.KategoriService;
-import com.alperen.kitapsatissistemi.service.SiparisService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
-import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * AdminController - C# projesindeki admin panel'den dönüştürülmüştür
@@ -29,15 +26,6 @@ public class AdminController {
     @Autowired
     private KullaniciService kullaniciService;
     
-    @Autowired
-    private KitapService kitapService;
-    
-    @Autowired
-    private KategoriService kategoriService;
-    
-    @Autowired
-    private SiparisService siparisService;
-    
     /**
      * Admin giriş sayfası
      * GET /admin/login
@@ -54,26 +42,40 @@ public class AdminController {
     /**
      * Admin giriş işlemi
      * POST /admin/login
+     * Şifre doğrulaması ayrı havuzda yapılır, istek thread'i beklemeden serbest kalır.
      */
     @PostMapping("/login")
-    public String login(@RequestParam String email, 
+    public CompletableFuture<String> login(@RequestParam String email, 
                        @RequestParam String sifre,
                        HttpSession session,
-                       RedirectAttributes redirectAttributes) {
+                       RedirectAttributes redirectAttributes,
+                       Model model,
+                       HttpServletResponse response) {
+        CompletableFuture<Optional<Kullanici>> dogrulama;
         try {
-            Optional<Kullanici> kullanici = kullaniciService.authenticateKullanici(email, sifre);
-            
+            dogrulama = kullaniciService.authenticateKullanici(email, sifre);
+        } catch (KuyrukDoluException e) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            model.addAttribute("errorMessage", e.getMessage());
+            return CompletableFuture.completedFuture("admin/login");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Giriş sırasında bir hata oluştu!");
+            return CompletableFuture.completedFuture("redirect:/admin/login");
+        }
+        
+        return dogrulama.handle((kullanici, hata) -> {
+            if (hata != null) {
+                redirectAttributes.addFlashAttribute("error", "Giriş sırasında bir hata oluştu!");
+                return "redirect:/admin/login";
+            }
             if (kullanici.isPresent() && "Admin".equals(kullanici.get().getRol())) {
-                session.setAttribute("adminUser", kullanici.get());
+                session.setAttribute("adminUser", kullanici.get().oturumKopyasi());
                 return "redirect:/admin/dashboard";
-            } else {
-                redirectAttributes.addFlashAttribute("error", "Geçersiz admin bilgileri!");
-                return "redirect:/admin/login";
             }
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("error", "Giriş sırasında bir hata oluştu!");
+            redirectAttributes.addFlashAttribute("error", "Geçersiz admin bilgileri!");
             return "redirect:/admin/login";
-        }
+        });
     }
     
     /**
@@ -89,41 +91,12 @@ public class AdminController {
     }
     
     /**
-     * Admin dashboard
-     * GET /admin/dashboard
+     * Admin ana sayfası - dashboard AdminDashboardController'da
+     * GET /admin/
      */
-    @GetMapping({"/", "/dashboard"})
-    public String dashboard(HttpSession session, Model model) {
-        // Admin kontrolü
-        if (!isAdminLoggedIn(session)) {
-            return "redirect:/admin/login";
-        }
-        
-        try {
-            // Dashboard istatistikleri
-            long toplamKullanici = kullaniciService.getKullaniciCount();
-            long toplamKitap = kitapService.getKitapCount();
-            long toplamKategori = kategoriService.getKategoriCount();
-            long toplamSiparis = siparisService.getSiparisCount();
-            
-            // Son eklenen kayıtlar
-            List<Kullanici> sonKullanicilar = kullaniciService.getLatestKullanicilar(5);
-            List<Kitap> sonKitaplar = kitapService.getLatestKitaplar(5);
-            List<Siparis> sonSiparisler = siparisService.getLatestSiparisler(5);
-            
-            model.addAttribute("toplamKullanici", toplamKullanici);
-            model.addAttribute("toplamKitap", toplamKitap);
-            model.addAttribute("toplamKategori", toplamKategori);
-            model.addAttribute("toplamSiparis", toplamSiparis);
-            model.addAttribute("sonKullanicilar", sonKullanicilar);
-            model.addAttribute("sonKitaplar", sonKitaplar);
-            model.addAttribute("sonSiparisler", sonSiparisler);
-            
-            return "admin/dashboard";
-        } catch (Exception e) {
-            model.addAttribute("error", "Dashboard verileri yüklenirken hata oluştu!");
-            return "admin/dashboard";
-        }
+    @GetMapping("/")
+    public String dashboard() {
+        return "redirect:/admin/dashboard";
     }
     
     // Kullanıcı yönetimi AdminKullanicilarController'da yapılıyor
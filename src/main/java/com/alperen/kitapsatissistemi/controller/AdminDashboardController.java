@@ -1,19 +1,27 @@
 package com.alperen.kitapsatissistemi.controller;
 
-import com.alperen.kitapsatissistemi.entity.*;
-import com.alperen.kitapsatissistemi.service.*;
+import com.alperen.kitapsatissistemi.event.OlayYolu;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
+import com.alperen.kitapsatissistemi.service.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.servlet.http.HttpSession;
-import java.time.LocalDateTime;
-import java.time.format.TextStyle;
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * AdminDashboardController - .NET C# projesindeki AdminDashboardController'dan dönüştürülmüştür
@@ -22,17 +30,25 @@ import java.util.stream.Collectors;
 @RequestMapping("/admin")
 public class AdminDashboardController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminDashboardController.class);
+
     @Autowired
-    private KitapService kitapService;
+    private DashboardMetricsService dashboardMetricsService;
     
     @Autowired
-    private KategoriService kategoriService;
-    
+    private RaporService raporService;
+
     @Autowired
-    private KullaniciService kullaniciService;
-    
+    private SatisAnalizDeposu satisAnalizDeposu;
+
+    @Autowired
+    private ZamanSerisiService zamanSerisiService;
+
+    @Autowired
+    private CanliAkisService canliAkisService;
+
     @Autowired
-    private SiparisService siparisService;
+    private OlayYolu olayYolu;
 
     /**
      * Admin dashboard ana sayfası
@@ -46,72 +62,28 @@ public class AdminDashboardController {
         }
         
         try {
-            // Temel istatistikler
-            long totalBooks = kitapService.count();
-            long totalCategories = kategoriService.count();
-            long totalUsers = kullaniciService.count();
-            long totalOrders = siparisService.count();
-            
-            // Bu ay sipariş sayısı
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime startOfMonth = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-            long thisMonthOrders = siparisService.getSiparislerAfterDate(startOfMonth).size();
-            
-            // Kategori dağılımını hesapla
-            Map<String, Integer> kategoriDagilimi = new LinkedHashMap<>();
-            List<Kategori> kategoriler = kategoriService.getAllKategoriler();
-            for (Kategori kategori : kategoriler) {
-                long kitapSayisi = kitapService.getKitapCountByKategoriId(kategori.getId());
-                kategoriDagilimi.put(kategori.getAd(), (int) kitapSayisi);
-            }
-            
-            // Aylık sipariş verilerini hesapla (son 6 ay)
-            Map<String, Integer> aylikSiparisler = new LinkedHashMap<>();
-            for (int i = 5; i >= 0; i--) {
-                LocalDateTime ay = now.minusMonths(i);
-                String ayAdi = ay.getMonth().getDisplayName(TextStyle.FULL, new Locale("tr", "TR"));
-                
-                LocalDateTime ayBaslangic = ay.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-                LocalDateTime ayBitis = ay.withDayOfMonth(ay.toLocalDate().lengthOfMonth()).withHour(23).withMinute(59).withSecond(59);
-                
-                List<Siparis> aySiparisleri = siparisService.getSiparislerAfterDate(ayBaslangic)
-                    .stream()
-                    .filter(s -> s.getSiparisTarihi().isBefore(ayBitis))
-                    .collect(Collectors.toList());
-                
-                aylikSiparisler.put(ayAdi, aySiparisleri.size());
-            }
-            
-            // Son siparişler (son 5)
-            List<Siparis> sonSiparisler = siparisService.getAllSiparislerWithDetails()
-                .stream()
-                .sorted((s1, s2) -> s2.getSiparisTarihi().compareTo(s1.getSiparisTarihi()))
-                .limit(5)
-                .collect(Collectors.toList());
-            
-            // Popüler kitaplar (ilk 5)
-            List<Kitap> populerKitaplar = kitapService.getAllKitaplarWithKategori()
-                .stream()
-                .limit(5)
-                .collect(Collectors.toList());
+            // Tüm sayılar önceden hesaplanmış özetten okunur
+            DashboardMetricsService.Ozet ozet = dashboardMetricsService.getOzet();
             
             // Grafik verileri için JavaScript array formatında hazırla
-            List<String> aylikSiparislerLabels = new ArrayList<>(aylikSiparisler.keySet());
-            List<Integer> aylikSiparislerValues = new ArrayList<>(aylikSiparisler.values());
+            List<String> aylikSiparislerLabels = new ArrayList<>(ozet.getAylikSiparisler().keySet());
+            List<Integer> aylikSiparislerValues = new ArrayList<>(ozet.getAylikSiparisler().values());
             
-            List<String> kategoriLabels = new ArrayList<>(kategoriDagilimi.keySet());
-            List<Integer> kategoriValues = new ArrayList<>(kategoriDagilimi.values());
+            List<String> kategoriLabels = new ArrayList<>(ozet.getKategoriDagilimi().keySet());
+            List<Integer> kategoriValues = new ArrayList<>(ozet.getKategoriDagilimi().values());
             
             // Model'e ekle
-            model.addAttribute("totalBooks", totalBooks);
-            model.addAttribute("totalCategories", totalCategories);
-            model.addAttribute("totalUsers", totalUsers);
-            model.addAttribute("totalOrders", totalOrders);
-            model.addAttribute("thisMonthOrders", thisMonthOrders);
-            model.addAttribute("kategoriDagilimi", kategoriDagilimi);
-            model.addAttribute("aylikSiparisler", aylikSiparisler);
-            model.addAttribute("sonSiparisler", sonSiparisler);
-            model.addAttribute("populerKitaplar", populerKitaplar);
+            model.addAttribute("kullaniciCount", ozet.getKullaniciSayisi());
+            model.addAttribute("kitapCount", ozet.getKitapSayisi());
+            model.addAttribute("kategoriCount", ozet.getKategoriSayisi());
+            model.addAttribute("siparisCount", ozet.getSiparisSayisi());
+            model.addAttribute("thisMonthOrders", ozet.getBuAySiparisSayisi());
+            model.addAttribute("kategoriDagilimi", ozet.getKategoriDagilimi());
+            model.addAttribute("aylikSiparisler", ozet.getAylikSiparisler());
+            model.addAttribute("latestKullanicilar", ozet.getSonKullanicilar());
+            model.addAttribute("latestKitaplar", ozet.getSonKitaplar());
+            model.addAttribute("latestSiparisler", ozet.getSonSiparisler());
+            model.addAttribute("ozetZamani", ozet.getOlusturmaZamani());
             
             // Grafik verileri
             model.addAttribute("aylikSiparislerLabels", aylikSiparislerLabels);
@@ -130,6 +102,51 @@ public class AdminDashboardController {
         return "admin/dashboard";
     }
 
+    /**
+     * Sipariş zaman serisi (JSON) - bellekteki halkalardan, veritabanına gitmeden
+     * GET /admin/dashboard/zaman-serisi?aralik=saat|hafta
+     */
+    @GetMapping("/dashboard/zaman-serisi")
+    @ResponseBody
+    public ResponseEntity<Object> zamanSerisi(@RequestParam(defaultValue = ZamanSerisiService.SAAT) String aralik,
+                                              HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Collections.singletonMap("error", "Bu işlem için admin yetkisi gereklidir"));
+        }
+        return ResponseEntity.ok(zamanSerisiService.getSeri(aralik));
+    }
+
+    /**
+     * Olay yolu metrikleri (JSON) - abone başına işlenen olay, gecikme, hız, hata ve kayıp
+     * GET /admin/dashboard/olay-yolu
+     */
+    @GetMapping("/dashboard/olay-yolu")
+    @ResponseBody
+    public ResponseEntity<Object> olayYoluMetrikleri(HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Collections.singletonMap("error", "Bu işlem için admin yetkisi gereklidir"));
+        }
+        return ResponseEntity.ok(olayYolu.getMetrikler());
+    }
+
+    /**
+     * Canlı akış (Server-Sent Events) - sipariş, stok, kullanıcı olayları ve periyodik metrikler
+     * GET /admin/dashboard/canli
+     */
+    @GetMapping(value = "/dashboard/canli", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> canliAkis(HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(canliAkisService.baglan());
+        } catch (KuyrukDoluException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     /**
      * Admin raporlar sayfası
      * GET /admin/raporlar
@@ -142,91 +159,69 @@ public class AdminDashboardController {
         }
         
         try {
-            // API'den verileri çek
-            List<Kitap> kitaplar = kitapService.getAllKitaplarWithKategori();
-            List<Kullanici> kullanicilar = kullaniciService.getAllKullanicilar();
-            List<Kategori> kategoriler = kategoriService.getAllKategoriler();
-            List<Siparis> siparisler = siparisService.getAllSiparislerWithDetails();
-            
-            // Rapor verilerini hesapla
-            long toplamKitap = kitaplar.size();
-            long toplamKullanici = kullanicilar.size();
-            long toplamKategori = kategoriler.size();
-            
-            LocalDateTime now = LocalDateTime.now();
-            long buAySiparis = siparisler.stream()
-                .filter(s -> s.getSiparisTarihi().getMonth() == now.getMonth() && 
-                           s.getSiparisTarihi().getYear() == now.getYear())
-                .count();
-            
-            // Son siparişler (son 5)
-            List<Siparis> sonSiparisler = siparisler.stream()
-                .sorted((s1, s2) -> s2.getSiparisTarihi().compareTo(s1.getSiparisTarihi()))
-                .limit(5)
-                .collect(Collectors.toList());
-            
-            // Popüler kitaplar (ilk 5 - daha sonra sipariş verilerine göre güncellenebilir)
-            List<Kitap> populerKitaplar = kitaplar.stream()
-                .limit(5)
-                .collect(Collectors.toList());
-            
-            // Kategori dağılımını hesapla
-            Map<String, Integer> kategoriDagilimi = new LinkedHashMap<>();
-            for (Kategori kategori : kategoriler) {
-                long kategoriKitapSayisi = kitaplar.stream()
-                    .filter(k -> k.getKategori() != null && k.getKategori().getId().equals(kategori.getId()))
-                    .count();
-                kategoriDagilimi.put(kategori.getAd(), (int) kategoriKitapSayisi);
-            }
-            
-            // Aylık sipariş verilerini hesapla (son 6 ay)
-            Map<String, Integer> aylikSiparisler = new LinkedHashMap<>();
-            for (int i = 5; i >= 0; i--) {
-                LocalDateTime ay = now.minusMonths(i);
-                String ayAdi = ay.getMonth().getDisplayName(TextStyle.FULL, new Locale("tr", "TR"));
-                long aySiparisSayisi = siparisler.stream()
-                    .filter(s -> s.getSiparisTarihi().getMonth() == ay.getMonth() && 
-                               s.getSiparisTarihi().getYear() == ay.getYear())
-                    .count();
-                aylikSiparisler.put(ayAdi, (int) aySiparisSayisi);
-            }
-            
-            // Model'e ekle
-            model.addAttribute("toplamKitap", toplamKitap);
-            model.addAttribute("toplamKullanici", toplamKullanici);
-            model.addAttribute("toplamKategori", toplamKategori);
-            model.addAttribute("buAySiparis", buAySiparis);
-            model.addAttribute("sonSiparisler", sonSiparisler);
-            model.addAttribute("populerKitaplar", populerKitaplar);
-            model.addAttribute("kategoriDagilimi", kategoriDagilimi);
-            model.addAttribute("aylikSiparisler", aylikSiparisler);
-            
-            System.out.println("Toplam Kitap: " + toplamKitap);
-            System.out.println("Kategori Dağılımı: " + kategoriDagilimi.entrySet().stream()
-                .map(entry -> entry.getKey() + ":" + entry.getValue())
-                .collect(Collectors.joining(", ")));
-            System.out.println("Aylık Siparişler: " + aylikSiparisler.entrySet().stream()
-                .map(entry -> entry.getKey() + ":" + entry.getValue())
-                .collect(Collectors.joining(", ")));
-            
+            // Özet sayılar rapor motorundan; kayıtlar belleğe yüklenmez
+            @SuppressWarnings("unchecked")
+            Map<String, Object> sayilar = (Map<String, Object>) ((Map<String, Object>) raporService
+                    .calistir(Collections.singletonList(RaporService.OZET), null, null)
+                    .get(RaporService.OZET)).get("sayilar");
+            model.addAttribute("totalBooks", sayilar.get("kitap"));
+            model.addAttribute("totalCategories", sayilar.get("kategori"));
+            model.addAttribute("totalUsers", sayilar.get("kullanici"));
+            model.addAttribute("totalOrders", sayilar.get("siparis"));
         } catch (Exception ex) {
-            System.out.println("Rapor verileri yüklenirken hata: " + ex.getMessage());
-            ex.printStackTrace();
-            // Hata durumunda boş değerler
-            model.addAttribute("toplamKitap", 0);
-            model.addAttribute("toplamKullanici", 0);
-            model.addAttribute("toplamKategori", 0);
-            model.addAttribute("buAySiparis", 0);
-            model.addAttribute("sonSiparisler", new ArrayList<>());
-            model.addAttribute("populerKitaplar", new ArrayList<>());
-            model.addAttribute("kategoriDagilimi", new HashMap<>());
-            model.addAttribute("aylikSiparisler", new HashMap<>());
+            logger.error("Rapor verileri yüklenirken hata: {}", ex.getMessage(), ex);
+            model.addAttribute("errorMessage", "Rapor verileri yüklenirken hata oluştu");
         }
         
+        model.addAttribute("raporlar", RaporService.RAPORLAR);
         model.addAttribute("title", "Raporlar");
         return "admin/raporlar";
     }
 
+    /**
+     * Rapor verisi (JSON) - seçilen raporlar paralel hesaplanır
+     * GET /admin/raporlar/veri?rapor=kitap&rapor=kategori&baslangic=2024-01-01&bitis=2024-01-31
+     */
+    @GetMapping("/raporlar/veri")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> raporVerisi(@RequestParam("rapor") List<String> rapor,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate baslangic,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bitis,
+                                                           HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Collections.singletonMap("error", "Bu işlem için admin yetkisi gereklidir"));
+        }
+        return ResponseEntity.ok(raporService.calistir(rapor, baslangic, bitis));
+    }
+
+    /**
+     * Onaylı satış analizi (JSON) - bellek içi kolon deposundan
+     * GET /admin/raporlar/analiz?grup=kategori|yazar|kitap|musteri|ay&baslangic=2024-01-01&bitis=2024-01-31&limit=10
+     */
+    @GetMapping("/raporlar/analiz")
+    @ResponseBody
+    public ResponseEntity<Object> satisAnalizi(@RequestParam String grup,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate baslangic,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bitis,
+                                               @RequestParam(defaultValue = "0") int limit,
+                                               HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Collections.singletonMap("error", "Bu işlem için admin yetkisi gereklidir"));
+        }
+        SatisAnalizDeposu.Grup analizGrubu;
+        try {
+            analizGrubu = SatisAnalizDeposu.Grup.valueOf(grup.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Geçersiz grup: " + grup);
+        }
+        if (baslangic != null && bitis != null && bitis.isBefore(baslangic)) {
+            throw new BusinessException("Bitiş tarihi başlangıç tarihinden önce olamaz");
+        }
+        return ResponseEntity.ok(satisAnalizDeposu.topla(analizGrubu, baslangic, bitis, Math.max(0, limit)));
+    }
+
     // Removed duplicate '/admin/ayarlar' mapping to avoid ambiguity; handled in AdminController.
 
     /**
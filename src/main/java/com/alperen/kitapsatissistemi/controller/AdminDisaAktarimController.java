@@ -0,0 +1,86 @@
+package com.alperen.kitapsatissistemi.controller;
+
+import com.alperen.kitapsatissistemi.entity.Kullanici;
+import com.alperen.kitapsatissistemi.service.DisaAktarimService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * AdminDisaAktarimController - tabloların tamamını akışlı CSV olarak indirir
+ * GET /admin/disa-aktar/{siparis|kitap|kullanici|favori}?baslangic=&bitis=&durum=&sonId=
+ */
+@Controller
+@RequestMapping("/admin/disa-aktar")
+public class AdminDisaAktarimController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminDisaAktarimController.class);
+
+    private static final DateTimeFormatter DOSYA_ZAMANI = DateTimeFormatter.ofPattern("yyyyMMdd-HHmm");
+
+    @Autowired
+    private DisaAktarimService disaAktarimService;
+
+    /**
+     * Kayıtları CSV olarak indir. Kesilen indirme, dosyadaki son id sonId olarak verilerek sürdürülür.
+     */
+    @GetMapping("/{tip}")
+    public void disaAktar(@PathVariable String tip,
+                          @RequestParam(required = false) Long sonId,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate baslangic,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bitis,
+                          @RequestParam(required = false) String durum,
+                          HttpSession session, HttpServletResponse response) throws IOException {
+        if (!isAdmin(session)) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Bu işlem için admin girişi gerekli");
+            return;
+        }
+        DisaAktarimService.Aktarim aktarim = disaAktarimService.hazirla(tip, sonId, baslangic, bitis, durum);
+
+        String dosyaAdi = aktarim.getTip() + "-" + LocalDateTime.now().format(DOSYA_ZAMANI)
+                + (sonId != null ? "-" + sonId : "") + ".csv";
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + dosyaAdi + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        Writer cikti = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            long satirSayisi = disaAktarimService.yaz(aktarim, cikti);
+            logger.info("Dışa aktarım tamamlandı: {} ({} satır)", dosyaAdi, satirSayisi);
+        } catch (IOException e) {
+            // Yanıt başladıktan sonra hata gövdesi yazılamaz; istemci sonId ile sürdürebilir
+            logger.info("Dışa aktarım yarıda kesildi: {} ({})", dosyaAdi, e.getMessage());
+        }
+    }
+
+    /**
+     * Admin kontrolü yardımcı metodu
+     */
+    private boolean isAdmin(HttpSession session) {
+        Kullanici adminUser = (Kullanici) session.getAttribute("adminUser");
+        Boolean isAdmin = (Boolean) session.getAttribute("IsAdmin");
+        String rol = (String) session.getAttribute("KullaniciRol");
+        return (adminUser != null && "Admin".equals(adminUser.getRol()))
+                || (isAdmin != null && isAdmin) || "Admin".equals(rol);
+    }
+}
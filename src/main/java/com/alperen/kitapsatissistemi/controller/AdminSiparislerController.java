@@ -4,6 +4,7 @@ import com.alperen.kitapsatissistemi.entity.Siparis;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
 import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
 import com.alperen.kitapsatissistemi.service.SiparisService;
+import com.alperen.kitapsatissistemi.service.TopluIslemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.servlet.http.HttpSession;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,6 +29,9 @@ public class AdminSiparislerController {
     @Autowired
     private SiparisService siparisService;
 
+    @Autowired
+    private TopluIslemService topluIslemService;
+
     /**
      * Admin siparişler listesi
      * GET /admin/siparisler
@@ -159,6 +164,39 @@ public class AdminSiparislerController {
         return "redirect:/admin/siparisler";
     }
 
+    /**
+     * Seçilen siparişlere toplu işlem (approve, ship, deliver, cancel, delete)
+     * POST /admin/siparisler/bulk/{islem}
+     */
+    @PostMapping("/bulk/{islem}")
+    public String bulk(@PathVariable String islem,
+                       @RequestParam(required = false) List<Long> siparisIds,
+                       HttpSession session,
+                       RedirectAttributes redirectAttributes) {
+        // Admin kontrolü
+        if (!isAdmin(session)) {
+            return "redirect:/admin/login";
+        }
+
+        try {
+            TopluIslemService.TopluIslem topluIslem =
+                    topluIslemService.gonder(TopluIslemService.TIP_SIPARIS, islem, siparisIds);
+            if (!topluIslemService.bekle(topluIslem, 2000)) {
+                redirectAttributes.addFlashAttribute("successMessage",
+                        topluIslem.getToplam() + " sipariş için işlem arka planda devam ediyor. Takip No: " + topluIslem.getId());
+            } else if (TopluIslemService.TopluIslem.HATA.equals(topluIslem.getDurum())) {
+                redirectAttributes.addFlashAttribute("errorMessage", "Toplu işlem başarısız: " + topluIslem.getMesaj());
+            } else {
+                redirectAttributes.addFlashAttribute("successMessage",
+                        topluIslem.getEtkilenen() + " sipariş güncellendi.");
+            }
+        } catch (BusinessException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+
+        return "redirect:/admin/siparisler";
+    }
+
     /**
      * Admin kontrolü yardımcı metodu
      */
@@ -0,0 +1,174 @@
+package com.alperen.kitapsatissistemi.controller;
+
+import com.alperen.kitapsatissistemi.entity.Kullanici;
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import com.alperen.kitapsatissistemi.service.TopluIslemService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpSession;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * AdminTopluIslemController - admin tablolarındaki toplu işlemler
+ * admin.js executeBulkAction {action, items} gönderir; kayıt tipi gövdedeki
+ * "tip" alanından ya da isteğin geldiği admin sayfasından belirlenir.
+ */
+@RestController
+@RequestMapping("/admin/bulk-action")
+public class AdminTopluIslemController {
+
+    // Admin sayfası yolu -> kayıt tipi
+    private static final Map<String, String> SAYFA_TIPLERI = new HashMap<>();
+
+    static {
+        SAYFA_TIPLERI.put("/admin/siparisler", TopluIslemService.TIP_SIPARIS);
+        SAYFA_TIPLERI.put("/admin/kitaplar", TopluIslemService.TIP_KITAP);
+        SAYFA_TIPLERI.put("/admin/kullanicilar", TopluIslemService.TIP_KULLANICI);
+        SAYFA_TIPLERI.put("/admin/favoriler", TopluIslemService.TIP_FAVORI);
+    }
+
+    @Autowired
+    private TopluIslemService topluIslemService;
+
+    @Value("${admin.toplu-islem.yanit-bekleme-ms:2000}")
+    private long yanitBeklemeMs;
+
+    /**
+     * Toplu işlem başlat
+     * POST /admin/bulk-action
+     * Kısa sürede biten işlemler 200, devam edenler 202 ve takip bilgisi döner.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> baslat(@RequestBody Map<String, Object> istek,
+                                                      @RequestHeader(value = HttpHeaders.REFERER, required = false) String referer,
+                                                      HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(hata("Bu işlem için admin girişi gerekli"));
+        }
+        String tip = istek.get("tip") != null ? istek.get("tip").toString() : sayfaTipi(referer);
+        String islem = istek.get("action") != null ? istek.get("action").toString() : null;
+
+        TopluIslemService.TopluIslem topluIslem = topluIslemService.gonder(tip, islem, idleriOku(istek.get("items")));
+        if (!topluIslemService.bekle(topluIslem, yanitBeklemeMs)) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(durumu(topluIslem));
+        }
+        if (TopluIslemService.TopluIslem.HATA.equals(topluIslem.getDurum())) {
+            return ResponseEntity.badRequest().body(durumu(topluIslem));
+        }
+        return ResponseEntity.ok(durumu(topluIslem));
+    }
+
+    /**
+     * Toplu işlem ilerlemesi
+     * GET /admin/bulk-action/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> durum(@PathVariable String id, HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(hata("Bu işlem için admin girişi gerekli"));
+        }
+        Optional<TopluIslemService.TopluIslem> topluIslem = topluIslemService.getIslem(id);
+        return topluIslem.map(islem -> ResponseEntity.ok(durumu(islem)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(hata("Toplu işlem bulunamadı")));
+    }
+
+    /**
+     * Dışa aktarma sonucunu CSV olarak indir
+     * GET /admin/bulk-action/{id}/export
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<Resource> disaAktarim(@PathVariable String id, HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Optional<TopluIslemService.TopluIslem> topluIslem = topluIslemService.getIslem(id);
+        if (!topluIslem.isPresent() || topluIslem.get().getDisaAktarim() == null
+                || !Files.exists(topluIslem.get().getDisaAktarim())) {
+            return ResponseEntity.notFound().build();
+        }
+        String dosyaAdi = topluIslem.get().getTip() + "-" + id.substring(0, 8) + ".csv";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + dosyaAdi + "\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(new FileSystemResource(topluIslem.get().getDisaAktarim()));
+    }
+
+    private Map<String, Object> durumu(TopluIslemService.TopluIslem topluIslem) {
+        Map<String, Object> durum = new LinkedHashMap<>();
+        durum.put("id", topluIslem.getId());
+        durum.put("tip", topluIslem.getTip());
+        durum.put("action", topluIslem.getIslem());
+        durum.put("durum", topluIslem.getDurum());
+        durum.put("toplam", topluIslem.getToplam());
+        durum.put("islenen", topluIslem.getIslenen());
+        durum.put("etkilenen", topluIslem.getEtkilenen());
+        durum.put("yuzde", topluIslem.getYuzde());
+        if (topluIslem.getMesaj() != null) {
+            durum.put("message", topluIslem.getMesaj());
+        }
+        if (topluIslem.getDisaAktarim() != null) {
+            durum.put("exportUrl", "/admin/bulk-action/" + topluIslem.getId() + "/export");
+        }
+        return durum;
+    }
+
+    private Map<String, Object> hata(String mesaj) {
+        Map<String, Object> hata = new HashMap<>();
+        hata.put("success", false);
+        hata.put("message", mesaj);
+        return hata;
+    }
+
+    private String sayfaTipi(String referer) {
+        if (referer == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : SAYFA_TIPLERI.entrySet()) {
+            if (referer.contains(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private List<Long> idleriOku(Object items) {
+        if (!(items instanceof List)) {
+            throw new BusinessException("Seçilen kayıtlar (items) liste olmalıdır");
+        }
+        List<Long> idler = new ArrayList<>();
+        for (Object item : (List<?>) items) {
+            try {
+                idler.add(Long.valueOf(item.toString().trim()));
+            } catch (NumberFormatException | NullPointerException e) {
+                throw new BusinessException("Geçersiz kayıt ID'si: " + item);
+            }
+        }
+        return idler;
+    }
+
+    /**
+     * Admin kontrolü yardımcı metodu
+     */
+    private boolean isAdmin(HttpSession session) {
+        Kullanici adminUser = (Kullanici) session.getAttribute("adminUser");
+        Boolean isAdmin = (Boolean) session.getAttribute("IsAdmin");
+        String rol = (String) session.getAttribute("KullaniciRol");
+        return (adminUser != null && "Admin".equals(adminUser.getRol()))
+                || (isAdmin != null && isAdmin) || "Admin".equals(rol);
+    }
+}
@@ -1,7 +1,10 @@
 package com.alperen.kitapsatissistemi.controller;
 
+import com.alperen.kitapsatissistemi.dto.TokenYaniti;
 import com.alperen.kitapsatissistemi.entity.Kullanici;
+import com.alperen.kitapsatissistemi.service.JwtService;
 import com.alperen.kitapsatissistemi.service.KullaniciService;
+import com.alperen.kitapsatissistemi.service.YenilemeTokeniService;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,6 +16,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * KullaniciController - .NET C# projesindeki API controller'dan dönüştürülmüştür
@@ -23,10 +27,15 @@ import java.util.Optional;
 public class KullaniciController {
     
     private final KullaniciService kullaniciService;
+    private final JwtService jwtService;
+    private final YenilemeTokeniService yenilemeTokeniService;
     
     @Autowired
-    public KullaniciController(KullaniciService kullaniciService) {
+    public KullaniciController(KullaniciService kullaniciService, JwtService jwtService,
+                               YenilemeTokeniService yenilemeTokeniService) {
         this.kullaniciService = kullaniciService;
+        this.jwtService = jwtService;
+        this.yenilemeTokeniService = yenilemeTokeniService;
     }
     
     /**
@@ -172,27 +181,64 @@ public class KullaniciController {
     /**
      * Kullanıcı girişi
      * POST /api/kullanicilar/login
+     * Şifre doğrulaması ayrı havuzda yapılır; havuz doluysa 503 döner.
+     * Yanıtta erişim token'ı (Authorization: Bearer) ve yenileme token'ı döner; session oluşturulmaz.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> loginKullanici(@RequestBody Map<String, String> loginRequest) {
-        try {
-            String email = loginRequest.get("email");
-            String sifre = loginRequest.get("sifre");
-            
-            Optional<Kullanici> kullanici = kullaniciService.authenticateKullanici(email, sifre);
-            
-            if (kullanici.isPresent()) {
-                Kullanici k = kullanici.get();
-                k.setSifreHash(null); // Şifre hash'ini gizle
-                return ResponseEntity.ok(k);
-            } else {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                                    .body("Email veya şifre hatalı");
-            }
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                .body("Giriş sırasında bir hata oluştu");
+    public CompletableFuture<ResponseEntity<?>> loginKullanici(@RequestBody Map<String, String> loginRequest) {
+        String email = loginRequest.get("email");
+        String sifre = loginRequest.get("sifre");
+        
+        // KuyrukDoluException GlobalExceptionHandler'da 503'e çevrilir
+        return kullaniciService.authenticateKullanici(email, sifre)
+                .<ResponseEntity<?>>thenApply(kullanici -> {
+                    if (kullanici.isPresent()) {
+                        Kullanici k = kullanici.get();
+                        return ResponseEntity.ok(tokenYaniti(k, yenilemeTokeniService.olustur(k.getId())));
+                    }
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                        .body("Email veya şifre hatalı");
+                })
+                .exceptionally(e -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body("Giriş sırasında bir hata oluştu"));
+    }
+    
+    /**
+     * Erişim token'ını yenile; gönderilen yenileme token'ı geçersiz olur, yenisi döner
+     * POST /api/kullanicilar/token/yenile
+     */
+    @PostMapping("/token/yenile")
+    public ResponseEntity<?> tokenYenile(@RequestBody Map<String, String> istek) {
+        Optional<YenilemeTokeniService.Yenileme> yenileme = yenilemeTokeniService.yenile(istek.get("yenilemeTokeni"));
+        if (!yenileme.isPresent()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body("Yenileme token'ı geçersiz veya süresi dolmuş");
         }
+        // Rol değişiklikleri ve silinen kullanıcılar yenilemede yakalanır
+        Optional<Kullanici> kullanici = kullaniciService.getKullaniciById(yenileme.get().getKullaniciId());
+        if (!kullanici.isPresent()) {
+            yenilemeTokeniService.iptalEt(yenileme.get().getYenilemeTokeni());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body("Yenileme token'ı geçersiz veya süresi dolmuş");
+        }
+        return ResponseEntity.ok(tokenYaniti(kullanici.get(), yenileme.get().getYenilemeTokeni()));
+    }
+    
+    /**
+     * API çıkışı - yenileme token'ı ve aynı girişten türeyenler iptal edilir.
+     * Erişim token'ı kısa ömürlüdür, süresi dolana kadar geçerli kalır.
+     * POST /api/kullanicilar/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logoutKullanici(@RequestBody Map<String, String> istek) {
+        yenilemeTokeniService.iptalEt(istek.get("yenilemeTokeni"));
+        return ResponseEntity.noContent().build();
+    }
+    
+    private TokenYaniti tokenYaniti(Kullanici kullanici, String yenilemeTokeni) {
+        String erisimTokeni = jwtService.erisimTokeniUret(kullanici);
+        kullanici.setSifreHash(null); // Şifre hash'ini gizle
+        return new TokenYaniti(erisimTokeni, jwtService.getErisimSuresiSaniye(), yenilemeTokeni, kullanici);
     }
     
     /**
@@ -11,6 +11,7 @@ import com.alperen.kitapsatissistemi.dto.RegisterRequest;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
 import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
 import com.alperen.kitapsatissistemi.exception.DuplicateEntityException;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -20,14 +21,18 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.servlet.http.HttpSession;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 
 /**
  * KullaniciWebController - Kullanıcı web sayfaları için controller
@@ -62,24 +67,43 @@ public class KullaniciWebController {
     /**
      * Kullanıcı giriş işlemi
      * POST /kullanici/login
+     * Şifre doğrulaması ayrı havuzda yapılır, istek thread'i beklemeden serbest kalır.
      */
     @PostMapping("/login")
-    public String login(@Valid @ModelAttribute LoginRequest loginRequest,
+    public CompletableFuture<String> login(@Valid @ModelAttribute LoginRequest loginRequest,
                        BindingResult bindingResult,
                        HttpSession session,
                         RedirectAttributes redirectAttributes,
                         Model model,
-                        HttpServletRequest request) {
+                        HttpServletRequest request,
+                        HttpServletResponse response) {
         String ipAddress = securityAuditService.getClientIpAddress(request);
         String userAgent = securityAuditService.getUserAgent(request);
         
         if (bindingResult.hasErrors()) {
             model.addAttribute("title", "Kullanıcı Girişi");
-            return "kullanici/login";
+            return CompletableFuture.completedFuture("kullanici/login");
         }
         
+        CompletableFuture<Optional<Kullanici>> dogrulama;
         try {
-            Optional<Kullanici> kullaniciOpt = kullaniciService.authenticateKullanici(loginRequest.getEmail(), loginRequest.getSifre());
+            dogrulama = kullaniciService.authenticateKullanici(loginRequest.getEmail(), loginRequest.getSifre());
+        } catch (KuyrukDoluException e) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            return CompletableFuture.completedFuture(loginSayfasi(model, e.getMessage()));
+        } catch (BusinessException e) {
+            return CompletableFuture.completedFuture(loginSayfasi(model, e.getMessage()));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(loginSayfasi(model, "Giriş sırasında bir hata oluştu: " + e.getMessage()));
+        }
+        
+        // Devamı şifre doğrulama thread'inde çalışır; request nesnesine dokunulmaz
+        return dogrulama.handle((kullaniciOpt, hata) -> {
+            if (hata != null) {
+                Throwable neden = hata.getCause() != null ? hata.getCause() : hata;
+                return loginSayfasi(model, "Giriş sırasında bir hata oluştu: " + neden.getMessage());
+            }
             
             if (kullaniciOpt.isPresent()) {
                 Kullanici kullanici = kullaniciOpt.get();
@@ -100,7 +124,10 @@ public class KullaniciWebController {
                         null,
                         java.util.Collections.singletonList(authority)
                 );
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                // Bu thread'in SecurityContextHolder'ı bu isteğe ait değil; context doğrudan session'a yazılır
+                SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+                securityContext.setAuthentication(authentication);
+                session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, securityContext);
                 
                 securityAuditService.logSuccessfulLogin(loginRequest.getEmail(), ipAddress, userAgent);
                 redirectAttributes.addFlashAttribute("successMessage", "Başarıyla giriş yaptınız!");
@@ -112,16 +139,15 @@ public class KullaniciWebController {
                 }
                 
                 return "redirect:/";
-            } else {
-                securityAuditService.logFailedLogin(loginRequest.getEmail(), ipAddress, userAgent, "Invalid credentials");
-                model.addAttribute("errorMessage", "Email veya şifre hatalı.");
             }
-        } catch (BusinessException e) {
-            model.addAttribute("errorMessage", e.getMessage());
-        } catch (Exception e) {
-            model.addAttribute("errorMessage", "Giriş sırasında bir hata oluştu: " + e.getMessage());
-        }
-        
+            
+            securityAuditService.logFailedLogin(loginRequest.getEmail(), ipAddress, userAgent, "Invalid credentials");
+            return loginSayfasi(model, "Email veya şifre hatalı.");
+        });
+    }
+
+    private String loginSayfasi(Model model, String hataMesaji) {
+        model.addAttribute("errorMessage", hataMesaji);
         model.addAttribute("title", "Kullanıcı Girişi");
         return "kullanici/login";
     }
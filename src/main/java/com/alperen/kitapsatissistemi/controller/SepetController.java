@@ -2,12 +2,10 @@ package com.alperen.kitapsatissistemi.controller;
 
 import com.alperen.kitapsatissistemi.entity.Kitap;
 import com.alperen.kitapsatissistemi.entity.SepetItem;
-import com.alperen.kitapsatissistemi.entity.SiparisDetay;
 import com.alperen.kitapsatissistemi.entity.Siparis;
 import com.alperen.kitapsatissistemi.service.KitapService;
-import com.alperen.kitapsatissistemi.service.SiparisService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.alperen.kitapsatissistemi.service.SepetService;
+import com.alperen.kitapsatissistemi.service.SiparisKuyrugu;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -27,22 +25,25 @@ public class SepetController {
     private KitapService kitapService;
     
     @Autowired
-    private SiparisService siparisService;
+    private SepetService sepetService;
 
-    private static final String SEPET_SESSION_KEY = "Sepet";
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private SiparisKuyrugu siparisKuyrugu;
+
+    // Kuyrukta yazılmayı bekleyen siparişin takip numarası
+    private static final String BEKLEYEN_SIPARIS = "BekleyenSiparisTakipNo";
 
     // Sepetim sayfasını gösterecek metot
     @GetMapping
     public String index(Model model, HttpSession session) {
-        List<SepetItem> sepet = getSepetFromSession(session);
-        model.addAttribute("sepetItems", sepet);
+        bekleyenSiparisiKontrolEt(model, session);
+        model.addAttribute("sepetItems", sepetService.getSepet(session).getItems());
         return "sepet/index";
     }
 
     // Sepete ürün ekleme
     @PostMapping("/ekle")
-    public String sepeteEkle(@RequestParam int kitapId, 
+    public String sepeteEkle(@RequestParam long kitapId, 
                            @RequestParam(defaultValue = "1") int adet,
                            HttpSession session,
                            RedirectAttributes redirectAttributes,
@@ -60,7 +61,7 @@ public class SepetController {
             }
 
             // Kitabı getir
-            Optional<Kitap> kitapOpt = kitapService.findById((long) kitapId);
+            Optional<Kitap> kitapOpt = kitapService.findById(kitapId);
             if (!kitapOpt.isPresent()) {
                 redirectAttributes.addFlashAttribute("errorMessage", "Kitap bulunamadı!");
                 return "redirect:" + request.getHeader("Referer");
@@ -68,31 +69,13 @@ public class SepetController {
 
             Kitap kitap = kitapOpt.get();
 
-            // Sepeti session'dan al
-            List<SepetItem> sepet = getSepetFromSession(session);
-
-            // Kitap zaten sepette mi kontrol et
-            Optional<SepetItem> mevcutItem = sepet.stream()
-                    .filter(item -> item.getKitapId() == kitapId)
-                    .findFirst();
-
-            if (mevcutItem.isPresent()) {
-                // Adetini artır
-                mevcutItem.get().setAdet(mevcutItem.get().getAdet() + adet);
-            } else {
-                // Yeni SepetItem oluştur
-                SepetItem yeniItem = new SepetItem(
-                        kitapId,
-                        kitap.getAd(),
-                        kitap.getFiyat(),
-                        adet,
-                        kitap.getResimUrl()
-                );
-                sepet.add(yeniItem);
+            // Adet minimum 1 olmalı
+            if (adet <= 0) {
+                adet = 1;
             }
 
-            // Sepeti session'a geri kaydet
-            saveSepetToSession(session, sepet);
+            // Kitap zaten sepetteyse adedi artar, yoksa yeni satır eklenir
+            sepetService.ekle(session, kitap, adet);
 
             redirectAttributes.addFlashAttribute("successMessage", kitap.getAd() + " sepete eklendi!");
             return "redirect:" + request.getHeader("Referer");
@@ -107,26 +90,19 @@ public class SepetController {
     @GetMapping("/count")
     @ResponseBody
     public int getSepetItemCount(HttpSession session) {
-        List<SepetItem> sepet = getSepetFromSession(session);
-        return sepet.stream().mapToInt(SepetItem::getAdet).sum();
+        return sepetService.getToplamAdet(session);
     }
 
     // Sepetten ürün silme metodu
     @PostMapping("/sil")
-    public String sepettenSil(@RequestParam int kitapId, 
+    public String sepettenSil(@RequestParam long kitapId, 
                              HttpSession session,
                              RedirectAttributes redirectAttributes) {
-        List<SepetItem> sepet = getSepetFromSession(session);
-        
-        Optional<SepetItem> silinecekItem = sepet.stream()
-                .filter(item -> item.getKitapId() == kitapId)
-                .findFirst();
+        SepetItem silinenItem = sepetService.kaldir(session, kitapId);
 
-        if (silinecekItem.isPresent()) {
-            sepet.remove(silinecekItem.get());
-            saveSepetToSession(session, sepet);
+        if (silinenItem != null) {
             redirectAttributes.addFlashAttribute("infoMessage", 
-                    silinecekItem.get().getKitapAd() + " sepetten kaldırıldı.");
+                    silinenItem.getKitapAd() + " sepetten kaldırıldı.");
         }
         
         return "redirect:/sepet";
@@ -135,29 +111,21 @@ public class SepetController {
     // Sepetteki ürün adedini güncelleme metodu
     @PostMapping("/adet-guncelle")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> adetGuncelle(@RequestParam int kitapId, 
+    public ResponseEntity<Map<String, Object>> adetGuncelle(@RequestParam long kitapId, 
                                                            @RequestParam int adet,
                                                            HttpSession session) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            List<SepetItem> sepet = getSepetFromSession(session);
-            
-            Optional<SepetItem> guncellenecekItem = sepet.stream()
-                    .filter(item -> item.getKitapId() == kitapId)
-                    .findFirst();
+            // Adet minimum 1 olmalı
+            if (adet <= 0) {
+                adet = 1;
+            }
 
-            if (guncellenecekItem.isPresent()) {
-                // Adet minimum 1 olmalı
-                if (adet <= 0) {
-                    adet = 1;
-                }
-                
-                guncellenecekItem.get().setAdet(adet);
-                saveSepetToSession(session, sepet);
-                
+            SepetItem guncellenenItem = sepetService.adetGuncelle(session, kitapId, adet);
+            if (guncellenenItem != null) {
                 response.put("success", true);
-                response.put("message", guncellenecekItem.get().getKitapAd() + " adedi " + adet + " olarak güncellendi.");
+                response.put("message", guncellenenItem.getKitapAd() + " adedi " + adet + " olarak güncellendi.");
                 response.put("yeniAdet", adet);
             } else {
                 response.put("success", false);
@@ -174,7 +142,7 @@ public class SepetController {
     // Siparişi Tamamla (GET)
     @GetMapping("/siparis-tamamla")
     public String siparisiTamamla(Model model, HttpSession session, RedirectAttributes redirectAttributes) {
-        List<SepetItem> sepet = getSepetFromSession(session);
+        List<SepetItem> sepet = sepetService.getSepet(session).getItems();
         
         if (sepet.isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage", "Sepetiniz boş!");
@@ -182,6 +150,8 @@ public class SepetController {
         }
         
         model.addAttribute("sepetItems", sepet);
+        // Form çift gönderilirse ikinci gönderim aynı siparişin yanıtını alır (IdempotencyFilter)
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "sepet/siparis-tamamla";
     }
 
@@ -199,7 +169,7 @@ public class SepetController {
                                      @RequestParam(required = false) String sozlesme,
                                      HttpSession session,
                                      RedirectAttributes redirectAttributes) {
-        List<SepetItem> sepet = getSepetFromSession(session);
+        List<SepetItem> sepet = sepetService.getSepet(session).getItems();
         
         if (sepet.isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage", "Sepetiniz boş!");
@@ -227,6 +197,13 @@ public class SepetController {
             return "redirect:/kullanici/login";
         }
 
+        // Önceki sipariş hala kuyruktaysa aynı sepet ikinci kez gönderilmez
+        String bekleyenTakipNo = (String) session.getAttribute(BEKLEYEN_SIPARIS);
+        if (bekleyenTakipNo != null && siparisKuyrugu.getTalep(bekleyenTakipNo)
+                .map(talep -> !talep.getSonuc().isDone()).orElse(false)) {
+            return "redirect:/sepet";
+        }
+
         // Sözleşme kabul kontrolü
         if (sozlesme == null || !"on".equals(sozlesme)) {
             redirectAttributes.addFlashAttribute("errorMessage", "Kullanım şartlarını kabul etmelisiniz!");
@@ -234,24 +211,16 @@ public class SepetController {
         }
 
         try {
-            // Sipariş detaylarını hazırla
-            List<SiparisDetay> siparisDetaylari = new ArrayList<>();
-            for (SepetItem item : sepet) {
-                // Kitap nesnesini al
-                Optional<Kitap> kitapOpt = kitapService.getKitapById((long) item.getKitapId());
-                if (kitapOpt.isPresent()) {
-                    SiparisDetay detay = new SiparisDetay();
-                    detay.setKitap(kitapOpt.get());
-                    detay.setAdet(item.getAdet());
-                    detay.setFiyat(item.getFiyat());
-                    siparisDetaylari.add(detay);
-                } else {
-                    throw new RuntimeException("Kitap bulunamadı: " + item.getKitapId());
-                }
+            // Sipariş doğrulanıp yazıcı kuyruğuna alınır; kitaplar tek sorguda yüklenir
+            // ve satırlar güncel fiyatla yeniden hesaplanır
+            SiparisKuyrugu.SiparisTalebi talep = siparisKuyrugu.gonder(kullaniciId, sepet);
+            Optional<Siparis> kaydedilen = siparisKuyrugu.sonucuBekle(talep);
+            if (!kaydedilen.isPresent()) {
+                // Sipariş henüz yazılmadı; sepet ancak yazıldığı doğrulanınca temizlenir
+                session.setAttribute(BEKLEYEN_SIPARIS, talep.getTakipNo());
+                return "redirect:/sepet";
             }
-            
-            // Siparişi kaydet
-            Siparis yeniSiparis = siparisService.createSiparis(kullaniciId, siparisDetaylari);
+            Siparis yeniSiparis = kaydedilen.get();
             
             System.out.println("=== SİPARİŞ KAYDED İLDİ ===" );
             System.out.println("Sipariş ID: " + yeniSiparis.getId());
@@ -261,7 +230,7 @@ public class SepetController {
             System.out.println("=========================");
             
             // Sepeti temizle
-            saveSepetToSession(session, new ArrayList<>());
+            sepetService.temizle(session);
             
             redirectAttributes.addFlashAttribute("successMessage", "Siparişiniz başarıyla tamamlandı! Sipariş No: " + yeniSiparis.getId() + " - Teslimat adresi: " + il + ", " + ilce);
             return "redirect:/sepet";
@@ -277,27 +246,34 @@ public class SepetController {
         }
     }
 
-    // Sepet içeriğini Session'dan okuyan yardımcı metot
-    private List<SepetItem> getSepetFromSession(HttpSession session) {
-        try {
-            String sepetJson = (String) session.getAttribute(SEPET_SESSION_KEY);
-            if (sepetJson == null || sepetJson.isEmpty()) {
-                return new ArrayList<>();
-            }
-            return objectMapper.readValue(sepetJson, new TypeReference<List<SepetItem>>() {});
-        } catch (Exception e) {
-            return new ArrayList<>();
+    // Kuyruktaki siparişin sonucuna göre sepeti temizle veya bekleme durumunu göster
+    private void bekleyenSiparisiKontrolEt(Model model, HttpSession session) {
+        String takipNo = (String) session.getAttribute(BEKLEYEN_SIPARIS);
+        if (takipNo == null) {
+            return;
         }
-    }
-
-    // Sepet içeriğini Session'a yazan yardımcı metot
-    private void saveSepetToSession(HttpSession session, List<SepetItem> sepet) {
-        try {
-            String sepetJson = objectMapper.writeValueAsString(sepet);
-            session.setAttribute(SEPET_SESSION_KEY, sepetJson);
-        } catch (Exception e) {
-            // Hata durumunda boş sepet kaydet
-            session.setAttribute(SEPET_SESSION_KEY, "[]");
+        Optional<SiparisKuyrugu.SiparisTalebi> talep = siparisKuyrugu.getTalep(takipNo);
+        if (!talep.isPresent()) {
+            // Takip kaydı yok (ör. sunucu yeniden başladı) - sepet korunur
+            session.removeAttribute(BEKLEYEN_SIPARIS);
+            model.addAttribute("errorMessage", "Siparişinizin durumu doğrulanamadı (Takip No: " + takipNo
+                    + "). Sepetiniz korundu, lütfen siparişlerinizi kontrol edin.");
+            return;
+        }
+        switch (talep.get().getDurum()) {
+            case "TAMAMLANDI":
+                session.removeAttribute(BEKLEYEN_SIPARIS);
+                sepetService.temizle(session);
+                model.addAttribute("successMessage", "Siparişiniz başarıyla tamamlandı! Sipariş No: "
+                        + talep.get().getSiparis().getId());
+                break;
+            case "HATA":
+                session.removeAttribute(BEKLEYEN_SIPARIS);
+                model.addAttribute("errorMessage", "Siparişiniz kaydedilemedi. Sepetiniz korundu, lütfen tekrar deneyin.");
+                break;
+            default:
+                model.addAttribute("bekleyenTakipNo", takipNo);
+                model.addAttribute("infoMessage", "Siparişiniz alındı ve işleniyor. Takip No: " + takipNo);
         }
     }
 }
@@ -1,12 +1,12 @@
 package com.alperen.kitapsatissistemi.controller;
 
+import com.alperen.kitapsatissistemi.dto.MusteriSiralamasi;
+import com.alperen.kitapsatissistemi.entity.SepetItem;
 import com.alperen.kitapsatissistemi.entity.Siparis;
-import com.alperen.kitapsatissistemi.entity.SiparisDetay;
-import com.alperen.kitapsatissistemi.entity.Kitap;
+import com.alperen.kitapsatissistemi.service.SiparisKuyrugu;
 import com.alperen.kitapsatissistemi.service.SiparisService;
-import com.alperen.kitapsatissistemi.service.KitapService;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
-import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,12 +31,12 @@ import java.util.stream.Collectors;
 public class SiparisController {
     
     private final SiparisService siparisService;
-    private final KitapService kitapService;
+    private final SiparisKuyrugu siparisKuyrugu;
     
     @Autowired
-    public SiparisController(SiparisService siparisService, KitapService kitapService) {
+    public SiparisController(SiparisService siparisService, SiparisKuyrugu siparisKuyrugu) {
         this.siparisService = siparisService;
-        this.kitapService = kitapService;
+        this.siparisKuyrugu = siparisKuyrugu;
     }
     
     /**
@@ -163,21 +164,26 @@ public class SiparisController {
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> detaylarMap = (List<Map<String, Object>>) request.get("siparisDetaylari");
             
-            List<SiparisDetay> siparisDetaylari = detaylarMap.stream()
+            // Fiyatlar istemciden alınmaz; sipariş hazırlanırken güncel kitap fiyatı kullanılır
+            List<SepetItem> satirlar = detaylarMap.stream()
                     .map(detayMap -> {
-                        SiparisDetay detay = new SiparisDetay();
-                        Long kitapId = Long.valueOf(detayMap.get("kitapId").toString());
-                        Kitap kitap = kitapService.getKitapById(kitapId)
-                            .orElseThrow(() -> new RuntimeException("Kitap bulunamadı: " + kitapId));
-                        detay.setKitap(kitap);
-                        detay.setAdet(Integer.valueOf(detayMap.get("adet").toString()));
-                        detay.setFiyat(new BigDecimal(detayMap.get("fiyat").toString()));
-                        return detay;
+                        SepetItem item = new SepetItem();
+                        item.setKitapId(Long.parseLong(detayMap.get("kitapId").toString()));
+                        item.setAdet(Integer.parseInt(detayMap.get("adet").toString()));
+                        return item;
                     })
                     .collect(Collectors.toList());
             
-            Siparis yeniSiparis = siparisService.createSiparis(kullaniciId, siparisDetaylari);
-            return ResponseEntity.status(HttpStatus.CREATED).body(yeniSiparis);
+            SiparisKuyrugu.SiparisTalebi talep = siparisKuyrugu.gonder(kullaniciId, satirlar);
+            Optional<Siparis> yeniSiparis = siparisKuyrugu.sonucuBekle(talep);
+            if (yeniSiparis.isPresent()) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(talepDurumu(talep));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(talepDurumu(talep));
+        } catch (KuyrukDoluException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header("Retry-After", "1")
+                                .body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
@@ -186,6 +192,17 @@ public class SiparisController {
         }
     }
     
+    /**
+     * Kuyruğa alınmış siparişin durumunu getir
+     * GET /api/siparisler/kuyruk/{takipNo}
+     */
+    @GetMapping("/kuyruk/{takipNo}")
+    public ResponseEntity<Map<String, Object>> getKuyrukDurumu(@PathVariable String takipNo) {
+        return siparisKuyrugu.getTalep(takipNo)
+                .map(talep -> ResponseEntity.ok(talepDurumu(talep)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     /**
      * Sipariş durumunu güncelle
      * PUT /api/siparisler/{id}/durum
@@ -311,14 +328,16 @@ public class SiparisController {
     }
     
     /**
-     * En çok sipariş veren kullanıcıları getir
-     * GET /api/siparisler/top-customers
+     * En çok harcama yapan müşterileri getir
+     * GET /api/siparisler/top-customers?limit=10
      */
     @GetMapping("/top-customers")
-    public ResponseEntity<List<Object[]>> getTopCustomers() {
+    public ResponseEntity<List<MusteriSiralamasi>> getTopCustomers(@RequestParam(defaultValue = "10") int limit) {
         try {
-            List<Object[]> topCustomers = siparisService.getTopCustomers();
+            List<MusteriSiralamasi> topCustomers = siparisService.getTopCustomers(limit);
             return ResponseEntity.ok(topCustomers);
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -337,4 +356,16 @@ public class SiparisController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    private Map<String, Object> talepDurumu(SiparisKuyrugu.SiparisTalebi talep) {
+        Map<String, Object> durum = new HashMap<>();
+        durum.put("takipNo", talep.getTakipNo());
+        durum.put("durum", talep.getDurum());
+        if (talep.getSonuc().isDone() && !talep.getSonuc().isCompletedExceptionally()) {
+            durum.put("siparisId", talep.getSiparis().getId());
+            durum.put("toplamTutar", talep.getSiparis().getToplamTutar());
+            durum.put("siparisDurumu", talep.getSiparis().getDurum());
+        }
+        return durum;
+    }
 }
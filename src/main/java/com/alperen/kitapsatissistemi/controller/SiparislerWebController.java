@@ -1,14 +1,17 @@
 package com.alperen.kitapsatissistemi.controller;
 
+import com.alperen.kitapsatissistemi.dto.SiparisOzet;
 import com.alperen.kitapsatissistemi.entity.Siparis;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
 import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
 import com.alperen.kitapsatissistemi.service.SiparisService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.util.List;
 import java.util.Optional;
@@ -23,12 +26,17 @@ public class SiparislerWebController {
     @Autowired
     private SiparisService siparisService;
 
+    @Value("${siparis.gecmis.sayfa-boyutu:10}")
+    private int sayfaBoyutu;
+
     /**
-     * Kullanıcının siparişleri sayfası
-     * GET /siparisler
+     * Kullanıcının siparişleri sayfası (yeniden eskiye, sayfa sayfa)
+     * GET /siparisler?once={id}
+     * Liste sadece özet alanları yükler; "once" bir önceki sayfanın son sipariş ID'sidir.
      */
     @GetMapping
-    public String index(Model model, HttpSession session) {
+    public String index(@RequestParam(value = "once", required = false) Long once,
+                        Model model, HttpSession session) {
         // Kullanıcı giriş kontrolü
         Long kullaniciId = (Long) session.getAttribute("KullaniciId");
         if (kullaniciId == null) {
@@ -36,8 +44,14 @@ public class SiparislerWebController {
         }
         
         try {
-            List<Siparis> siparisler = siparisService.getSiparislerByKullaniciIdWithDetails(kullaniciId);
+            // Bir fazlası istenir; gelirse sonraki sayfa vardır
+            List<SiparisOzet> siparisler = siparisService.getSiparisGecmisi(kullaniciId, once, sayfaBoyutu + 1);
+            if (siparisler.size() > sayfaBoyutu) {
+                siparisler = siparisler.subList(0, sayfaBoyutu);
+                model.addAttribute("sonrakiImlec", siparisler.get(sayfaBoyutu - 1).getId());
+            }
             model.addAttribute("siparisler", siparisler);
+            model.addAttribute("ilkSayfa", once == null);
             model.addAttribute("title", "Siparişlerim");
         } catch (BusinessException e) {
             model.addAttribute("errorMessage", e.getMessage());
@@ -48,6 +62,27 @@ public class SiparislerWebController {
         return "siparisler/index";
     }
 
+    /**
+     * Sipariş satırları (liste sayfasında sipariş açıldığında yüklenir)
+     * GET /siparisler/{id}/satirlar
+     * Satırlar ve kitapları tek sorguda getirilir.
+     */
+    @GetMapping("/{id}/satirlar")
+    public String satirlar(@PathVariable Long id, Model model, HttpSession session, HttpServletResponse response) {
+        Long kullaniciId = (Long) session.getAttribute("KullaniciId");
+        if (kullaniciId == null) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return "siparisler/index :: satirlar";
+        }
+        Optional<Siparis> siparisOpt = siparisService.getSiparisSatirlari(id);
+        if (!siparisOpt.isPresent() || !kullaniciId.equals(siparisOpt.get().getKullaniciId())) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return "siparisler/index :: satirlar";
+        }
+        model.addAttribute("satirlar", siparisOpt.get().getSiparisDetaylari());
+        return "siparisler/index :: satirlar";
+    }
+
     /**
      * Sipariş detay sayfası
      * GET /siparisler/{id}
@@ -0,0 +1,44 @@
+package com.alperen.kitapsatissistemi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * MusteriSiralamasi - en çok harcama yapan müşteriler listesinin bir satırı
+ * Onaylı siparişlerden hesaplanır; sıralama tablosunda paylaşıldığı için değiştirilemez.
+ */
+public class MusteriSiralamasi {
+    private final Long kullaniciId;
+    private final String adSoyad;
+    private final String email;
+    private final long siparisSayisi;
+    private final BigDecimal toplamHarcama;
+
+    public MusteriSiralamasi(Long kullaniciId, String adSoyad, String email, long siparisSayisi, BigDecimal toplamHarcama) {
+        this.kullaniciId = kullaniciId;
+        this.adSoyad = adSoyad;
+        this.email = email;
+        this.siparisSayisi = siparisSayisi;
+        this.toplamHarcama = toplamHarcama != null ? toplamHarcama : BigDecimal.ZERO;
+    }
+
+    // Getters
+    public Long getKullaniciId() {
+        return kullaniciId;
+    }
+
+    public String getAdSoyad() {
+        return adSoyad;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public long getSiparisSayisi() {
+        return siparisSayisi;
+    }
+
+    public BigDecimal getToplamHarcama() {
+        return toplamHarcama;
+    }
+}
@@ -0,0 +1,68 @@
+package com.alperen.kitapsatissistemi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * SiparisOzet - sipariş geçmişi listesinde gösterilen alanlar
+ * Satırlar yüklenmez; sadece satır sayısı taşınır.
+ */
+public class SiparisOzet {
+    private Long id;
+    private LocalDateTime siparisTarihi;
+    private BigDecimal toplamTutar;
+    private String durum;
+    private long satirSayisi;
+
+    // Constructors
+    public SiparisOzet() {}
+
+    public SiparisOzet(Long id, LocalDateTime siparisTarihi, BigDecimal toplamTutar, String durum, Long satirSayisi) {
+        this.id = id;
+        this.siparisTarihi = siparisTarihi;
+        this.toplamTutar = toplamTutar;
+        this.durum = durum;
+        this.satirSayisi = satirSayisi != null ? satirSayisi : 0;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getSiparisTarihi() {
+        return siparisTarihi;
+    }
+
+    public void setSiparisTarihi(LocalDateTime siparisTarihi) {
+        this.siparisTarihi = siparisTarihi;
+    }
+
+    public BigDecimal getToplamTutar() {
+        return toplamTutar;
+    }
+
+    public void setToplamTutar(BigDecimal toplamTutar) {
+        this.toplamTutar = toplamTutar;
+    }
+
+    public String getDurum() {
+        return durum;
+    }
+
+    public void setDurum(String durum) {
+        this.durum = durum;
+    }
+
+    public long getSatirSayisi() {
+        return satirSayisi;
+    }
+
+    public void setSatirSayisi(long satirSayisi) {
+        this.satirSayisi = satirSayisi;
+    }
+}
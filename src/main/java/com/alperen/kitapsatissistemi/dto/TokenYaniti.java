@@ -0,0 +1,42 @@
+package com.alperen.kitapsatissistemi.dto;
+
+import com.alperen.kitapsatissistemi.entity.Kullanici;
+
+/**
+ * API girişi ve token yenileme yanıtı
+ */
+public class TokenYaniti {
+
+    private final String tokenTipi = "Bearer";
+    private final String erisimTokeni;
+    private final long erisimSuresiSaniye;
+    private final String yenilemeTokeni;
+    private final Kullanici kullanici;
+
+    public TokenYaniti(String erisimTokeni, long erisimSuresiSaniye, String yenilemeTokeni, Kullanici kullanici) {
+        this.erisimTokeni = erisimTokeni;
+        this.erisimSuresiSaniye = erisimSuresiSaniye;
+        this.yenilemeTokeni = yenilemeTokeni;
+        this.kullanici = kullanici;
+    }
+
+    public String getTokenTipi() {
+        return tokenTipi;
+    }
+
+    public String getErisimTokeni() {
+        return erisimTokeni;
+    }
+
+    public long getErisimSuresiSaniye() {
+        return erisimSuresiSaniye;
+    }
+
+    public String getYenilemeTokeni() {
+        return yenilemeTokeni;
+    }
+
+    public Kullanici getKullanici() {
+        return kullanici;
+    }
+}
@@ -1,5 +1,8 @@
 package com.alperen.kitapsatissistemi.entity;
 
+import com.alperen.kitapsatissistemi.config.ZamanSiraliIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 
@@ -11,7 +14,9 @@ import javax.validation.constraints.NotNull;
 public class Favori {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ZamanSiraliIdGenerator.AD)
+    @GenericGenerator(name = ZamanSiraliIdGenerator.AD, strategy = ZamanSiraliIdGenerator.STRATEJI)
+    @Column(name = "id", columnDefinition = "integer")
     private Long id;
     
     @NotNull(message = "Kullanıcı zorunludur.")
@@ -1,5 +1,8 @@
 package com.alperen.kitapsatissistemi.entity;
 
+import com.alperen.kitapsatissistemi.config.ZamanSiraliIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import java.math.BigDecimal;
@@ -12,7 +15,9 @@ import java.math.BigDecimal;
 public class Kitap {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ZamanSiraliIdGenerator.AD)
+    @GenericGenerator(name = ZamanSiraliIdGenerator.AD, strategy = ZamanSiraliIdGenerator.STRATEJI)
+    @Column(name = "id", columnDefinition = "integer")
     private Long id;
     
     @NotBlank(message = "Kitap adı zorunludur.")
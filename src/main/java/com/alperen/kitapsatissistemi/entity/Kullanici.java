@@ -1,7 +1,11 @@
 package com.alperen.kitapsatissistemi.entity;
 
+import com.alperen.kitapsatissistemi.config.ZamanSiraliIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 /**
@@ -9,10 +13,14 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "kullanicilar")
-public class Kullanici {
+public class Kullanici implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ZamanSiraliIdGenerator.AD)
+    @GenericGenerator(name = ZamanSiraliIdGenerator.AD, strategy = ZamanSiraliIdGenerator.STRATEJI)
+    @Column(name = "id", columnDefinition = "integer")
     private Long id;
     
     @NotBlank(message = "Ad soyad zorunludur.")
@@ -116,6 +124,16 @@ public class Kullanici {
         return "User".equalsIgnoreCase(this.rol);
     }
     
+    /**
+     * Session'da tutulacak kopya - şifre hash'ini taşımaz
+     */
+    public Kullanici oturumKopyasi() {
+        Kullanici kopya = new Kullanici(adSoyad, email, null, rol);
+        kopya.setId(id);
+        kopya.setKayitTarihi(kayitTarihi);
+        return kopya;
+    }
+    
     @PrePersist
     protected void onCreate() {
         if (kayitTarihi == null) {
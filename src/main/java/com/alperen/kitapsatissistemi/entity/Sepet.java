@@ -0,0 +1,283 @@
+package com.alperen.kitapsatissistemi.entity;
+
+import com.alperen.kitapsatissistemi.util.BirlestirilebilirOzellik;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Session'da tutulan sepet - kitap ID ve adetleri primitive dizilerde saklar.
+ * Tüm değişiklikler sepet nesnesi üzerinde kilitlenir; toplam adet her
+ * değişiklikte güncellenir, böylece sayaç okuması kilitsizdir.
+ * Serileştirme sadece session diske/başka bir node'a yazılırken yapılır.
+ * Paylaşılan session deposundan okunan kopya, üzerinde yapılan işlemleri kaydeder; depo
+ * bu işlemleri veritabanındaki güncel sepete uygular, böylece eşzamanlı istekler birbirinin
+ * değişikliğini ezmez.
+ */
+public class Sepet implements Serializable, BirlestirilebilirOzellik {
+
+    private static final long serialVersionUID = 1L;
+    private static final int BASLANGIC_KAPASITE = 4;
+    // Bu kadar işlemden sonra kopyanın kendisi yazılır
+    private static final int MAX_ISLEM = 64;
+
+    private final Long kullaniciId;
+
+    private transient long[] kitapIdleri = new long[BASLANGIC_KAPASITE];
+    private transient int[] adetler = new int[BASLANGIC_KAPASITE];
+    private transient BigDecimal[] fiyatlar = new BigDecimal[BASLANGIC_KAPASITE];
+    private transient String[] kitapAdlari = new String[BASLANGIC_KAPASITE];
+    private transient String[] resimUrlleri = new String[BASLANGIC_KAPASITE];
+    private transient int boyut;
+    private transient volatile int toplamAdet;
+    // Yalnızca serileştirmeden okunan kopyada tutulur; bellekteki sepet kayıt tutmaz
+    private transient List<Consumer<Sepet>> islemler;
+
+    public Sepet() {
+        this(null);
+    }
+
+    public Sepet(Long kullaniciId) {
+        this.kullaniciId = kullaniciId;
+    }
+
+    /**
+     * Sepetin sahibi olan kullanıcı (giriş yapılmadan oluşturulduysa null)
+     */
+    public Long getKullaniciId() {
+        return kullaniciId;
+    }
+
+    /**
+     * Sepete kitap ekle; kitap zaten varsa adedini artır
+     */
+    public synchronized void ekle(long kitapId, String kitapAd, BigDecimal fiyat, String resimUrl, int adet) {
+        islemKaydet(s -> s.ekle(kitapId, kitapAd, fiyat, resimUrl, adet));
+        int index = indexOf(kitapId);
+        if (index >= 0) {
+            adetler[index] += adet;
+        } else {
+            kapasiteSagla(boyut + 1);
+            kitapIdleri[boyut] = kitapId;
+            adetler[boyut] = adet;
+            fiyatlar[boyut] = fiyat;
+            kitapAdlari[boyut] = kitapAd;
+            resimUrlleri[boyut] = resimUrl;
+            boyut++;
+        }
+        toplamAdet += adet;
+    }
+
+    /**
+     * Kitabın adedini güncelle, güncellenen satırı döndür
+     */
+    public synchronized SepetItem adetGuncelle(long kitapId, int adet) {
+        int index = indexOf(kitapId);
+        if (index < 0) {
+            return null;
+        }
+        islemKaydet(s -> s.adetGuncelle(kitapId, adet));
+        toplamAdet += adet - adetler[index];
+        adetler[index] = adet;
+        return toSepetItem(index);
+    }
+
+    /**
+     * Kitabı sepetten kaldır, kaldırılan satırı döndür
+     */
+    public synchronized SepetItem kaldir(long kitapId) {
+        int index = indexOf(kitapId);
+        if (index < 0) {
+            return null;
+        }
+        islemKaydet(s -> s.kaldir(kitapId));
+        SepetItem kaldirilan = toSepetItem(index);
+        int tasinacak = boyut - index - 1;
+        if (tasinacak > 0) {
+            System.arraycopy(kitapIdleri, index + 1, kitapIdleri, index, tasinacak);
+            System.arraycopy(adetler, index + 1, adetler, index, tasinacak);
+            System.arraycopy(fiyatlar, index + 1, fiyatlar, index, tasinacak);
+            System.arraycopy(kitapAdlari, index + 1, kitapAdlari, index, tasinacak);
+            System.arraycopy(resimUrlleri, index + 1, resimUrlleri, index, tasinacak);
+        }
+        boyut--;
+        fiyatlar[boyut] = null;
+        kitapAdlari[boyut] = null;
+        resimUrlleri[boyut] = null;
+        toplamAdet -= kaldirilan.getAdet();
+        return kaldirilan;
+    }
+
+    /**
+     * Sepeti boşalt
+     */
+    public synchronized void temizle() {
+        islemKaydet(Sepet::temizle);
+        Arrays.fill(fiyatlar, 0, boyut, null);
+        Arrays.fill(kitapAdlari, 0, boyut, null);
+        Arrays.fill(resimUrlleri, 0, boyut, null);
+        boyut = 0;
+        toplamAdet = 0;
+    }
+
+    /**
+     * Sepetteki satırların anlık kopyasını getir (view için)
+     */
+    public synchronized List<SepetItem> getItems() {
+        List<SepetItem> items = new ArrayList<>(boyut);
+        for (int i = 0; i < boyut; i++) {
+            items.add(toSepetItem(i));
+        }
+        return items;
+    }
+
+    /**
+     * Sepetteki toplam ürün adedi (kilitsiz okuma)
+     */
+    public int getToplamAdet() {
+        return toplamAdet;
+    }
+
+    public synchronized int getBoyut() {
+        return boyut;
+    }
+
+    public synchronized boolean isEmpty() {
+        return boyut == 0;
+    }
+
+    /**
+     * Son kayıttan beri yapılan işlemleri güncel sepete uygular; işlem kaydı devredilip boşaltılır.
+     * Güncel değer başka bir kullanıcının sepetiyse veya işlem kaydı yoksa bu kopya olduğu gibi yazılır.
+     */
+    @Override
+    public synchronized UnaryOperator<Object> birlestirici() {
+        if (islemler == null) {
+            return null;
+        }
+        Birlestirici birlestirici = new Birlestirici(new ArrayList<>(islemler));
+        islemler.clear();
+        return birlestirici;
+    }
+
+    @Override
+    public synchronized void birlestiriciGeriAl(UnaryOperator<Object> birlestirici) {
+        if (islemler != null && birlestirici instanceof Birlestirici && ((Birlestirici) birlestirici).sepet() == this) {
+            // Geri alınan işlemler sonradan yapılanlardan önce uygulanmalı
+            islemler.addAll(0, ((Birlestirici) birlestirici).islemler);
+            if (islemler.size() > MAX_ISLEM) {
+                islemler = null;
+            }
+        }
+    }
+
+    private void islemKaydet(Consumer<Sepet> islem) {
+        if (islemler == null) {
+            return;
+        }
+        if (islemler.size() >= MAX_ISLEM) {
+            islemler = null;
+            return;
+        }
+        islemler.add(islem);
+    }
+
+    /**
+     * Devredilen işlemleri güncel sepete uygular
+     */
+    private final class Birlestirici implements UnaryOperator<Object> {
+
+        private final List<Consumer<Sepet>> islemler;
+
+        private Birlestirici(List<Consumer<Sepet>> islemler) {
+            this.islemler = islemler;
+        }
+
+        private Sepet sepet() {
+            return Sepet.this;
+        }
+
+        @Override
+        public Object apply(Object guncel) {
+            if (!(guncel instanceof Sepet) || !Objects.equals(((Sepet) guncel).kullaniciId, kullaniciId)) {
+                return Sepet.this;
+            }
+            Sepet sepet = (Sepet) guncel;
+            for (Consumer<Sepet> islem : islemler) {
+                islem.accept(sepet);
+            }
+            return sepet;
+        }
+    }
+
+    private SepetItem toSepetItem(int index) {
+        return new SepetItem(kitapIdleri[index], kitapAdlari[index], fiyatlar[index],
+                adetler[index], resimUrlleri[index]);
+    }
+
+    private int indexOf(long kitapId) {
+        for (int i = 0; i < boyut; i++) {
+            if (kitapIdleri[i] == kitapId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void kapasiteSagla(int gereken) {
+        if (gereken <= kitapIdleri.length) {
+            return;
+        }
+        int yeniKapasite = Math.max(gereken, kitapIdleri.length * 2);
+        kitapIdleri = Arrays.copyOf(kitapIdleri, yeniKapasite);
+        adetler = Arrays.copyOf(adetler, yeniKapasite);
+        fiyatlar = Arrays.copyOf(fiyatlar, yeniKapasite);
+        kitapAdlari = Arrays.copyOf(kitapAdlari, yeniKapasite);
+        resimUrlleri = Arrays.copyOf(resimUrlleri, yeniKapasite);
+    }
+
+    // Sadece dolu satırları yaz - session persist edilirken çağrılır
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(boyut);
+        for (int i = 0; i < boyut; i++) {
+            out.writeLong(kitapIdleri[i]);
+            out.writeInt(adetler[i]);
+            out.writeObject(fiyatlar[i]);
+            out.writeObject(kitapAdlari[i]);
+            out.writeObject(resimUrlleri[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int okunan = in.readInt();
+        int kapasite = Math.max(okunan, BASLANGIC_KAPASITE);
+        kitapIdleri = new long[kapasite];
+        adetler = new int[kapasite];
+        fiyatlar = new BigDecimal[kapasite];
+        kitapAdlari = new String[kapasite];
+        resimUrlleri = new String[kapasite];
+        int toplam = 0;
+        for (int i = 0; i < okunan; i++) {
+            kitapIdleri[i] = in.readLong();
+            adetler[i] = in.readInt();
+            fiyatlar[i] = (BigDecimal) in.readObject();
+            kitapAdlari[i] = (String) in.readObject();
+            resimUrlleri[i] = (String) in.readObject();
+            toplam += adetler[i];
+        }
+        boyut = okunan;
+        toplamAdet = toplam;
+        islemler = new ArrayList<>();
+    }
+}
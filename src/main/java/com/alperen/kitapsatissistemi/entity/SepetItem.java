@@ -3,7 +3,7 @@ package com.alperen.kitapsatissistemi.entity;
 import java.math.BigDecimal;
 
 public class SepetItem {
-    private int kitapId;
+    private long kitapId;
     private String kitapAd;
     private BigDecimal fiyat;
     private int adet;
@@ -13,7 +13,7 @@ public class SepetItem {
     // Constructors
     public SepetItem() {}
 
-    public SepetItem(int kitapId, String kitapAd, BigDecimal fiyat, int adet, String resimUrl) {
+    public SepetItem(long kitapId, String kitapAd, BigDecimal fiyat, int adet, String resimUrl) {
         this.kitapId = kitapId;
         this.kitapAd = kitapAd;
         this.fiyat = fiyat;
@@ -22,11 +22,11 @@ public class SepetItem {
     }
 
     // Getters and Setters
-    public int getKitapId() {
+    public long getKitapId() {
         return kitapId;
     }
 
-    public void setKitapId(int kitapId) {
+    public void setKitapId(long kitapId) {
         this.kitapId = kitapId;
     }
 
@@ -0,0 +1,121 @@
+package com.alperen.kitapsatissistemi.entity;
+
+import com.alperen.kitapsatissistemi.config.ZamanSiraliIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * SepetKalemi Entity - kullanıcının kalıcı sepetindeki bir satır.
+ * Yazma işlemleri SepetYazmaKuyrugu üzerinden toplu JDBC ile yapılır.
+ */
+@Entity
+@Table(name = "sepet_kalemleri",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"kullanici_id", "kitap_id"}))
+public class SepetKalemi {
+    
+    @Id
+    @GeneratedValue(generator = ZamanSiraliIdGenerator.AD)
+    @GenericGenerator(name = ZamanSiraliIdGenerator.AD, strategy = ZamanSiraliIdGenerator.STRATEJI)
+    @Column(name = "id", columnDefinition = "integer")
+    private Long id;
+    
+    @NotNull(message = "Kullanıcı zorunludur.")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kullanici_id", nullable = false)
+    private Kullanici kullanici;
+    
+    @NotNull(message = "Kitap zorunludur.")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kitap_id", nullable = false)
+    private Kitap kitap;
+    
+    @NotNull(message = "Adet zorunludur.")
+    @Min(value = 1, message = "Adet en az 1 olmalıdır.")
+    @Column(name = "adet", nullable = false)
+    private Integer adet;
+    
+    @NotNull(message = "Fiyat zorunludur.")
+    @Column(name = "fiyat", nullable = false, precision = 18, scale = 2)
+    private BigDecimal fiyat;
+    
+    @Column(name = "guncelleme_tarihi", nullable = false)
+    private LocalDateTime guncellemeTarihi;
+    
+    // Constructors
+    public SepetKalemi() {
+        this.guncellemeTarihi = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getKullaniciId() {
+        return kullanici != null ? kullanici.getId() : null;
+    }
+    
+    public Long getKitapId() {
+        return kitap != null ? kitap.getId() : null;
+    }
+    
+    public Kullanici getKullanici() {
+        return kullanici;
+    }
+    
+    public void setKullanici(Kullanici kullanici) {
+        this.kullanici = kullanici;
+    }
+    
+    public Kitap getKitap() {
+        return kitap;
+    }
+    
+    public void setKitap(Kitap kitap) {
+        this.kitap = kitap;
+    }
+    
+    public Integer getAdet() {
+        return adet;
+    }
+    
+    public void setAdet(Integer adet) {
+        this.adet = adet;
+    }
+    
+    public BigDecimal getFiyat() {
+        return fiyat;
+    }
+    
+    public void setFiyat(BigDecimal fiyat) {
+        this.fiyat = fiyat;
+    }
+    
+    public LocalDateTime getGuncellemeTarihi() {
+        return guncellemeTarihi;
+    }
+    
+    public void setGuncellemeTarihi(LocalDateTime guncellemeTarihi) {
+        this.guncellemeTarihi = guncellemeTarihi;
+    }
+    
+    @Override
+    public String toString() {
+        return "SepetKalemi{" +
+                "id=" + id +
+                ", kullaniciId=" + getKullaniciId() +
+                ", kitapId=" + getKitapId() +
+                ", adet=" + adet +
+                ", fiyat=" + fiyat +
+                '}';
+    }
+}
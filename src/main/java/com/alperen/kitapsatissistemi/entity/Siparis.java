@@ -1,5 +1,8 @@
 package com.alperen.kitapsatissistemi.entity;
 
+import com.alperen.kitapsatissistemi.config.ZamanSiraliIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.NotBlank;
@@ -13,11 +16,15 @@ import java.util.List;
  * Siparis Entity - .NET C# Siparis sınıfından dönüştürülmüştür
  */
 @Entity
-@Table(name = "siparisler")
+@Table(name = "siparisler",
+       indexes = {@Index(name = "ix_siparisler_kullanici", columnList = "kullanici_id, id"),
+                  @Index(name = "ix_siparisler_tarih", columnList = "siparis_tarihi")})
 public class Siparis {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ZamanSiraliIdGenerator.AD)
+    @GenericGenerator(name = ZamanSiraliIdGenerator.AD, strategy = ZamanSiraliIdGenerator.STRATEJI)
+    @Column(name = "id", columnDefinition = "integer")
     private Long id;
     
     @Column(name = "siparis_tarihi", nullable = false)
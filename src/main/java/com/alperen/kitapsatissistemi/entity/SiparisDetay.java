@@ -1,5 +1,8 @@
 package com.alperen.kitapsatissistemi.entity;
 
+import com.alperen.kitapsatissistemi.config.ZamanSiraliIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -9,11 +12,14 @@ import java.math.BigDecimal;
  * SiparisDetay Entity - .NET C# SiparisDetay sınıfından dönüştürülmüştür
  */
 @Entity
-@Table(name = "siparis_detaylari")
+@Table(name = "siparis_detaylari",
+       indexes = @Index(name = "ix_siparis_detaylari_siparis", columnList = "siparis_id"))
 public class SiparisDetay {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ZamanSiraliIdGenerator.AD)
+    @GenericGenerator(name = ZamanSiraliIdGenerator.AD, strategy = ZamanSiraliIdGenerator.STRATEJI)
+    @Column(name = "id", columnDefinition = "integer")
     private Long id;
     
     @NotNull(message = "Adet zorunludur.")
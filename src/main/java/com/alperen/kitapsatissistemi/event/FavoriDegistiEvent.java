@@ -0,0 +1,38 @@
+package com.alperen.kitapsatissistemi.event;
+
+/**
+ * Favori eklendi veya silindi. Toplu silmede kullanıcı ya da kitap id'si null olabilir.
+ * Olay yolunda yayınlanır; aboneler commit sonrasında çalışır.
+ */
+public class FavoriDegistiEvent {
+
+    public static final String EKLENDI = "EKLENDI";
+    public static final String SILINDI = "SILINDI";
+
+    private final String tur;
+    private final Long kullaniciId;
+    private final Long kitapId;
+
+    public FavoriDegistiEvent(String tur, Long kullaniciId, Long kitapId) {
+        this.tur = tur;
+        this.kullaniciId = kullaniciId;
+        this.kitapId = kitapId;
+    }
+
+    public String getTur() {
+        return tur;
+    }
+
+    public Long getKullaniciId() {
+        return kullaniciId;
+    }
+
+    public Long getKitapId() {
+        return kitapId;
+    }
+
+    @Override
+    public String toString() {
+        return "FavoriDegistiEvent{tur=" + tur + ", kullaniciId=" + kullaniciId + ", kitapId=" + kitapId + "}";
+    }
+}
@@ -0,0 +1,23 @@
+package com.alperen.kitapsatissistemi.event;
+
+/**
+ * Kategori eklendi, güncellendi (adı değişmiş olabilir) veya silindi.
+ * Olay yolunda yayınlanır; aboneler commit sonrasında çalışır.
+ */
+public class KategoriDegistiEvent {
+
+    private final Long kategoriId;
+
+    public KategoriDegistiEvent(Long kategoriId) {
+        this.kategoriId = kategoriId;
+    }
+
+    public Long getKategoriId() {
+        return kategoriId;
+    }
+
+    @Override
+    public String toString() {
+        return "KategoriDegistiEvent{kategoriId=" + kategoriId + "}";
+    }
+}
@@ -0,0 +1,24 @@
+package com.alperen.kitapsatissistemi.event;
+
+/**
+ * Kitap eklendi, güncellendi (kategori, yazar gibi alanları değişmiş olabilir) veya silindi.
+ * Toplu işlemlerde kitap id'si null'dır.
+ * Olay yolunda yayınlanır; aboneler commit sonrasında çalışır.
+ */
+public class KitapDegistiEvent {
+
+    private final Long kitapId;
+
+    public KitapDegistiEvent(Long kitapId) {
+        this.kitapId = kitapId;
+    }
+
+    public Long getKitapId() {
+        return kitapId;
+    }
+
+    @Override
+    public String toString() {
+        return "KitapDegistiEvent{kitapId=" + kitapId + "}";
+    }
+}
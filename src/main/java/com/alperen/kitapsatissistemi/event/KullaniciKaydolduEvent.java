@@ -0,0 +1,23 @@
+package com.alperen.kitapsatissistemi.event;
+
+/**
+ * Yeni kullanıcı kaydedildi (kayıt formu, API veya admin paneli).
+ * Olay yolunda yayınlanır; aboneler commit sonrasında çalışır.
+ */
+public class KullaniciKaydolduEvent {
+
+    private final Long kullaniciId;
+
+    public KullaniciKaydolduEvent(Long kullaniciId) {
+        this.kullaniciId = kullaniciId;
+    }
+
+    public Long getKullaniciId() {
+        return kullaniciId;
+    }
+
+    @Override
+    public String toString() {
+        return "KullaniciKaydolduEvent{kullaniciId=" + kullaniciId + "}";
+    }
+}
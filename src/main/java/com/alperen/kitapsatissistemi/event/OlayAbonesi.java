@@ -0,0 +1,24 @@
+package com.alperen.kitapsatissistemi.event;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Olay yolu aboneliği. Metot tek parametre alır: olay tipi (her olay için bir çağrı)
+ * veya List (bir parti içindeki eşleşen olaylar tek çağrıda; bu durumda olay tipi
+ * value ile verilir). Aynı bean'in tüm abonelikleri tek bir tüketici thread'inde,
+ * olayların yayınlanma sırasıyla çalışır.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OlayAbonesi {
+
+    /**
+     * List parametreli aboneliklerde listenin olay tipi
+     */
+    Class<?> value() default Object.class;
+}
@@ -0,0 +1,474 @@
+package com.alperen.kitapsatissistemi.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Olay yolu - servislerdeki yazmaları (sipariş, kitap, kullanıcı, favori) ilgilenen bileşenlere
+ * uygulama içinde iletir. Olaylar önceden ayrılmış sabit boyutlu bir halkaya yazılır; transaction
+ * içinde yayınlanan olaylar commit sonrasına ertelenir, rollback olursa atılır.
+ * Her abone bean (@OlayAbonesi metotları olan) kendi tüketici thread'inde halkayı kendi sırasıyla
+ * okur ve olayları partiler halinde işler; yavaş bir abone diğerlerini bekletmez. Yayınlayan hiç
+ * beklemez (commit sonrası istek thread'inde çalışır): halka bir abone için dolarsa yalnızca o
+ * abonenin en eski olayları atlanır ve kayıp olarak sayılır.
+ * Abone başına işlenen olay, gecikme, işleme hızı, hata ve kayıp sayıları getMetrikler() ile okunur.
+ * Tembel başlatmada (spring.main.lazy-initialization) da açılışta oluşturulur; abone bean'ler
+ * afterSingletonsInstantiated içinde oluşturulup tüketicileri başlatılır.
+ */
+@Component
+@Lazy(false)
+public class OlayYolu implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(OlayYolu.class);
+
+    private final ApplicationContext applicationContext;
+
+    @Value("${olay-yolu.kapasite:8192}")
+    private int kapasite;
+
+    @Value("${olay-yolu.parti-boyutu:256}")
+    private int partiBoyutu;
+
+    private Yuva[] halka;
+    private int maske;
+
+    // Bir sonraki yayının alacağı sıra
+    private final AtomicLong yayinSirasi = new AtomicLong();
+    private final LongAdder yayinlanan = new LongAdder();
+    private volatile Tuketici[] tuketiciler = new Tuketici[0];
+
+    public OlayYolu(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        int boyut = Integer.highestOneBit(Math.max(2, kapasite - 1)) << 1;
+        halka = new Yuva[boyut];
+        for (int i = 0; i < boyut; i++) {
+            halka[i] = new Yuva();
+        }
+        maske = boyut - 1;
+        kapasite = boyut;
+    }
+
+    /**
+     * Tüm bean'ler oluştuktan sonra abonelikleri bul ve tüketicileri başlat
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<Tuketici> bulunanlar = new ArrayList<>();
+        for (String beanAdi : applicationContext.getBeanDefinitionNames()) {
+            Class<?> tip;
+            try {
+                tip = applicationContext.getType(beanAdi);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            if (tip == null || !applicationContext.isSingleton(beanAdi) || !AnnotationUtils.isCandidateClass(tip, OlayAbonesi.class)) {
+                continue;
+            }
+            Class<?> hedef = ClassUtils.getUserClass(tip);
+            Map<Method, OlayAbonesi> metotlar = MethodIntrospector.selectMethods(hedef,
+                    (MethodIntrospector.MetadataLookup<OlayAbonesi>) metot ->
+                            AnnotatedElementUtils.findMergedAnnotation(metot, OlayAbonesi.class));
+            if (metotlar.isEmpty()) {
+                continue;
+            }
+            Object bean = applicationContext.getBean(beanAdi);
+            List<Abonelik> abonelikler = new ArrayList<>();
+            for (Map.Entry<Method, OlayAbonesi> giris : metotlar.entrySet()) {
+                abonelikler.add(abonelik(bean, beanAdi, giris.getKey(), giris.getValue()));
+            }
+            // Başlangıçtan önce yayınlanmış, halkada hâlâ duran olaylar da iletilir
+            bulunanlar.add(new Tuketici(beanAdi, abonelikler, Math.max(0, yayinSirasi.get() - kapasite)));
+        }
+        tuketiciler = bulunanlar.toArray(new Tuketici[0]);
+        for (Tuketici tuketici : tuketiciler) {
+            tuketici.thread.start();
+        }
+        logger.info("Olay yolu başlatıldı: {} yuva, {} abone", kapasite, tuketiciler.length);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        for (Tuketici tuketici : tuketiciler) {
+            tuketici.calisiyor = false;
+            tuketici.thread.interrupt();
+        }
+    }
+
+    /**
+     * Olayı yayınla. Aktif bir transaction varsa commit sonrasında, yoksa hemen halkaya yazılır.
+     */
+    public void yayinla(Object olay) {
+        if (olay == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            halkayaYaz(olay);
+            return;
+        }
+        // Senkronizasyon listesi transaction'a özeldir (REQUIRES_NEW'da askıya alınır)
+        for (TransactionSynchronization senkronizasyon : TransactionSynchronizationManager.getSynchronizations()) {
+            if (senkronizasyon instanceof CommitSonrasiYayin && ((CommitSonrasiYayin) senkronizasyon).yol == this) {
+                ((CommitSonrasiYayin) senkronizasyon).olaylar.add(olay);
+                return;
+            }
+        }
+        CommitSonrasiYayin yayin = new CommitSonrasiYayin(this);
+        yayin.olaylar.add(olay);
+        TransactionSynchronizationManager.registerSynchronization(yayin);
+    }
+
+    /**
+     * Olay yolu metrikleri
+     */
+    public Metrikler getMetrikler() {
+        long yayin = yayinSirasi.get();
+        List<TuketiciMetrigi> liste = new ArrayList<>();
+        for (Tuketici tuketici : tuketiciler) {
+            liste.add(tuketici.metrik(yayin));
+        }
+        return new Metrikler(kapasite, yayinlanan.sum(), liste);
+    }
+
+    private void halkayaYaz(Object olay) {
+        long sira = yayinSirasi.getAndIncrement();
+        yerAc(sira);
+        Yuva yuva = halka[(int) sira & maske];
+        // Önce yuva geçersiz işaretlenir; eski sırayı okuyup yeni olayı kopyalayan tüketici bunu görür
+        yuva.sira = Yuva.YAZILIYOR;
+        yuva.olay = olay;
+        yuva.sira = sira;
+        yayinlanan.increment();
+        for (Tuketici tuketici : tuketiciler) {
+            if (tuketici.bekliyor) {
+                LockSupport.unpark(tuketici.thread);
+            }
+        }
+    }
+
+    /**
+     * Yuvanın bir önceki turdaki olayını henüz okumamış tüketicileri ileri al.
+     * Yayınlayan beklemez; yalnızca yetişemeyen abone olay kaybeder.
+     */
+    private void yerAc(long sira) {
+        long sinir = sira - kapasite;
+        if (sinir < 0) {
+            return;
+        }
+        for (Tuketici tuketici : tuketiciler) {
+            long tuketiciSirasi = tuketici.sira.get();
+            while (tuketiciSirasi <= sinir) {
+                if (tuketici.sira.compareAndSet(tuketiciSirasi, sinir + 1)) {
+                    tuketici.kayip.add(sinir + 1 - tuketiciSirasi);
+                    if (tuketici.uyarildi.compareAndSet(false, true)) {
+                        logger.warn("Olay yolu abonesi yetişemiyor, olaylar atlanıyor: {}", tuketici.ad);
+                    }
+                    break;
+                }
+                tuketiciSirasi = tuketici.sira.get();
+            }
+        }
+    }
+
+    private Abonelik abonelik(Object bean, String beanAdi, Method metot, OlayAbonesi ayar) {
+        if (metot.getParameterCount() != 1) {
+            throw new IllegalStateException("@OlayAbonesi metodu tek parametre almalıdır: " + beanAdi + "." + metot.getName());
+        }
+        Class<?> parametre = metot.getParameterTypes()[0];
+        boolean toplu = List.class.isAssignableFrom(parametre);
+        Class<?> olayTipi = toplu ? ayar.value() : parametre;
+        if (toplu && olayTipi == Object.class) {
+            throw new IllegalStateException("List parametreli @OlayAbonesi için olay tipi verilmelidir: " + beanAdi + "." + metot.getName());
+        }
+        Method cagrilacak = AopUtils.selectInvocableMethod(metot, bean.getClass());
+        ReflectionUtils.makeAccessible(cagrilacak);
+        return new Abonelik(bean, cagrilacak, olayTipi, toplu);
+    }
+
+    /**
+     * Transaction'ın olaylarını commit sonrasında sırayla yayınlar
+     */
+    private static class CommitSonrasiYayin implements TransactionSynchronization {
+        private final OlayYolu yol;
+        private final List<Object> olaylar = new ArrayList<>();
+
+        private CommitSonrasiYayin(OlayYolu yol) {
+            this.yol = yol;
+        }
+
+        @Override
+        public void afterCommit() {
+            for (Object olay : olaylar) {
+                yol.halkayaYaz(olay);
+            }
+        }
+    }
+
+    private static class Yuva {
+        private static final long YAZILIYOR = -1;
+        private volatile long sira = YAZILIYOR;
+        private volatile Object olay;
+    }
+
+    private static class Abonelik {
+        private final Object bean;
+        private final Method metot;
+        private final Class<?> olayTipi;
+        private final boolean toplu;
+
+        private Abonelik(Object bean, Method metot, Class<?> olayTipi, boolean toplu) {
+            this.bean = bean;
+            this.metot = metot;
+            this.olayTipi = olayTipi;
+            this.toplu = toplu;
+        }
+    }
+
+    /**
+     * Bir abone bean'in tüketicisi: halkayı kendi sırasıyla okur, olayları partiler halinde işler
+     */
+    private class Tuketici implements Runnable {
+        private final String ad;
+        private final List<Abonelik> abonelikler;
+        private final Thread thread;
+        // Okunacak sıradaki olay; yayıncı tarafından ileri alınabilir (kayıp)
+        private final AtomicLong sira;
+        private final Object[] parti;
+        private final LongAdder kayip = new LongAdder();
+        private final LongAdder hatalar = new LongAdder();
+        // Kayıp uyarısı abone yetişene kadar bir kez loglanır
+        private final AtomicBoolean uyarildi = new AtomicBoolean();
+        private volatile boolean calisiyor = true;
+        private volatile boolean bekliyor;
+        private volatile long islenen;
+        private volatile double olaySaniye;
+        private volatile long pencereZamani = System.nanoTime();
+        private long pencereIslenen;
+
+        private Tuketici(String ad, List<Abonelik> abonelikler, long baslangic) {
+            this.ad = ad;
+            this.abonelikler = abonelikler;
+            this.sira = new AtomicLong(baslangic);
+            this.parti = new Object[partiBoyutu];
+            this.thread = new Thread(this, "olay-" + ad);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (calisiyor) {
+                long baslangic = sira.get();
+                int adet = 0;
+                while (adet < parti.length) {
+                    long beklenen = baslangic + adet;
+                    Yuva yuva = halka[(int) beklenen & maske];
+                    if (yuva.sira != beklenen) {
+                        break;
+                    }
+                    Object olay = yuva.olay;
+                    // Kopyalarken yuva yeniden yazıldıysa kopya yeni turun olayı olabilir; alınmaz
+                    if (yuva.sira != beklenen) {
+                        break;
+                    }
+                    parti[adet++] = olay;
+                }
+                if (adet == 0) {
+                    if (halka[(int) baslangic & maske].sira > baslangic) {
+                        // Yuva bir sonraki turda yeniden yazılmış; olay kaçırıldı
+                        if (sira.compareAndSet(baslangic, baslangic + 1)) {
+                            kayip.increment();
+                        }
+                        continue;
+                    }
+                    bekle(baslangic);
+                    continue;
+                }
+                isle(adet);
+                Arrays.fill(parti, 0, adet, null);
+                ilerle(baslangic, adet);
+                islenen += adet;
+                hizGuncelle();
+            }
+        }
+
+        /**
+         * İşlenen partinin sonuna geç. Yayıncı bu sırada bizi ileri aldıysa daha ileri olan sıra
+         * korunur; yayıncının kayıp saydığı ama parti içinde işlenmiş olaylar kayıptan düşülür.
+         */
+        private void ilerle(long baslangic, int adet) {
+            long son = baslangic + adet;
+            if (sira.compareAndSet(baslangic, son)) {
+                uyarildi.set(false);
+                return;
+            }
+            long mevcut = sira.get();
+            kayip.add(-(Math.min(son, mevcut) - baslangic));
+            while (mevcut < son && !sira.compareAndSet(mevcut, son)) {
+                mevcut = sira.get();
+            }
+        }
+
+        private void bekle(long beklenen) {
+            bekliyor = true;
+            if (halka[(int) beklenen & maske].sira != beklenen && calisiyor) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            bekliyor = false;
+            hizGuncelle();
+        }
+
+        private void isle(int adet) {
+            for (Abonelik abonelik : abonelikler) {
+                if (abonelik.toplu) {
+                    List<Object> eslesenler = new ArrayList<>();
+                    for (int i = 0; i < adet; i++) {
+                        if (abonelik.olayTipi.isInstance(parti[i])) {
+                            eslesenler.add(parti[i]);
+                        }
+                    }
+                    if (!eslesenler.isEmpty()) {
+                        cagir(abonelik, Collections.unmodifiableList(eslesenler));
+                    }
+                } else {
+                    for (int i = 0; i < adet; i++) {
+                        if (abonelik.olayTipi.isInstance(parti[i])) {
+                            cagir(abonelik, parti[i]);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void cagir(Abonelik abonelik, Object arguman) {
+            try {
+                abonelik.metot.invoke(abonelik.bean, arguman);
+            } catch (InvocationTargetException e) {
+                hatalar.increment();
+                logger.error("Olay abonesi hata verdi: {}.{}", ad, abonelik.metot.getName(), e.getTargetException());
+            } catch (Exception e) {
+                hatalar.increment();
+                logger.error("Olay abonesi çağrılamadı: {}.{}", ad, abonelik.metot.getName(), e);
+            }
+        }
+
+        private void hizGuncelle() {
+            long simdi = System.nanoTime();
+            long gecen = simdi - pencereZamani;
+            if (gecen >= TimeUnit.SECONDS.toNanos(1)) {
+                olaySaniye = (islenen - pencereIslenen) * 1e9 / gecen;
+                pencereIslenen = islenen;
+                pencereZamani = simdi;
+            }
+        }
+
+        private TuketiciMetrigi metrik(long yayin) {
+            // Uzun süre boşta kalan tüketicinin son hızı geçerli değildir
+            boolean guncel = System.nanoTime() - pencereZamani < TimeUnit.SECONDS.toNanos(2);
+            return new TuketiciMetrigi(ad, islenen, Math.max(0, yayin - sira.get()),
+                    guncel ? Math.round(olaySaniye) : 0, hatalar.sum(), kayip.sum());
+        }
+    }
+
+    /**
+     * Olay yolu durumu
+     */
+    public static class Metrikler {
+        private final int kapasite;
+        private final long yayinlanan;
+        private final List<TuketiciMetrigi> tuketiciler;
+
+        private Metrikler(int kapasite, long yayinlanan, List<TuketiciMetrigi> tuketiciler) {
+            this.kapasite = kapasite;
+            this.yayinlanan = yayinlanan;
+            this.tuketiciler = Collections.unmodifiableList(tuketiciler);
+        }
+
+        public int getKapasite() {
+            return kapasite;
+        }
+
+        public long getYayinlanan() {
+            return yayinlanan;
+        }
+
+        public List<TuketiciMetrigi> getTuketiciler() {
+            return tuketiciler;
+        }
+    }
+
+    /**
+     * Abone başına metrikler: gecikme, yayınlanıp henüz işlenmemiş olay sayısıdır
+     */
+    public static class TuketiciMetrigi {
+        private final String ad;
+        private final long islenen;
+        private final long gecikme;
+        private final long olaySaniye;
+        private final long hatalar;
+        private final long kayip;
+
+        private TuketiciMetrigi(String ad, long islenen, long gecikme, long olaySaniye, long hatalar, long kayip) {
+            this.ad = ad;
+            this.islenen = islenen;
+            this.gecikme = gecikme;
+            this.olaySaniye = olaySaniye;
+            this.hatalar = hatalar;
+            this.kayip = kayip;
+        }
+
+        public String getAd() {
+            return ad;
+        }
+
+        public long getIslenen() {
+            return islenen;
+        }
+
+        public long getGecikme() {
+            return gecikme;
+        }
+
+        public long getOlaySaniye() {
+            return olaySaniye;
+        }
+
+        public long getHatalar() {
+            return hatalar;
+        }
+
+        public long getKayip() {
+            return kayip;
+        }
+    }
+}
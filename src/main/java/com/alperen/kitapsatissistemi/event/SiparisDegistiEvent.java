@@ -0,0 +1,40 @@
+package com.alperen.kitapsatissistemi.event;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Siparişler oluşturuldu, güncellendi veya silindi.
+ * Olay yolunda yayınlanır; aboneler commit sonrasında çalışır.
+ */
+public class SiparisDegistiEvent {
+
+    public static final String OLUSTURULDU = "OLUSTURULDU";
+    public static final String GUNCELLENDI = "GUNCELLENDI";
+    public static final String SILINDI = "SILINDI";
+
+    private final String tur;
+    private final List<Long> siparisIdleri;
+
+    public SiparisDegistiEvent(String tur, List<Long> siparisIdleri) {
+        this.tur = tur;
+        this.siparisIdleri = siparisIdleri != null ? Collections.unmodifiableList(siparisIdleri) : Collections.emptyList();
+    }
+
+    public SiparisDegistiEvent(String tur, Long siparisId) {
+        this(tur, siparisId != null ? Collections.singletonList(siparisId) : null);
+    }
+
+    public String getTur() {
+        return tur;
+    }
+
+    public List<Long> getSiparisIdleri() {
+        return siparisIdleri;
+    }
+
+    @Override
+    public String toString() {
+        return "SiparisDegistiEvent{tur=" + tur + ", siparisIdleri=" + siparisIdleri + "}";
+    }
+}
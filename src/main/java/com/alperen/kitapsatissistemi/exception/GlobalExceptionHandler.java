@@ -195,6 +195,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Kuyruk dolu (geri basınç) exception handler
+     */
+    @ExceptionHandler(KuyrukDoluException.class)
+    public ResponseEntity<Map<String, Object>> handleKuyrukDoluException(
+            KuyrukDoluException ex, HttpServletRequest request) {
+        
+        logger.warn("Queue full on {}: {}", request.getRequestURI(), ex.getMessage());
+        
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("details", request.getRequestURI());
+        errorDetails.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(errorDetails);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(
             RuntimeException ex, HttpServletRequest request) {
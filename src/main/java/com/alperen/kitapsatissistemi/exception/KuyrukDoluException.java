@@ -0,0 +1,15 @@
+package com.alperen.kitapsatissistemi.exception;
+
+/**
+ * İş kuyruğu dolu olduğunda fırlatılan exception (geri basınç)
+ */
+public class KuyrukDoluException extends BusinessException {
+    
+    public KuyrukDoluException(String message) {
+        super(message);
+    }
+    
+    public KuyrukDoluException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -4,9 +4,12 @@ import com.alperen.kitapsatissistemi.entity.Kullanici;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -82,6 +85,12 @@ public interface KullaniciRepository extends JpaRepository<Kullanici, Long> {
     @Query("SELECT k FROM Kullanici k ORDER BY k.kayitTarihi DESC")
     List<Kullanici> findLatestKullanicilar();
     
+    /**
+     * En son kayıt olan kullanıcıları bulma (limitli)
+     */
+    @Query("SELECT k FROM Kullanici k ORDER BY k.kayitTarihi DESC")
+    List<Kullanici> findLatestKullanicilar(Pageable pageable);
+    
     /**
      * Email ve role göre kullanıcı bulma
      */
@@ -96,4 +105,13 @@ public interface KullaniciRepository extends JpaRepository<Kullanici, Long> {
      * Ad soyad veya email'e göre arama (sayfalama ile)
      */
     Page<Kullanici> findByAdSoyadContainingIgnoreCaseOrEmailContainingIgnoreCase(String adSoyad, String email, Pageable pageable);
+    
+    /**
+     * Şifre hash'ini, arada değişmemişse güncelleme (girişte yeniden hash'leme için)
+     * Çağıranın salt okunur transaction'ına katılmaz; yazıcı bağlantısında ayrı çalışır.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE Kullanici k SET k.sifreHash = :yeniHash WHERE k.id = :id AND k.sifreHash = :eskiHash")
+    int updateSifreHash(@Param("id") Long id, @Param("eskiHash") String eskiHash, @Param("yeniHash") String yeniHash);
 }
@@ -0,0 +1,27 @@
+package com.alperen.kitapsatissistemi.repository;
+
+import com.alperen.kitapsatissistemi.entity.SepetKalemi;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * SepetKalemiRepository - kalıcı sepet satırlarını okuma işlemleri
+ */
+@Repository
+public interface SepetKalemiRepository extends JpaRepository<SepetKalemi, Long> {
+    
+    /**
+     * Kullanıcının sepet satırlarını kitap bilgileri ile birlikte getirme
+     */
+    @Query("SELECT sk FROM SepetKalemi sk JOIN FETCH sk.kitap WHERE sk.kullanici.id = :kullanici_Id ORDER BY sk.id")
+    List<SepetKalemi> findByKullanici_IdWithKitap(@Param("kullanici_Id") Long kullaniciId);
+    
+    /**
+     * Kullanıcının sepetteki satır sayısını bulma
+     */
+    long countByKullanici_Id(Long kullaniciId);
+}
@@ -1,5 +1,6 @@
 package com.alperen.kitapsatissistemi.repository;
 
+import com.alperen.kitapsatissistemi.dto.SiparisOzet;
 import com.alperen.kitapsatissistemi.entity.Siparis;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -61,6 +62,15 @@ public interface SiparisRepository extends JpaRepository<Siparis, Long> {
     @Query("SELECT s FROM Siparis s LEFT JOIN FETCH s.siparisDetaylari WHERE s.kullanici.id = :kullanici_Id")
     List<Siparis> findByKullanici_IdWithDetaylar(@Param("kullanici_Id") Long kullaniciId);
     
+    /**
+     * Kullanıcının sipariş geçmişi (yeniden eskiye, keyset sayfalama)
+     * ID'ler zaman sıralı olduğu için "id < oncekiId" bir önceki sayfanın devamıdır.
+     */
+    @Query("SELECT new com.alperen.kitapsatissistemi.dto.SiparisOzet(s.id, s.siparisTarihi, s.toplamTutar, s.durum, COUNT(d.id)) "
+            + "FROM Siparis s LEFT JOIN s.siparisDetaylari d WHERE s.kullanici.id = :kullaniciId AND s.id < :oncekiId "
+            + "GROUP BY s.id, s.siparisTarihi, s.toplamTutar, s.durum ORDER BY s.id DESC")
+    List<SiparisOzet> findOzetlerByKullaniciId(@Param("kullaniciId") Long kullaniciId, @Param("oncekiId") Long oncekiId, Pageable pageable);
+    
     /**
      * Sipariş detayları ile birlikte sipariş getirme
      */
@@ -131,12 +141,6 @@ public interface SiparisRepository extends JpaRepository<Siparis, Long> {
     @Query("SELECT YEAR(s.siparisTarihi) as yil, MONTH(s.siparisTarihi) as ay, COUNT(s) as adet, SUM(s.toplamTutar) as toplam FROM Siparis s WHERE s.durum = 'Onaylandı' GROUP BY YEAR(s.siparisTarihi), MONTH(s.siparisTarihi) ORDER BY YEAR(s.siparisTarihi) DESC, MONTH(s.siparisTarihi) DESC")
     List<Object[]> getMonthlySalesStats();
     
-    /**
-     * En çok alışveriş yapan müşteriler
-     */
-    @Query("SELECT s.kullanici.id, COUNT(s) as siparisAdet, SUM(s.toplamTutar) as toplamHarcama FROM Siparis s WHERE s.durum = 'Onaylandı' GROUP BY s.kullanici.id ORDER BY toplamHarcama DESC")
-    List<Object[]> getTopCustomers();
-    
     /**
      * Tüm siparişleri detaylarıyla birlikte getir
      */
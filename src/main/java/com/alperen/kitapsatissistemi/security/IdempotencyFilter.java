@@ -0,0 +1,409 @@
+package com.alperen.kitapsatissistemi.security;
+
+import com.alperen.kitapsatissistemi.service.IdempotencyDeposu;
+import com.alperen.kitapsatissistemi.service.IdempotencyDeposu.KayitliYanit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Idempotency Filter - Idempotency-Key başlığı (veya form alanı) taşıyan POST isteklerini
+ * bir kez işler. Aynı anahtarla tekrar gelen istek saklanan yanıtı alır; eşzamanlı
+ * kopyalar ilk isteğin bitmesini bekler. Aynı anahtar farklı bir istek gövdesiyle
+ * kullanılırsa 422 döner. Async controller'larda (ör. CompletableFuture dönen) yanıt,
+ * async dispatch bitince saklanır. Token dönen uçlar (idempotency.haric-yollar) saklanmaz.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENCY_PARAM = "idempotencyKey";
+    private static final String REPLAY_HEADER = "Idempotent-Replayed";
+    private static final int MAX_ANAHTAR_UZUNLUGU = 255;
+    private static final String ASYNC_ISLEM = IdempotencyFilter.class.getName() + ".ASYNC_ISLEM";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private IdempotencyDeposu idempotencyDeposu;
+
+    @Value("${idempotency.enabled:true}")
+    private boolean aktif;
+
+    @Value("${idempotency.yollar:/api/**,/sepet/siparis-tamamla}")
+    private List<String> yollar;
+
+    // Yanıtında token olan uçlar - tekrar oynatılmamalı ve bellekte tutulmamalı
+    @Value("${idempotency.haric-yollar:/api/kullanicilar/login,/api/kullanicilar/token/yenile}")
+    private List<String> haricYollar;
+
+    @Value("${idempotency.bekleme-ms:10000}")
+    private long beklemeMs;
+
+    @Value("${idempotency.max-govde-boyutu:1048576}")
+    private int maxGovdeBoyutu;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!aktif || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String yol = request.getServletPath();
+        return yollar.stream().noneMatch(desen -> pathMatcher.match(desen.trim(), yol))
+                || haricYollar.stream().anyMatch(desen -> pathMatcher.match(desen.trim(), yol));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Async işlenen isteklerin yanıtı dispatch sonunda saklanır
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            asyncDispatch(request, response, filterChain);
+            return;
+        }
+        boolean formIstegi = isForm(request);
+        String anahtar = request.getHeader(IDEMPOTENCY_HEADER);
+        if ((anahtar == null || anahtar.isEmpty()) && formIstegi) {
+            anahtar = request.getParameter(IDEMPOTENCY_PARAM);
+        }
+        if (anahtar == null || anahtar.trim().isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (request.getContentLengthLong() > maxGovdeBoyutu) {
+            // Büyük gövdeler belleğe alınmaz; istek anahtarsız gibi işlenir
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (anahtar.length() > MAX_ANAHTAR_UZUNLUGU) {
+            hataYaz(response, HttpServletResponse.SC_BAD_REQUEST, "Idempotency-Key en fazla " + MAX_ANAHTAR_UZUNLUGU + " karakter olabilir");
+            return;
+        }
+
+        // Form gövdesi parametre olarak okunur; diğer gövdeler parmak izi için bir kez okunup tekrar oynatılır
+        HttpServletRequest istek = request;
+        String parmakIzi;
+        if (formIstegi) {
+            parmakIzi = parmakIzi(request, parametreMetni(request).getBytes(StandardCharsets.UTF_8));
+        } else {
+            byte[] govde = StreamUtils.copyToByteArray(request.getInputStream());
+            istek = new TekrarOkunabilirIstek(request, govde);
+            parmakIzi = parmakIzi(request, govde);
+        }
+        String kapsamliAnahtar = kapsam(request) + "|" + request.getServletPath() + "|" + anahtar.trim();
+
+        while (true) {
+            KayitliYanit kayitli = idempotencyDeposu.getYanit(kapsamliAnahtar).orElse(null);
+            if (kayitli != null) {
+                tekrarOynat(kayitli, parmakIzi, response);
+                return;
+            }
+            CompletableFuture<KayitliYanit> suren = idempotencyDeposu.baslatVeyaKatil(kapsamliAnahtar);
+            if (suren == null) {
+                isle(istek, response, filterChain, kapsamliAnahtar, parmakIzi);
+                return;
+            }
+            // Aynı anahtarla ilk istek hala işleniyor - onun sonucunu bekle
+            try {
+                kayitli = suren.get(beklemeMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                hataYaz(response, HttpServletResponse.SC_CONFLICT, "Aynı Idempotency-Key ile bir istek hala işleniyor");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                hataYaz(response, HttpServletResponse.SC_CONFLICT, "Aynı Idempotency-Key ile bir istek hala işleniyor");
+                return;
+            } catch (ExecutionException e) {
+                kayitli = null;
+            }
+            if (kayitli != null) {
+                tekrarOynat(kayitli, parmakIzi, response);
+                return;
+            }
+            // İlk istek saklanabilir bir yanıt üretmedi (ör. 5xx) - bu istek yeniden denesin
+        }
+    }
+
+    private void isle(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                      String kapsamliAnahtar, String parmakIzi) throws ServletException, IOException {
+        ContentCachingResponseWrapper yanitSarmalayici = new ContentCachingResponseWrapper(response);
+        AsyncIslem islem = new AsyncIslem(kapsamliAnahtar, parmakIzi);
+        boolean basarili = false;
+        boolean asyncBasladi = false;
+        try {
+            filterChain.doFilter(request, yanitSarmalayici);
+            basarili = true;
+            asyncBasladi = request.isAsyncStarted();
+            if (asyncBasladi) {
+                asyncBekle(request, islem);
+            }
+        } finally {
+            if (!asyncBasladi) {
+                bitir(islem, yanitSarmalayici, basarili);
+            }
+        }
+    }
+
+    /**
+     * Async sonucun yazıldığı dispatch - yanıt ilk istekte sarmalanan yanıta yazılır
+     */
+    private void asyncDispatch(HttpServletRequest request, HttpServletResponse response,
+                               FilterChain filterChain) throws ServletException, IOException {
+        AsyncIslem islem = (AsyncIslem) request.getAttribute(ASYNC_ISLEM);
+        ContentCachingResponseWrapper yanitSarmalayici =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (islem == null || yanitSarmalayici == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean basarili = false;
+        boolean asyncBasladi = false;
+        try {
+            filterChain.doFilter(request, response);
+            basarili = true;
+            asyncBasladi = request.isAsyncStarted();
+        } finally {
+            if (!asyncBasladi) {
+                request.removeAttribute(ASYNC_ISLEM);
+                bitir(islem, yanitSarmalayici, basarili);
+            }
+        }
+    }
+
+    private void asyncBekle(HttpServletRequest request, AsyncIslem islem) {
+        request.setAttribute(ASYNC_ISLEM, islem);
+        // Dispatch hiç gelmezse (ör. bağlantı koptu) bekleyenler serbest kalsın
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                if (islem.bitti.compareAndSet(false, true)) {
+                    idempotencyDeposu.tamamla(islem.anahtar, null);
+                }
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    private void bitir(AsyncIslem islem, ContentCachingResponseWrapper yanitSarmalayici, boolean basarili) throws IOException {
+        try {
+            if (islem.bitti.compareAndSet(false, true)) {
+                idempotencyDeposu.tamamla(islem.anahtar, basarili ? saklanacakYanit(islem, yanitSarmalayici) : null);
+            }
+        } finally {
+            yanitSarmalayici.copyBodyToResponse();
+        }
+    }
+
+    private KayitliYanit saklanacakYanit(AsyncIslem islem, ContentCachingResponseWrapper yanitSarmalayici) {
+        int durum = yanitSarmalayici.getStatus();
+        // 5xx, 429 ve 409 geçici sayılır; istemci aynı anahtarla yeniden deneyebilmeli
+        boolean gecici = durum >= 500 || durum == 429 || durum == HttpServletResponse.SC_CONFLICT;
+        if (gecici || yanitSarmalayici.getContentSize() > maxGovdeBoyutu) {
+            return null;
+        }
+        return new KayitliYanit(islem.parmakIzi, durum, yanitSarmalayici.getContentType(),
+                yanitSarmalayici.getHeader(HttpHeaders.LOCATION), yanitSarmalayici.getContentAsByteArray(),
+                System.currentTimeMillis());
+    }
+
+    private void tekrarOynat(KayitliYanit kayitli, String parmakIzi, HttpServletResponse response) throws IOException {
+        if (!kayitli.getParmakIzi().equals(parmakIzi)) {
+            hataYaz(response, 422, "Bu Idempotency-Key farklı bir istek için kullanılmış");
+            return;
+        }
+        response.setStatus(kayitli.getDurumKodu());
+        response.setHeader(REPLAY_HEADER, "true");
+        if (kayitli.getIcerikTipi() != null) {
+            response.setContentType(kayitli.getIcerikTipi());
+        }
+        if (kayitli.getKonum() != null) {
+            response.setHeader(HttpHeaders.LOCATION, kayitli.getKonum());
+        }
+        if (kayitli.getGovde() != null && kayitli.getGovde().length > 0) {
+            response.setContentLength(kayitli.getGovde().length);
+            response.getOutputStream().write(kayitli.getGovde());
+        }
+    }
+
+    private void hataYaz(HttpServletResponse response, int durum, String mesaj) throws IOException {
+        response.setStatus(durum);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"" + mesaj.replace("\"", "\\\"") + "\"}");
+    }
+
+    // Anahtarlar kullanıcıya (yoksa IP adresine) göre ayrılır; başka kullanıcının yanıtı dönmez
+    private String kapsam(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        Object kullaniciId = session != null ? session.getAttribute("KullaniciId") : null;
+        if (kullaniciId != null) {
+            return "k:" + kullaniciId;
+        }
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "p:" + principal.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private boolean isForm(HttpServletRequest request) {
+        String icerikTipi = request.getContentType();
+        return icerikTipi != null && (icerikTipi.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                || icerikTipi.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+    }
+
+    // CSRF token ve anahtarın kendisi her gönderimde değişebileceği için parmak izine katılmaz
+    private String parametreMetni(HttpServletRequest request) {
+        Map<String, String[]> siraliParametreler = new TreeMap<>(request.getParameterMap());
+        siraliParametreler.remove("_csrf");
+        siraliParametreler.remove(IDEMPOTENCY_PARAM);
+        StringBuilder metin = new StringBuilder();
+        for (Map.Entry<String, String[]> entry : siraliParametreler.entrySet()) {
+            metin.append(entry.getKey()).append('=').append(Arrays.toString(entry.getValue())).append('&');
+        }
+        return metin.toString();
+    }
+
+    private String parmakIzi(HttpServletRequest request, byte[] govde) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getServletPath().getBytes(StandardCharsets.UTF_8));
+            digest.update(govde);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
+        }
+    }
+
+    /**
+     * Async başlayan isteğin anahtarı - yanıt dispatch sonunda bir kez saklanır
+     */
+    private static class AsyncIslem {
+
+        private final String anahtar;
+        private final String parmakIzi;
+        private final AtomicBoolean bitti = new AtomicBoolean();
+
+        AsyncIslem(String anahtar, String parmakIzi) {
+            this.anahtar = anahtar;
+            this.parmakIzi = parmakIzi;
+        }
+    }
+
+    /**
+     * Gövdesi önceden okunmuş isteği controller'a tekrar okunabilir olarak verir
+     */
+    private static class TekrarOkunabilirIstek extends HttpServletRequestWrapper {
+
+        private final byte[] govde;
+
+        TekrarOkunabilirIstek(HttpServletRequest request, byte[] govde) {
+            super(request);
+            this.govde = govde;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream kaynak = new ByteArrayInputStream(govde);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return kaynak.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // Gövde zaten bellekte; dinleyici hemen bilgilendirilir
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return kaynak.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return kaynak.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String karakterSeti = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(karakterSeti)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.alperen.kitapsatissistemi.security;
+
+import com.alperen.kitapsatissistemi.service.JwtService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * JWT kimlik doğrulama filtresi - /api/** isteklerindeki "Authorization: Bearer" token'ını
+ * doğrular ve kimliği yalnızca bu istek için SecurityContext'e koyar; session okunmaz, yazılmaz.
+ * Token geçersizse istek 401 ile reddedilir. Token'sız istekler olduğu gibi devam eder.
+ * Servlet filtresi olarak otomatik kaydedilmemesi için bean değildir; SecurityConfig'te API
+ * zincirine eklenir.
+ */
+public class JwtKimlikDogrulamaFiltresi extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public JwtKimlikDogrulamaFiltresi(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String baslik = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (baslik == null || !baslik.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<JwtService.TokenSahibi> sahip = jwtService.dogrula(baslik.substring(BEARER.length()).trim());
+        if (!sahip.isPresent()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"error\":\"Token geçersiz veya süresi dolmuş\"}");
+            return;
+        }
+
+        // Web girişindeki rol dönüşümüyle aynı (Admin -> ROLE_ADMIN)
+        String rol = sahip.get().getRol() != null ? sahip.get().getRol().toUpperCase() : "USER";
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                sahip.get().getEmail(), null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + rol)));
+        authentication.setDetails(sahip.get());
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        filterChain.doFilter(request, response);
+    }
+}
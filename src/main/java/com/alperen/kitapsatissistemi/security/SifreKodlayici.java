@@ -0,0 +1,148 @@
+package com.alperen.kitapsatissistemi.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.function.IntSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Şifre kodlayıcı - BCrypt maliyetini (strength) sunucunun hızına göre seçer.
+ * Sabit bir güç verilmemişse ilk kullanımda en düşük maliyetle ölçüm yapılır; doğrulama süresi
+ * hedefi aşmayan en yüksek maliyet, alt ve üst sınırlar içinde kullanılır. Ölçüm açılışta
+ * yapılmaz; açılış süresine BCrypt hesaplaması eklenmez.
+ * Maliyet BCrypt hash'inin içinde saklanır ($2a$NN$...); eski hash'ler kendi maliyetleriyle
+ * doğrulanır. Maliyeti güncel politikadan farklı olan (zayıf veya gereğinden güçlü) hash'ler için
+ * upgradeEncoding true döner; girişte yeniden hash'lenirler. Çok düğümlü kurulumda ölçülen maliyet
+ * MaliyetDeposu ile paylaşılır; tüm düğümler aynı maliyeti kullanır, hash'ler düğümden düğüme
+ * yeniden hash'lenmez.
+ */
+public class SifreKodlayici implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SifreKodlayici.class);
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    // Doğrulamada maliyet hash'ten okunur; bu kodlayıcı yalnızca matches için kullanılır
+    private static final BCryptPasswordEncoder BCRYPT_DOGRULAYICI = new BCryptPasswordEncoder();
+
+    private final long hedefMs;
+    private final int minGuc;
+    private final int maxGuc;
+    private final MaliyetDeposu maliyetDeposu;
+
+    private volatile BCryptPasswordEncoder bcrypt;
+    private volatile int guc;
+
+    /**
+     * @param sabitGuc 0 ise maliyet ilk kullanımda ölçümle seçilir
+     * @param hedefMs  tek doğrulama için hedef süre
+     */
+    public SifreKodlayici(int sabitGuc, long hedefMs, int minGuc, int maxGuc) {
+        this(sabitGuc, hedefMs, minGuc, maxGuc, (politika, olcum) -> olcum.getAsInt());
+    }
+
+    /**
+     * @param maliyetDeposu ölçülen maliyeti düğümler arasında paylaşır
+     */
+    public SifreKodlayici(int sabitGuc, long hedefMs, int minGuc, int maxGuc, MaliyetDeposu maliyetDeposu) {
+        this.hedefMs = hedefMs;
+        this.minGuc = minGuc;
+        this.maxGuc = maxGuc;
+        this.maliyetDeposu = maliyetDeposu;
+        if (sabitGuc > 0) {
+            this.guc = sabitGuc;
+            this.bcrypt = new BCryptPasswordEncoder(sabitGuc);
+        }
+    }
+
+    @Override
+    public String encode(CharSequence sifre) {
+        return kodlayici().encode(sifre);
+    }
+
+    @Override
+    public boolean matches(CharSequence sifre, String sifreHash) {
+        return BCRYPT_DOGRULAYICI.matches(sifre, sifreHash);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String sifreHash) {
+        int hashGucu = gucu(sifreHash);
+        return hashGucu > 0 && hashGucu != getGuc();
+    }
+
+    public int getGuc() {
+        kodlayici();
+        return guc;
+    }
+
+    private BCryptPasswordEncoder kodlayici() {
+        BCryptPasswordEncoder mevcut = bcrypt;
+        if (mevcut == null) {
+            synchronized (this) {
+                mevcut = bcrypt;
+                if (mevcut == null) {
+                    // Saklanan değer eski bir politikadan kalmış olabilir; güncel sınırlara çekilir
+                    int kayitli = maliyetDeposu.getirVeyaOlc(politika(), () -> olc(hedefMs, minGuc, maxGuc));
+                    guc = Math.max(minGuc, Math.min(maxGuc, kayitli));
+                    mevcut = new BCryptPasswordEncoder(guc);
+                    bcrypt = mevcut;
+                }
+            }
+        }
+        return mevcut;
+    }
+
+    /**
+     * Hash'in BCrypt maliyeti; BCrypt hash'i değilse 0
+     */
+    private static int gucu(String sifreHash) {
+        if (sifreHash == null) {
+            return 0;
+        }
+        Matcher eslesme = BCRYPT.matcher(sifreHash);
+        return eslesme.find() ? Integer.parseInt(eslesme.group(1)) : 0;
+    }
+
+    /**
+     * En düşük maliyette bir doğrulamanın süresini ölçer; her maliyet artışı süreyi ikiye katlar.
+     */
+    private static int olc(long hedefMs, int minGuc, int maxGuc) {
+        String hash = BCrypt.hashpw("olcum", BCrypt.gensalt(minGuc));
+        long enIyi = Long.MAX_VALUE;
+        // İlk deneme JIT ısınmasını içerir; en hızlı deneme alınır
+        for (int i = 0; i < 3; i++) {
+            long baslama = System.nanoTime();
+            BCrypt.checkpw("olcum", hash);
+            enIyi = Math.min(enIyi, System.nanoTime() - baslama);
+        }
+        long hedefNanos = hedefMs * 1_000_000L;
+        int secilen = minGuc;
+        long sure = enIyi;
+        while (secilen < maxGuc && sure * 2 <= hedefNanos) {
+            secilen++;
+            sure *= 2;
+        }
+        logger.info("BCrypt maliyeti {} seçildi: maliyet {} doğrulaması {} ms, tahmini {} ms (hedef {} ms)",
+                secilen, minGuc, enIyi / 1_000_000, sure / 1_000_000, hedefMs);
+        return secilen;
+    }
+
+    // Ölçümü belirleyen ayarlar; biri değişince maliyet yeniden ölçülür
+    private String politika() {
+        return hedefMs + "ms:" + minGuc + "-" + maxGuc;
+    }
+
+    /**
+     * Ölçülen maliyetin saklandığı yer; politika için kayıtlı bir maliyet varsa ölçüm yapılmaz
+     */
+    @FunctionalInterface
+    public interface MaliyetDeposu {
+        int getirVeyaOlc(String politika, IntSupplier olcum);
+    }
+}
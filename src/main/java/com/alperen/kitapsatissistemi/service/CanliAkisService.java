@@ -0,0 +1,347 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.event.KitapDegistiEvent;
+import com.alperen.kitapsatissistemi.event.KullaniciKaydolduEvent;
+import com.alperen.kitapsatissistemi.event.OlayAbonesi;
+import com.alperen.kitapsatissistemi.event.SiparisDegistiEvent;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canlı akış - admin dashboard'una Server-Sent Events ile sipariş, stok ve kullanıcı olaylarını
+ * ve periyodik metrik değişimlerini iter. Her olay için gereken sorgu, bağlı istemci sayısından
+ * bağımsız olarak bir kez çalışır ve JSON'a bir kez çevrilir; aynı metin tüm istemcilere dağıtılır.
+ * Her istemcinin sınırlı bir tamponu vardır ve gönderim küçük bir thread havuzunda yapılır;
+ * tamponu dolan (yavaş) istemcinin bağlantısı kapatılır, tarayıcı EventSource ile yeniden bağlanır.
+ */
+@Service
+public class CanliAkisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CanliAkisService.class);
+
+    // Olay başına ayrıntısı gönderilen en fazla sipariş
+    private static final int DETAY_SINIRI = 20;
+
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final DashboardMetricsService dashboardMetricsService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${canli-akis.max-istemci:20}")
+    private int maxIstemci;
+
+    @Value("${canli-akis.tampon-boyutu:64}")
+    private int tamponBoyutu;
+
+    @Value("${canli-akis.gonderici-sayisi:2}")
+    private int gondericiSayisi;
+
+    @Value("${canli-akis.metrik-araligi-saniye:10}")
+    private long metrikAraligiSaniye;
+
+    @Value("${canli-akis.zaman-asimi-dakika:30}")
+    private long zamanAsimiDakika;
+
+    @Value("${canli-akis.dusuk-stok-esigi:5}")
+    private int dusukStokEsigi;
+
+    private final List<Istemci> istemciler = new CopyOnWriteArrayList<>();
+    private final AtomicLong olaySayaci = new AtomicLong();
+
+    // Son metrik olayından bu yana
+    private final LongAdder yeniSiparis = new LongAdder();
+    private final LongAdder durumDegisikligi = new LongAdder();
+    private final LongAdder yeniKullanici = new LongAdder();
+
+    // Olay sorguları ve metrikler bu thread'de, gönderim havuzda yapılır
+    private ScheduledExecutorService hazirlayici;
+    private ExecutorService gondericiler;
+
+    public CanliAkisService(JdbcTemplate jdbcTemplate, DashboardMetricsService dashboardMetricsService,
+                            ObjectMapper objectMapper) {
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.dashboardMetricsService = dashboardMetricsService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        hazirlayici = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "canli-akis");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger sayac = new AtomicInteger();
+        gondericiler = Executors.newFixedThreadPool(gondericiSayisi, r -> {
+            Thread thread = new Thread(r, "canli-gonderici-" + sayac.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        hazirlayici.scheduleWithFixedDelay(this::metrikGonder, metrikAraligiSaniye, metrikAraligiSaniye, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        hazirlayici.shutdownNow();
+        gondericiler.shutdownNow();
+        for (Istemci istemci : istemciler) {
+            istemci.emitter.complete();
+        }
+    }
+
+    /**
+     * Yeni bir istemci bağla. İlk olay olarak güncel toplamlar gönderilir.
+     */
+    public SseEmitter baglan() {
+        if (istemciler.size() >= maxIstemci) {
+            throw new KuyrukDoluException("Canlı akış bağlantı sınırına ulaşıldı, lütfen daha sonra tekrar deneyin.");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(zamanAsimiDakika));
+        Istemci istemci = new Istemci(emitter, tamponBoyutu);
+        emitter.onCompletion(() -> istemciler.remove(istemci));
+        emitter.onTimeout(() -> istemciler.remove(istemci));
+        emitter.onError(e -> istemciler.remove(istemci));
+        istemciler.add(istemci);
+        hazirlayici.execute(() -> {
+            Olay olay = olustur("metrik", metrikVerisi(0, 0, 0));
+            if (olay != null) {
+                ekle(istemci, olay);
+            }
+        });
+        return emitter;
+    }
+
+    public int getIstemciSayisi() {
+        return istemciler.size();
+    }
+
+    @OlayAbonesi
+    public void siparisDegisti(SiparisDegistiEvent event) {
+        List<Long> idler = new ArrayList<>(event.getSiparisIdleri());
+        if (idler.isEmpty()) {
+            return;
+        }
+        String tur = event.getTur();
+        if (SiparisDegistiEvent.OLUSTURULDU.equals(tur)) {
+            yeniSiparis.add(idler.size());
+        } else if (SiparisDegistiEvent.GUNCELLENDI.equals(tur)) {
+            durumDegisikligi.add(idler.size());
+        }
+        if (!istemciler.isEmpty()) {
+            hazirlayici.execute(() -> siparisOlayiGonder(tur, idler));
+        }
+    }
+
+    @OlayAbonesi
+    public void kitapDegisti(KitapDegistiEvent event) {
+        if (!istemciler.isEmpty() && event.getKitapId() != null) {
+            hazirlayici.execute(() -> stokKontrolEt(event.getKitapId()));
+        }
+    }
+
+    @OlayAbonesi
+    public void kullaniciKaydoldu(KullaniciKaydolduEvent event) {
+        yeniKullanici.increment();
+        if (!istemciler.isEmpty() && event.getKullaniciId() != null) {
+            hazirlayici.execute(() -> kullaniciOlayiGonder(event.getKullaniciId()));
+        }
+    }
+
+    private void siparisOlayiGonder(String tur, List<Long> idler) {
+        try {
+            List<Long> ilkler = idler.subList(0, Math.min(DETAY_SINIRI, idler.size()));
+            Map<String, Object> veri = new LinkedHashMap<>();
+            veri.put("adet", idler.size());
+            if (SiparisDegistiEvent.SILINDI.equals(tur)) {
+                veri.put("idler", ilkler);
+                yayinla(olustur("siparis-silindi", veri));
+                return;
+            }
+            List<Map<String, Object>> siparisler = namedJdbc.query(
+                    "SELECT s.id, s.durum, s.toplam_tutar, k.ad_soyad FROM siparisler s "
+                            + "JOIN kullanicilar k ON k.id = s.kullanici_id WHERE s.id IN (:idler) ORDER BY s.id",
+                    new MapSqlParameterSource("idler", ilkler), (rs, i) -> {
+                        Map<String, Object> siparis = new LinkedHashMap<>();
+                        siparis.put("id", rs.getLong(1));
+                        siparis.put("durum", rs.getString(2));
+                        siparis.put("toplamTutar", rs.getBigDecimal(3));
+                        siparis.put("musteri", rs.getString(4));
+                        return siparis;
+                    });
+            veri.put("siparisler", siparisler);
+            yayinla(olustur(SiparisDegistiEvent.OLUSTURULDU.equals(tur) ? "siparis-olusturuldu" : "siparis-durumu", veri));
+        } catch (Exception e) {
+            logger.error("Canlı akış sipariş olayı hazırlanamadı: {}", idler, e);
+        }
+    }
+
+    private void stokKontrolEt(Long kitapId) {
+        try {
+            List<Map<String, Object>> kitaplar = namedJdbc.queryForList(
+                    "SELECT id, ad, stok_miktari AS stok FROM kitaplar WHERE id = :id AND stok_miktari <= :esik",
+                    new MapSqlParameterSource("id", kitapId).addValue("esik", dusukStokEsigi));
+            for (Map<String, Object> kitap : kitaplar) {
+                yayinla(olustur("dusuk-stok", kitap));
+            }
+        } catch (Exception e) {
+            logger.error("Canlı akış stok kontrolü yapılamadı: {}", kitapId, e);
+        }
+    }
+
+    private void kullaniciOlayiGonder(Long kullaniciId) {
+        try {
+            List<Map<String, Object>> kullanicilar = namedJdbc.queryForList(
+                    "SELECT id, ad_soyad AS adSoyad, email FROM kullanicilar WHERE id = :id",
+                    new MapSqlParameterSource("id", kullaniciId));
+            for (Map<String, Object> kullanici : kullanicilar) {
+                yayinla(olustur("yeni-kullanici", kullanici));
+            }
+        } catch (Exception e) {
+            logger.error("Canlı akış kullanıcı olayı hazırlanamadı: {}", kullaniciId, e);
+        }
+    }
+
+    // Hata dışarı kaçarsa scheduleWithFixedDelay sonraki çalıştırmaları iptal eder
+    private void metrikGonder() {
+        try {
+            long siparis = yeniSiparis.sumThenReset();
+            long durum = durumDegisikligi.sumThenReset();
+            long kullanici = yeniKullanici.sumThenReset();
+            if (!istemciler.isEmpty()) {
+                yayinla(olustur("metrik", metrikVerisi(siparis, durum, kullanici)));
+            }
+        } catch (Exception e) {
+            logger.error("Canlı akış metrik olayı hazırlanamadı", e);
+        }
+    }
+
+    /**
+     * Son metrik olayından bu yana değişimler ve dashboard özetindeki toplamlar (sorgu çalıştırmaz)
+     */
+    private Map<String, Object> metrikVerisi(long siparis, long durum, long kullanici) {
+        Map<String, Object> veri = new LinkedHashMap<>();
+        veri.put("yeniSiparis", siparis);
+        veri.put("durumDegisikligi", durum);
+        veri.put("yeniKullanici", kullanici);
+        DashboardMetricsService.Ozet ozet = dashboardMetricsService.getOzet();
+        veri.put("kullaniciSayisi", ozet.getKullaniciSayisi());
+        veri.put("kitapSayisi", ozet.getKitapSayisi());
+        veri.put("kategoriSayisi", ozet.getKategoriSayisi());
+        veri.put("siparisSayisi", ozet.getSiparisSayisi());
+        veri.put("istemciSayisi", istemciler.size());
+        return veri;
+    }
+
+    private Olay olustur(String ad, Object veri) {
+        try {
+            return new Olay(olaySayaci.incrementAndGet(), ad, objectMapper.writeValueAsString(veri));
+        } catch (Exception e) {
+            logger.error("Canlı akış olayı JSON'a çevrilemedi: {}", ad, e);
+            return null;
+        }
+    }
+
+    private void yayinla(Olay olay) {
+        if (olay == null) {
+            return;
+        }
+        for (Istemci istemci : istemciler) {
+            ekle(istemci, olay);
+        }
+    }
+
+    private void ekle(Istemci istemci, Olay olay) {
+        if (!istemci.tampon.offer(olay)) {
+            logger.info("Canlı akış istemcisi yetişemiyor, bağlantı kapatılıyor");
+            kapat(istemci);
+            return;
+        }
+        if (istemci.gonderiliyor.compareAndSet(false, true)) {
+            gondericiler.execute(() -> bosalt(istemci));
+        }
+    }
+
+    private void bosalt(Istemci istemci) {
+        while (true) {
+            Olay olay;
+            while ((olay = istemci.tampon.poll()) != null) {
+                try {
+                    istemci.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(olay.id))
+                            .name(olay.ad)
+                            .data(olay.json, MediaType.APPLICATION_JSON));
+                } catch (Exception e) {
+                    // İstemci bağlantıyı kapattı
+                    kapat(istemci);
+                    return;
+                }
+            }
+            istemci.gonderiliyor.set(false);
+            if (istemci.tampon.isEmpty() || !istemci.gonderiliyor.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void kapat(Istemci istemci) {
+        if (istemciler.remove(istemci)) {
+            istemci.tampon.clear();
+            try {
+                istemci.emitter.complete();
+            } catch (Exception e) {
+                logger.debug("Canlı akış bağlantısı kapatılamadı: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static class Istemci {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Olay> tampon;
+        private final AtomicBoolean gonderiliyor = new AtomicBoolean();
+
+        private Istemci(SseEmitter emitter, int tamponBoyutu) {
+            this.emitter = emitter;
+            this.tampon = new ArrayBlockingQueue<>(tamponBoyutu);
+        }
+    }
+
+    /**
+     * JSON'a bir kez çevrilmiş, tüm istemcilere aynen gönderilen olay
+     */
+    private static class Olay {
+        private final long id;
+        private final String ad;
+        private final String json;
+
+        private Olay(long id, String ad, String json) {
+            this.id = id;
+            this.ad = ad;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.event.OlayAbonesi;
+import com.alperen.kitapsatissistemi.event.SiparisDegistiEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admin dashboard metrikleri - tüm sayılar birkaç toplama (COUNT ... GROUP BY) sorgusuyla
+ * hesaplanır ve değişmez bir özet (snapshot) olarak tutulur. Özet arka planda periyodik
+ * olarak yenilenir; sipariş değişikliklerinde kısa bir gecikmeyle erken yenilenir.
+ * Dashboard isteği sadece hazır özeti okur, sipariş sayısından bağımsızdır.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class DashboardMetricsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardMetricsService.class);
+
+    private static final int AY_SAYISI = 6;
+    private static final int SON_KAYIT_SAYISI = 5;
+    private static final Locale TR = new Locale("tr", "TR");
+    private static final String AY = "strftime('%Y-%m', siparis_tarihi / 1000, 'unixepoch', 'localtime')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SiparisArsivService siparisArsivService;
+    private final AtomicBoolean erkenYenilemeBekliyor = new AtomicBoolean();
+    private final ScheduledExecutorService yenileyici = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dashboard-yenileyici");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${dashboard.yenileme-saniye:60}")
+    private long yenilemeSaniye;
+
+    @Value("${dashboard.erken-yenileme-ms:1000}")
+    private long erkenYenilemeMs;
+
+    private volatile Ozet ozet;
+
+    public DashboardMetricsService(JdbcTemplate jdbcTemplate, SiparisArsivService siparisArsivService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.siparisArsivService = siparisArsivService;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        yenileyici.scheduleWithFixedDelay(this::yenileGuvenli, 0, Math.max(1, yenilemeSaniye), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        yenileyici.shutdownNow();
+    }
+
+    /**
+     * Güncel özet. Henüz hesaplanmadıysa (uygulama yeni açıldıysa) hemen hesaplanır.
+     */
+    public Ozet getOzet() {
+        Ozet mevcut = ozet;
+        return mevcut != null ? mevcut : yenile();
+    }
+
+    /**
+     * Sipariş değişti - birden çok değişiklik tek bir erken yenilemede birleştirilir
+     */
+    @OlayAbonesi
+    public void siparisDegisti(SiparisDegistiEvent event) {
+        if (erkenYenilemeBekliyor.compareAndSet(false, true)) {
+            yenileyici.schedule(() -> {
+                erkenYenilemeBekliyor.set(false);
+                yenileGuvenli();
+            }, erkenYenilemeMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Özeti veritabanından yeniden hesapla
+     */
+    public synchronized Ozet yenile() {
+        long baslangic = System.currentTimeMillis();
+        String arsiv = siparisArsivService.getSiparisTablosu();
+
+        Map<String, Object> sayilar = jdbcTemplate.queryForMap("SELECT "
+                + "(SELECT COUNT(*) FROM kullanicilar) AS kullanici, "
+                + "(SELECT COUNT(*) FROM kitaplar) AS kitap, "
+                + "(SELECT COUNT(*) FROM kategoriler) AS kategori, "
+                + "(SELECT COUNT(*) FROM siparisler) + (SELECT COUNT(*) FROM " + arsiv + ") AS siparis");
+
+        // Son 6 ayın sipariş sayıları tek sorguda, ay bazında
+        YearMonth buAy = YearMonth.now();
+        YearMonth ilkAy = buAy.minusMonths(AY_SAYISI - 1);
+        Timestamp pencereBaslangici = Timestamp.valueOf(ilkAy.atDay(1).atStartOfDay());
+        Map<String, Integer> ayaGore = new HashMap<>();
+        jdbcTemplate.query("SELECT ay, SUM(adet) FROM ("
+                        + "SELECT " + AY + " AS ay, COUNT(*) AS adet FROM siparisler WHERE siparis_tarihi >= ? GROUP BY 1 "
+                        + "UNION ALL SELECT " + AY + ", COUNT(*) FROM " + arsiv + " WHERE siparis_tarihi >= ? GROUP BY 1"
+                        + ") GROUP BY ay",
+                rs -> {
+                    ayaGore.put(rs.getString(1), rs.getInt(2));
+                }, pencereBaslangici, pencereBaslangici);
+        Map<String, Integer> aylikSiparisler = new LinkedHashMap<>();
+        for (int i = AY_SAYISI - 1; i >= 0; i--) {
+            YearMonth ay = buAy.minusMonths(i);
+            aylikSiparisler.put(ay.getMonth().getDisplayName(TextStyle.FULL, TR), ayaGore.getOrDefault(ay.toString(), 0));
+        }
+
+        Map<String, Integer> kategoriDagilimi = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT k.ad, COUNT(b.id) FROM kategoriler k LEFT JOIN kitaplar b ON b.kategori_id = k.id "
+                        + "GROUP BY k.id, k.ad ORDER BY k.id",
+                rs -> {
+                    kategoriDagilimi.put(rs.getString(1), rs.getInt(2));
+                });
+
+        // ID'ler zaman sıralı - son kayıtlar birincil anahtar üzerinden okunur
+        List<SonKullanici> sonKullanicilar = jdbcTemplate.query(
+                "SELECT id, ad_soyad, email, kayit_tarihi FROM kullanicilar ORDER BY id DESC LIMIT " + SON_KAYIT_SAYISI,
+                (rs, i) -> new SonKullanici(rs.getLong(1), rs.getString(2), rs.getString(3), tarih(rs.getTimestamp(4))));
+        List<SonKitap> sonKitaplar = jdbcTemplate.query(
+                "SELECT id, ad, yazar, fiyat FROM kitaplar ORDER BY id DESC LIMIT " + SON_KAYIT_SAYISI,
+                (rs, i) -> new SonKitap(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4)));
+        List<SonSiparis> sonSiparisler = jdbcTemplate.query(
+                "SELECT s.id, k.ad_soyad, s.toplam_tutar, s.siparis_tarihi, s.durum FROM siparisler s "
+                        + "JOIN kullanicilar k ON k.id = s.kullanici_id ORDER BY s.id DESC LIMIT " + SON_KAYIT_SAYISI,
+                (rs, i) -> new SonSiparis(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3),
+                        tarih(rs.getTimestamp(4)), rs.getString(5)));
+
+        Ozet yeni = new Ozet(sayi(sayilar.get("kullanici")), sayi(sayilar.get("kitap")), sayi(sayilar.get("kategori")),
+                sayi(sayilar.get("siparis")), ayaGore.getOrDefault(buAy.toString(), 0), aylikSiparisler, kategoriDagilimi,
+                sonKullanicilar, sonKitaplar, sonSiparisler, System.currentTimeMillis(), System.currentTimeMillis() - baslangic);
+        ozet = yeni;
+        logger.debug("Dashboard özeti yenilendi ({} ms)", yeni.getHesaplamaSuresiMs());
+        return yeni;
+    }
+
+    private void yenileGuvenli() {
+        try {
+            yenile();
+        } catch (Exception e) {
+            // Eski özet kullanılmaya devam eder
+            logger.warn("Dashboard özeti yenilenemedi: {}", e.getMessage());
+        }
+    }
+
+    private static long sayi(Object deger) {
+        return deger instanceof Number ? ((Number) deger).longValue() : 0;
+    }
+
+    private static LocalDateTime tarih(Timestamp deger) {
+        return deger != null ? deger.toLocalDateTime() : null;
+    }
+
+    /**
+     * Dashboard özeti - değişmez; her yenilemede yenisi oluşturulur
+     */
+    public static final class Ozet {
+
+        private final long kullaniciSayisi;
+        private final long kitapSayisi;
+        private final long kategoriSayisi;
+        private final long siparisSayisi;
+        private final long buAySiparisSayisi;
+        private final Map<String, Integer> aylikSiparisler;
+        private final Map<String, Integer> kategoriDagilimi;
+        private final List<SonKullanici> sonKullanicilar;
+        private final List<SonKitap> sonKitaplar;
+        private final List<SonSiparis> sonSiparisler;
+        private final long olusturmaZamani;
+        private final long hesaplamaSuresiMs;
+
+        Ozet(long kullaniciSayisi, long kitapSayisi, long kategoriSayisi, long siparisSayisi, long buAySiparisSayisi,
+             Map<String, Integer> aylikSiparisler, Map<String, Integer> kategoriDagilimi,
+             List<SonKullanici> sonKullanicilar, List<SonKitap> sonKitaplar, List<SonSiparis> sonSiparisler,
+             long olusturmaZamani, long hesaplamaSuresiMs) {
+            this.kullaniciSayisi = kullaniciSayisi;
+            this.kitapSayisi = kitapSayisi;
+            this.kategoriSayisi = kategoriSayisi;
+            this.siparisSayisi = siparisSayisi;
+            this.buAySiparisSayisi = buAySiparisSayisi;
+            this.aylikSiparisler = Collections.unmodifiableMap(aylikSiparisler);
+            this.kategoriDagilimi = Collections.unmodifiableMap(kategoriDagilimi);
+            this.sonKullanicilar = Collections.unmodifiableList(sonKullanicilar);
+            this.sonKitaplar = Collections.unmodifiableList(sonKitaplar);
+            this.sonSiparisler = Collections.unmodifiableList(sonSiparisler);
+            this.olusturmaZamani = olusturmaZamani;
+            this.hesaplamaSuresiMs = hesaplamaSuresiMs;
+        }
+
+        public long getKullaniciSayisi() {
+            return kullaniciSayisi;
+        }
+
+        public long getKitapSayisi() {
+            return kitapSayisi;
+        }
+
+        public long getKategoriSayisi() {
+            return kategoriSayisi;
+        }
+
+        public long getSiparisSayisi() {
+            return siparisSayisi;
+        }
+
+        public long getBuAySiparisSayisi() {
+            return buAySiparisSayisi;
+        }
+
+        public Map<String, Integer> getAylikSiparisler() {
+            return aylikSiparisler;
+        }
+
+        public Map<String, Integer> getKategoriDagilimi() {
+            return kategoriDagilimi;
+        }
+
+        public List<SonKullanici> getSonKullanicilar() {
+            return sonKullanicilar;
+        }
+
+        public List<SonKitap> getSonKitaplar() {
+            return sonKitaplar;
+        }
+
+        public List<SonSiparis> getSonSiparisler() {
+            return sonSiparisler;
+        }
+
+        public long getOlusturmaZamani() {
+            return olusturmaZamani;
+        }
+
+        public long getHesaplamaSuresiMs() {
+            return hesaplamaSuresiMs;
+        }
+    }
+
+    public static final class SonKullanici {
+
+        private final Long id;
+        private final String adSoyad;
+        private final String email;
+        private final LocalDateTime kayitTarihi;
+
+        SonKullanici(Long id, String adSoyad, String email, LocalDateTime kayitTarihi) {
+            this.id = id;
+            this.adSoyad = adSoyad;
+            this.email = email;
+            this.kayitTarihi = kayitTarihi;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getAdSoyad() {
+            return adSoyad;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public LocalDateTime getKayitTarihi() {
+            return kayitTarihi;
+        }
+    }
+
+    public static final class SonKitap {
+
+        private final Long id;
+        private final String ad;
+        private final String yazar;
+        private final BigDecimal fiyat;
+
+        SonKitap(Long id, String ad, String yazar, BigDecimal fiyat) {
+            this.id = id;
+            this.ad = ad;
+            this.yazar = yazar;
+            this.fiyat = fiyat;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getAd() {
+            return ad;
+        }
+
+        public String getYazar() {
+            return yazar;
+        }
+
+        public BigDecimal getFiyat() {
+            return fiyat;
+        }
+    }
+
+    public static final class SonSiparis {
+
+        private final Long id;
+        private final String musteriAdi;
+        private final BigDecimal toplamTutar;
+        private final LocalDateTime siparisTarihi;
+        private final String durum;
+
+        SonSiparis(Long id, String musteriAdi, BigDecimal toplamTutar, LocalDateTime siparisTarihi, String durum) {
+            this.id = id;
+            this.musteriAdi = musteriAdi;
+            this.toplamTutar = toplamTutar;
+            this.siparisTarihi = siparisTarihi;
+            this.durum = durum;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getMusteriAdi() {
+            return musteriAdi;
+        }
+
+        public BigDecimal getToplamTutar() {
+            return toplamTutar;
+        }
+
+        public LocalDateTime getSiparisTarihi() {
+            return siparisTarihi;
+        }
+
+        public String getDurum() {
+            return durum;
+        }
+    }
+}
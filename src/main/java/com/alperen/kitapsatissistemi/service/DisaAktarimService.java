@@ -0,0 +1,305 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Akışlı CSV dışa aktarımı - satırlar id sırasıyla cursor üzerinden okunur ve tekrar
+ * kullanılan tek bir satır tamponuyla doğrudan çıktıya yazılır; entity oluşturulmaz,
+ * bellek kullanımı satır sayısından bağımsızdır.
+ * Kesilen bir indirme, son satırın id'si sonId olarak verilerek kaldığı yerden sürdürülür
+ * (sürdürülen indirmede başlık satırı yazılmaz, dosyalar uç uca eklenebilir).
+ * Admin toplu işlemindeki seçili kayıtların dışa aktarımı da aynı sorgu ve yazıcıyı kullanır.
+ */
+@Service
+public class DisaAktarimService {
+
+    // Excel'in UTF-8 CSV'yi doğru açması için
+    private static final char BOM = '\uFEFF';
+
+    // SQLite tek ifadede en fazla 999 parametre kabul eder; sipariş sorgusu parametreleri iki kez kullanır
+    private static final int MAX_PARAMETRE = 900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SiparisArsivService siparisArsivService;
+
+    @Value("${disa-aktarim.fetch-size:1000}")
+    private int fetchSize;
+
+    public DisaAktarimService(JdbcTemplate jdbcTemplate, SiparisArsivService siparisArsivService) {
+        // Dışa aktarım sorguları için ayrı şablon: satırlar parça parça çekilir, süre sınırı yok
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.siparisArsivService = siparisArsivService;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Dışa aktarımı doğrula ve sorgusunu hazırla. Tarih aralığı siparişler ve kullanıcılar,
+     * durum yalnızca siparişler için geçerlidir. Yanıt başlıkları yazılmadan önce çağrılır.
+     */
+    public Aktarim hazirla(String tip, Long sonId, LocalDate baslangic, LocalDate bitis, String durum) {
+        String normalTip = tip != null ? tip.trim().toLowerCase(Locale.ROOT) : "";
+        String tarihKolonu = tarihKolonu(normalTip);
+        boolean durumVar = durum != null && !durum.trim().isEmpty();
+        if ((baslangic != null || bitis != null) && tarihKolonu == null) {
+            throw new BusinessException("Tarih filtresi bu kayıt tipi için geçerli değil: " + tip);
+        }
+        if (durumVar && !TopluIslemService.TIP_SIPARIS.equals(normalTip)) {
+            throw new BusinessException("Durum filtresi yalnızca siparişler için geçerlidir");
+        }
+        if (baslangic != null && bitis != null && bitis.isBefore(baslangic)) {
+            throw new BusinessException("Bitiş tarihi başlangıç tarihinden önce olamaz");
+        }
+
+        StringBuilder kosul = new StringBuilder("id > ?");
+        List<Object> parametreler = new ArrayList<>();
+        parametreler.add(sonId != null ? sonId : 0L);
+        if (baslangic != null) {
+            kosul.append(" AND ").append(tarihKolonu).append(" >= ?");
+            parametreler.add(Timestamp.valueOf(baslangic.atStartOfDay()));
+        }
+        if (bitis != null) {
+            kosul.append(" AND ").append(tarihKolonu).append(" < ?");
+            parametreler.add(Timestamp.valueOf(bitis.plusDays(1).atStartOfDay()));
+        }
+        if (durumVar) {
+            kosul.append(" AND durum = ?");
+            parametreler.add(durum.trim());
+        }
+        return aktarim(normalTip, tip, kosul.toString(), parametreler, sonId == null, 0);
+    }
+
+    /**
+     * Seçilen kayıtların dışa aktarımını hazırla. Id'ler sıralanıp parçalara bölünür; yalnızca ilk
+     * parça başlık yazar, parçalar sırayla aynı çıktıya yazılınca dosya id sıralı olur.
+     */
+    public List<Aktarim> hazirla(String tip, List<Long> idler) {
+        String normalTip = tip != null ? tip.trim().toLowerCase(Locale.ROOT) : "";
+        List<Long> sirali = new ArrayList<>(idler);
+        Collections.sort(sirali);
+        int parcaBoyutu = TopluIslemService.TIP_SIPARIS.equals(normalTip) ? MAX_PARAMETRE / 2 : MAX_PARAMETRE;
+        List<Aktarim> aktarimlar = new ArrayList<>();
+        for (int i = 0; i < sirali.size(); i += parcaBoyutu) {
+            List<Object> parca = new ArrayList<>(sirali.subList(i, Math.min(i + parcaBoyutu, sirali.size())));
+            String kosul = "id IN (" + String.join(",", Collections.nCopies(parca.size(), "?")) + ")";
+            aktarimlar.add(aktarim(normalTip, tip, kosul, parca, i == 0, parca.size()));
+        }
+        return aktarimlar;
+    }
+
+    private Aktarim aktarim(String normalTip, String tip, String kosul, List<Object> parametreler, boolean baslikli,
+                            int seciliKayitSayisi) {
+        String kolonlar;
+        String sql;
+        switch (normalTip) {
+            case TopluIslemService.TIP_SIPARIS:
+                // Sıcak ve arşiv tabloları id sırasıyla birleştirilir; SQLite iki sıralı akışı sıralamadan birleştirir
+                kolonlar = "id, siparis_tarihi, kullanici_id, toplam_tutar, durum";
+                sql = "SELECT " + kolonlar + " FROM siparisler WHERE " + kosul
+                        + " UNION ALL SELECT " + kolonlar + " FROM " + siparisArsivService.getSiparisTablosu()
+                        + " WHERE " + kosul + " ORDER BY id";
+                List<Object> ikiKez = new ArrayList<>(parametreler);
+                ikiKez.addAll(parametreler);
+                parametreler = ikiKez;
+                break;
+            case TopluIslemService.TIP_KITAP:
+                kolonlar = "id, ad, yazar, fiyat, stok_miktari, kategori_id";
+                sql = "SELECT " + kolonlar + " FROM kitaplar WHERE " + kosul + " ORDER BY id";
+                break;
+            case TopluIslemService.TIP_KULLANICI:
+                kolonlar = "id, ad_soyad, email, rol, kayit_tarihi";
+                sql = "SELECT " + kolonlar + " FROM kullanicilar WHERE " + kosul + " ORDER BY id";
+                break;
+            case TopluIslemService.TIP_FAVORI:
+                kolonlar = "id, kullanici_id, kitap_id";
+                sql = "SELECT " + kolonlar + " FROM favoriler WHERE " + kosul + " ORDER BY id";
+                break;
+            default:
+                throw new BusinessException("Geçersiz kayıt tipi: " + tip);
+        }
+
+        return new Aktarim(normalTip, sql, parametreler.toArray(), kolonlar.split(", "), baslikli, seciliKayitSayisi);
+    }
+
+    /**
+     * Hazırlanan dışa aktarımı CSV olarak yaz.
+     *
+     * @return yazılan satır sayısı
+     */
+    public long yaz(Aktarim aktarim, Writer cikti) throws IOException {
+        CsvYazici yazici = new CsvYazici(cikti, aktarim.kolonlar);
+        try {
+            if (aktarim.baslikli) {
+                yazici.baslikYaz();
+            }
+            jdbcTemplate.query(aktarim.sql, yazici::satirYaz, aktarim.parametreler);
+        } catch (UncheckedIOException e) {
+            // İstemci bağlantıyı kesti; sorgu JdbcTemplate tarafından kapatıldı
+            throw e.getCause();
+        }
+        cikti.flush();
+        return yazici.satirSayisi;
+    }
+
+    private String tarihKolonu(String tip) {
+        if (TopluIslemService.TIP_SIPARIS.equals(tip)) {
+            return "siparis_tarihi";
+        }
+        if (TopluIslemService.TIP_KULLANICI.equals(tip)) {
+            return "kayit_tarihi";
+        }
+        return null;
+    }
+
+    /**
+     * Doğrulanmış dışa aktarım isteği.
+     */
+    public static class Aktarim {
+        private final String tip;
+        private final String sql;
+        private final Object[] parametreler;
+        private final String[] kolonlar;
+        private final boolean baslikli;
+        private final int seciliKayitSayisi;
+
+        private Aktarim(String tip, String sql, Object[] parametreler, String[] kolonlar, boolean baslikli,
+                        int seciliKayitSayisi) {
+            this.tip = tip;
+            this.sql = sql;
+            this.parametreler = parametreler;
+            this.kolonlar = kolonlar;
+            this.baslikli = baslikli;
+            this.seciliKayitSayisi = seciliKayitSayisi;
+        }
+
+        public String getTip() {
+            return tip;
+        }
+
+        /**
+         * Seçili kayıt aktarımında bu parçadaki id sayısı, diğerlerinde 0
+         */
+        public int getSeciliKayitSayisi() {
+            return seciliKayitSayisi;
+        }
+    }
+
+    /**
+     * Satırları tek bir tamponla CSV'ye çevirir.
+     */
+    private static class CsvYazici {
+
+        private static final ZoneId ZAMAN_DILIMI = ZoneId.systemDefault();
+        private static final Pattern SAYI = Pattern.compile("[-+]?\\d+(\\.\\d+)?");
+
+        private final Writer cikti;
+        private final String[] kolonlar;
+        private final boolean[] tarihKolonlari;
+        private final StringBuilder satir = new StringBuilder(256);
+        private char[] tampon = new char[256];
+        private long satirSayisi;
+
+        private CsvYazici(Writer cikti, String[] kolonlar) {
+            this.cikti = cikti;
+            this.kolonlar = kolonlar;
+            this.tarihKolonlari = new boolean[kolonlar.length];
+            for (int i = 0; i < kolonlar.length; i++) {
+                tarihKolonlari[i] = kolonlar[i].endsWith("_tarihi");
+            }
+        }
+
+        private void baslikYaz() {
+            satir.setLength(0);
+            satir.append(BOM).append(String.join(",", kolonlar)).append('\n');
+            yaz();
+        }
+
+        private void satirYaz(ResultSet rs) throws SQLException {
+            satir.setLength(0);
+            for (int i = 0; i < kolonlar.length; i++) {
+                if (i > 0) {
+                    satir.append(',');
+                }
+                if (tarihKolonlari[i]) {
+                    // Tarihler SQLite'ta epoch milisaniye olarak tutulur
+                    long epoch = rs.getLong(i + 1);
+                    if (!rs.wasNull()) {
+                        satir.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(epoch), ZAMAN_DILIMI));
+                    }
+                } else {
+                    alanEkle(rs.getString(i + 1));
+                }
+            }
+            satir.append('\n');
+            yaz();
+            satirSayisi++;
+        }
+
+        private void alanEkle(String metin) {
+            if (metin == null) {
+                return;
+            }
+            if (formulMu(metin)) {
+                // Excel'in hücreyi formül olarak çalıştırmaması için metin olarak işaretlenir
+                metin = "'" + metin;
+            }
+            if (metin.indexOf(',') >= 0 || metin.indexOf('"') >= 0 || metin.indexOf('\n') >= 0 || metin.indexOf('\r') >= 0) {
+                satir.append('"');
+                for (int i = 0; i < metin.length(); i++) {
+                    char c = metin.charAt(i);
+                    if (c == '"') {
+                        satir.append('"');
+                    }
+                    satir.append(c);
+                }
+                satir.append('"');
+            } else {
+                satir.append(metin);
+            }
+        }
+
+        // =, +, -, @, sekme veya CR ile başlayan metinler tablolarda formül olarak yorumlanır; sayılar hariç
+        private static boolean formulMu(String metin) {
+            if (metin.isEmpty() || "=+-@\t\r".indexOf(metin.charAt(0)) < 0) {
+                return false;
+            }
+            return !SAYI.matcher(metin).matches();
+        }
+
+        private void yaz() {
+            int uzunluk = satir.length();
+            if (tampon.length < uzunluk) {
+                tampon = new char[Math.max(uzunluk, tampon.length * 2)];
+            }
+            satir.getChars(0, uzunluk, tampon, 0);
+            try {
+                cikti.write(tampon, 0, uzunluk);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.alperen.kitapsatissistemi.service;
 import com.alperen.kitapsatissistemi.entity.Favori;
 import com.alperen.kitapsatissistemi.entity.Kullanici;
 import com.alperen.kitapsatissistemi.entity.Kitap;
+import com.alperen.kitapsatissistemi.event.FavoriDegistiEvent;
+import com.alperen.kitapsatissistemi.event.OlayYolu;
 import com.alperen.kitapsatissistemi.repository.FavoriRepository;
 import com.alperen.kitapsatissistemi.repository.KullaniciRepository;
 import com.alperen.kitapsatissistemi.repository.KitapRepository;
@@ -25,14 +27,17 @@ public class FavoriService {
     private final FavoriRepository favoriRepository;
     private final KullaniciRepository kullaniciRepository;
     private final KitapRepository kitapRepository;
+    private final OlayYolu olayYolu;
     
     @Autowired
     public FavoriService(FavoriRepository favoriRepository, 
                         KullaniciRepository kullaniciRepository,
-                        KitapRepository kitapRepository) {
+                        KitapRepository kitapRepository,
+                        OlayYolu olayYolu) {
         this.favoriRepository = favoriRepository;
         this.kullaniciRepository = kullaniciRepository;
         this.kitapRepository = kitapRepository;
+        this.olayYolu = olayYolu;
     }
     
     /**
@@ -110,18 +115,20 @@ public class FavoriService {
         
         Favori favori = new Favori(kullanici, kitap);
         
-        return favoriRepository.save(favori);
+        Favori kaydedilen = favoriRepository.save(favori);
+        olayYolu.yayinla(new FavoriDegistiEvent(FavoriDegistiEvent.EKLENDI, kullaniciId, kitapId));
+        return kaydedilen;
     }
     
     /**
      * Favori sil
      */
     public void deleteFavori(Long id) {
-        if (!favoriRepository.existsById(id)) {
-            throw new RuntimeException("Favori bulunamadı, ID: " + id);
-        }
+        Favori favori = favoriRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Favori bulunamadı, ID: " + id));
         
-        favoriRepository.deleteById(id);
+        favoriRepository.delete(favori);
+        silindi(favori);
     }
     
     /**
@@ -132,6 +139,7 @@ public class FavoriService {
         
         if (favoriOpt.isPresent()) {
             favoriRepository.delete(favoriOpt.get());
+            olayYolu.yayinla(new FavoriDegistiEvent(FavoriDegistiEvent.SILINDI, kullaniciId, kitapId));
         } else {
             throw new RuntimeException("Favori bulunamadı");
         }
@@ -143,6 +151,9 @@ public class FavoriService {
     public void deleteAllFavorilerByKullaniciId(Long kullaniciId) {
         List<Favori> favoriler = favoriRepository.findByKullanici_Id(kullaniciId);
         favoriRepository.deleteAll(favoriler);
+        if (!favoriler.isEmpty()) {
+            olayYolu.yayinla(new FavoriDegistiEvent(FavoriDegistiEvent.SILINDI, kullaniciId, null));
+        }
     }
     
     /**
@@ -151,6 +162,9 @@ public class FavoriService {
     public void deleteAllFavorilerByKitapId(Long kitapId) {
         List<Favori> favoriler = favoriRepository.findByKitap_Id(kitapId);
         favoriRepository.deleteAll(favoriler);
+        if (!favoriler.isEmpty()) {
+            olayYolu.yayinla(new FavoriDegistiEvent(FavoriDegistiEvent.SILINDI, null, kitapId));
+        }
     }
     
     /**
@@ -223,7 +237,10 @@ public class FavoriService {
      * ID ile favori sil
      */
     public void deleteById(Long id) {
-        favoriRepository.deleteById(id);
+        favoriRepository.findById(id).ifPresent(favori -> {
+            favoriRepository.delete(favori);
+            silindi(favori);
+        });
     }
     
     /**
@@ -231,6 +248,7 @@ public class FavoriService {
      */
     public void deleteByKullaniciId(Long kullaniciId) {
         favoriRepository.deleteByKullanici_Id(kullaniciId);
+        olayYolu.yayinla(new FavoriDegistiEvent(FavoriDegistiEvent.SILINDI, kullaniciId, null));
     }
     
     /**
@@ -238,6 +256,12 @@ public class FavoriService {
      */
     public void deleteByKitapId(Long kitapId) {
         favoriRepository.deleteByKitap_Id(kitapId);
+        olayYolu.yayinla(new FavoriDegistiEvent(FavoriDegistiEvent.SILINDI, null, kitapId));
+    }
+    
+    private void silindi(Favori favori) {
+        olayYolu.yayinla(new FavoriDegistiEvent(FavoriDegistiEvent.SILINDI,
+            favori.getKullanici().getId(), favori.getKitap().getId()));
     }
     
     /**
@@ -0,0 +1,231 @@
+package com.alperen.kitapsatissistemi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency-Key deposu - anahtar başına ilk isteğin yanıtını saklar.
+ * Bellekteki depo boyut sınırlıdır (en eski kayıt atılır) ve kayıtlar
+ * TTL sonunda silinir. İsteğe bağlı olarak yanıtlar SQLite'a da yazılır,
+ * böylece yeniden başlatma sonrası tekrar eden istekler de yakalanır.
+ * Aynı anahtarla eşzamanlı gelen istekler ilk isteğin sonucunu bekler.
+ * Veritabanı yazmaları transaction içinde yapılır; böylece tek yazıcı bağlantısına yönlenir.
+ */
+@Component
+public class IdempotencyDeposu {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyDeposu.class);
+
+    private static final String TABLO_SQL = "CREATE TABLE IF NOT EXISTS idempotency_kayitlari ("
+            + "anahtar VARCHAR(400) PRIMARY KEY, parmak_izi VARCHAR(64) NOT NULL, durum_kodu INTEGER NOT NULL, "
+            + "icerik_tipi VARCHAR(200), konum VARCHAR(1000), govde BLOB, olusturma_tarihi TIMESTAMP NOT NULL)";
+    private static final String EKLE_SQL = "INSERT OR REPLACE INTO idempotency_kayitlari "
+            + "(anahtar, parmak_izi, durum_kodu, icerik_tipi, konum, govde, olusturma_tarihi) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String BUL_SQL = "SELECT parmak_izi, durum_kodu, icerik_tipi, konum, govde, olusturma_tarihi "
+            + "FROM idempotency_kayitlari WHERE anahtar = ? AND olusturma_tarihi >= ?";
+    private static final String TEMIZLE_SQL = "DELETE FROM idempotency_kayitlari WHERE olusturma_tarihi < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<String, CompletableFuture<KayitliYanit>> suruyor = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService temizleyici = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "idempotency-temizleyici");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${idempotency.ttl-dakika:1440}")
+    private long ttlDakika;
+
+    @Value("${idempotency.max-kayit:10000}")
+    private int maxKayit;
+
+    @Value("${idempotency.kalici:false}")
+    private boolean kalici;
+
+    // Ekleme sırasına göre tutulur; sınır aşılınca en eski kayıt atılır
+    private Map<String, KayitliYanit> yanitlar;
+
+    public IdempotencyDeposu(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        yanitlar = new LinkedHashMap<String, KayitliYanit>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, KayitliYanit> eldest) {
+                return size() > maxKayit;
+            }
+        };
+        if (kalici) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute(TABLO_SQL));
+        }
+        long aralikDakika = Math.max(1, Math.min(ttlDakika, 10));
+        temizleyici.scheduleWithFixedDelay(this::suresiDolanlariTemizle, aralikDakika, aralikDakika, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        temizleyici.shutdownNow();
+    }
+
+    /**
+     * Anahtar için saklanan yanıtı getir (süresi dolmuşsa boş)
+     */
+    public Optional<KayitliYanit> getYanit(String anahtar) {
+        long sinir = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ttlDakika);
+        KayitliYanit yanit;
+        synchronized (yanitlar) {
+            yanit = yanitlar.get(anahtar);
+        }
+        if (yanit != null) {
+            return yanit.getOlusturmaZamani() >= sinir ? Optional.of(yanit) : Optional.empty();
+        }
+        if (!kalici) {
+            return Optional.empty();
+        }
+        List<KayitliYanit> bulunan = jdbcTemplate.query(BUL_SQL, (rs, i) -> new KayitliYanit(
+                rs.getString("parmak_izi"), rs.getInt("durum_kodu"), rs.getString("icerik_tipi"),
+                rs.getString("konum"), rs.getBytes("govde"), rs.getTimestamp("olusturma_tarihi").getTime()),
+                anahtar, new Timestamp(sinir));
+        if (bulunan.isEmpty()) {
+            return Optional.empty();
+        }
+        synchronized (yanitlar) {
+            yanitlar.put(anahtar, bulunan.get(0));
+        }
+        return Optional.of(bulunan.get(0));
+    }
+
+    /**
+     * Anahtar için işlemi başlat. Aynı anahtarla süren bir işlem varsa onun
+     * future'ı döner (çağıran bekler); yoksa null döner ve çağıran işlemi yürütür.
+     * Çağıranın yanıt kontrolü ile bu çağrı arasında önceki işlem tamamlanmış olabilir;
+     * sahiplik alındıktan sonra yanıt tekrar kontrol edilir ve varsa tamamlanmış future döner.
+     */
+    public CompletableFuture<KayitliYanit> baslatVeyaKatil(String anahtar) {
+        CompletableFuture<KayitliYanit> yeni = new CompletableFuture<>();
+        CompletableFuture<KayitliYanit> suren = suruyor.putIfAbsent(anahtar, yeni);
+        if (suren != null) {
+            return suren;
+        }
+        // tamamla yanıtı suruyor'dan silmeden önce yazar; burada görünmüyorsa işlem henüz yapılmamıştır
+        KayitliYanit kayitli = getYanit(anahtar).orElse(null);
+        if (kayitli == null) {
+            return null;
+        }
+        suruyor.remove(anahtar, yeni);
+        yeni.complete(kayitli);
+        return yeni;
+    }
+
+    /**
+     * İşlem bitti - yanıtı sakla ve bekleyenleri uyandır.
+     * yanit null ise (saklanmayacak yanıt) bekleyenler kendileri tekrar dener.
+     */
+    public void tamamla(String anahtar, KayitliYanit yanit) {
+        if (yanit != null) {
+            synchronized (yanitlar) {
+                yanitlar.put(anahtar, yanit);
+            }
+            if (kalici) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(EKLE_SQL, anahtar,
+                            yanit.getParmakIzi(), yanit.getDurumKodu(), yanit.getIcerikTipi(), yanit.getKonum(),
+                            yanit.getGovde(), new Timestamp(yanit.getOlusturmaZamani())));
+                } catch (Exception e) {
+                    // Yanıt bellekte saklandı; yalnızca yeniden başlatma sonrası tekrarlar yakalanmaz
+                    logger.error("Idempotency kaydı veritabanına yazılamadı ({})", anahtar, e);
+                }
+            }
+        }
+        CompletableFuture<KayitliYanit> future = suruyor.remove(anahtar);
+        if (future != null) {
+            future.complete(yanit);
+        }
+    }
+
+    private void suresiDolanlariTemizle() {
+        long sinir = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ttlDakika);
+        try {
+            synchronized (yanitlar) {
+                // Ekleme sırası korunduğu için ilk taze kayıtta durulabilir
+                Iterator<KayitliYanit> iterator = yanitlar.values().iterator();
+                while (iterator.hasNext() && iterator.next().getOlusturmaZamani() < sinir) {
+                    iterator.remove();
+                }
+            }
+            if (kalici) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(TEMIZLE_SQL, new Timestamp(sinir)));
+            }
+        } catch (Exception e) {
+            logger.error("Süresi dolan idempotency kayıtları temizlenemedi", e);
+        }
+    }
+
+    /**
+     * Saklanan yanıt - durum kodu, içerik tipi, Location başlığı ve gövde
+     */
+    public static class KayitliYanit {
+
+        private final String parmakIzi;
+        private final int durumKodu;
+        private final String icerikTipi;
+        private final String konum;
+        private final byte[] govde;
+        private final long olusturmaZamani;
+
+        public KayitliYanit(String parmakIzi, int durumKodu, String icerikTipi, String konum, byte[] govde, long olusturmaZamani) {
+            this.parmakIzi = parmakIzi;
+            this.durumKodu = durumKodu;
+            this.icerikTipi = icerikTipi;
+            this.konum = konum;
+            this.govde = govde;
+            this.olusturmaZamani = olusturmaZamani;
+        }
+
+        public String getParmakIzi() {
+            return parmakIzi;
+        }
+
+        public int getDurumKodu() {
+            return durumKodu;
+        }
+
+        public String getIcerikTipi() {
+            return icerikTipi;
+        }
+
+        public String getKonum() {
+            return konum;
+        }
+
+        public byte[] getGovde() {
+            return govde;
+        }
+
+        public long getOlusturmaZamani() {
+            return olusturmaZamani;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.entity.Kullanici;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT servisi - /api/** için kısa ömürlü, HMAC-SHA256 imzalı erişim token'ları üretir ve doğrular.
+ * Token kullanıcı id'sini, e-postasını ve rolünü taşır; doğrulama veritabanına veya session'a gitmez.
+ * Anahtarlar açılışta bir kez çözülüp kid'e göre bellekte tutulur ve parser bir kez kurulur.
+ * İlk anahtar imzalar, diğerleri yalnızca doğrular; anahtar değiştirilirken eski anahtarla
+ * imzalanmış token'lar süreleri dolana kadar geçerli kalır.
+ */
+@Service
+public class JwtService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
+
+    private static final String YAYINCI = "kitap-satis-sistemi";
+    private static final String EMAIL = "email";
+    private static final String ROL = "rol";
+    private static final String GECICI_KID = "gecici";
+
+    // "kid:base64" biçiminde, virgülle ayrılmış; boşsa geçici anahtar üretilir
+    @Value("${api.jwt.anahtarlar:}")
+    private String anahtarTanimlari;
+
+    @Value("${api.jwt.erisim-suresi-dakika:15}")
+    private long erisimSuresiDakika;
+
+    private Map<String, SecretKey> anahtarlar;
+    private String imzaKid;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void baslat() {
+        Map<String, SecretKey> cozulen = new LinkedHashMap<>();
+        for (String tanim : StringUtils.commaDelimitedListToStringArray(anahtarTanimlari)) {
+            tanim = tanim.trim();
+            if (tanim.isEmpty()) {
+                continue;
+            }
+            int ayrac = tanim.indexOf(':');
+            if (ayrac <= 0) {
+                throw new IllegalStateException("api.jwt.anahtarlar 'kid:base64' biçiminde olmalıdır");
+            }
+            String kid = tanim.substring(0, ayrac).trim();
+            byte[] anahtar = Base64.getDecoder().decode(tanim.substring(ayrac + 1).trim());
+            if (anahtar.length < 32) {
+                throw new IllegalStateException("JWT anahtarı en az 256 bit olmalıdır: " + kid);
+            }
+            cozulen.put(kid, new SecretKeySpec(anahtar, "HmacSHA256"));
+        }
+        if (cozulen.isEmpty()) {
+            byte[] anahtar = new byte[32];
+            new SecureRandom().nextBytes(anahtar);
+            cozulen.put(GECICI_KID, new SecretKeySpec(anahtar, "HmacSHA256"));
+            logger.warn("api.jwt.anahtarlar tanımlı değil; geçici JWT anahtarı üretildi. "
+                    + "Token'lar yeniden başlatmada geçersiz olur ve düğümler arasında paylaşılamaz.");
+        }
+        anahtarlar = Collections.unmodifiableMap(cozulen);
+        imzaKid = cozulen.keySet().iterator().next();
+        parser = Jwts.parserBuilder()
+                .requireIssuer(YAYINCI)
+                .setAllowedClockSkewSeconds(30)
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        SecretKey anahtar = header.getKeyId() != null ? anahtarlar.get(header.getKeyId()) : null;
+                        if (anahtar == null) {
+                            throw new JwtException("Bilinmeyen JWT anahtarı: " + header.getKeyId());
+                        }
+                        return anahtar;
+                    }
+                })
+                .build();
+        logger.info("JWT anahtarları yüklendi: {} (imzalayan: {})", anahtarlar.keySet(), imzaKid);
+    }
+
+    /**
+     * Kullanıcı için erişim token'ı üret
+     */
+    public String erisimTokeniUret(Kullanici kullanici) {
+        long simdi = System.currentTimeMillis();
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, imzaKid)
+                .setIssuer(YAYINCI)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(String.valueOf(kullanici.getId()))
+                .claim(EMAIL, kullanici.getEmail())
+                .claim(ROL, kullanici.getRol())
+                .setIssuedAt(new Date(simdi))
+                .setExpiration(new Date(simdi + TimeUnit.MINUTES.toMillis(erisimSuresiDakika)))
+                .signWith(anahtarlar.get(imzaKid), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Erişim token'ını doğrula; imza, yayıncı veya süre geçersizse boş döner
+     */
+    public Optional<TokenSahibi> dogrula(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return Optional.of(new TokenSahibi(Long.valueOf(claims.getSubject()),
+                    claims.get(EMAIL, String.class), claims.get(ROL, String.class)));
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Geçersiz JWT: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public long getErisimSuresiSaniye() {
+        return TimeUnit.MINUTES.toSeconds(erisimSuresiDakika);
+    }
+
+    /**
+     * Doğrulanmış token'ın taşıdığı kullanıcı bilgileri
+     */
+    public static class TokenSahibi {
+        private final Long kullaniciId;
+        private final String email;
+        private final String rol;
+
+        private TokenSahibi(Long kullaniciId, String email, String rol) {
+            this.kullaniciId = kullaniciId;
+            this.email = email;
+            this.rol = rol;
+        }
+
+        public Long getKullaniciId() {
+            return kullaniciId;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getRol() {
+            return rol;
+        }
+    }
+}
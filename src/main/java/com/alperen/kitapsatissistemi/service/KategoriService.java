@@ -1,6 +1,8 @@
 package com.alperen.kitapsatissistemi.service;
 
 import com.alperen.kitapsatissistemi.entity.Kategori;
+import com.alperen.kitapsatissistemi.event.KategoriDegistiEvent;
+import com.alperen.kitapsatissistemi.event.OlayYolu;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
 import com.alperen.kitapsatissistemi.exception.DuplicateEntityException;
 import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
@@ -25,11 +27,13 @@ public class KategoriService {
     
     private final KategoriRepository kategoriRepository;
     private final KitapRepository kitapRepository;
+    private final OlayYolu olayYolu;
     
     @Autowired
-    public KategoriService(KategoriRepository kategoriRepository, KitapRepository kitapRepository) {
+    public KategoriService(KategoriRepository kategoriRepository, KitapRepository kitapRepository, OlayYolu olayYolu) {
         this.kategoriRepository = kategoriRepository;
         this.kitapRepository = kitapRepository;
+        this.olayYolu = olayYolu;
     }
     
     /**
@@ -85,7 +89,7 @@ public class KategoriService {
             throw new DuplicateEntityException("Kategori", "ad", kategori.getAd());
         }
         
-        return kategoriRepository.save(kategori);
+        return save(kategori);
     }
     
     /**
@@ -117,7 +121,7 @@ public class KategoriService {
                     
                     kategori.setAd(kategoriDetaylari.getAd());
                     kategori.setAciklama(kategoriDetaylari.getAciklama());
-                    return kategoriRepository.save(kategori);
+                    return save(kategori);
                 })
                 .orElseThrow(() -> new EntityNotFoundBusinessException("Kategori", id));
     }
@@ -142,7 +146,7 @@ public class KategoriService {
             throw new BusinessException("Bu kategoriye ait kitaplar bulunduğu için silinemez. Önce kitapları başka kategoriye taşıyın.");
         }
         
-        kategoriRepository.deleteById(id);
+        deleteById(id);
     }
     
     /**
@@ -189,7 +193,9 @@ public class KategoriService {
      * Kategori kaydet
      */
     public Kategori save(Kategori kategori) {
-        return kategoriRepository.save(kategori);
+        Kategori kaydedilen = kategoriRepository.save(kategori);
+        olayYolu.yayinla(new KategoriDegistiEvent(kaydedilen.getId()));
+        return kaydedilen;
     }
     
     /**
@@ -197,6 +203,7 @@ public class KategoriService {
      */
     public void deleteById(Long id) {
         kategoriRepository.deleteById(id);
+        olayYolu.yayinla(new KategoriDegistiEvent(id));
     }
 
     // Thymeleaf template'ler için ek metodlar
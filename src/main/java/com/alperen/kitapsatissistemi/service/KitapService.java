@@ -1,11 +1,13 @@
 package com.alperen.kitapsatissistemi.service;
 
-import com.alperen.kitapsatissistemi.entity.Kitap;
 import com.alperen.kitapsatissistemi.entity.Kategori;
+import com.alperen.kitapsatissistemi.entity.Kitap;
+import com.alperen.kitapsatissistemi.event.KitapDegistiEvent;
+import com.alperen.kitapsatissistemi.event.OlayYolu;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
 import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
-import com.alperen.kitapsatissistemi.repository.KitapRepository;
 import com.alperen.kitapsatissistemi.repository.KategoriRepository;
+import com.alperen.kitapsatissistemi.repository.KitapRepository;
 import com.alperen.kitapsatissistemi.repository.SiparisDetayRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -28,12 +30,17 @@ public class KitapService {
     private final KitapRepository kitapRepository;
     private final KategoriRepository kategoriRepository;
     private final SiparisDetayRepository siparisDetayRepository;
+    private final SiparisArsivService siparisArsivService;
+    private final OlayYolu olayYolu;
     
     @Autowired
-    public KitapService(KitapRepository kitapRepository, KategoriRepository kategoriRepository, SiparisDetayRepository siparisDetayRepository) {
+    public KitapService(KitapRepository kitapRepository, KategoriRepository kategoriRepository, SiparisDetayRepository siparisDetayRepository,
+                        SiparisArsivService siparisArsivService, OlayYolu olayYolu) {
         this.kitapRepository = kitapRepository;
         this.kategoriRepository = kategoriRepository;
         this.siparisDetayRepository = siparisDetayRepository;
+        this.siparisArsivService = siparisArsivService;
+        this.olayYolu = olayYolu;
     }
     
     /**
@@ -141,7 +148,9 @@ public class KitapService {
             kitap.setAciklama(kitap.getAciklama().trim());
         }
         
-        return kitapRepository.save(kitap);
+        Kitap kaydedilen = kitapRepository.save(kitap);
+        olayYolu.yayinla(new KitapDegistiEvent(kaydedilen.getId()));
+        return kaydedilen;
     }
     
     /**
@@ -190,7 +199,9 @@ public class KitapService {
                         kitap.setKategori(kitapDetaylari.getKategori());
                     }
                     
-                    return kitapRepository.save(kitap);
+                    Kitap kaydedilen = kitapRepository.save(kitap);
+                    olayYolu.yayinla(new KitapDegistiEvent(kaydedilen.getId()));
+                    return kaydedilen;
                 })
                 .orElseThrow(() -> new EntityNotFoundBusinessException("Kitap", id));
     }
@@ -210,11 +221,12 @@ public class KitapService {
         }
 
         // Bu kitaba ait siparişler varsa silme işlemini engelle
-        if (siparisDetayRepository.countByKitap_Id(id) > 0) {
+        if (siparisDetayRepository.countByKitap_Id(id) > 0 || siparisArsivService.kitapKullaniliyorMu(id)) {
             throw new BusinessException("Bu kitaba ait siparişler bulunduğu için silinemez. Kitap sadece stoktan kaldırılabilir.");
         }
 
         kitapRepository.deleteById(id);
+        olayYolu.yayinla(new KitapDegistiEvent(id));
     }
     
     /**
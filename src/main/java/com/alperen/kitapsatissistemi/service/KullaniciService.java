@@ -1,13 +1,18 @@
 package com.alperen.kitapsatissistemi.service;
 
 import com.alperen.kitapsatissistemi.entity.Kullanici;
+import com.alperen.kitapsatissistemi.event.KullaniciKaydolduEvent;
+import com.alperen.kitapsatissistemi.event.OlayYolu;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
 import com.alperen.kitapsatissistemi.exception.DuplicateEntityException;
 import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
 import com.alperen.kitapsatissistemi.repository.KullaniciRepository;
 import com.alperen.kitapsatissistemi.repository.SiparisRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -17,6 +22,7 @@ import org.springframework.util.StringUtils;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * KullaniciService - .NET C# projesindeki business logic'ten dönüştürülmüştür
@@ -25,15 +31,24 @@ import java.util.Optional;
 @Transactional
 public class KullaniciService {
     
+    private static final Logger logger = LoggerFactory.getLogger(KullaniciService.class);
+    
     private final KullaniciRepository kullaniciRepository;
     private final PasswordEncoder passwordEncoder;
     private final SiparisRepository siparisRepository;
+    private final SiparisArsivService siparisArsivService;
+    private final OlayYolu olayYolu;
+    private final SifreDogrulayici sifreDogrulayici;
     
     @Autowired
-    public KullaniciService(KullaniciRepository kullaniciRepository, PasswordEncoder passwordEncoder, SiparisRepository siparisRepository) {
+    public KullaniciService(KullaniciRepository kullaniciRepository, PasswordEncoder passwordEncoder, SiparisRepository siparisRepository,
+                            SiparisArsivService siparisArsivService, OlayYolu olayYolu, SifreDogrulayici sifreDogrulayici) {
         this.kullaniciRepository = kullaniciRepository;
         this.passwordEncoder = passwordEncoder;
         this.siparisRepository = siparisRepository;
+        this.siparisArsivService = siparisArsivService;
+        this.olayYolu = olayYolu;
+        this.sifreDogrulayici = sifreDogrulayici;
     }
     
     /**
@@ -140,26 +155,45 @@ public class KullaniciService {
             kullanici.setRol("User");
         }
         
-        return kullaniciRepository.save(kullanici);
+        Kullanici kaydedilen = kullaniciRepository.save(kullanici);
+        olayYolu.yayinla(new KullaniciKaydolduEvent(kaydedilen.getId()));
+        return kaydedilen;
     }
     
     /**
      * Kullanıcı girişi doğrula
+     * Kullanıcı çağıran thread'de okunur, şifre karşılaştırması SifreDogrulayici havuzunda yapılır;
+     * sonuç o havuzun thread'inde tamamlanır. Havuz doluysa KuyrukDoluException fırlatılır.
+     * Hash'in maliyeti güncel politikadan farklıysa yeni hash kaydedilir; kayıt hatası girişi bozmaz.
      */
     @Transactional(readOnly = true)
-    public Optional<Kullanici> authenticateKullanici(String email, String sifre) {
+    public CompletableFuture<Optional<Kullanici>> authenticateKullanici(String email, String sifre) {
         // Email'i normalize et (kayıt sırasında da toLowerCase yapılıyor)
         String normalizedEmail = email != null ? email.trim().toLowerCase() : "";
         Optional<Kullanici> kullaniciOpt = kullaniciRepository.findByEmail(normalizedEmail);
         
-        if (kullaniciOpt.isPresent()) {
-            Kullanici kullanici = kullaniciOpt.get();
-            if (passwordEncoder.matches(sifre, kullanici.getSifreHash())) {
-                return Optional.of(kullanici);
-            }
+        if (!kullaniciOpt.isPresent() || sifre == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
         }
         
-        return Optional.empty();
+        Kullanici kullanici = kullaniciOpt.get();
+        String eskiHash = kullanici.getSifreHash();
+        return sifreDogrulayici.dogrula(sifre, eskiHash)
+                .thenApply(sonuc -> {
+                    if (!sonuc.isEslesti()) {
+                        return Optional.<Kullanici>empty();
+                    }
+                    if (sonuc.getYeniHash() != null) {
+                        try {
+                            if (kullaniciRepository.updateSifreHash(kullanici.getId(), eskiHash, sonuc.getYeniHash()) > 0) {
+                                kullanici.setSifreHash(sonuc.getYeniHash());
+                            }
+                        } catch (Exception e) {
+                            logger.warn("Şifre hash'i güncellenemedi, kullanıcı: {}", kullanici.getId(), e);
+                        }
+                    }
+                    return Optional.of(kullanici);
+                });
     }
     
     /**
@@ -272,7 +306,7 @@ public class KullaniciService {
      */
     @Transactional(readOnly = true)
     public List<Kullanici> getLatestKullanicilar(int limit) {
-        return kullaniciRepository.findTopByOrderByKayitTarihiDesc(limit);
+        return kullaniciRepository.findLatestKullanicilar(PageRequest.of(0, limit));
     }
     
     /**
@@ -291,7 +325,7 @@ public class KullaniciService {
         // Bu kullanıcıya ait siparişler varsa silme işlemini engelle
         // Sipariş sayısını repository üzerinden kontrol et
         long siparisSayisi = siparisRepository.countByKullanici_Id(kullanici.getId());
-        if (siparisSayisi > 0) {
+        if (siparisSayisi > 0 || siparisArsivService.kullaniciKullaniliyorMu(kullanici.getId())) {
             throw new BusinessException("Bu kullanıcıya ait siparişler bulunduğu için silinemez.");
         }
         
@@ -340,14 +374,6 @@ public class KullaniciService {
         return kullaniciRepository.count();
     }
     
-    /**
-     * Toplam kullanıcı sayısı (eski metod adı ile uyumluluk için)
-     */
-    @Transactional(readOnly = true)
-    public long getKullaniciCount() {
-        return kullaniciRepository.count();
-    }
-    
     /**
      * Ad soyad veya email'e göre arama (sayfalama ile)
      */
@@ -394,7 +420,12 @@ public class KullaniciService {
      * Kullanıcı kaydet
      */
     public Kullanici save(Kullanici kullanici) {
-        return kullaniciRepository.save(kullanici);
+        boolean yeni = kullanici.getId() == null;
+        Kullanici kaydedilen = kullaniciRepository.save(kullanici);
+        if (yeni) {
+            olayYolu.yayinla(new KullaniciKaydolduEvent(kaydedilen.getId()));
+        }
+        return kaydedilen;
     }
     
     /**
@@ -0,0 +1,250 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.dto.MusteriSiralamasi;
+import com.alperen.kitapsatissistemi.event.OlayAbonesi;
+import com.alperen.kitapsatissistemi.event.SiparisDegistiEvent;
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Müşteri sıralaması - en çok harcama yapan müşterileri (ad, e-posta, onaylı sipariş sayısı
+ * ve toplam tutar) bellekte sıralı tutar; ilk N liste sorgu çalıştırmadan döner.
+ * Başlangıçta kullanıcılarla birleştirilmiş tek bir LIMIT'li sorguyla yüklenir. Sipariş
+ * değişiklikleri commit sonrasında tek bir yazıcı thread'inde işlenir: yalnızca etkilenen
+ * müşterilerin toplamları yeniden hesaplanıp tablodaki yerleri güncellenir.
+ * Tablo dışındaki müşterilerin toplamı için bir üst sınır (eşik) tutulur; istenen ilk N
+ * eşiğin üstünde kalmıyorsa liste veritabanından alınır ve tablo arka planda yeniden yüklenir.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class MusteriSiralamasiService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MusteriSiralamasiService.class);
+
+    private static final String ONAYLANDI = "Onaylandı";
+
+    // Tutara göre azalan, eşitlikte kullanıcı id'sine göre artan
+    private static final Comparator<MusteriSiralamasi> SIRALAMA =
+            Comparator.comparing(MusteriSiralamasi::getToplamHarcama).reversed()
+                    .thenComparing(MusteriSiralamasi::getKullaniciId);
+
+    private static final RowMapper<MusteriSiralamasi> SATIR = (rs, i) -> new MusteriSiralamasi(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4), rs.getBigDecimal(5));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final SiparisArsivService siparisArsivService;
+
+    @Value("${musteri-siralamasi.kapasite:100}")
+    private int kapasite;
+
+    // Tüm yazmalar bu thread'de sırayla yapılır
+    private ExecutorService yazici;
+    private final AtomicBoolean yuklemeBekliyor = new AtomicBoolean();
+
+    private volatile Tablo tablo;
+
+    // Yalnızca yazıcı thread'inin kullandığı sıralama
+    private final Map<Long, MusteriSiralamasi> uyeler = new HashMap<>();
+    private final TreeSet<MusteriSiralamasi> sirali = new TreeSet<>(SIRALAMA);
+    private BigDecimal esik;
+
+    public MusteriSiralamasiService(JdbcTemplate jdbcTemplate, SiparisArsivService siparisArsivService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.siparisArsivService = siparisArsivService;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        yazici = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "siralama-yazici");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void durdur() {
+        yazici.shutdownNow();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        yazici.execute(this::yukle);
+    }
+
+    @OlayAbonesi
+    public void siparisDegisti(SiparisDegistiEvent event) {
+        if (event.getSiparisIdleri().isEmpty()) {
+            return;
+        }
+        if (SiparisDegistiEvent.SILINDI.equals(event.getTur())) {
+            // Silinen siparişin müşterisi artık bulunamaz; tablo yeniden yüklenir
+            yenidenYukle();
+        } else {
+            List<Long> idler = new ArrayList<>(event.getSiparisIdleri());
+            yazici.execute(() -> siparisleriYenile(idler));
+        }
+    }
+
+    /**
+     * En çok harcama yapan ilk limit müşteriyi getir. limit, kapasiteyle sınırlandırılır.
+     */
+    public List<MusteriSiralamasi> getEnIyiMusteriler(int limit) {
+        if (limit < 1) {
+            throw new BusinessException("Limit en az 1 olmalıdır");
+        }
+        int n = Math.min(limit, kapasite);
+        Tablo anlik = tablo;
+        if (anlik != null && anlik.karsilar(n)) {
+            return anlik.ilk(n);
+        }
+        if (anlik != null) {
+            yenidenYukle();
+        }
+        return sorgula("", Collections.emptyMap(), n);
+    }
+
+    private void yenidenYukle() {
+        if (yuklemeBekliyor.compareAndSet(false, true)) {
+            yazici.execute(this::yukle);
+        }
+    }
+
+    private void yukle() {
+        yuklemeBekliyor.set(false);
+        try {
+            long baslama = System.currentTimeMillis();
+            // Bir fazla satır: tablo dışında kalan ilk müşterinin toplamı eşik olur
+            List<MusteriSiralamasi> satirlar = sorgula("", Collections.emptyMap(), kapasite + 1);
+            uyeler.clear();
+            sirali.clear();
+            esik = null;
+            for (int i = 0; i < satirlar.size(); i++) {
+                MusteriSiralamasi satir = satirlar.get(i);
+                if (i < kapasite) {
+                    uyeler.put(satir.getKullaniciId(), satir);
+                    sirali.add(satir);
+                } else {
+                    esik = satir.getToplamHarcama();
+                }
+            }
+            yayinla();
+            logger.info("Müşteri sıralaması yüklendi: {} müşteri ({} ms)", uyeler.size(), System.currentTimeMillis() - baslama);
+        } catch (Exception e) {
+            logger.error("Müşteri sıralaması yüklenemedi", e);
+        }
+    }
+
+    private void siparisleriYenile(List<Long> siparisIdleri) {
+        if (tablo == null) {
+            return;
+        }
+        try {
+            MapSqlParameterSource idler = new MapSqlParameterSource("idler", new HashSet<>(siparisIdleri));
+            List<Long> kullanicilar = namedJdbc.queryForList(
+                    "SELECT kullanici_id FROM siparisler WHERE id IN (:idler) UNION SELECT kullanici_id FROM "
+                            + siparisArsivService.getSiparisTablosu() + " WHERE id IN (:idler)", idler, Long.class);
+            if (kullanicilar.isEmpty()) {
+                return;
+            }
+            Set<Long> etkilenenler = new HashSet<>(kullanicilar);
+            for (Long kullaniciId : etkilenenler) {
+                MusteriSiralamasi eski = uyeler.remove(kullaniciId);
+                if (eski != null) {
+                    sirali.remove(eski);
+                }
+            }
+            // Güncel toplamlar kesindir; tabloya eklenir, taşan son üye eşiği yükseltir
+            for (MusteriSiralamasi satir : sorgula(" AND kullanici_id IN (:kullanicilar)",
+                    Collections.singletonMap("kullanicilar", etkilenenler), 0)) {
+                uyeler.put(satir.getKullaniciId(), satir);
+                sirali.add(satir);
+            }
+            while (sirali.size() > kapasite) {
+                MusteriSiralamasi tasan = sirali.pollLast();
+                uyeler.remove(tasan.getKullaniciId());
+                if (esik == null || tasan.getToplamHarcama().compareTo(esik) > 0) {
+                    esik = tasan.getToplamHarcama();
+                }
+            }
+            yayinla();
+        } catch (Exception e) {
+            logger.error("Müşteri sıralaması güncellenemedi: {}", siparisIdleri, e);
+        }
+    }
+
+    private void yayinla() {
+        tablo = new Tablo(new ArrayList<>(sirali), esik);
+    }
+
+    /**
+     * Onaylı siparişleri (sıcak ve arşiv) müşteri bazında toplayıp kullanıcılarla birleştirir.
+     * limit 0 ise sınırsızdır.
+     */
+    private List<MusteriSiralamasi> sorgula(String kosul, Map<String, ?> parametreler, int limit) {
+        String siparisler = "SELECT kullanici_id, toplam_tutar FROM siparisler WHERE durum = :durum" + kosul
+                + " UNION ALL SELECT kullanici_id, toplam_tutar FROM " + siparisArsivService.getSiparisTablosu()
+                + " WHERE durum = :durum" + kosul;
+        String sql = "SELECT k.id, k.ad_soyad, k.email, t.adet, t.tutar FROM ("
+                + "SELECT kullanici_id, COUNT(*) AS adet, SUM(toplam_tutar) AS tutar FROM (" + siparisler + ") GROUP BY kullanici_id"
+                + ") t JOIN kullanicilar k ON k.id = t.kullanici_id ORDER BY t.tutar DESC, k.id"
+                + (limit > 0 ? " LIMIT :limit" : "");
+        MapSqlParameterSource kaynak = new MapSqlParameterSource(parametreler)
+                .addValue("durum", ONAYLANDI)
+                .addValue("limit", limit);
+        return namedJdbc.query(sql, kaynak, SATIR);
+    }
+
+    /**
+     * Okuyuculara yayınlanan değişmez sıralama.
+     */
+    private static class Tablo {
+        private final List<MusteriSiralamasi> liste;
+        // Tablo dışındaki müşterilerin toplamı için üst sınır; null ise tablo dışında harcama yok
+        private final BigDecimal esik;
+
+        private Tablo(List<MusteriSiralamasi> liste, BigDecimal esik) {
+            this.liste = Collections.unmodifiableList(liste);
+            this.esik = esik;
+        }
+
+        private boolean karsilar(int n) {
+            if (esik == null) {
+                return true;
+            }
+            return liste.size() >= n && liste.get(n - 1).getToplamHarcama().compareTo(esik) > 0;
+        }
+
+        private List<MusteriSiralamasi> ilk(int n) {
+            return liste.subList(0, Math.min(n, liste.size()));
+        }
+    }
+}
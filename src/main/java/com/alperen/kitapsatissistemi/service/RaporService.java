@@ -0,0 +1,631 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rapor motoru - her rapor, yalnızca gerekli kolonları seçen projeksiyon sorgularından
+ * (bölümlerden) oluşur. Satırlar cursor ile tek tek okunur ve tek geçişte toplayıcılara
+ * işlenir; hiçbir satır bellekte tutulmaz. Gruplayıcıların anahtar sayısı ve sıralama
+ * listeleri sınırlıdır, bu yüzden bellek kullanımı veri boyutundan bağımsızdır.
+ * Bölümler sınırlı bir havuzda paralel çalışır ve toplam bir süre sınırına tabidir.
+ */
+@Service
+public class RaporService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RaporService.class);
+
+    public static final String OZET = "ozet";
+    public static final String KITAP = "kitap";
+    public static final String KULLANICI = "kullanici";
+    public static final String SIPARIS = "siparis";
+    public static final String KATEGORI = "kategori";
+    public static final String FAVORI = "favori";
+    public static final String TARIH = "tarih";
+
+    public static final List<String> RAPORLAR = Collections.unmodifiableList(
+            Arrays.asList(OZET, KITAP, KULLANICI, SIPARIS, KATEGORI, FAVORI, TARIH));
+
+    private static final int ILK_N = 10;
+    private static final String DIGER = "Diğer";
+    private static final String IPTAL = "İptal Edildi";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SiparisArsivService siparisArsivService;
+
+    @Value("${rapor.thread-sayisi:2}")
+    private int threadSayisi;
+
+    @Value("${rapor.kuyruk-kapasitesi:16}")
+    private int kuyrukKapasitesi;
+
+    @Value("${rapor.zaman-asimi-saniye:30}")
+    private int zamanAsimiSaniye;
+
+    @Value("${rapor.max-grup:1000}")
+    private int maxGrup;
+
+    @Value("${rapor.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${rapor.tarih-varsayilan-gun:30}")
+    private int varsayilanGun;
+
+    private ThreadPoolExecutor executor;
+
+    public RaporService(JdbcTemplate jdbcTemplate, SiparisArsivService siparisArsivService) {
+        // Rapor sorguları için ayrı ayarlı şablon: satırlar parça parça çekilir, uzun sorgu kesilir
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.siparisArsivService = siparisArsivService;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        jdbcTemplate.setFetchSize(fetchSize);
+        jdbcTemplate.setQueryTimeout(zamanAsimiSaniye);
+        AtomicInteger sayac = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threadSayisi, threadSayisi, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(kuyrukKapasitesi), r -> {
+                    Thread thread = new Thread(r, "rapor-" + sayac.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * İstenen raporları çalıştır. Sonuç: rapor adı -> bölüm adı -> toplayıcı adı -> değer.
+     * Süre sınırını aşan veya hata veren bölüm "hata" alanıyla döner; diğerleri etkilenmez.
+     */
+    public Map<String, Object> calistir(List<String> raporlar, LocalDate baslangic, LocalDate bitis) {
+        if (raporlar == null || raporlar.isEmpty()) {
+            throw new BusinessException("Lütfen en az bir rapor seçin");
+        }
+        List<Bolum> bolumler = new ArrayList<>();
+        for (String rapor : new LinkedHashSet<>(raporlar)) {
+            String ad = rapor != null ? rapor.trim().toLowerCase(Locale.ROOT) : "";
+            if (!RAPORLAR.contains(ad)) {
+                throw new BusinessException("Geçersiz rapor: " + rapor);
+            }
+            bolumler.addAll(bolumler(ad, baslangic, bitis));
+        }
+
+        List<CompletableFuture<Map<String, Object>>> isler = new ArrayList<>(bolumler.size());
+        try {
+            for (Bolum bolum : bolumler) {
+                isler.add(CompletableFuture.supplyAsync(() -> isle(bolum), executor));
+            }
+        } catch (RejectedExecutionException e) {
+            isler.forEach(is -> is.cancel(true));
+            throw new KuyrukDoluException("Çok fazla rapor isteği var, lütfen biraz sonra tekrar deneyin.", e);
+        }
+
+        long sonZaman = System.nanoTime() + TimeUnit.SECONDS.toNanos(zamanAsimiSaniye);
+        Map<String, Object> sonuc = new LinkedHashMap<>();
+        for (int i = 0; i < bolumler.size(); i++) {
+            Bolum bolum = bolumler.get(i);
+            Map<String, Object> bolumSonucu;
+            try {
+                bolumSonucu = isler.get(i).get(Math.max(0, sonZaman - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                isler.get(i).cancel(true);
+                bolumSonucu = Collections.singletonMap("hata", "Zaman aşımı");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                bolumSonucu = Collections.singletonMap("hata", "İşlem kesildi");
+            } catch (ExecutionException e) {
+                logger.warn("Rapor bölümü başarısız ({}.{}): {}", bolum.rapor, bolum.ad, e.getCause().getMessage());
+                bolumSonucu = Collections.singletonMap("hata", "Rapor hesaplanamadı");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> raporSonucu = (Map<String, Object>) sonuc.computeIfAbsent(bolum.rapor, k -> new LinkedHashMap<>());
+            raporSonucu.put(bolum.ad, bolumSonucu);
+        }
+        return sonuc;
+    }
+
+    private Map<String, Object> isle(Bolum bolum) {
+        long baslangic = System.currentTimeMillis();
+        AtomicInteger satir = new AtomicInteger();
+        jdbcTemplate.query(bolum.sql, rs -> {
+            for (Toplayici toplayici : bolum.toplayicilar) {
+                toplayici.ekle(rs);
+            }
+            satir.incrementAndGet();
+        }, bolum.parametreler);
+        Map<String, Object> sonuc = new LinkedHashMap<>();
+        for (Toplayici toplayici : bolum.toplayicilar) {
+            sonuc.put(toplayici.ad, toplayici.sonuc());
+        }
+        logger.debug("Rapor bölümü {}.{}: {} satır, {} ms", bolum.rapor, bolum.ad, satir.get(),
+                System.currentTimeMillis() - baslangic);
+        return sonuc;
+    }
+
+    // Rapor tanımları - her bölüm tek sorgu, tek geçiş
+    private List<Bolum> bolumler(String rapor, LocalDate baslangic, LocalDate bitis) {
+        String arsiv = siparisArsivService.getSiparisTablosu();
+        switch (rapor) {
+            case OZET:
+                return Collections.singletonList(new Bolum(rapor, "sayilar",
+                        "SELECT (SELECT COUNT(*) FROM kitaplar), (SELECT COUNT(*) FROM kategoriler), "
+                                + "(SELECT COUNT(*) FROM kullanicilar), "
+                                + "(SELECT COUNT(*) FROM siparisler) + (SELECT COUNT(*) FROM " + arsiv + ")",
+                        new Object[0],
+                        new Deger("kitap", 1), new Deger("kategori", 2), new Deger("kullanici", 3), new Deger("siparis", 4)));
+            case KITAP:
+                return Arrays.asList(
+                        // Kitap başına bir satır; sıralama id'ye göre kesin toplamlardan yapılır
+                        new Bolum(rapor, "satislar",
+                                "SELECT b.ad, SUM(d.adet), SUM(d.adet * d.fiyat) FROM (" + satirlar() + ") d "
+                                        + "JOIN kitaplar b ON b.id = d.kitap_id GROUP BY b.id",
+                                new Object[0],
+                                new Toplam("satilanAdet", 2), new Toplam("ciro", 3),
+                                new EnYuksekler("enCokSatanlar", 1, 2, 3, ILK_N)),
+                        new Bolum(rapor, "stok", "SELECT ad, stok_miktari FROM kitaplar", new Object[0],
+                                new Sayac("kitapSayisi"), new Toplam("toplamStok", 2), new EnDusukler("dusukStok", 1, 2, ILK_N)));
+            case KULLANICI:
+                return Arrays.asList(
+                        new Bolum(rapor, "kayitlar", "SELECT rol, kayit_tarihi FROM kullanicilar", new Object[0],
+                                new Sayac("kullaniciSayisi"),
+                                new Grup("rolDagilimi", kolon(1), 0, 0, Grup.ADEDE_GORE, 0, maxGrup),
+                                new Grup("aylikKayit", ay(2), 0, 0, Grup.ANAHTARA_GORE, 12, maxGrup)),
+                        new Bolum(rapor, "musteriler",
+                                "SELECT k.ad_soyad || ' (' || k.email || ')', COUNT(*), SUM(s.toplam_tutar) FROM ("
+                                        + siparisler("kullanici_id, toplam_tutar", "1 = 1") + ") s "
+                                        + "JOIN kullanicilar k ON k.id = s.kullanici_id GROUP BY k.id",
+                                new Object[0],
+                                new EnYuksekler("enCokHarcayanlar", 1, 2, 3, ILK_N)));
+            case SIPARIS:
+                return Collections.singletonList(new Bolum(rapor, "siparisler",
+                        siparisler("durum, toplam_tutar, siparis_tarihi", "1 = 1"), new Object[0],
+                        new Istatistik("tutar", 2),
+                        new Grup("durumDagilimi", kolon(1), 0, 2, Grup.ADEDE_GORE, 0, maxGrup),
+                        new Grup("aylik", ay(3), 0, 2, Grup.ANAHTARA_GORE, 12, maxGrup)));
+            case KATEGORI:
+                return Arrays.asList(
+                        new Bolum(rapor, "satislar",
+                                "SELECT kt.ad, d.adet, d.adet * d.fiyat FROM (" + satirlar() + ") d "
+                                        + "JOIN kitaplar b ON b.id = d.kitap_id JOIN kategoriler kt ON kt.id = b.kategori_id",
+                                new Object[0],
+                                new Grup("kategoriSatislari", kolon(1), 2, 3, Grup.TUTARA_GORE, 0, maxGrup)),
+                        new Bolum(rapor, "kitaplar",
+                                "SELECT kt.ad FROM kitaplar b JOIN kategoriler kt ON kt.id = b.kategori_id", new Object[0],
+                                new Grup("kitapSayilari", kolon(1), 0, 0, Grup.ADEDE_GORE, 0, maxGrup)));
+            case FAVORI:
+                return Collections.singletonList(new Bolum(rapor, "favoriler",
+                        "SELECT b.ad, COUNT(*) FROM favoriler f JOIN kitaplar b ON b.id = f.kitap_id GROUP BY b.id",
+                        new Object[0],
+                        new Toplam("favoriSayisi", 2),
+                        new EnYuksekler("enCokFavorilenenler", 1, 2, 0, ILK_N)));
+            case TARIH:
+                LocalDate son = bitis != null ? bitis : LocalDate.now();
+                LocalDate ilk = baslangic != null ? baslangic : son.minusDays(varsayilanGun - 1L);
+                if (ilk.isAfter(son)) {
+                    throw new BusinessException("Başlangıç tarihi bitiş tarihinden sonra olamaz");
+                }
+                Timestamp alt = Timestamp.valueOf(ilk.atStartOfDay());
+                Timestamp ust = Timestamp.valueOf(son.plusDays(1).atStartOfDay());
+                return Collections.singletonList(new Bolum(rapor, "siparisler",
+                        siparisler("siparis_tarihi, toplam_tutar, durum", "siparis_tarihi >= ? AND siparis_tarihi < ?"),
+                        new Object[]{alt, ust, alt, ust},
+                        new Istatistik("tutar", 2),
+                        new Grup("gunluk", gun(1), 0, 2, Grup.ANAHTARA_GORE, 0, maxGrup),
+                        new Grup("durumDagilimi", kolon(3), 0, 2, Grup.ADEDE_GORE, 0, maxGrup)));
+            default:
+                throw new BusinessException("Geçersiz rapor: " + rapor);
+        }
+    }
+
+    // Güncel ve arşiv siparişleri tek akış olarak
+    private String siparisler(String kolonlar, String kosul) {
+        return "SELECT " + kolonlar + " FROM siparisler WHERE " + kosul
+                + " UNION ALL SELECT " + kolonlar + " FROM " + siparisArsivService.getSiparisTablosu() + " WHERE " + kosul;
+    }
+
+    // İptal edilmemiş siparişlerin satırları (güncel + arşiv)
+    private String satirlar() {
+        return "SELECT d.kitap_id, d.adet, d.fiyat FROM siparis_detaylari d JOIN siparisler s ON s.id = d.siparis_id "
+                + "WHERE s.durum IS NOT '" + IPTAL + "' UNION ALL "
+                + "SELECT d.kitap_id, d.adet, d.fiyat FROM " + siparisArsivService.getDetayTablosu() + " d JOIN "
+                + siparisArsivService.getSiparisTablosu() + " s ON s.id = d.siparis_id WHERE s.durum IS NOT '" + IPTAL + "'";
+    }
+
+    private static Anahtar kolon(int kolon) {
+        return rs -> rs.getString(kolon);
+    }
+
+    private static Anahtar ay(int kolon) {
+        return rs -> {
+            Timestamp deger = rs.getTimestamp(kolon);
+            return deger != null ? YearMonth.from(deger.toLocalDateTime()).toString() : null;
+        };
+    }
+
+    private static Anahtar gun(int kolon) {
+        return rs -> {
+            Timestamp deger = rs.getTimestamp(kolon);
+            return deger != null ? deger.toLocalDateTime().toLocalDate().toString() : null;
+        };
+    }
+
+    private static BigDecimal yuvarla(BigDecimal deger) {
+        return deger.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Rapor bölümü - tek projeksiyon sorgusu ve onu işleyen toplayıcılar
+     */
+    private static final class Bolum {
+
+        private final String rapor;
+        private final String ad;
+        private final String sql;
+        private final Object[] parametreler;
+        private final List<Toplayici> toplayicilar;
+
+        Bolum(String rapor, String ad, String sql, Object[] parametreler, Toplayici... toplayicilar) {
+            this.rapor = rapor;
+            this.ad = ad;
+            this.sql = sql;
+            this.parametreler = parametreler;
+            this.toplayicilar = Arrays.asList(toplayicilar);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Anahtar {
+        String oku(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Satırları tek tek işleyen, sabit bellekli toplayıcı
+     */
+    private abstract static class Toplayici {
+
+        final String ad;
+
+        Toplayici(String ad) {
+            this.ad = ad;
+        }
+
+        abstract void ekle(ResultSet rs) throws SQLException;
+
+        abstract Object sonuc();
+    }
+
+    private static final class Sayac extends Toplayici {
+
+        private long adet;
+
+        Sayac(String ad) {
+            super(ad);
+        }
+
+        @Override
+        void ekle(ResultSet rs) {
+            adet++;
+        }
+
+        @Override
+        Object sonuc() {
+            return adet;
+        }
+    }
+
+    private static final class Deger extends Toplayici {
+
+        private final int kolon;
+        private long deger;
+
+        Deger(String ad, int kolon) {
+            super(ad);
+            this.kolon = kolon;
+        }
+
+        @Override
+        void ekle(ResultSet rs) throws SQLException {
+            deger = rs.getLong(kolon);
+        }
+
+        @Override
+        Object sonuc() {
+            return deger;
+        }
+    }
+
+    private static final class Toplam extends Toplayici {
+
+        private final int kolon;
+        private BigDecimal toplam = BigDecimal.ZERO;
+
+        Toplam(String ad, int kolon) {
+            super(ad);
+            this.kolon = kolon;
+        }
+
+        @Override
+        void ekle(ResultSet rs) throws SQLException {
+            BigDecimal deger = rs.getBigDecimal(kolon);
+            if (deger != null) {
+                toplam = toplam.add(deger);
+            }
+        }
+
+        @Override
+        Object sonuc() {
+            return toplam.scale() > 0 ? yuvarla(toplam) : toplam;
+        }
+    }
+
+    private static final class Istatistik extends Toplayici {
+
+        private final int kolon;
+        private long adet;
+        private BigDecimal toplam = BigDecimal.ZERO;
+        private BigDecimal enKucuk;
+        private BigDecimal enBuyuk;
+
+        Istatistik(String ad, int kolon) {
+            super(ad);
+            this.kolon = kolon;
+        }
+
+        @Override
+        void ekle(ResultSet rs) throws SQLException {
+            BigDecimal deger = rs.getBigDecimal(kolon);
+            if (deger == null) {
+                return;
+            }
+            adet++;
+            toplam = toplam.add(deger);
+            enKucuk = enKucuk == null || deger.compareTo(enKucuk) < 0 ? deger : enKucuk;
+            enBuyuk = enBuyuk == null || deger.compareTo(enBuyuk) > 0 ? deger : enBuyuk;
+        }
+
+        @Override
+        Object sonuc() {
+            Map<String, Object> sonuc = new LinkedHashMap<>();
+            sonuc.put("adet", adet);
+            sonuc.put("toplam", yuvarla(toplam));
+            sonuc.put("ortalama", adet > 0 ? toplam.divide(BigDecimal.valueOf(adet), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
+            sonuc.put("enKucuk", enKucuk != null ? yuvarla(enKucuk) : null);
+            sonuc.put("enBuyuk", enBuyuk != null ? yuvarla(enBuyuk) : null);
+            return sonuc;
+        }
+    }
+
+    /**
+     * Anahtara göre adet/tutar toplar. Anahtar sayısı maxGrup ile sınırlıdır;
+     * sınırdan sonra gelen yeni anahtarlar "Diğer" altında toplanır. Bu yüzden
+     * en çok satanlar gibi sıralamalar için kullanılmaz (bkz. EnYuksekler).
+     * miktarKolonu 0 ise satır sayılır; tutarKolonu 0 ise tutar tutulmaz.
+     */
+    private static final class Grup extends Toplayici {
+
+        static final int ADEDE_GORE = 0;
+        static final int TUTARA_GORE = 1;
+        static final int ANAHTARA_GORE = 2;
+
+        private final Anahtar anahtar;
+        private final int miktarKolonu;
+        private final int tutarKolonu;
+        private final int siralama;
+        private final int limit;
+        private final int maxGrup;
+        private final Map<String, long[]> adetler = new HashMap<>();
+        private final Map<String, BigDecimal> tutarlar = new HashMap<>();
+
+        Grup(String ad, Anahtar anahtar, int miktarKolonu, int tutarKolonu, int siralama, int limit, int maxGrup) {
+            super(ad);
+            this.anahtar = anahtar;
+            this.miktarKolonu = miktarKolonu;
+            this.tutarKolonu = tutarKolonu;
+            this.siralama = siralama;
+            this.limit = limit;
+            this.maxGrup = maxGrup;
+        }
+
+        @Override
+        void ekle(ResultSet rs) throws SQLException {
+            String deger = anahtar.oku(rs);
+            String grup = deger != null ? deger : "-";
+            if (!adetler.containsKey(grup) && adetler.size() >= maxGrup) {
+                grup = DIGER;
+            }
+            adetler.computeIfAbsent(grup, k -> new long[1])[0] += miktarKolonu > 0 ? rs.getLong(miktarKolonu) : 1;
+            if (tutarKolonu > 0) {
+                BigDecimal tutar = rs.getBigDecimal(tutarKolonu);
+                if (tutar != null) {
+                    tutarlar.merge(grup, tutar, BigDecimal::add);
+                }
+            }
+        }
+
+        @Override
+        Object sonuc() {
+            List<String> anahtarlar = new ArrayList<>(adetler.keySet());
+            Comparator<String> sira;
+            if (siralama == ANAHTARA_GORE) {
+                // Zaman serileri: en yeni "limit" dönem, eskiden yeniye
+                sira = Comparator.naturalOrder();
+            } else if (siralama == TUTARA_GORE && tutarKolonu > 0) {
+                sira = Comparator.comparing((String k) -> tutarlar.getOrDefault(k, BigDecimal.ZERO)).reversed();
+            } else {
+                sira = Comparator.comparingLong((String k) -> adetler.get(k)[0]).reversed();
+            }
+            anahtarlar.sort(sira);
+            if (limit > 0 && anahtarlar.size() > limit) {
+                anahtarlar = siralama == ANAHTARA_GORE
+                        ? anahtarlar.subList(anahtarlar.size() - limit, anahtarlar.size())
+                        : anahtarlar.subList(0, limit);
+            }
+            List<Map<String, Object>> sonuc = new ArrayList<>(anahtarlar.size());
+            for (String k : anahtarlar) {
+                Map<String, Object> satir = new LinkedHashMap<>();
+                satir.put("ad", k);
+                satir.put("adet", adetler.get(k)[0]);
+                if (tutarKolonu > 0) {
+                    satir.put("tutar", yuvarla(tutarlar.getOrDefault(k, BigDecimal.ZERO)));
+                }
+                sonuc.add(satir);
+            }
+            return sonuc;
+        }
+    }
+
+    /**
+     * Tutarı (tutarKolonu 0 ise adedi) en yüksek N kayıt - sınırlı bir yığın ile.
+     * Satırlar sorguda id'ye göre gruplanmış gelir; her satır bir kayıttır, sınır yoktur.
+     */
+    private static final class EnYuksekler extends Toplayici {
+
+        private final int adKolonu;
+        private final int adetKolonu;
+        private final int tutarKolonu;
+        private final int n;
+        private final Comparator<Sirali> sira;
+        // En küçük değer başta: yeni ve daha büyük değer gelince baştaki atılır
+        private final PriorityQueue<Sirali> yigin;
+
+        EnYuksekler(String ad, int adKolonu, int adetKolonu, int tutarKolonu, int n) {
+            super(ad);
+            this.adKolonu = adKolonu;
+            this.adetKolonu = adetKolonu;
+            this.tutarKolonu = tutarKolonu;
+            this.n = n;
+            this.sira = tutarKolonu > 0
+                    ? Comparator.comparing((Sirali e) -> e.tutar).thenComparingLong(e -> e.adet)
+                    : Comparator.comparingLong((Sirali e) -> e.adet);
+            this.yigin = new PriorityQueue<>(n + 1, sira);
+        }
+
+        @Override
+        void ekle(ResultSet rs) throws SQLException {
+            BigDecimal tutar = BigDecimal.ZERO;
+            if (tutarKolonu > 0 && rs.getBigDecimal(tutarKolonu) != null) {
+                tutar = rs.getBigDecimal(tutarKolonu);
+            }
+            Sirali aday = new Sirali(rs.getString(adKolonu), rs.getLong(adetKolonu), tutar);
+            if (yigin.size() < n || sira.compare(aday, yigin.peek()) > 0) {
+                yigin.add(aday);
+                if (yigin.size() > n) {
+                    yigin.poll();
+                }
+            }
+        }
+
+        @Override
+        Object sonuc() {
+            List<Sirali> sirali = new ArrayList<>(yigin);
+            sirali.sort(sira.reversed());
+            List<Map<String, Object>> sonuc = new ArrayList<>(sirali.size());
+            for (Sirali e : sirali) {
+                Map<String, Object> satir = new LinkedHashMap<>();
+                satir.put("ad", e.ad != null ? e.ad : "-");
+                satir.put("adet", e.adet);
+                if (tutarKolonu > 0) {
+                    satir.put("tutar", yuvarla(e.tutar));
+                }
+                sonuc.add(satir);
+            }
+            return sonuc;
+        }
+
+        private static final class Sirali {
+            private final String ad;
+            private final long adet;
+            private final BigDecimal tutar;
+
+            Sirali(String ad, long adet, BigDecimal tutar) {
+                this.ad = ad;
+                this.adet = adet;
+                this.tutar = tutar;
+            }
+        }
+    }
+
+    /**
+     * Değeri en düşük N kayıt - sınırlı bir yığın (heap) ile
+     */
+    private static final class EnDusukler extends Toplayici {
+
+        private final int adKolonu;
+        private final int degerKolonu;
+        private final int n;
+        // En büyük değer başta: yeni ve daha küçük değer gelince baştaki atılır
+        private final PriorityQueue<Object[]> yigin;
+
+        EnDusukler(String ad, int adKolonu, int degerKolonu, int n) {
+            super(ad);
+            this.adKolonu = adKolonu;
+            this.degerKolonu = degerKolonu;
+            this.n = n;
+            this.yigin = new PriorityQueue<>(n + 1, Comparator.comparingLong((Object[] e) -> (Long) e[1]).reversed());
+        }
+
+        @Override
+        void ekle(ResultSet rs) throws SQLException {
+            long deger = rs.getLong(degerKolonu);
+            if (yigin.size() < n || deger < (Long) yigin.peek()[1]) {
+                yigin.add(new Object[]{rs.getString(adKolonu), deger});
+                if (yigin.size() > n) {
+                    yigin.poll();
+                }
+            }
+        }
+
+        @Override
+        Object sonuc() {
+            List<Object[]> sirali = new ArrayList<>(yigin);
+            sirali.sort(Comparator.comparingLong(e -> (Long) e[1]));
+            List<Map<String, Object>> sonuc = new ArrayList<>(sirali.size());
+            for (Object[] e : sirali) {
+                Map<String, Object> satir = new LinkedHashMap<>();
+                satir.put("ad", e[0]);
+                satir.put("adet", e[1]);
+                sonuc.add(satir);
+            }
+            return sonuc;
+        }
+    }
+}
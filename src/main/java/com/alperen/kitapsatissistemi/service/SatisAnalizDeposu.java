@@ -0,0 +1,936 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.event.KategoriDegistiEvent;
+import com.alperen.kitapsatissistemi.event.KitapDegistiEvent;
+import com.alperen.kitapsatissistemi.event.OlayAbonesi;
+import com.alperen.kitapsatissistemi.event.SiparisDegistiEvent;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Satış analiz deposu - onaylı siparişlerin satırlarını bellekte kolon bazlı tutar.
+ * Her kolon (sipariş, kitap, müşteri, gün, adet, kuruş tutar) sabit boyutlu ilkel dizi
+ * parçalarındadır; kategori ve yazar kitap boyut tablosundan okunur, böylece kitabın kategorisi
+ * değiştiğinde satırlar yeniden yazılmaz. Sorgular parçalar üzerinde fork/join ile paralel
+ * toplanır; her parçanın gün ve sipariş id aralığı tutulur, tarih filtresi dışındaki parçalar atlanır,
+ * tamamen aralıktaki parçalar için grup özetleri saklanır ve parça değişene kadar yeniden kullanılır.
+ * Başlangıçta veritabanından yüklenir; yükleme başarısız olursa belirli aralıklarla yeniden denenir.
+ * Sipariş değişiklikleri commit sonrasında tek bir yazıcı thread'inde işlenir: siparişin eski satırları
+ * silindi olarak işaretlenir, sipariş hâlâ onaylıysa satırları yeniden eklenir. Değişen parçalar
+ * kopyalanarak hazırlanır ve tek seferde yayınlanır; okuyucular bir siparişin yarım güncellenmiş
+ * halini görmez. Okuyucular kilitsizdir ve kendi fork/join havuzlarında çalışır.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class SatisAnalizDeposu implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SatisAnalizDeposu.class);
+
+    private static final int PARCA_BOYUTU = 1 << 16;
+    private static final int MAX_OZET_ANAHTARI = 4096;
+    private static final String ONAYLANDI = "Onaylandı";
+    private static final String BILINMIYOR = "Bilinmiyor";
+    private static final ZoneId ZAMAN_DILIMI = ZoneId.systemDefault();
+
+    /**
+     * Gruplama boyutu
+     */
+    public enum Grup {
+        KATEGORI, YAZAR, KITAP, MUSTERI, AY
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final SiparisArsivService siparisArsivService;
+
+    @Value("${analiz.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${analiz.yeniden-deneme-ms:30000}")
+    private long yenidenDenemeMs;
+
+    // 0 ise işlemci sayısı kadar
+    @Value("${analiz.sorgu-thread-sayisi:0}")
+    private int sorguThreadSayisi;
+
+    // Tüm yazmalar bu thread'de sırayla yapılır
+    private ScheduledExecutorService yazici;
+
+    // Sorgular ortak havuzu (ve onu kullanan parallel stream'leri) meşgul etmesin
+    private ForkJoinPool sorguHavuzu;
+
+    private volatile Parca[] parcalar = new Parca[0];
+    private volatile Boyutlar boyutlar = Boyutlar.BOS;
+    private volatile long[] kullaniciIdleri = new long[0];
+    private volatile boolean hazir;
+
+    // Yalnızca yazıcı thread'inin kullandığı kod tabloları
+    private final Map<Long, Integer> kitapKodlari = new HashMap<>();
+    private final Map<Long, Integer> kategoriKodlari = new HashMap<>();
+    private final Map<String, Integer> yazarKodlari = new HashMap<>();
+    private final Map<Long, Integer> kullaniciKodlari = new HashMap<>();
+    private int kullaniciSayisi;
+    private long silinenSatirSayisi;
+
+    public SatisAnalizDeposu(JdbcTemplate jdbcTemplate, SiparisArsivService siparisArsivService) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.namedJdbc = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+        this.siparisArsivService = siparisArsivService;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        jdbcTemplate.setFetchSize(fetchSize);
+        yazici = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "analiz-yazici");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int paralellik = sorguThreadSayisi > 0 ? sorguThreadSayisi : Runtime.getRuntime().availableProcessors();
+        sorguHavuzu = new ForkJoinPool(paralellik, havuz -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(havuz);
+            thread.setName("analiz-sorgu-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        yazici.shutdownNow();
+        sorguHavuzu.shutdownNow();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Yükleme arka planda; bu sırada gelen değişiklikler kuyrukta bekler ve yüklemeden sonra işlenir
+        yazici.execute(this::yukle);
+    }
+
+    @OlayAbonesi
+    public void siparisDegisti(SiparisDegistiEvent event) {
+        if (!event.getSiparisIdleri().isEmpty()) {
+            List<Long> idler = new ArrayList<>(event.getSiparisIdleri());
+            yazici.execute(() -> siparisleriYenile(idler));
+        }
+    }
+
+    @OlayAbonesi
+    public void kitapDegisti(KitapDegistiEvent event) {
+        yazici.execute(this::boyutlariYenile);
+    }
+
+    @OlayAbonesi
+    public void kategoriDegisti(KategoriDegistiEvent event) {
+        yazici.execute(this::boyutlariYenile);
+    }
+
+    public boolean isHazir() {
+        return hazir;
+    }
+
+    /**
+     * Onaylı satış satırlarını gruplayıp topla. Tarihler dahildir, null ise sınırsızdır.
+     * limit 0 ise tüm gruplar döner. Aylar anahtara, diğerleri tutara göre sıralanır.
+     */
+    public Sonuc topla(Grup grup, LocalDate baslangic, LocalDate bitis, int limit) {
+        if (!hazir) {
+            throw new KuyrukDoluException("Analiz deposu hazırlanıyor, lütfen biraz sonra tekrar deneyin.");
+        }
+        long baslamaNanos = System.nanoTime();
+        Parca[] anlik = parcalar;
+        Boyutlar boyut = boyutlar;
+        long[] kullanicilar = kullaniciIdleri;
+        int altGun = baslangic != null ? (int) baslangic.toEpochDay() : Integer.MIN_VALUE;
+        int ustGun = bitis != null ? (int) bitis.toEpochDay() : Integer.MAX_VALUE;
+
+        int minAy = Integer.MAX_VALUE;
+        int maxAy = Integer.MIN_VALUE;
+        if (grup == Grup.AY) {
+            for (Parca parca : anlik) {
+                if (parca.boyut > 0 && parca.maxGun >= altGun && parca.minGun <= ustGun) {
+                    minAy = Math.min(minAy, ayIndeksi(Math.max(parca.minGun, altGun)));
+                    maxAy = Math.max(maxAy, ayIndeksi(Math.min(parca.maxGun, ustGun)));
+                }
+            }
+        }
+        int anahtarSayisi;
+        switch (grup) {
+            case KATEGORI:
+                anahtarSayisi = boyut.kategoriIdleri.length + 1;
+                break;
+            case YAZAR:
+                anahtarSayisi = boyut.yazarlar.length + 1;
+                break;
+            case KITAP:
+                anahtarSayisi = boyut.kitapIdleri.length;
+                break;
+            case MUSTERI:
+                anahtarSayisi = kullanicilar.length;
+                break;
+            default:
+                anahtarSayisi = minAy <= maxAy ? maxAy - minAy + 1 : 0;
+        }
+
+        Toplam toplam = anlik.length == 0 || anahtarSayisi == 0
+                ? new Toplam(anahtarSayisi)
+                : sorguHavuzu.invoke(new ToplamaGorevi(anlik, 0, anlik.length, grup, boyut,
+                anahtarSayisi, altGun, ustGun, minAy));
+
+        List<SatisToplami> satirlar = new ArrayList<>();
+        for (int kod = 0; kod < anahtarSayisi; kod++) {
+            if (toplam.satir[kod] == 0) {
+                continue;
+            }
+            String anahtar;
+            String ad;
+            switch (grup) {
+                case KATEGORI:
+                    anahtar = kod == 0 ? null : String.valueOf(boyut.kategoriIdleri[kod - 1]);
+                    ad = kod == 0 ? BILINMIYOR : boyut.kategoriAdlari[kod - 1];
+                    break;
+                case YAZAR:
+                    anahtar = kod == 0 ? null : boyut.yazarlar[kod - 1];
+                    ad = kod == 0 ? BILINMIYOR : boyut.yazarlar[kod - 1];
+                    break;
+                case KITAP:
+                    anahtar = String.valueOf(boyut.kitapIdleri[kod]);
+                    ad = boyut.kitapAdlari[kod];
+                    break;
+                case MUSTERI:
+                    anahtar = String.valueOf(kullanicilar[kod]);
+                    ad = null;
+                    break;
+                default:
+                    anahtar = YearMonth.of((minAy + kod) / 12, (minAy + kod) % 12 + 1).toString();
+                    ad = anahtar;
+            }
+            satirlar.add(new SatisToplami(anahtar, ad, toplam.adet[kod], BigDecimal.valueOf(toplam.kurus[kod], 2),
+                    toplam.satir[kod]));
+        }
+        if (grup == Grup.AY) {
+            satirlar.sort(Comparator.comparing(SatisToplami::getAnahtar));
+        } else {
+            satirlar.sort(Comparator.comparing(SatisToplami::getTutar).reversed()
+                    .thenComparing(Comparator.comparingLong(SatisToplami::getAdet).reversed()));
+        }
+        if (limit > 0 && satirlar.size() > limit) {
+            satirlar = new ArrayList<>(satirlar.subList(0, limit));
+        }
+        if (grup == Grup.MUSTERI) {
+            musteriAdlariniDoldur(satirlar);
+        }
+        return new Sonuc(satirlar, toplam.eslesen, (System.nanoTime() - baslamaNanos) / 1000);
+    }
+
+    // ---- Yazıcı thread'i ----
+
+    private void yukle() {
+        long baslama = System.currentTimeMillis();
+        // Önceki başarısız denemeden kalanlar atılır
+        parcalar = new Parca[0];
+        boyutlar = Boyutlar.BOS;
+        kullaniciIdleri = new long[0];
+        kitapKodlari.clear();
+        kategoriKodlari.clear();
+        yazarKodlari.clear();
+        kullaniciKodlari.clear();
+        kullaniciSayisi = 0;
+        silinenSatirSayisi = 0;
+        try {
+            boyutlariYenile();
+            String sql = satirSorgusu("siparis_detaylari", "siparisler", "")
+                    + " UNION ALL " + satirSorgusu(siparisArsivService.getDetayTablosu(), siparisArsivService.getSiparisTablosu(), "")
+                    + " ORDER BY 1";
+            // Henüz sorgu kabul edilmediği için parçalar yazıldıkça yayınlanır
+            Ekleyici ekleyici = new Ekleyici(parcalar, true);
+            jdbcTemplate.query(sql, rs -> {
+                ekleyici.ekle(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getInt(5), rs.getBigDecimal(6));
+            });
+            parcalar = ekleyici.bitir();
+            hazir = true;
+            logger.info("Satış analiz deposu yüklendi: {} satır, {} parça, {} ms", satirSayisi(), parcalar.length,
+                    System.currentTimeMillis() - baslama);
+        } catch (Exception e) {
+            if (yazici.isShutdown()) {
+                return;
+            }
+            logger.error("Satış analiz deposu yüklenemedi, {} ms sonra yeniden denenecek", yenidenDenemeMs, e);
+            // Beklerken gelen sipariş değişiklikleri atlanır; yeniden yükleme hepsini veritabanından okur
+            yazici.schedule(this::yukle, yenidenDenemeMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void siparisleriYenile(List<Long> siparisIdleri) {
+        if (!hazir) {
+            return;
+        }
+        try {
+            Set<Long> idler = new HashSet<>(siparisIdleri);
+            long min = Collections.min(idler);
+            long max = Collections.max(idler);
+            // Değişiklik parça kopyalarında hazırlanır; okuyucular yayınlanana kadar eski parçaları görür
+            Parca[] yeni = parcalar.clone();
+            long silinen = 0;
+            // Eski satırları sil; zaman sıralı id'ler sayesinde çoğu parça aralık kontrolüyle atlanır
+            for (int p = 0; p < yeni.length; p++) {
+                Parca parca = yeni[p];
+                int boyut = parca.boyut;
+                if (boyut == 0 || parca.maxSiparis < min || parca.minSiparis > max) {
+                    continue;
+                }
+                Parca kopya = null;
+                for (int i = 0; i < boyut; i++) {
+                    if (idler.contains(parca.siparis[i]) && !parca.silindiMi(i)) {
+                        if (kopya == null) {
+                            kopya = new Parca(parca);
+                        }
+                        kopya.sil(i);
+                        silinen++;
+                    }
+                }
+                if (kopya != null) {
+                    yeni[p] = kopya;
+                }
+            }
+            // Hâlâ onaylı olanların güncel satırlarını ekle
+            String kosul = " AND s.id IN (:idler)";
+            String sql = satirSorgusu("siparis_detaylari", "siparisler", kosul)
+                    + " UNION ALL " + satirSorgusu(siparisArsivService.getDetayTablosu(), siparisArsivService.getSiparisTablosu(), kosul);
+            Ekleyici ekleyici = new Ekleyici(yeni, false);
+            namedJdbc.query(sql, new MapSqlParameterSource("idler", idler), rs -> {
+                ekleyici.ekle(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getInt(5), rs.getBigDecimal(6));
+            });
+            // Silme ve eklemeler tek yazmayla görünür olur
+            parcalar = ekleyici.bitir();
+            silinenSatirSayisi += silinen;
+            if (silinenSatirSayisi > PARCA_BOYUTU && silinenSatirSayisi * 2 > satirSayisi()) {
+                sikistir();
+            }
+        } catch (Exception e) {
+            logger.error("Satış analiz deposu güncellenemedi: {}", siparisIdleri, e);
+        }
+    }
+
+    /**
+     * Silinmiş satırları atarak parçaları yeniden oluştur. Onaylanan siparişler kargoya verildikçe
+     * satırları silindi olarak işaretlenir; sıkıştırma bunların birikmesini önler.
+     * Eski parçaları okuyan sorgular onları kullanmaya devam eder.
+     */
+    private void sikistir() {
+        long baslama = System.currentTimeMillis();
+        Parca[] eski = parcalar;
+        List<Parca> yeni = new ArrayList<>();
+        Parca hedef = null;
+        for (Parca parca : eski) {
+            int boyut = parca.boyut;
+            for (int i = 0; i < boyut; i++) {
+                if (parca.silindiMi(i)) {
+                    continue;
+                }
+                if (hedef == null || hedef.boyut == PARCA_BOYUTU) {
+                    hedef = new Parca();
+                    yeni.add(hedef);
+                }
+                int j = hedef.boyut;
+                hedef.siparis[j] = parca.siparis[i];
+                hedef.kitap[j] = parca.kitap[i];
+                hedef.kullanici[j] = parca.kullanici[i];
+                hedef.gun[j] = parca.gun[i];
+                hedef.adet[j] = parca.adet[i];
+                hedef.kurus[j] = parca.kurus[i];
+                hedef.minGun = Math.min(hedef.minGun, parca.gun[i]);
+                hedef.maxGun = Math.max(hedef.maxGun, parca.gun[i]);
+                hedef.minSiparis = Math.min(hedef.minSiparis, parca.siparis[i]);
+                hedef.maxSiparis = Math.max(hedef.maxSiparis, parca.siparis[i]);
+                hedef.boyut = j + 1;
+            }
+        }
+        parcalar = yeni.toArray(new Parca[0]);
+        logger.info("Satış analiz deposu sıkıştırıldı: {} silinmiş satır atıldı, {} -> {} parça, {} ms",
+                silinenSatirSayisi, eski.length, yeni.size(), System.currentTimeMillis() - baslama);
+        silinenSatirSayisi = 0;
+    }
+
+    private void boyutlariYenile() {
+        Boyutlar eski = boyutlar;
+        List<long[]> kitaplar = new ArrayList<>();
+        List<String[]> kitapMetinleri = new ArrayList<>();
+        Map<Long, String> kategoriler = new HashMap<>();
+        jdbcTemplate.query("SELECT k.id, k.kategori_id, k.ad, k.yazar FROM kitaplar k", rs -> {
+            kitaplar.add(new long[]{rs.getLong(1), rs.getLong(2)});
+            kitapMetinleri.add(new String[]{rs.getString(3), rs.getString(4)});
+        });
+        jdbcTemplate.query("SELECT id, ad FROM kategoriler", rs -> {
+            kategoriler.put(rs.getLong(1), rs.getString(2));
+        });
+
+        for (Long kategoriId : kategoriler.keySet()) {
+            kategoriKodlari.computeIfAbsent(kategoriId, k -> kategoriKodlari.size());
+        }
+        for (long[] kitap : kitaplar) {
+            kitapKodlari.computeIfAbsent(kitap[0], k -> kitapKodlari.size());
+            kategoriKodlari.computeIfAbsent(kitap[1], k -> kategoriKodlari.size());
+        }
+        for (String[] metin : kitapMetinleri) {
+            yazarKodlari.computeIfAbsent(metin[1], k -> yazarKodlari.size());
+        }
+
+        // Silinen kitap/kategorilerin kodları ve adları eski tablodan korunur
+        int kitapSayisi = kitapKodlari.size();
+        long[] kitapIdleri = Arrays.copyOf(eski.kitapIdleri, kitapSayisi);
+        String[] kitapAdlari = Arrays.copyOf(eski.kitapAdlari, kitapSayisi);
+        int[] kitapKategorisi = Arrays.copyOf(eski.kitapKategorisi, kitapSayisi);
+        int[] kitapYazari = Arrays.copyOf(eski.kitapYazari, kitapSayisi);
+        for (int kod = eski.kitapIdleri.length; kod < kitapSayisi; kod++) {
+            kitapKategorisi[kod] = -1;
+            kitapYazari[kod] = -1;
+        }
+        for (int i = 0; i < kitaplar.size(); i++) {
+            int kod = kitapKodlari.get(kitaplar.get(i)[0]);
+            kitapIdleri[kod] = kitaplar.get(i)[0];
+            kitapAdlari[kod] = kitapMetinleri.get(i)[0];
+            kitapKategorisi[kod] = kategoriKodlari.get(kitaplar.get(i)[1]);
+            kitapYazari[kod] = yazarKodlari.get(kitapMetinleri.get(i)[1]);
+        }
+        for (Map.Entry<Long, Integer> kitap : kitapKodlari.entrySet()) {
+            kitapIdleri[kitap.getValue()] = kitap.getKey();
+        }
+        long[] kategoriIdleri = new long[kategoriKodlari.size()];
+        String[] kategoriAdlari = Arrays.copyOf(eski.kategoriAdlari, kategoriKodlari.size());
+        for (Map.Entry<Long, Integer> kategori : kategoriKodlari.entrySet()) {
+            kategoriIdleri[kategori.getValue()] = kategori.getKey();
+            String ad = kategoriler.get(kategori.getKey());
+            if (ad != null || kategoriAdlari[kategori.getValue()] == null) {
+                kategoriAdlari[kategori.getValue()] = ad != null ? ad : BILINMIYOR;
+            }
+        }
+        String[] yazarlar = new String[yazarKodlari.size()];
+        for (Map.Entry<String, Integer> yazar : yazarKodlari.entrySet()) {
+            yazarlar[yazar.getValue()] = yazar.getKey();
+        }
+        boyutlar = new Boyutlar(kitapIdleri, kitapAdlari, kitapKategorisi, kitapYazari, kategoriIdleri, kategoriAdlari, yazarlar);
+    }
+
+    // Onaylı siparişlerin satırları: sipariş id, kitap id, kullanıcı id, tarih, adet, birim fiyat
+    private static String satirSorgusu(String detayTablosu, String siparisTablosu, String kosul) {
+        return "SELECT s.id, d.kitap_id, s.kullanici_id, s.siparis_tarihi, d.adet, d.fiyat FROM " + detayTablosu
+                + " d JOIN " + siparisTablosu + " s ON s.id = d.siparis_id WHERE s.durum = '" + ONAYLANDI + "'" + kosul;
+    }
+
+    private int kitapKodu(long kitapId) {
+        Integer kod = kitapKodlari.get(kitapId);
+        if (kod == null) {
+            boyutlariYenile();
+            kod = kitapKodlari.get(kitapId);
+        }
+        if (kod == null) {
+            // Veritabanında artık bulunmayan kitap
+            kod = kitapKodlari.size();
+            kitapKodlari.put(kitapId, kod);
+            Boyutlar eski = boyutlar;
+            boyutlar = eski.kitapEkle(kitapId);
+        }
+        return kod;
+    }
+
+    private int kullaniciKodu(long kullaniciId) {
+        Integer kod = kullaniciKodlari.get(kullaniciId);
+        if (kod == null) {
+            kod = kullaniciSayisi++;
+            kullaniciKodlari.put(kullaniciId, kod);
+            long[] idler = kullaniciIdleri;
+            if (kod >= idler.length) {
+                idler = Arrays.copyOf(idler, Math.max(16, idler.length * 2));
+            }
+            idler[kod] = kullaniciId;
+            kullaniciIdleri = idler;
+        }
+        return kod;
+    }
+
+    /**
+     * Satırları verilen parça dizisinin son parçasına yazar; parça boyutu toplu olarak güncellenir.
+     * Yerinde değilse yayınlanmış son parçaya dokunulmaz, kopyasına yazılır; sonuç dizisini
+     * yayınlamak çağırana kalır.
+     */
+    private final class Ekleyici {
+
+        private final boolean yerinde;
+        private Parca[] dizi;
+        private Parca parca;
+        private int boyut;
+        private boolean kopyalandi;
+
+        Ekleyici(Parca[] dizi, boolean yerinde) {
+            this.dizi = dizi;
+            this.yerinde = yerinde;
+            if (dizi.length > 0 && dizi[dizi.length - 1].boyut < PARCA_BOYUTU) {
+                parca = dizi[dizi.length - 1];
+                boyut = parca.boyut;
+            }
+        }
+
+        void ekle(long siparisId, long kitapId, long kullaniciId, long tarihMs, int adet, BigDecimal fiyat) {
+            if (parca == null || boyut == PARCA_BOYUTU) {
+                boyutuYaz();
+                parca = new Parca();
+                boyut = 0;
+                kopyalandi = true;
+                dizi = Arrays.copyOf(dizi, dizi.length + 1);
+                dizi[dizi.length - 1] = parca;
+                if (yerinde) {
+                    parcalar = dizi;
+                }
+            } else if (!yerinde && !kopyalandi) {
+                parca = new Parca(parca);
+                kopyalandi = true;
+                dizi[dizi.length - 1] = parca;
+            }
+            int gun = (int) Instant.ofEpochMilli(tarihMs).atZone(ZAMAN_DILIMI).toLocalDate().toEpochDay();
+            parca.siparis[boyut] = siparisId;
+            parca.kitap[boyut] = kitapKodu(kitapId);
+            parca.kullanici[boyut] = kullaniciKodu(kullaniciId);
+            parca.gun[boyut] = gun;
+            parca.adet[boyut] = adet;
+            parca.kurus[boyut] = fiyat.movePointRight(2).longValue() * adet;
+            parca.minGun = Math.min(parca.minGun, gun);
+            parca.maxGun = Math.max(parca.maxGun, gun);
+            parca.minSiparis = Math.min(parca.minSiparis, siparisId);
+            parca.maxSiparis = Math.max(parca.maxSiparis, siparisId);
+            boyut++;
+        }
+
+        Parca[] bitir() {
+            boyutuYaz();
+            return dizi;
+        }
+
+        private void boyutuYaz() {
+            if (parca != null && parca.boyut != boyut) {
+                parca.boyut = boyut;
+                parca.surum++;
+            }
+        }
+    }
+
+    private long satirSayisi() {
+        long toplam = 0;
+        for (Parca parca : parcalar) {
+            toplam += parca.boyut;
+        }
+        return toplam;
+    }
+
+    private void musteriAdlariniDoldur(List<SatisToplami> satirlar) {
+        Map<Long, SatisToplami> idler = new HashMap<>();
+        for (SatisToplami satir : satirlar) {
+            idler.put(Long.valueOf(satir.anahtar), satir);
+        }
+        List<Long> liste = new ArrayList<>(idler.keySet());
+        // SQLite tek ifadede en fazla 999 parametre kabul eder
+        for (int i = 0; i < liste.size(); i += 500) {
+            namedJdbc.query("SELECT id, ad_soyad, email FROM kullanicilar WHERE id IN (:idler)",
+                    new MapSqlParameterSource("idler", liste.subList(i, Math.min(liste.size(), i + 500))), rs -> {
+                        idler.get(rs.getLong(1)).ad = rs.getString(2) + " (" + rs.getString(3) + ")";
+                    });
+        }
+        for (SatisToplami satir : satirlar) {
+            if (satir.ad == null) {
+                satir.ad = BILINMIYOR;
+            }
+        }
+    }
+
+    // Epoch gününden 0. yıldan itibaren ay sayısına
+    private static int ayIndeksi(int gun) {
+        LocalDate tarih = LocalDate.ofEpochDay(gun);
+        return tarih.getYear() * 12 + tarih.getMonthValue() - 1;
+    }
+
+    /**
+     * Kolon parçası. Yazıcı satırları yazdıktan sonra boyutu günceller (volatile yayın);
+     * okuyucular yalnızca boyuta kadar olan satırları okur. Kopya, kolon dizilerini kaynakla paylaşır
+     * ve yalnızca silme bitlerini kopyalar: boyuta kadar olan satırlar değişmez, kopyaya eklenen
+     * satırlar ise kaynağın boyutundan sonrasına yazılır ve kaynağı okuyanlara görünmez.
+     */
+    private static final class Parca {
+
+        final long[] siparis;
+        final int[] kitap;
+        final int[] kullanici;
+        final int[] gun;
+        final int[] adet;
+        final long[] kurus;
+        final AtomicLongArray silindi;
+        final AtomicReferenceArray<ParcaOzeti> ozetler = new AtomicReferenceArray<>(Grup.values().length);
+        volatile int boyut;
+        // Her ekleme/silme sonrası artar; eski sürümün özetleri geçersizdir
+        volatile int surum;
+
+        // Parça aralıkları - tarih filtresi ve silme taraması için
+        int minGun = Integer.MAX_VALUE;
+        int maxGun = Integer.MIN_VALUE;
+        long minSiparis = Long.MAX_VALUE;
+        long maxSiparis = Long.MIN_VALUE;
+
+        Parca() {
+            siparis = new long[PARCA_BOYUTU];
+            kitap = new int[PARCA_BOYUTU];
+            kullanici = new int[PARCA_BOYUTU];
+            gun = new int[PARCA_BOYUTU];
+            adet = new int[PARCA_BOYUTU];
+            kurus = new long[PARCA_BOYUTU];
+            silindi = new AtomicLongArray(PARCA_BOYUTU / 64);
+        }
+
+        Parca(Parca kaynak) {
+            siparis = kaynak.siparis;
+            kitap = kaynak.kitap;
+            kullanici = kaynak.kullanici;
+            gun = kaynak.gun;
+            adet = kaynak.adet;
+            kurus = kaynak.kurus;
+            long[] bitler = new long[PARCA_BOYUTU / 64];
+            for (int i = 0; i < bitler.length; i++) {
+                bitler[i] = kaynak.silindi.get(i);
+            }
+            silindi = new AtomicLongArray(bitler);
+            minGun = kaynak.minGun;
+            maxGun = kaynak.maxGun;
+            minSiparis = kaynak.minSiparis;
+            maxSiparis = kaynak.maxSiparis;
+            surum = kaynak.surum + 1;
+            boyut = kaynak.boyut;
+        }
+
+        boolean sil(int satir) {
+            int kelime = satir >>> 6;
+            long bit = 1L << satir;
+            long eski;
+            do {
+                eski = silindi.get(kelime);
+                if ((eski & bit) != 0) {
+                    return false;
+                }
+            } while (!silindi.compareAndSet(kelime, eski, eski | bit));
+            return true;
+        }
+
+        boolean silindiMi(int satir) {
+            return (silindi.get(satir >>> 6) & (1L << satir)) != 0;
+        }
+    }
+
+    /**
+     * Boyut tabloları: kitap kodu -> kitap id, ad, kategori kodu, yazar kodu.
+     * Değişince yenisi oluşturulup tek seferde yayınlanır.
+     */
+    private static final class Boyutlar {
+
+        static final Boyutlar BOS = new Boyutlar(new long[0], new String[0], new int[0], new int[0],
+                new long[0], new String[0], new String[0]);
+
+        final long[] kitapIdleri;
+        final String[] kitapAdlari;
+        final int[] kitapKategorisi;
+        final int[] kitapYazari;
+        final long[] kategoriIdleri;
+        final String[] kategoriAdlari;
+        final String[] yazarlar;
+
+        Boyutlar(long[] kitapIdleri, String[] kitapAdlari, int[] kitapKategorisi, int[] kitapYazari,
+                 long[] kategoriIdleri, String[] kategoriAdlari, String[] yazarlar) {
+            this.kitapIdleri = kitapIdleri;
+            this.kitapAdlari = kitapAdlari;
+            this.kitapKategorisi = kitapKategorisi;
+            this.kitapYazari = kitapYazari;
+            this.kategoriIdleri = kategoriIdleri;
+            this.kategoriAdlari = kategoriAdlari;
+            this.yazarlar = yazarlar;
+        }
+
+        Boyutlar kitapEkle(long kitapId) {
+            int kod = kitapIdleri.length;
+            long[] idler = Arrays.copyOf(kitapIdleri, kod + 1);
+            String[] adlar = Arrays.copyOf(kitapAdlari, kod + 1);
+            int[] kategoriler = Arrays.copyOf(kitapKategorisi, kod + 1);
+            int[] yazarKodlari = Arrays.copyOf(kitapYazari, kod + 1);
+            idler[kod] = kitapId;
+            adlar[kod] = BILINMIYOR;
+            kategoriler[kod] = -1;
+            yazarKodlari[kod] = -1;
+            return new Boyutlar(idler, adlar, kategoriler, yazarKodlari, kategoriIdleri, kategoriAdlari, yazarlar);
+        }
+    }
+
+    /**
+     * Tamamen tarih aralığında kalan parçalar için önceden toplanmış grup değerleri.
+     */
+    private static final class ParcaOzeti {
+
+        final int surum;
+        final Boyutlar boyut;
+        final int taban;
+        final Toplam toplam;
+
+        ParcaOzeti(int surum, Boyutlar boyut, int taban, Toplam toplam) {
+            this.surum = surum;
+            this.boyut = boyut;
+            this.taban = taban;
+            this.toplam = toplam;
+        }
+    }
+
+    private static final class Toplam {
+
+        final long[] adet;
+        final long[] kurus;
+        final long[] satir;
+        long eslesen;
+
+        Toplam(int anahtarSayisi) {
+            adet = new long[anahtarSayisi];
+            kurus = new long[anahtarSayisi];
+            satir = new long[anahtarSayisi];
+        }
+
+        // diger'in k. anahtarı bu toplamın k + kaydirma anahtarına eklenir
+        Toplam birlestir(Toplam diger, int kaydirma) {
+            int ilk = Math.max(0, -kaydirma);
+            int son = Math.min(diger.adet.length, adet.length - kaydirma);
+            for (int i = ilk; i < son; i++) {
+                adet[i + kaydirma] += diger.adet[i];
+                kurus[i + kaydirma] += diger.kurus[i];
+                satir[i + kaydirma] += diger.satir[i];
+            }
+            eslesen += diger.eslesen;
+            return this;
+        }
+    }
+
+    /**
+     * Parça aralığını ikiye bölerek paralel toplar; her yaprak tek parçayı tarar.
+     */
+    private static final class ToplamaGorevi extends RecursiveTask<Toplam> {
+
+        private final Parca[] parcalar;
+        private final int ilk;
+        private final int son;
+        private final Grup grup;
+        private final Boyutlar boyut;
+        private final int anahtarSayisi;
+        private final int altGun;
+        private final int ustGun;
+        private final int minAy;
+
+        ToplamaGorevi(Parca[] parcalar, int ilk, int son, Grup grup, Boyutlar boyut, int anahtarSayisi,
+                      int altGun, int ustGun, int minAy) {
+            this.parcalar = parcalar;
+            this.ilk = ilk;
+            this.son = son;
+            this.grup = grup;
+            this.boyut = boyut;
+            this.anahtarSayisi = anahtarSayisi;
+            this.altGun = altGun;
+            this.ustGun = ustGun;
+            this.minAy = minAy;
+        }
+
+        @Override
+        protected Toplam compute() {
+            if (son - ilk > 1) {
+                int orta = (ilk + son) >>> 1;
+                ToplamaGorevi sol = new ToplamaGorevi(parcalar, ilk, orta, grup, boyut, anahtarSayisi, altGun, ustGun, minAy);
+                ToplamaGorevi sag = new ToplamaGorevi(parcalar, orta, son, grup, boyut, anahtarSayisi, altGun, ustGun, minAy);
+                sol.fork();
+                Toplam sagSonuc = sag.compute();
+                return sol.join().birlestir(sagSonuc, 0);
+            }
+            Toplam toplam = new Toplam(anahtarSayisi);
+            Parca parca = parcalar[ilk];
+            if (parca.boyut == 0 || parca.maxGun < altGun || parca.minGun > ustGun) {
+                return toplam;
+            }
+            if (parca.minGun < altGun || parca.maxGun > ustGun) {
+                // Parça tarih aralığının kenarında; satır satır filtrelenir
+                tara(parca, toplam, minAy, true);
+                return toplam;
+            }
+            // Parça tamamen aralıkta; parça özeti geçerliyse tekrar taranmaz
+            ParcaOzeti ozet = parca.ozetler.get(grup.ordinal());
+            if (ozet == null || ozet.surum != parca.surum || ozet.boyut != (grup == Grup.KATEGORI || grup == Grup.YAZAR ? boyut : null)) {
+                int surum = parca.surum;
+                int taban = grup == Grup.AY ? ayIndeksi(parca.minGun) : 0;
+                int ozetAnahtarSayisi = grup == Grup.AY ? ayIndeksi(parca.maxGun) - taban + 1 : anahtarSayisi;
+                if (ozetAnahtarSayisi > MAX_OZET_ANAHTARI) {
+                    // Müşteri gibi geniş boyutlarda parça özeti tutulmaz
+                    tara(parca, toplam, minAy, false);
+                    return toplam;
+                }
+                Toplam parcaToplami = new Toplam(ozetAnahtarSayisi);
+                tara(parca, parcaToplami, taban, false);
+                ozet = new ParcaOzeti(surum, grup == Grup.KATEGORI || grup == Grup.YAZAR ? boyut : null, taban, parcaToplami);
+                parca.ozetler.set(grup.ordinal(), ozet);
+            }
+            return toplam.birlestir(ozet.toplam, grup == Grup.AY ? ozet.taban - minAy : 0);
+        }
+
+        // Parçanın silinmemiş satırlarını hedefe ekle; ay anahtarları ayTabani'na göre
+        private void tara(Parca parca, Toplam hedef, int ayTabani, boolean tarihFiltresi) {
+            int satirSayisi = parca.boyut;
+            int hedefBoyutu = hedef.satir.length;
+            // Satırlar çoğunlukla tarih sıralı; son ayın gün aralığı tekrar hesaplanmaz
+            int ayBaslangici = Integer.MAX_VALUE;
+            int aySonu = Integer.MIN_VALUE;
+            int ay = 0;
+            for (int i = 0; i < satirSayisi; i++) {
+                if ((i & 63) == 0 && parca.silindi.get(i >>> 6) == -1L) {
+                    i += 63;
+                    continue;
+                }
+                if (parca.silindiMi(i)) {
+                    continue;
+                }
+                int gun = parca.gun[i];
+                if (tarihFiltresi && (gun < altGun || gun > ustGun)) {
+                    continue;
+                }
+                int anahtar;
+                switch (grup) {
+                    case KATEGORI:
+                    case YAZAR:
+                        int kitap = parca.kitap[i];
+                        if (kitap >= boyut.kitapIdleri.length) {
+                            // Sorgu başladıktan sonra eklenen kitap
+                            continue;
+                        }
+                        anahtar = (grup == Grup.KATEGORI ? boyut.kitapKategorisi[kitap] : boyut.kitapYazari[kitap]) + 1;
+                        break;
+                    case KITAP:
+                        anahtar = parca.kitap[i];
+                        break;
+                    case MUSTERI:
+                        anahtar = parca.kullanici[i];
+                        break;
+                    default:
+                        if (gun < ayBaslangici || gun > aySonu) {
+                            LocalDate tarih = LocalDate.ofEpochDay(gun);
+                            ayBaslangici = (int) tarih.withDayOfMonth(1).toEpochDay();
+                            aySonu = (int) tarih.withDayOfMonth(tarih.lengthOfMonth()).toEpochDay();
+                            ay = tarih.getYear() * 12 + tarih.getMonthValue() - 1 - ayTabani;
+                        }
+                        anahtar = ay;
+                }
+                if (anahtar >= hedefBoyutu) {
+                    // Sorgu başladıktan sonra eklenen kitap/müşteri
+                    continue;
+                }
+                hedef.adet[anahtar] += parca.adet[i];
+                hedef.kurus[anahtar] += parca.kurus[i];
+                hedef.satir[anahtar]++;
+                hedef.eslesen++;
+            }
+        }
+    }
+
+    /**
+     * Bir grubun toplamı
+     */
+    public static class SatisToplami {
+        private final String anahtar;
+        private String ad;
+        private final long adet;
+        private final BigDecimal tutar;
+        private final long satirSayisi;
+
+        SatisToplami(String anahtar, String ad, long adet, BigDecimal tutar, long satirSayisi) {
+            this.anahtar = anahtar;
+            this.ad = ad;
+            this.adet = adet;
+            this.tutar = tutar;
+            this.satirSayisi = satirSayisi;
+        }
+
+        public String getAnahtar() {
+            return anahtar;
+        }
+
+        public String getAd() {
+            return ad;
+        }
+
+        public long getAdet() {
+            return adet;
+        }
+
+        public BigDecimal getTutar() {
+            return tutar;
+        }
+
+        public long getSatirSayisi() {
+            return satirSayisi;
+        }
+    }
+
+    /**
+     * Sorgu sonucu: gruplar, filtreye uyan satır sayısı ve süre (mikrosaniye)
+     */
+    public static class Sonuc {
+        private final List<SatisToplami> gruplar;
+        private final long satirSayisi;
+        private final long sureMikro;
+
+        Sonuc(List<SatisToplami> gruplar, long satirSayisi, long sureMikro) {
+            this.gruplar = Collections.unmodifiableList(gruplar);
+            this.satirSayisi = satirSayisi;
+            this.sureMikro = sureMikro;
+        }
+
+        public List<SatisToplami> getGruplar() {
+            return gruplar;
+        }
+
+        public long getSatirSayisi() {
+            return satirSayisi;
+        }
+
+        public long getSureMikro() {
+            return sureMikro;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.alperen.kitapsatissistemi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Satış özet (rollup) tabloları - günlük, aylık, kategori-gün ve yazar-gün bazında
+ * onaylanmış ("Onaylandı") siparişlerin toplamları.
+ * Tablolar SQLite trigger'ları ile güncellenir: sipariş bu duruma girdiğinde ya da
+ * çıktığında, silindiğinde veya satırları değiştiğinde fark aynı transaction içinde
+ * uygulanır. Böylece JPA, toplu JDBC ve admin toplu işlemleri aynı şekilde kapsanır.
+ * İstatistik uçları bu küçük tablolardan okur; sipariş geçmişi taranmaz.
+ * Geçmişi yeniden doldurmak için: --satis-ozeti.yeniden-olustur=true
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class SatisOzetiService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SatisOzetiService.class);
+
+    public static final String ONAYLANDI = "Onaylandı";
+
+    // Tarihler epoch milisaniye olarak saklanır
+    private static final String GUN = "strftime('%Y-%m-%d', {} / 1000, 'unixepoch', 'localtime')";
+    private static final String AY = "strftime('%Y-%m', {} / 1000, 'unixepoch', 'localtime')";
+    // Arşivleme gibi özetleri değiştirmemesi gereken taşımalar bu tabloya bir satır koyar
+    private static final String ASKIDA_DEGIL = "NOT EXISTS (SELECT 1 FROM satis_ozeti_askida)";
+
+    private static final List<String> TABLOLAR = Arrays.asList(
+            "CREATE TABLE IF NOT EXISTS satis_gunluk (gun varchar(10) not null, siparis_sayisi integer not null, "
+                    + "toplam_tutar numeric(18,2) not null, primary key (gun))",
+            "CREATE TABLE IF NOT EXISTS satis_aylik (ay varchar(7) not null, siparis_sayisi integer not null, "
+                    + "toplam_tutar numeric(18,2) not null, primary key (ay))",
+            "CREATE TABLE IF NOT EXISTS satis_kategori_gunluk (gun varchar(10) not null, kategori_id bigint not null, "
+                    + "adet integer not null, tutar numeric(18,2) not null, primary key (gun, kategori_id))",
+            "CREATE TABLE IF NOT EXISTS satis_yazar_gunluk (gun varchar(10) not null, yazar varchar(100) not null, "
+                    + "adet integer not null, tutar numeric(18,2) not null, primary key (gun, yazar))",
+            "CREATE TABLE IF NOT EXISTS satis_ozeti_askida (id integer not null primary key)",
+            // Kitap kategorisi/yazarı değiştiğinde satırlarını bulmak için
+            "CREATE INDEX IF NOT EXISTS ix_siparis_detaylari_kitap ON siparis_detaylari (kitap_id)");
+
+    private static final List<String> TRIGGERLAR = Arrays.asList(
+            "trg_siparis_ozet_ekle", "trg_siparis_ozet_guncelle", "trg_siparis_ozet_sil",
+            "trg_siparis_detay_ozet_ekle", "trg_siparis_detay_ozet_guncelle", "trg_siparis_detay_ozet_sil",
+            "trg_kitap_ozet_guncelle");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${satis-ozeti.yeniden-olustur:false}")
+    private boolean yenidenOlusturIstendi;
+
+    public SatisOzetiService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        Boolean yeniKurulum = transactionTemplate.execute(status -> {
+            boolean yeni = !tabloVarMi("satis_gunluk");
+            TABLOLAR.forEach(jdbcTemplate::execute);
+            // Trigger'lar her açılışta yeniden oluşturulur; tanım değişiklikleri böylece uygulanır
+            TRIGGERLAR.forEach(ad -> jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + ad));
+            triggerlariOlustur();
+            jdbcTemplate.update("DELETE FROM satis_ozeti_askida");
+            return yeni;
+        });
+        if (Boolean.TRUE.equals(yeniKurulum)) {
+            // İlk kurulumda mevcut siparişlerden doldur
+            yenidenOlustur();
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (yenidenOlusturIstendi) {
+            yenidenOlustur();
+        }
+    }
+
+    /**
+     * Tüm özet tablolarını sipariş tablolarından (arşiv dahil) yeniden hesapla
+     */
+    public void yenidenOlustur() {
+        long baslangic = System.currentTimeMillis();
+        List<String[]> kaynaklar = Arrays.asList(
+                new String[]{"siparisler", "siparis_detaylari"},
+                new String[]{arsivTablosu("siparisler"), arsivTablosu("siparis_detaylari")});
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM satis_gunluk");
+            jdbcTemplate.update("DELETE FROM satis_aylik");
+            jdbcTemplate.update("DELETE FROM satis_kategori_gunluk");
+            jdbcTemplate.update("DELETE FROM satis_yazar_gunluk");
+            for (String[] kaynak : kaynaklar) {
+                if (kaynak[0] == null) {
+                    continue;
+                }
+                String s = kaynak[0];
+                String d = kaynak[1];
+                jdbcTemplate.update("INSERT INTO satis_gunluk (gun, siparis_sayisi, toplam_tutar) "
+                        + "SELECT " + gun("s.siparis_tarihi") + ", COUNT(*), SUM(s.toplam_tutar) FROM " + s + " s "
+                        + "WHERE s.durum = '" + ONAYLANDI + "' GROUP BY 1" + birlestir("gun", "siparis_sayisi", "toplam_tutar"));
+                jdbcTemplate.update("INSERT INTO satis_aylik (ay, siparis_sayisi, toplam_tutar) "
+                        + "SELECT " + ay("s.siparis_tarihi") + ", COUNT(*), SUM(s.toplam_tutar) FROM " + s + " s "
+                        + "WHERE s.durum = '" + ONAYLANDI + "' GROUP BY 1" + birlestir("ay", "siparis_sayisi", "toplam_tutar"));
+                jdbcTemplate.update("INSERT INTO satis_kategori_gunluk (gun, kategori_id, adet, tutar) "
+                        + "SELECT " + gun("s.siparis_tarihi") + ", k.kategori_id, SUM(d.adet), SUM(d.adet * d.fiyat) "
+                        + "FROM " + d + " d JOIN " + s + " s ON s.id = d.siparis_id JOIN kitaplar k ON k.id = d.kitap_id "
+                        + "WHERE s.durum = '" + ONAYLANDI + "' GROUP BY 1, 2" + birlestir("gun, kategori_id", "adet", "tutar"));
+                jdbcTemplate.update("INSERT INTO satis_yazar_gunluk (gun, yazar, adet, tutar) "
+                        + "SELECT " + gun("s.siparis_tarihi") + ", k.yazar, SUM(d.adet), SUM(d.adet * d.fiyat) "
+                        + "FROM " + d + " d JOIN " + s + " s ON s.id = d.siparis_id JOIN kitaplar k ON k.id = d.kitap_id "
+                        + "WHERE s.durum = '" + ONAYLANDI + "' GROUP BY 1, 2" + birlestir("gun, yazar", "adet", "tutar"));
+            }
+        });
+        logger.info("Satış özet tabloları yeniden oluşturuldu ({} ms)", System.currentTimeMillis() - baslangic);
+    }
+
+    /**
+     * Verilen işlemi özet trigger'ları devre dışıyken çalıştır.
+     * Çağıranın transaction'ı içinde kullanılmalıdır (ör. arşive taşıma: satırlar silinir
+     * ama satış gerçekleşmiş olarak kalır).
+     */
+    public <T> T ozetlerDisinda(Supplier<T> islem) {
+        jdbcTemplate.update("INSERT OR IGNORE INTO satis_ozeti_askida (id) VALUES (1)");
+        try {
+            return islem.get();
+        } finally {
+            jdbcTemplate.update("DELETE FROM satis_ozeti_askida");
+        }
+    }
+
+    /**
+     * Günlük satışlar (yeniden eskiye): [gün, sipariş sayısı, toplam tutar]
+     */
+    public List<Object[]> getGunlukSatislar() {
+        return jdbcTemplate.query("SELECT gun, siparis_sayisi, toplam_tutar FROM satis_gunluk "
+                        + "WHERE siparis_sayisi > 0 ORDER BY gun DESC",
+                (rs, i) -> new Object[]{rs.getString(1), rs.getLong(2), tutar(rs.getBigDecimal(3))});
+    }
+
+    /**
+     * Aylık satışlar (yeniden eskiye): [yıl, ay, sipariş sayısı, toplam tutar]
+     */
+    public List<Object[]> getAylikSatislar() {
+        return jdbcTemplate.query("SELECT ay, siparis_sayisi, toplam_tutar FROM satis_aylik "
+                        + "WHERE siparis_sayisi > 0 ORDER BY ay DESC",
+                (rs, i) -> {
+                    String ay = rs.getString(1);
+                    return new Object[]{Integer.valueOf(ay.substring(0, 4)), Integer.valueOf(ay.substring(5, 7)),
+                            rs.getLong(2), tutar(rs.getBigDecimal(3))};
+                });
+    }
+
+    /**
+     * Kategori bazında satışlar (tutara göre azalan): [kategori adı, adet, tutar]
+     */
+    public List<Object[]> getKategoriSatislari() {
+        return jdbcTemplate.query("SELECT kt.ad, SUM(o.adet), SUM(o.tutar) FROM satis_kategori_gunluk o "
+                        + "JOIN kategoriler kt ON kt.id = o.kategori_id GROUP BY kt.ad HAVING SUM(o.adet) > 0 "
+                        + "ORDER BY SUM(o.tutar) DESC",
+                (rs, i) -> new Object[]{rs.getString(1), rs.getLong(2), tutar(rs.getBigDecimal(3))});
+    }
+
+    /**
+     * Yazar bazında satışlar (tutara göre azalan): [yazar, adet, tutar]
+     */
+    public List<Object[]> getYazarSatislari() {
+        return jdbcTemplate.query("SELECT yazar, SUM(adet), SUM(tutar) FROM satis_yazar_gunluk "
+                        + "GROUP BY yazar HAVING SUM(adet) > 0 ORDER BY SUM(tutar) DESC",
+                (rs, i) -> new Object[]{rs.getString(1), rs.getLong(2), tutar(rs.getBigDecimal(3))});
+    }
+
+    private void triggerlariOlustur() {
+        String onayliYeni = "NEW.durum = '" + ONAYLANDI + "'";
+        String onayliEski = "OLD.durum = '" + ONAYLANDI + "'";
+
+        jdbcTemplate.execute("CREATE TRIGGER trg_siparis_ozet_ekle AFTER INSERT ON siparisler "
+                + "WHEN " + onayliYeni + " AND " + ASKIDA_DEGIL + " BEGIN "
+                + siparisFarki("NEW", "1")
+                + satirlarFarki("NEW", "1")
+                + "END");
+        jdbcTemplate.execute("CREATE TRIGGER trg_siparis_ozet_guncelle AFTER UPDATE OF durum, toplam_tutar, siparis_tarihi ON siparisler "
+                + "WHEN (" + onayliEski + " OR " + onayliYeni + ") AND (OLD.durum IS NOT NEW.durum "
+                + "OR OLD.toplam_tutar IS NOT NEW.toplam_tutar OR OLD.siparis_tarihi IS NOT NEW.siparis_tarihi) AND " + ASKIDA_DEGIL + " BEGIN "
+                + siparisFarki("OLD", "-1")
+                + satirlarFarki("OLD", "-1")
+                + siparisFarki("NEW", "1")
+                + satirlarFarki("NEW", "1")
+                + "END");
+        jdbcTemplate.execute("CREATE TRIGGER trg_siparis_ozet_sil AFTER DELETE ON siparisler "
+                + "WHEN " + onayliEski + " AND " + ASKIDA_DEGIL + " BEGIN "
+                + siparisFarki("OLD", "-1")
+                + satirlarFarki("OLD", "-1")
+                + "END");
+
+        jdbcTemplate.execute("CREATE TRIGGER trg_siparis_detay_ozet_ekle AFTER INSERT ON siparis_detaylari "
+                + "WHEN " + ASKIDA_DEGIL + " BEGIN "
+                + satirFarki("NEW", "1")
+                + "END");
+        jdbcTemplate.execute("CREATE TRIGGER trg_siparis_detay_ozet_guncelle AFTER UPDATE OF adet, fiyat, kitap_id, siparis_id ON siparis_detaylari "
+                + "WHEN (OLD.adet <> NEW.adet OR OLD.fiyat <> NEW.fiyat OR OLD.kitap_id <> NEW.kitap_id "
+                + "OR OLD.siparis_id <> NEW.siparis_id) AND " + ASKIDA_DEGIL + " BEGIN "
+                + satirFarki("OLD", "-1")
+                + satirFarki("NEW", "1")
+                + "END");
+        jdbcTemplate.execute("CREATE TRIGGER trg_siparis_detay_ozet_sil AFTER DELETE ON siparis_detaylari "
+                + "WHEN " + ASKIDA_DEGIL + " BEGIN "
+                + satirFarki("OLD", "-1")
+                + "END");
+
+        // Kategori/yazar raporları kitabın güncel kategorisine göre gruplanır; değişince satışlar taşınır
+        jdbcTemplate.execute("CREATE TRIGGER trg_kitap_ozet_guncelle AFTER UPDATE OF kategori_id, yazar ON kitaplar "
+                + "WHEN OLD.kategori_id <> NEW.kategori_id OR OLD.yazar <> NEW.yazar BEGIN "
+                + kitapSatirlariFarki("OLD", "-1")
+                + kitapSatirlariFarki("NEW", "1")
+                + "END");
+    }
+
+    // Sipariş düzeyindeki özetler (günlük, aylık)
+    private static String siparisFarki(String satir, String isaret) {
+        String kosul = " WHERE " + satir + ".durum = '" + ONAYLANDI + "'";
+        return "INSERT INTO satis_gunluk (gun, siparis_sayisi, toplam_tutar) SELECT " + gun(satir + ".siparis_tarihi") + ", "
+                + isaret + ", " + isaret + " * " + satir + ".toplam_tutar" + kosul + birlestir("gun", "siparis_sayisi", "toplam_tutar") + "; "
+                + "INSERT INTO satis_aylik (ay, siparis_sayisi, toplam_tutar) SELECT " + ay(satir + ".siparis_tarihi") + ", "
+                + isaret + ", " + isaret + " * " + satir + ".toplam_tutar" + kosul + birlestir("ay", "siparis_sayisi", "toplam_tutar") + "; ";
+    }
+
+    // Siparişin mevcut tüm satırlarının kategori/yazar özetleri
+    private static String satirlarFarki(String satir, String isaret) {
+        String kaynak = " FROM siparis_detaylari d JOIN kitaplar k ON k.id = d.kitap_id WHERE d.siparis_id = " + satir + ".id "
+                + "AND " + satir + ".durum = '" + ONAYLANDI + "'";
+        return "INSERT INTO satis_kategori_gunluk (gun, kategori_id, adet, tutar) SELECT " + gun(satir + ".siparis_tarihi")
+                + ", k.kategori_id, " + isaret + " * SUM(d.adet), " + isaret + " * SUM(d.adet * d.fiyat)" + kaynak
+                + " GROUP BY k.kategori_id" + birlestir("gun, kategori_id", "adet", "tutar") + "; "
+                + "INSERT INTO satis_yazar_gunluk (gun, yazar, adet, tutar) SELECT " + gun(satir + ".siparis_tarihi")
+                + ", k.yazar, " + isaret + " * SUM(d.adet), " + isaret + " * SUM(d.adet * d.fiyat)" + kaynak
+                + " GROUP BY k.yazar" + birlestir("gun, yazar", "adet", "tutar") + "; ";
+    }
+
+    // Tek satırın kategori/yazar özetleri (sipariş onaylıysa)
+    private static String satirFarki(String satir, String isaret) {
+        String kaynak = " FROM siparisler s JOIN kitaplar k ON k.id = " + satir + ".kitap_id WHERE s.id = " + satir + ".siparis_id "
+                + "AND s.durum = '" + ONAYLANDI + "'";
+        return "INSERT INTO satis_kategori_gunluk (gun, kategori_id, adet, tutar) SELECT " + gun("s.siparis_tarihi")
+                + ", k.kategori_id, " + isaret + " * " + satir + ".adet, " + isaret + " * " + satir + ".adet * " + satir + ".fiyat" + kaynak
+                + birlestir("gun, kategori_id", "adet", "tutar") + "; "
+                + "INSERT INTO satis_yazar_gunluk (gun, yazar, adet, tutar) SELECT " + gun("s.siparis_tarihi")
+                + ", k.yazar, " + isaret + " * " + satir + ".adet, " + isaret + " * " + satir + ".adet * " + satir + ".fiyat" + kaynak
+                + birlestir("gun, yazar", "adet", "tutar") + "; ";
+    }
+
+    // Bir kitabın onaylı siparişlerdeki tüm satırları (kitap satırı OLD/NEW değerleriyle)
+    private static String kitapSatirlariFarki(String kitap, String isaret) {
+        String kaynak = " FROM siparis_detaylari d JOIN siparisler s ON s.id = d.siparis_id WHERE d.kitap_id = " + kitap + ".id "
+                + "AND s.durum = '" + ONAYLANDI + "'";
+        return "INSERT INTO satis_kategori_gunluk (gun, kategori_id, adet, tutar) SELECT " + gun("s.siparis_tarihi")
+                + ", " + kitap + ".kategori_id, " + isaret + " * SUM(d.adet), " + isaret + " * SUM(d.adet * d.fiyat)" + kaynak
+                + " GROUP BY 1" + birlestir("gun, kategori_id", "adet", "tutar") + "; "
+                + "INSERT INTO satis_yazar_gunluk (gun, yazar, adet, tutar) SELECT " + gun("s.siparis_tarihi")
+                + ", " + kitap + ".yazar, " + isaret + " * SUM(d.adet), " + isaret + " * SUM(d.adet * d.fiyat)" + kaynak
+                + " GROUP BY 1" + birlestir("gun, yazar", "adet", "tutar") + "; ";
+    }
+
+    // Aynı anahtar varsa değerleri topla (SQLite UPSERT)
+    private static String birlestir(String anahtar, String sayiKolonu, String tutarKolonu) {
+        return " ON CONFLICT(" + anahtar + ") DO UPDATE SET " + sayiKolonu + " = " + sayiKolonu + " + excluded." + sayiKolonu
+                + ", " + tutarKolonu + " = " + tutarKolonu + " + excluded." + tutarKolonu;
+    }
+
+    private static String gun(String kolon) {
+        return GUN.replace("{}", kolon);
+    }
+
+    private static String ay(String kolon) {
+        return AY.replace("{}", kolon);
+    }
+
+    private boolean tabloVarMi(String tablo) {
+        Integer sayi = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?", Integer.class, tablo);
+        return sayi != null && sayi > 0;
+    }
+
+    // Arşiv ayrı dosyadaysa "arsiv." şemasında, değilse *_arsiv tablosundadır
+    private String arsivTablosu(String tablo) {
+        if (tabloVarMi(tablo + "_arsiv")) {
+            return tablo + "_arsiv";
+        }
+        try {
+            Integer sayi = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM arsiv.sqlite_master WHERE type = 'table' AND name = ?", Integer.class, tablo);
+            return sayi != null && sayi > 0 ? "arsiv." + tablo : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal tutar(BigDecimal deger) {
+        return deger != null ? deger.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+}
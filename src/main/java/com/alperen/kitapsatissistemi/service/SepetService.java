@@ -0,0 +1,200 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.entity.Kitap;
+import com.alperen.kitapsatissistemi.entity.Sepet;
+import com.alperen.kitapsatissistemi.entity.SepetItem;
+import com.alperen.kitapsatissistemi.entity.SepetKalemi;
+import com.alperen.kitapsatissistemi.repository.SepetKalemiRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.HttpSession;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Sepet servisi - session başına tek bir tipli Sepet nesnesi tutar.
+ * Sepet her istekte JSON'dan parse edilmez; session'a bir kez konur ve
+ * yerinde güncellenir. Giriş yapmış kullanıcıların sepeti ayrıca
+ * SepetYazmaKuyrugu üzerinden veritabanına yazılır ve yeni bir session'da
+ * oradan geri yüklenir. Her değişiklikten sonra sepet session'a yeniden konur.
+ * Paylaşılan session deposunda her istek sepetin kendi kopyasını aldığı için buradaki kilitler
+ * istekleri sıralamaz; eşzamanlı değişiklikleri depo kayıt sırasında birleştirir (bkz. Sepet).
+ */
+@Service
+public class SepetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SepetService.class);
+
+    public static final String SEPET_SESSION_KEY = "Sepet";
+    private static final String KULLANICI_ID_SESSION_KEY = "KullaniciId";
+
+    private static final TypeReference<List<SepetItem>> SEPET_ITEM_LIST_TYPE = new TypeReference<List<SepetItem>>() {};
+
+    private final SepetKalemiRepository sepetKalemiRepository;
+    private final SepetYazmaKuyrugu sepetYazmaKuyrugu;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public SepetService(SepetKalemiRepository sepetKalemiRepository, SepetYazmaKuyrugu sepetYazmaKuyrugu) {
+        this.sepetKalemiRepository = sepetKalemiRepository;
+        this.sepetYazmaKuyrugu = sepetYazmaKuyrugu;
+    }
+
+    /**
+     * Session'daki sepeti getir, yoksa oluştur
+     */
+    public Sepet getSepet(HttpSession session) {
+        Long kullaniciId = (Long) session.getAttribute(KULLANICI_ID_SESSION_KEY);
+        Object mevcut = session.getAttribute(SEPET_SESSION_KEY);
+        if (sahibineAit(mevcut, kullaniciId)) {
+            return (Sepet) mevcut;
+        }
+        // Aynı session'a gelen eşzamanlı istekler iki ayrı sepet oluşturmasın
+        synchronized (WebUtils.getSessionMutex(session)) {
+            mevcut = session.getAttribute(SEPET_SESSION_KEY);
+            if (sahibineAit(mevcut, kullaniciId)) {
+                return (Sepet) mevcut;
+            }
+            Sepet sepet = new Sepet(kullaniciId);
+            if (kullaniciId != null) {
+                kaliciSepetiYukle(kullaniciId, sepet);
+            }
+            if (mevcut instanceof String) {
+                eskiSepetiAktar((String) mevcut, sepet);
+            } else if (mevcut instanceof Sepet && ((Sepet) mevcut).getKullaniciId() == null) {
+                // Giriş öncesi oluşturulan sepeti kullanıcının sepetine ekle
+                for (SepetItem item : ((Sepet) mevcut).getItems()) {
+                    sepet.ekle(item.getKitapId(), item.getKitapAd(), item.getFiyat(), item.getResimUrl(), item.getAdet());
+                }
+            }
+            if (mevcut != null && !sepet.isEmpty()) {
+                kaydet(sepet);
+            }
+            session.setAttribute(SEPET_SESSION_KEY, sepet);
+            return sepet;
+        }
+    }
+
+    /**
+     * Sepetteki toplam ürün sayısını getir
+     */
+    public int getToplamAdet(HttpSession session) {
+        Object mevcut = session.getAttribute(SEPET_SESSION_KEY);
+        if (mevcut == null && session.getAttribute(KULLANICI_ID_SESSION_KEY) == null) {
+            return 0;
+        }
+        return getSepet(session).getToplamAdet();
+    }
+
+    /**
+     * Sepete kitap ekle
+     */
+    public void ekle(HttpSession session, Kitap kitap, int adet) {
+        Sepet sepet = getSepet(session);
+        synchronized (sepet) {
+            sepet.ekle(kitap.getId(), kitap.getAd(), kitap.getFiyat(), kitap.getResimUrl(), adet);
+            degisti(session, sepet);
+        }
+    }
+
+    /**
+     * Sepetteki kitabın adedini güncelle
+     */
+    public SepetItem adetGuncelle(HttpSession session, long kitapId, int adet) {
+        Sepet sepet = getSepet(session);
+        synchronized (sepet) {
+            SepetItem guncellenen = sepet.adetGuncelle(kitapId, adet);
+            if (guncellenen != null) {
+                degisti(session, sepet);
+            }
+            return guncellenen;
+        }
+    }
+
+    /**
+     * Kitabı sepetten kaldır
+     */
+    public SepetItem kaldir(HttpSession session, long kitapId) {
+        Sepet sepet = getSepet(session);
+        synchronized (sepet) {
+            SepetItem kaldirilan = sepet.kaldir(kitapId);
+            if (kaldirilan != null) {
+                degisti(session, sepet);
+            }
+            return kaldirilan;
+        }
+    }
+
+    /**
+     * Sepeti boşalt
+     */
+    public void temizle(HttpSession session) {
+        Sepet sepet = getSepet(session);
+        synchronized (sepet) {
+            sepet.temizle();
+            degisti(session, sepet);
+        }
+    }
+
+    // Sepet yerinde değiştiği için session'a yeniden konur; paylaşılan session deposu
+    // yalnızca setAttribute ile işaretlenen özellikleri yazar
+    private void degisti(HttpSession session, Sepet sepet) {
+        session.setAttribute(SEPET_SESSION_KEY, sepet);
+        kaydet(sepet);
+    }
+
+    // Sepet kilidi altında çağrılır; böylece kuyruğa giren haller değişiklik sırasını korur
+    private void kaydet(Sepet sepet) {
+        if (sepet.getKullaniciId() != null) {
+            sepetYazmaKuyrugu.kaydet(sepet.getKullaniciId(), sepet.getItems());
+        }
+    }
+
+    private boolean sahibineAit(Object mevcut, Long kullaniciId) {
+        if (!(mevcut instanceof Sepet)) {
+            return false;
+        }
+        Long sahipId = ((Sepet) mevcut).getKullaniciId();
+        return sahipId == null ? kullaniciId == null : sahipId.equals(kullaniciId);
+    }
+
+    private void kaliciSepetiYukle(Long kullaniciId, Sepet sepet) {
+        // Henüz yazılmamış daha yeni bir hal varsa veritabanı yerine onu kullan
+        List<SepetItem> bekleyen = sepetYazmaKuyrugu.getBekleyen(kullaniciId);
+        if (bekleyen != null) {
+            for (SepetItem item : bekleyen) {
+                sepet.ekle(item.getKitapId(), item.getKitapAd(), item.getFiyat(), item.getResimUrl(), item.getAdet());
+            }
+            return;
+        }
+        try {
+            for (SepetKalemi kalem : sepetKalemiRepository.findByKullanici_IdWithKitap(kullaniciId)) {
+                Kitap kitap = kalem.getKitap();
+                BigDecimal fiyat = kalem.getFiyat() != null ? kalem.getFiyat() : kitap.getFiyat();
+                sepet.ekle(kitap.getId(), kitap.getAd(), fiyat, kitap.getResimUrl(), kalem.getAdet());
+            }
+        } catch (Exception e) {
+            logger.warn("Kullanıcı {} için kalıcı sepet yüklenemedi: {}", kullaniciId, e.getMessage());
+        }
+    }
+
+    // Eski sürümün JSON string olarak sakladığı sepeti tek seferlik dönüştür
+    private void eskiSepetiAktar(String sepetJson, Sepet sepet) {
+        if (sepetJson.isEmpty()) {
+            return;
+        }
+        try {
+            for (SepetItem item : objectMapper.readValue(sepetJson, SEPET_ITEM_LIST_TYPE)) {
+                sepet.ekle(item.getKitapId(), item.getKitapAd(), item.getFiyat(), item.getResimUrl(), item.getAdet());
+            }
+        } catch (Exception e) {
+            logger.warn("Eski sepet verisi okunamadı, boş sepet ile devam ediliyor: {}", e.getMessage());
+        }
+    }
+}
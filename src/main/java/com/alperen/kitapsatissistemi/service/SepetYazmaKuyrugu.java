@@ -0,0 +1,139 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.entity.SepetItem;
+import com.alperen.kitapsatissistemi.util.ZamanSiraliIdUretici;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kalıcı sepetler için write-behind kuyruğu.
+ * Her kullanıcı için sadece en son sepet durumu bekletilir; aynı sepete kısa
+ * süre içinde gelen değişiklikler tek yazmada birleşir. Arka plan thread'i
+ * bekleyen sepetleri tek transaction içinde toplu JDBC ifadeleriyle yazar.
+ */
+@Component
+public class SepetYazmaKuyrugu {
+
+    private static final Logger logger = LoggerFactory.getLogger(SepetYazmaKuyrugu.class);
+
+    private static final String DELETE_SQL = "DELETE FROM sepet_kalemleri WHERE kullanici_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO sepet_kalemleri (id, kullanici_id, kitap_id, adet, fiyat, guncelleme_tarihi) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ZamanSiraliIdUretici idUretici;
+    private final ConcurrentHashMap<Long, List<SepetItem>> bekleyenler = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService yazici = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sepet-yazici");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${sepet.write-behind.flush-interval-ms:500}")
+    private long flushAraligiMs;
+
+    @Value("${sepet.write-behind.max-batch-size:200}")
+    private int maxSepetSayisi;
+
+    public SepetYazmaKuyrugu(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             ZamanSiraliIdUretici idUretici) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idUretici = idUretici;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        yazici.scheduleWithFixedDelay(this::flushGuvenli, flushAraligiMs, flushAraligiMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sepetin son halini yazma kuyruğuna koy; önceki bekleyen hali ezilir
+     */
+    public void kaydet(Long kullaniciId, List<SepetItem> items) {
+        bekleyenler.put(kullaniciId, items);
+    }
+
+    /**
+     * Yazılmayı bekleyen sepet var mı
+     */
+    public List<SepetItem> getBekleyen(Long kullaniciId) {
+        return bekleyenler.get(kullaniciId);
+    }
+
+    /**
+     * Bekleyen tüm sepetleri veritabanına yaz. Sepetler commit'ten sonra ve yalnızca
+     * yazılan hal hâlâ en son halse kuyruktan çıkarılır; commit'e kadar okuyucular
+     * bekleyen hali görür, yazma başarısız olursa sepet kuyrukta kalır.
+     */
+    public synchronized void flush() {
+        while (!bekleyenler.isEmpty()) {
+            Map<Long, List<SepetItem>> grup = new LinkedHashMap<>();
+            for (Map.Entry<Long, List<SepetItem>> entry : bekleyenler.entrySet()) {
+                if (grup.size() >= maxSepetSayisi) {
+                    break;
+                }
+                grup.put(entry.getKey(), entry.getValue());
+            }
+            yaz(grup);
+            // Yazma sırasında gelen daha yeni hal (yeni liste) kuyrukta kalır ve sonraki turda yazılır
+            grup.forEach(bekleyenler::remove);
+        }
+    }
+
+    @PreDestroy
+    public void durdur() {
+        yazici.shutdown();
+        try {
+            yazici.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushGuvenli();
+    }
+
+    private void flushGuvenli() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Sepetler veritabanına yazılamadı, bir sonraki denemede tekrar denenecek: {}", e.getMessage());
+        }
+    }
+
+    private void yaz(Map<Long, List<SepetItem>> grup) {
+        List<Object[]> silinecekler = new ArrayList<>(grup.size());
+        List<Object[]> eklenecekler = new ArrayList<>();
+        Timestamp simdi = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<Long, List<SepetItem>> entry : grup.entrySet()) {
+            silinecekler.add(new Object[]{entry.getKey()});
+            for (SepetItem item : entry.getValue()) {
+                eklenecekler.add(new Object[]{idUretici.sonrakiId(), entry.getKey(), item.getKitapId(), item.getAdet(), item.getFiyat(), simdi});
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_SQL, silinecekler);
+            if (!eklenecekler.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, eklenecekler);
+            }
+        });
+        logger.debug("{} sepet ({} satır) veritabanına yazıldı", grup.size(), eklenecekler.size());
+    }
+}
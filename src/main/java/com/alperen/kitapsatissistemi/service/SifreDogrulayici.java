@@ -0,0 +1,104 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Şifre doğrulayıcı - giriş sırasındaki BCrypt karşılaştırmalarını Tomcat thread'lerinden alıp
+ * işlemci sayısı kadar thread'i olan ayrı bir havuzda çalıştırır. Havuzun kuyruğu sınırlıdır;
+ * kuyruk doluysa istek beklemeden KuyrukDoluException (503) ile reddedilir. Böylece yoğun giriş
+ * denemeleri (ör. credential stuffing) katalog sayfalarının thread'lerini tüketemez.
+ * Eşleşen hash'in maliyeti güncel politikadan farklıysa yeni hash de aynı thread'de üretilir.
+ */
+@Service
+public class SifreDogrulayici {
+
+    private static final Logger logger = LoggerFactory.getLogger(SifreDogrulayici.class);
+
+    private final PasswordEncoder passwordEncoder;
+
+    // 0 ise işlemci sayısı kullanılır
+    @Value("${sifre-dogrulama.thread-sayisi:0}")
+    private int threadSayisi;
+
+    @Value("${sifre-dogrulama.kuyruk-kapasitesi:64}")
+    private int kuyrukKapasitesi;
+
+    private ThreadPoolExecutor executor;
+
+    public SifreDogrulayici(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        int sayi = threadSayisi > 0 ? threadSayisi : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sayac = new AtomicInteger();
+        executor = new ThreadPoolExecutor(sayi, sayi, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(kuyrukKapasitesi), r -> {
+                    Thread thread = new Thread(r, "sifre-dogrulama-" + sayac.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        logger.info("Şifre doğrulama havuzu: {} thread, {} kuyruk", sayi, kuyrukKapasitesi);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Şifreyi hash ile havuzda karşılaştır. Kuyruk doluysa hemen KuyrukDoluException fırlatır.
+     */
+    public CompletableFuture<Sonuc> dogrula(String sifre, String sifreHash) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (!passwordEncoder.matches(sifre, sifreHash)) {
+                    return Sonuc.ESLESMEDI;
+                }
+                String yeniHash = passwordEncoder.upgradeEncoding(sifreHash) ? passwordEncoder.encode(sifre) : null;
+                return new Sonuc(true, yeniHash);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            throw new KuyrukDoluException("Giriş servisi şu anda yoğun, lütfen biraz sonra tekrar deneyin.", e);
+        }
+    }
+
+    /**
+     * Doğrulama sonucu; yeniHash, hash'in güncel politikayla yeniden üretilmesi gerekiyorsa doludur
+     */
+    public static class Sonuc {
+        private static final Sonuc ESLESMEDI = new Sonuc(false, null);
+
+        private final boolean eslesti;
+        private final String yeniHash;
+
+        private Sonuc(boolean eslesti, String yeniHash) {
+            this.eslesti = eslesti;
+            this.yeniHash = yeniHash;
+        }
+
+        public boolean isEslesti() {
+            return eslesti;
+        }
+
+        public String getYeniHash() {
+            return yeniHash;
+        }
+    }
+}
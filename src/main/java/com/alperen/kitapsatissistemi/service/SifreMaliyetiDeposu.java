@@ -0,0 +1,62 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.security.SifreKodlayici;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Ölçülen BCrypt maliyetini paylaşılan veritabanında tutar. Aynı veritabanını kullanan tüm
+ * düğümler aynı politika (hedef süre, min/max maliyet) için ilk ölçülen maliyeti kullanır;
+ * aksi halde her düğüm farklı maliyet seçer ve girişte aynı şifreler düğümler arasında sürekli
+ * yeniden hash'lenir.
+ */
+@Component
+public class SifreMaliyetiDeposu implements SifreKodlayici.MaliyetDeposu {
+
+    private static final Logger logger = LoggerFactory.getLogger(SifreMaliyetiDeposu.class);
+
+    // Satır politikaya göre ayrılır (ör. bcrypt.maliyet:250ms:10-14); politika değişince yeniden ölçülür
+    private static final String AD_ONEKI = "bcrypt.maliyet:";
+    private static final String BUL_SQL = "SELECT deger FROM uygulama_ayarlari WHERE ad = ?";
+    private static final String EKLE_SQL = "INSERT OR IGNORE INTO uygulama_ayarlari (ad, deger) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SifreMaliyetiDeposu(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public int getirVeyaOlc(String politika, IntSupplier olcum) {
+        String ad = AD_ONEKI + politika;
+        try {
+            Integer kayitli = oku(ad);
+            if (kayitli != null) {
+                return kayitli;
+            }
+            int olculen = olcum.getAsInt();
+            // Aynı anda ölçen başka bir düğüm önce yazdıysa onun değeri kullanılır
+            Integer paylasilan = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(EKLE_SQL, ad, String.valueOf(olculen));
+                return oku(ad);
+            });
+            return paylasilan != null ? paylasilan : olculen;
+        } catch (RuntimeException e) {
+            logger.warn("Paylaşılan BCrypt maliyeti okunamadı, bu düğümde ölçülüyor: {}", e.getMessage());
+            return olcum.getAsInt();
+        }
+    }
+
+    private Integer oku(String ad) {
+        List<String> bulunan = jdbcTemplate.queryForList(BUL_SQL, String.class, ad);
+        return bulunan.isEmpty() ? null : Integer.valueOf(bulunan.get(0));
+    }
+}
@@ -0,0 +1,323 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.dto.SiparisOzet;
+import com.alperen.kitapsatissistemi.entity.Kitap;
+import com.alperen.kitapsatissistemi.entity.Kullanici;
+import com.alperen.kitapsatissistemi.entity.Siparis;
+import com.alperen.kitapsatissistemi.entity.SiparisDetay;
+import com.alperen.kitapsatissistemi.repository.KitapRepository;
+import com.alperen.kitapsatissistemi.repository.KullaniciRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sipariş arşivi - belirli yaştan eski ve tamamlanmış siparişleri, satırlarıyla
+ * birlikte arşiv tablolarına taşır. Sıcak tablolar (siparisler, siparis_detaylari)
+ * sadece güncel siparişleri tutar; sorgular küçük tabloyu tarar.
+ * Arşiv aynı veritabanındaki *_arsiv tablolarında ya da siparis.arsiv.dosya
+ * verilmişse "arsiv" adıyla bağlanan ayrı bir SQLite dosyasında tutulur.
+ * Taşıma arka planda, her biri kendi transaction'ında küçük parçalar halinde yapılır.
+ */
+@Service
+public class SiparisArsivService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SiparisArsivService.class);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final KullaniciRepository kullaniciRepository;
+    private final KitapRepository kitapRepository;
+    private final SatisOzetiService satisOzetiService;
+    private final ScheduledExecutorService arsivleyici = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "siparis-arsivleyici");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${siparis.arsiv.enabled:true}")
+    private boolean aktif;
+
+    @Value("${siparis.arsiv.dosya:}")
+    private String arsivDosyasi;
+
+    @Value("${siparis.arsiv.yas-gun:180}")
+    private int yasGun;
+
+    @Value("${siparis.arsiv.durumlar:Teslim Edildi,İptal Edildi}")
+    private List<String> arsivlenecekDurumlar;
+
+    @Value("${siparis.arsiv.parca-boyutu:500}")
+    private int parcaBoyutu;
+
+    @Value("${siparis.arsiv.aralik-dakika:60}")
+    private long aralikDakika;
+
+    private String siparisTablosu;
+    private String detayTablosu;
+
+    public SiparisArsivService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               KullaniciRepository kullaniciRepository, KitapRepository kitapRepository,
+                               SatisOzetiService satisOzetiService) {
+        this.jdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.kullaniciRepository = kullaniciRepository;
+        this.kitapRepository = kitapRepository;
+        this.satisOzetiService = satisOzetiService;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        // Ayrı dosya DataSourceConfig'te her bağlantıya "arsiv" adıyla bağlanır
+        boolean ayriDosya = StringUtils.hasText(arsivDosyasi);
+        siparisTablosu = ayriDosya ? "arsiv.siparisler" : "siparisler_arsiv";
+        detayTablosu = ayriDosya ? "arsiv.siparis_detaylari" : "siparis_detaylari_arsiv";
+        String onek = ayriDosya ? "arsiv." : "";
+
+        JdbcTemplate jdbcTemplate = jdbc.getJdbcTemplate();
+        if (ayriDosya) {
+            jdbcTemplate.execute("PRAGMA arsiv.journal_mode=WAL");
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + siparisTablosu + " (id integer not null, "
+                + "siparis_tarihi datetime not null, toplam_tutar numeric(18,2) not null, durum varchar(50), "
+                + "kullanici_id bigint not null, arsiv_tarihi datetime not null, primary key (id))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + detayTablosu + " (id integer not null, "
+                + "adet integer not null, fiyat numeric(18,2) not null, siparis_id bigint not null, "
+                + "kitap_id bigint not null, primary key (id))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + onek + "ix_siparisler_arsiv_kullanici ON "
+                + tabloAdi(siparisTablosu) + " (kullanici_id, siparis_tarihi)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + onek + "ix_siparisler_arsiv_kullanici_id ON "
+                + tabloAdi(siparisTablosu) + " (kullanici_id, id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + onek + "ix_siparisler_arsiv_tarih ON "
+                + tabloAdi(siparisTablosu) + " (siparis_tarihi)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + onek + "ix_siparis_detaylari_arsiv_siparis ON "
+                + tabloAdi(detayTablosu) + " (siparis_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + onek + "ix_siparis_detaylari_arsiv_kitap ON "
+                + tabloAdi(detayTablosu) + " (kitap_id)");
+
+        if (aktif) {
+            arsivleyici.scheduleWithFixedDelay(this::arsivleGuvenli, 1, Math.max(1, aralikDakika), TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void durdur() {
+        arsivleyici.shutdownNow();
+    }
+
+    /**
+     * Arşivlenme koşulunu sağlayan tüm siparişleri parça parça taşı
+     * @return taşınan sipariş sayısı
+     */
+    public int arsivle() {
+        Timestamp sinir = Timestamp.valueOf(LocalDateTime.now().minusDays(yasGun));
+        int toplam = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            MapSqlParameterSource aday = new MapSqlParameterSource()
+                    .addValue("durumlar", arsivlenecekDurumlar)
+                    .addValue("sinir", sinir)
+                    .addValue("limit", parcaBoyutu);
+            List<Long> idler = jdbc.queryForList("SELECT id FROM siparisler WHERE durum IN (:durumlar) "
+                    + "AND siparis_tarihi < :sinir ORDER BY id LIMIT :limit", aday, Long.class);
+            if (idler.isEmpty()) {
+                break;
+            }
+            toplam += parcayiTasi(idler);
+            if (idler.size() < parcaBoyutu) {
+                break;
+            }
+        }
+        if (toplam > 0) {
+            logger.info("{} sipariş arşive taşındı", toplam);
+        }
+        return toplam;
+    }
+
+    private int parcayiTasi(List<Long> idler) {
+        MapSqlParameterSource parametreler = new MapSqlParameterSource("idler", idler)
+                .addValue("simdi", Timestamp.valueOf(LocalDateTime.now()));
+        // Ayrı dosyada iki veritabanının commit'i tek atomik adım değildir; INSERT OR REPLACE
+        // sayesinde yarıda kalan bir taşıma bir sonraki çalışmada sorunsuz tekrarlanır
+        // Taşınan siparişler satılmış olarak kalır; silme işlemleri satış özetlerinden düşülmez
+        Integer tasinan = transactionTemplate.execute(status -> satisOzetiService.ozetlerDisinda(() -> {
+            jdbc.update("INSERT OR REPLACE INTO " + detayTablosu + " (id, adet, fiyat, siparis_id, kitap_id) "
+                    + "SELECT id, adet, fiyat, siparis_id, kitap_id FROM siparis_detaylari WHERE siparis_id IN (:idler)", parametreler);
+            jdbc.update("INSERT OR REPLACE INTO " + siparisTablosu + " (id, siparis_tarihi, toplam_tutar, durum, kullanici_id, arsiv_tarihi) "
+                    + "SELECT id, siparis_tarihi, toplam_tutar, durum, kullanici_id, :simdi FROM siparisler WHERE id IN (:idler)", parametreler);
+            jdbc.update("DELETE FROM siparis_detaylari WHERE siparis_id IN (:idler)", parametreler);
+            return jdbc.update("DELETE FROM siparisler WHERE id IN (:idler)", parametreler);
+        }));
+        return tasinan != null ? tasinan : 0;
+    }
+
+    private void arsivleGuvenli() {
+        try {
+            arsivle();
+        } catch (Exception e) {
+            logger.error("Sipariş arşivleme başarısız, bir sonraki çalışmada tekrar denenecek: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Arşivdeki siparişi satırlarıyla getir.
+     * Dönen nesne yönetilmeyen (detached) bir kopyadır; kaydedilmemelidir.
+     */
+    public Optional<Siparis> getSiparis(Long id) {
+        List<Siparis> siparisler = siparisleriYukle("WHERE id = :id", new MapSqlParameterSource("id", id));
+        return siparisler.isEmpty() ? Optional.empty() : Optional.of(siparisler.get(0));
+    }
+
+    /**
+     * Kullanıcının arşivdeki siparişleri (yeniden eskiye)
+     */
+    public List<Siparis> getKullaniciSiparisleri(Long kullaniciId) {
+        return siparisleriYukle("WHERE kullanici_id = :kullaniciId ORDER BY siparis_tarihi DESC",
+                new MapSqlParameterSource("kullaniciId", kullaniciId));
+    }
+
+    /**
+     * Kullanıcının arşivdeki sipariş özetleri (yeniden eskiye, oncekiId'den küçük ID'ler)
+     */
+    public List<SiparisOzet> getKullaniciSiparisOzetleri(Long kullaniciId, Long oncekiId, int limit) {
+        MapSqlParameterSource parametreler = new MapSqlParameterSource("kullaniciId", kullaniciId)
+                .addValue("oncekiId", oncekiId)
+                .addValue("limit", limit);
+        return jdbc.query("SELECT s.id, s.siparis_tarihi, s.toplam_tutar, s.durum, "
+                        + "(SELECT COUNT(*) FROM " + detayTablosu + " d WHERE d.siparis_id = s.id) AS satir_sayisi "
+                        + "FROM " + siparisTablosu + " s WHERE s.kullanici_id = :kullaniciId AND s.id < :oncekiId "
+                        + "ORDER BY s.id DESC LIMIT :limit", parametreler,
+                (rs, i) -> new SiparisOzet(rs.getLong("id"), rs.getTimestamp("siparis_tarihi").toLocalDateTime(),
+                        rs.getBigDecimal("toplam_tutar"), rs.getString("durum"), rs.getLong("satir_sayisi")));
+    }
+
+    /**
+     * Kullanıcının arşivdeki onaylanmış siparişlerinin toplamı. Harcama sıcak tablodaki gibi yalnızca
+     * "Onaylandı" siparişlerden hesaplanır; bu durum siparis.arsiv.durumlar'da yoksa (varsayılan)
+     * arşivde böyle sipariş bulunmaz ve sorgu yapılmadan sıfır döner.
+     */
+    public BigDecimal getToplamHarcama(Long kullaniciId) {
+        if (!arsivlenecekDurumlar.contains(SatisOzetiService.ONAYLANDI)) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal toplam = jdbc.queryForObject("SELECT COALESCE(SUM(toplam_tutar), 0) FROM " + siparisTablosu
+                        + " WHERE kullanici_id = :kullaniciId AND durum = :durum",
+                new MapSqlParameterSource("kullaniciId", kullaniciId).addValue("durum", SatisOzetiService.ONAYLANDI),
+                BigDecimal.class);
+        return toplam != null ? toplam : BigDecimal.ZERO;
+    }
+
+    /**
+     * Arşivdeki sipariş sayısı. Başka düğümlerin taşıdığı ve elle silinen siparişler de
+     * görülsün diye her seferinde tablodan sayılır.
+     */
+    public long getSiparisSayisi() {
+        Long sayi = jdbc.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + siparisTablosu, Long.class);
+        return sayi != null ? sayi : 0;
+    }
+
+    /**
+     * Kitap arşivdeki bir siparişte geçiyor mu
+     */
+    public boolean kitapKullaniliyorMu(Long kitapId) {
+        return !jdbc.queryForList("SELECT 1 FROM " + detayTablosu + " WHERE kitap_id = :id LIMIT 1",
+                new MapSqlParameterSource("id", kitapId), Integer.class).isEmpty();
+    }
+
+    /**
+     * Kullanıcının arşivde siparişi var mı
+     */
+    public boolean kullaniciKullaniliyorMu(Long kullaniciId) {
+        return !jdbc.queryForList("SELECT 1 FROM " + siparisTablosu + " WHERE kullanici_id = :id LIMIT 1",
+                new MapSqlParameterSource("id", kullaniciId), Integer.class).isEmpty();
+    }
+
+    public String getSiparisTablosu() {
+        return siparisTablosu;
+    }
+
+    public String getDetayTablosu() {
+        return detayTablosu;
+    }
+
+    private List<Siparis> siparisleriYukle(String kosul, MapSqlParameterSource parametreler) {
+        Map<Long, Siparis> siparisler = new LinkedHashMap<>();
+        Map<Long, Long> kullaniciIdleri = new HashMap<>();
+        jdbc.query("SELECT id, siparis_tarihi, toplam_tutar, durum, kullanici_id FROM " + siparisTablosu + " " + kosul,
+                parametreler, rs -> {
+                    Siparis siparis = new Siparis();
+                    siparis.setId(rs.getLong("id"));
+                    siparis.setSiparisTarihi(rs.getTimestamp("siparis_tarihi").toLocalDateTime());
+                    siparis.setToplamTutar(rs.getBigDecimal("toplam_tutar"));
+                    siparis.setDurum(rs.getString("durum"));
+                    siparisler.put(siparis.getId(), siparis);
+                    kullaniciIdleri.put(siparis.getId(), rs.getLong("kullanici_id"));
+                });
+        if (siparisler.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Kullanici> kullanicilar = new HashMap<>();
+        kullaniciRepository.findAllById(new HashSet<>(kullaniciIdleri.values()))
+                .forEach(kullanici -> kullanicilar.put(kullanici.getId(), kullanici));
+        siparisler.values().forEach(siparis -> siparis.setKullanici(kullanicilar.get(kullaniciIdleri.get(siparis.getId()))));
+
+        List<Object[]> satirlar = new ArrayList<>();
+        Set<Long> kitapIdleri = new HashSet<>();
+        for (List<Long> parca : parcala(new ArrayList<>(siparisler.keySet()))) {
+            jdbc.query("SELECT id, adet, fiyat, siparis_id, kitap_id FROM " + detayTablosu
+                    + " WHERE siparis_id IN (:idler) ORDER BY id", new MapSqlParameterSource("idler", parca), rs -> {
+                satirlar.add(new Object[]{rs.getLong("id"), rs.getInt("adet"), rs.getBigDecimal("fiyat"),
+                        rs.getLong("siparis_id"), rs.getLong("kitap_id")});
+                kitapIdleri.add(rs.getLong("kitap_id"));
+            });
+        }
+        Map<Long, Kitap> kitaplar = new HashMap<>();
+        kitapRepository.findAllById(kitapIdleri).forEach(kitap -> kitaplar.put(kitap.getId(), kitap));
+        for (Object[] satir : satirlar) {
+            Siparis siparis = siparisler.get((Long) satir[3]);
+            SiparisDetay detay = new SiparisDetay(siparis, kitaplar.get((Long) satir[4]), (Integer) satir[1], (BigDecimal) satir[2]);
+            detay.setId((Long) satir[0]);
+            siparis.getSiparisDetaylari().add(detay);
+        }
+        return new ArrayList<>(siparisler.values());
+    }
+
+    // SQLite tek ifadede en fazla 999 parametre kabul eder
+    private static List<List<Long>> parcala(List<Long> idler) {
+        List<List<Long>> parcalar = new ArrayList<>();
+        for (int i = 0; i < idler.size(); i += 900) {
+            parcalar.add(idler.subList(i, Math.min(i + 900, idler.size())));
+        }
+        return parcalar;
+    }
+
+    // CREATE INDEX'te tablo adı şema öneki almaz; şema indeks adında verilir
+    private static String tabloAdi(String tablo) {
+        int nokta = tablo.indexOf('.');
+        return nokta >= 0 ? tablo.substring(nokta + 1) : tablo;
+    }
+}
@@ -24,14 +24,17 @@ public class SiparisDetayService {
     private final SiparisDetayRepository siparisDetayRepository;
     private final SiparisRepository siparisRepository;
     private final KitapRepository kitapRepository;
+    private final SatisOzetiService satisOzetiService;
     
     @Autowired
     public SiparisDetayService(SiparisDetayRepository siparisDetayRepository,
                               SiparisRepository siparisRepository,
-                              KitapRepository kitapRepository) {
+                              KitapRepository kitapRepository,
+                              SatisOzetiService satisOzetiService) {
         this.siparisDetayRepository = siparisDetayRepository;
         this.siparisRepository = siparisRepository;
         this.kitapRepository = kitapRepository;
+        this.satisOzetiService = satisOzetiService;
     }
     
     /**
@@ -225,19 +228,19 @@ public class SiparisDetayService {
     }
     
     /**
-     * Kategoriye göre satış istatistiklerini getir
+     * Kategoriye göre satış istatistiklerini getir (satış özet tablosundan)
      */
     @Transactional(readOnly = true)
     public List<Object[]> getSalesStatsByCategory() {
-        return siparisDetayRepository.getSalesStatsByCategory();
+        return satisOzetiService.getKategoriSatislari();
     }
     
     /**
-     * Yazara göre satış istatistiklerini getir
+     * Yazara göre satış istatistiklerini getir (satış özet tablosundan)
      */
     @Transactional(readOnly = true)
     public List<Object[]> getSalesStatsByAuthor() {
-        return siparisDetayRepository.getSalesStatsByAuthor();
+        return satisOzetiService.getYazarSatislari();
     }
     
     /**
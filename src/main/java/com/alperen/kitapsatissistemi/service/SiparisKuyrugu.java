@@ -0,0 +1,275 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.entity.SepetItem;
+import com.alperen.kitapsatissistemi.entity.Siparis;
+import com.alperen.kitapsatissistemi.event.OlayYolu;
+import com.alperen.kitapsatissistemi.event.SiparisDegistiEvent;
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sipariş kabul kuyruğu - SQLite tek yazıcıya izin verdiği için siparişler
+ * istek thread'lerinde doğrulanıp sınırlı bir kuyruğa konur; tek bir yazıcı
+ * thread'i kuyruğu gruplar halinde boşaltır ve her grubu tek transaction ile
+ * commit eder. Kuyruk doluysa yeni siparişler hemen reddedilir.
+ */
+@Service
+public class SiparisKuyrugu {
+
+    private static final Logger logger = LoggerFactory.getLogger(SiparisKuyrugu.class);
+
+    private static final long TAKIP_SURESI_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final SiparisTamamlamaService siparisTamamlamaService;
+    private final TransactionTemplate transactionTemplate;
+    private final OlayYolu olayYolu;
+    private final ConcurrentHashMap<String, SiparisTalebi> takiptekiler = new ConcurrentHashMap<>();
+
+    @Value("${siparis.kuyruk.enabled:true}")
+    private boolean aktif;
+
+    @Value("${siparis.kuyruk.kapasite:1000}")
+    private int kapasite;
+
+    @Value("${siparis.kuyruk.grup-boyutu:100}")
+    private int grupBoyutu;
+
+    @Value("${siparis.kuyruk.kabul-bekleme-ms:50}")
+    private long kabulBeklemeMs;
+
+    @Value("${siparis.kuyruk.yanit-bekleme-ms:3000}")
+    private long yanitBeklemeMs;
+
+    private BlockingQueue<SiparisTalebi> kuyruk;
+    private Thread yazici;
+    private volatile boolean calisiyor;
+
+    public SiparisKuyrugu(SiparisTamamlamaService siparisTamamlamaService, TransactionTemplate transactionTemplate,
+                          OlayYolu olayYolu) {
+        this.siparisTamamlamaService = siparisTamamlamaService;
+        this.transactionTemplate = transactionTemplate;
+        this.olayYolu = olayYolu;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        kuyruk = new ArrayBlockingQueue<>(kapasite);
+        if (!aktif) {
+            return;
+        }
+        calisiyor = true;
+        yazici = new Thread(this::yaziciDongusu, "siparis-yazici");
+        yazici.setDaemon(true);
+        yazici.start();
+    }
+
+    /**
+     * Kuyruk modu açık mı
+     */
+    public boolean isAktif() {
+        return aktif;
+    }
+
+    /**
+     * Siparişi doğrula ve yazılmak üzere kuyruğa koy.
+     * Doğrulama hataları hemen fırlatılır; kuyruk doluysa KuyrukDoluException.
+     */
+    public SiparisTalebi gonder(Long kullaniciId, List<SepetItem> sepet) {
+        if (!aktif) {
+            // Kuyruk kapalıysa istek thread'inde doğrudan yaz
+            SiparisTalebi talep = new SiparisTalebi(siparisTamamlamaService.siparisTamamla(kullaniciId, sepet));
+            talep.getSonuc().complete(talep.getSiparis());
+            return talep;
+        }
+        Siparis siparis = siparisTamamlamaService.hazirla(kullaniciId, sepet);
+        SiparisTalebi talep = new SiparisTalebi(siparis);
+        try {
+            if (!kuyruk.offer(talep, kabulBeklemeMs, TimeUnit.MILLISECONDS)) {
+                throw new KuyrukDoluException("Sipariş sistemi şu anda yoğun, lütfen biraz sonra tekrar deneyin.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KuyrukDoluException("Sipariş kuyruğa alınamadı", e);
+        }
+        takiptekiler.put(talep.getTakipNo(), talep);
+        return talep;
+    }
+
+    /**
+     * Siparişin yazılmasını yapılandırılan süre kadar bekle.
+     * Süre dolarsa boş döner (sipariş kuyrukta işlenmeye devam eder);
+     * yazma başarısız olduysa hata fırlatılır.
+     */
+    public Optional<Siparis> sonucuBekle(SiparisTalebi talep) {
+        try {
+            return Optional.of(talep.getSonuc().get(yanitBeklemeMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BusinessException("Sipariş kaydedilemedi", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Takip numarasına göre sipariş talebini getir
+     */
+    public Optional<SiparisTalebi> getTalep(String takipNo) {
+        return Optional.ofNullable(takiptekiler.get(takipNo));
+    }
+
+    /**
+     * Kuyrukta bekleyen sipariş sayısı
+     */
+    public int getBekleyenSayisi() {
+        return kuyruk.size();
+    }
+
+    @PreDestroy
+    public void durdur() {
+        calisiyor = false;
+        if (yazici != null) {
+            yazici.interrupt();
+            try {
+                yazici.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void yaziciDongusu() {
+        List<SiparisTalebi> grup = new ArrayList<>(grupBoyutu);
+        while (calisiyor || !kuyruk.isEmpty()) {
+            try {
+                SiparisTalebi ilk = calisiyor ? kuyruk.poll(1, TimeUnit.SECONDS) : kuyruk.poll();
+                if (ilk == null) {
+                    eskiTakipleriTemizle();
+                    continue;
+                }
+                grup.add(ilk);
+                kuyruk.drainTo(grup, grupBoyutu - 1);
+                grubuYaz(grup);
+                if (takiptekiler.size() > kapasite * 10) {
+                    eskiTakipleriTemizle();
+                }
+            } catch (InterruptedException e) {
+                // Kapanışta kalan siparişler boşaltılana kadar döngü devam eder
+                calisiyor = false;
+            } catch (Exception e) {
+                logger.error("Sipariş yazıcı hatası: {}", e.getMessage(), e);
+            } finally {
+                grup.clear();
+            }
+        }
+    }
+
+    private void grubuYaz(List<SiparisTalebi> grup) {
+        try {
+            List<Siparis> siparisler = new ArrayList<>(grup.size());
+            for (SiparisTalebi talep : grup) {
+                siparisler.add(talep.getSiparis());
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                siparisTamamlamaService.kaydet(siparisler);
+                olayYolu.yayinla(new SiparisDegistiEvent(SiparisDegistiEvent.OLUSTURULDU, idler(siparisler)));
+            });
+            for (SiparisTalebi talep : grup) {
+                talep.getSonuc().complete(talep.getSiparis());
+            }
+            logger.debug("{} sipariş tek transaction ile yazıldı", grup.size());
+        } catch (RuntimeException e) {
+            // Grup commit başarısız - hatalı siparişi ayırmak için tek tek yaz
+            logger.warn("Grup commit başarısız ({} sipariş), tek tek yazılıyor: {}", grup.size(), e.getMessage());
+            for (SiparisTalebi talep : grup) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        siparisTamamlamaService.kaydet(talep.getSiparis());
+                        olayYolu.yayinla(new SiparisDegistiEvent(SiparisDegistiEvent.OLUSTURULDU, talep.getSiparis().getId()));
+                    });
+                    talep.getSonuc().complete(talep.getSiparis());
+                } catch (RuntimeException tekilHata) {
+                    talep.getSonuc().completeExceptionally(tekilHata);
+                }
+            }
+        }
+    }
+
+    private static List<Long> idler(List<Siparis> siparisler) {
+        List<Long> idler = new ArrayList<>(siparisler.size());
+        for (Siparis siparis : siparisler) {
+            idler.add(siparis.getId());
+        }
+        return idler;
+    }
+
+    private void eskiTakipleriTemizle() {
+        long sinir = System.currentTimeMillis() - TAKIP_SURESI_MS;
+        takiptekiler.values().removeIf(talep -> talep.getSonuc().isDone() && talep.getOlusturmaZamani() < sinir);
+    }
+
+    /**
+     * Kuyruğa alınmış sipariş talebi - takip numarası ve sonuç future'ı taşır
+     */
+    public static class SiparisTalebi {
+
+        private final String takipNo = UUID.randomUUID().toString();
+        private final long olusturmaZamani = System.currentTimeMillis();
+        private final Siparis siparis;
+        private final CompletableFuture<Siparis> sonuc = new CompletableFuture<>();
+
+        SiparisTalebi(Siparis siparis) {
+            this.siparis = siparis;
+        }
+
+        public String getTakipNo() {
+            return takipNo;
+        }
+
+        public long getOlusturmaZamani() {
+            return olusturmaZamani;
+        }
+
+        public Siparis getSiparis() {
+            return siparis;
+        }
+
+        public CompletableFuture<Siparis> getSonuc() {
+            return sonuc;
+        }
+
+        /**
+         * Talebin durumu: KUYRUKTA, TAMAMLANDI veya HATA
+         */
+        public String getDurum() {
+            if (!sonuc.isDone()) {
+                return "KUYRUKTA";
+            }
+            return sonuc.isCompletedExceptionally() ? "HATA" : "TAMAMLANDI";
+        }
+    }
+}
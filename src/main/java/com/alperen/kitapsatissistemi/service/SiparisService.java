@@ -1,14 +1,19 @@
 package com.alperen.kitapsatissistemi.service;
 
+import com.alperen.kitapsatissistemi.dto.MusteriSiralamasi;
+import com.alperen.kitapsatissistemi.dto.SiparisOzet;
+import com.alperen.kitapsatissistemi.entity.Kullanici;
 import com.alperen.kitapsatissistemi.entity.Siparis;
 import com.alperen.kitapsatissistemi.entity.SiparisDetay;
-import com.alperen.kitapsatissistemi.entity.Kullanici;
+import com.alperen.kitapsatissistemi.event.OlayYolu;
+import com.alperen.kitapsatissistemi.event.SiparisDegistiEvent;
 import com.alperen.kitapsatissistemi.exception.BusinessException;
 import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
-import com.alperen.kitapsatissistemi.repository.SiparisRepository;
 import com.alperen.kitapsatissistemi.repository.KullaniciRepository;
+import com.alperen.kitapsatissistemi.repository.SiparisRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +21,8 @@ import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,12 +35,24 @@ public class SiparisService {
     
     private final SiparisRepository siparisRepository;
     private final KullaniciRepository kullaniciRepository;
+    private final SiparisArsivService siparisArsivService;
+    private final SatisOzetiService satisOzetiService;
+    private final MusteriSiralamasiService musteriSiralamasiService;
+    private final OlayYolu olayYolu;
     
     @Autowired
     public SiparisService(SiparisRepository siparisRepository, 
-                         KullaniciRepository kullaniciRepository) {
+                         KullaniciRepository kullaniciRepository,
+                         SiparisArsivService siparisArsivService,
+                         SatisOzetiService satisOzetiService,
+                         MusteriSiralamasiService musteriSiralamasiService,
+                         OlayYolu olayYolu) {
         this.siparisRepository = siparisRepository;
         this.kullaniciRepository = kullaniciRepository;
+        this.siparisArsivService = siparisArsivService;
+        this.satisOzetiService = satisOzetiService;
+        this.musteriSiralamasiService = musteriSiralamasiService;
+        this.olayYolu = olayYolu;
     }
     
     /**
@@ -53,35 +72,63 @@ public class SiparisService {
     }
     
     /**
-     * ID'ye göre sipariş getir
+     * ID'ye göre sipariş getir (güncel tabloda yoksa arşivden)
      */
     @Transactional(readOnly = true)
     public Optional<Siparis> getSiparisById(Long id) {
-        return siparisRepository.findById(id);
+        Optional<Siparis> siparis = siparisRepository.findById(id);
+        return siparis.isPresent() ? siparis : siparisArsivService.getSiparis(id);
     }
     
     /**
-     * ID'ye göre sipariş getir (detayları ile birlikte)
+     * ID'ye göre sipariş getir (detayları ile birlikte, güncel tabloda yoksa arşivden)
      */
     @Transactional(readOnly = true)
     public Optional<Siparis> getSiparisByIdWithDetails(Long id) {
-        return siparisRepository.findByIdWithDetails(id);
+        Optional<Siparis> siparis = siparisRepository.findByIdWithDetails(id);
+        return siparis.isPresent() ? siparis : siparisArsivService.getSiparis(id);
     }
     
     /**
-     * Kullanıcı ID'sine göre siparişleri getir
+     * Kullanıcı ID'sine göre siparişleri getir (arşivdekiler dahil)
      */
     @Transactional(readOnly = true)
     public List<Siparis> getSiparislerByKullaniciId(Long kullaniciId) {
-        return siparisRepository.findByKullanici_Id(kullaniciId);
+        List<Siparis> siparisler = new ArrayList<>(siparisRepository.findByKullanici_Id(kullaniciId));
+        siparisler.addAll(siparisArsivService.getKullaniciSiparisleri(kullaniciId));
+        return siparisler;
     }
     
     /**
-     * Kullanıcı ID'sine göre siparişleri detayları ile birlikte getir
+     * Kullanıcı ID'sine göre siparişleri detayları ile birlikte getir (arşivdekiler dahil)
      */
     @Transactional(readOnly = true)
     public List<Siparis> getSiparislerByKullaniciIdWithDetails(Long kullaniciId) {
-        return siparisRepository.findByKullanici_IdWithDetails(kullaniciId);
+        List<Siparis> siparisler = new ArrayList<>(siparisRepository.findByKullanici_IdWithDetails(kullaniciId));
+        siparisler.addAll(siparisArsivService.getKullaniciSiparisleri(kullaniciId));
+        return siparisler;
+    }
+    
+    /**
+     * Kullanıcının sipariş geçmişi sayfası (yeniden eskiye, arşivdekiler dahil)
+     * Satırlar yüklenmez; oncekiId null ise ilk sayfa, değilse bu ID'den eski siparişler döner.
+     */
+    @Transactional(readOnly = true)
+    public List<SiparisOzet> getSiparisGecmisi(Long kullaniciId, Long oncekiId, int limit) {
+        Long imlec = oncekiId != null ? oncekiId : Long.MAX_VALUE;
+        List<SiparisOzet> ozetler = new ArrayList<>(siparisRepository.findOzetlerByKullaniciId(kullaniciId, imlec, PageRequest.of(0, limit)));
+        ozetler.addAll(siparisArsivService.getKullaniciSiparisOzetleri(kullaniciId, imlec, limit));
+        ozetler.sort(Comparator.comparing(SiparisOzet::getId).reversed());
+        return ozetler.size() > limit ? new ArrayList<>(ozetler.subList(0, limit)) : ozetler;
+    }
+    
+    /**
+     * Siparişi satırları ve kitaplarıyla tek sorguda getir (güncel tabloda yoksa arşivden)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Siparis> getSiparisSatirlari(Long id) {
+        Optional<Siparis> siparis = siparisRepository.findByIdWithDetaylar(id);
+        return siparis.isPresent() ? siparis : siparisArsivService.getSiparis(id);
     }
     
     /**
@@ -151,7 +198,9 @@ public class SiparisService {
         }
         siparis.setSiparisDetaylari(siparisDetaylari);
         
-        return siparisRepository.save(siparis);
+        Siparis kaydedilen = siparisRepository.save(siparis);
+        olayYolu.yayinla(new SiparisDegistiEvent(SiparisDegistiEvent.OLUSTURULDU, kaydedilen.getId()));
+        return kaydedilen;
     }
     
     /**
@@ -169,6 +218,7 @@ public class SiparisService {
         return siparisRepository.findById(id)
                 .map(siparis -> {
                     siparis.setDurum(yeniDurum.trim());
+                    olayYolu.yayinla(new SiparisDegistiEvent(SiparisDegistiEvent.GUNCELLENDI, id));
                     return siparisRepository.save(siparis);
                 })
                 .orElseThrow(() -> new EntityNotFoundBusinessException("Sipariş", id));
@@ -194,6 +244,7 @@ public class SiparisService {
                     if (StringUtils.hasText(siparisDetaylari.getDurum())) {
                         siparis.setDurum(siparisDetaylari.getDurum().trim());
                     }
+                    olayYolu.yayinla(new SiparisDegistiEvent(SiparisDegistiEvent.GUNCELLENDI, id));
                     return siparisRepository.save(siparis);
                 })
                 .orElseThrow(() -> new EntityNotFoundBusinessException("Sipariş", id));
@@ -214,6 +265,7 @@ public class SiparisService {
         }
         
         siparisRepository.deleteById(id);
+        olayYolu.yayinla(new SiparisDegistiEvent(SiparisDegistiEvent.SILINDI, id));
     }
     
     /**
@@ -246,31 +298,30 @@ public class SiparisService {
     @Transactional(readOnly = true)
     public BigDecimal getTotalSpentByKullaniciId(Long kullaniciId) {
         BigDecimal total = siparisRepository.findToplamHarcamaByKullanici_Id(kullaniciId);
-        return total != null ? total : BigDecimal.ZERO;
+        return (total != null ? total : BigDecimal.ZERO).add(siparisArsivService.getToplamHarcama(kullaniciId));
     }
 
     /**
-     * Günlük satış istatistiklerini getir
+     * Günlük satış istatistiklerini getir (satış özet tablosundan)
      */
     @Transactional(readOnly = true)
     public List<Object[]> getDailySalesStats() {
-        return siparisRepository.findGunlukSatisIstatistikleri();
+        return satisOzetiService.getGunlukSatislar();
     }
     
     /**
-     * Aylık satış istatistiklerini getir
+     * Aylık satış istatistiklerini getir (satış özet tablosundan)
      */
     @Transactional(readOnly = true)
     public List<Object[]> getMonthlySalesStats() {
-        return siparisRepository.getMonthlySalesStats();
+        return satisOzetiService.getAylikSatislar();
     }
     
     /**
-     * En çok sipariş veren kullanıcıları getir
+     * En çok harcama yapan müşterileri getir (bellekteki müşteri sıralamasından)
      */
-    @Transactional(readOnly = true)
-    public List<Object[]> getTopCustomers() {
-        return siparisRepository.getTopCustomers();
+    public List<MusteriSiralamasi> getTopCustomers(int limit) {
+        return musteriSiralamasiService.getEnIyiMusteriler(limit);
     }
     
     /**
@@ -290,11 +341,11 @@ public class SiparisService {
     }
     
     /**
-     * Toplam sipariş sayısını getir
+     * Toplam sipariş sayısını getir (arşivdekiler dahil)
      */
     @Transactional(readOnly = true)
     public long getSiparisCount() {
-        return siparisRepository.count();
+        return siparisRepository.count() + siparisArsivService.getSiparisSayisi();
     }
     
     /**
@@ -336,6 +387,7 @@ public class SiparisService {
      */
     public void deleteById(Long id) {
         siparisRepository.deleteById(id);
+        olayYolu.yayinla(new SiparisDegistiEvent(SiparisDegistiEvent.SILINDI, id));
     }
     
     /**
@@ -346,6 +398,7 @@ public class SiparisService {
         if (siparisOpt.isPresent()) {
             Siparis siparis = siparisOpt.get();
             siparis.setDurum(durum);
+            olayYolu.yayinla(new SiparisDegistiEvent(SiparisDegistiEvent.GUNCELLENDI, id));
             return siparisRepository.save(siparis);
         }
         throw new RuntimeException("Sipariş bulunamadı: " + id);
@@ -355,7 +408,10 @@ public class SiparisService {
      * Sipariş kaydet
      */
     public Siparis save(Siparis siparis) {
-        return siparisRepository.save(siparis);
+        String tur = siparis.getId() == null ? SiparisDegistiEvent.OLUSTURULDU : SiparisDegistiEvent.GUNCELLENDI;
+        Siparis kaydedilen = siparisRepository.save(siparis);
+        olayYolu.yayinla(new SiparisDegistiEvent(tur, kaydedilen.getId()));
+        return kaydedilen;
     }
     
     /**
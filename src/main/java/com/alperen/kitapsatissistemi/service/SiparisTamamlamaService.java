@@ -0,0 +1,145 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.entity.Kitap;
+import com.alperen.kitapsatissistemi.entity.Kullanici;
+import com.alperen.kitapsatissistemi.entity.SepetItem;
+import com.alperen.kitapsatissistemi.entity.Siparis;
+import com.alperen.kitapsatissistemi.entity.SiparisDetay;
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import com.alperen.kitapsatissistemi.exception.EntityNotFoundBusinessException;
+import com.alperen.kitapsatissistemi.repository.KitapRepository;
+import com.alperen.kitapsatissistemi.repository.KullaniciRepository;
+import com.alperen.kitapsatissistemi.util.ZamanSiraliIdUretici;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sepetten sipariş oluşturma akışı.
+ * Sepetteki tüm kitaplar tek sorguda yüklenir, satırlar güncel fiyatla
+ * yeniden fiyatlandırılır ve stok kontrol edilir; sipariş ve satırları
+ * toplu JDBC ifadeleriyle yazılır. Böylece süre sepet boyutundan bağımsızdır.
+ * ID'ler zaman sıralı üreticiden alınır; birden fazla sipariş tek batch'te yazılabilir.
+ */
+@Service
+@Transactional
+public class SiparisTamamlamaService {
+
+    private static final String SIPARIS_INSERT_SQL =
+            "INSERT INTO siparisler (id, siparis_tarihi, toplam_tutar, durum, kullanici_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String DETAY_INSERT_SQL =
+            "INSERT INTO siparis_detaylari (id, adet, fiyat, siparis_id, kitap_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final KitapRepository kitapRepository;
+    private final KullaniciRepository kullaniciRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ZamanSiraliIdUretici idUretici;
+
+    @Autowired
+    public SiparisTamamlamaService(KitapRepository kitapRepository,
+                                   KullaniciRepository kullaniciRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   ZamanSiraliIdUretici idUretici) {
+        this.kitapRepository = kitapRepository;
+        this.kullaniciRepository = kullaniciRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idUretici = idUretici;
+    }
+
+    /**
+     * Sepetteki ürünlerden sipariş oluştur
+     */
+    public Siparis siparisTamamla(Long kullaniciId, List<SepetItem> sepet) {
+        Siparis siparis = hazirla(kullaniciId, sepet);
+        kaydet(siparis);
+        return siparis;
+    }
+
+    /**
+     * Siparişi doğrula ve hazırla (henüz kaydetmez).
+     * Kitaplar tek sorguda yüklenir, satırlar güncel fiyatla oluşturulur ve stok kontrol edilir.
+     */
+    @Transactional(readOnly = true)
+    public Siparis hazirla(Long kullaniciId, List<SepetItem> sepet) {
+        // Input validation
+        if (kullaniciId == null) {
+            throw new BusinessException("Kullanıcı ID'si boş olamaz");
+        }
+        if (sepet == null || sepet.isEmpty()) {
+            throw new BusinessException("Sepet boş olamaz");
+        }
+
+        Kullanici kullanici = kullaniciRepository.findById(kullaniciId)
+                .orElseThrow(() -> new EntityNotFoundBusinessException("Kullanıcı", kullaniciId));
+
+        List<Long> kitapIdleri = new ArrayList<>(sepet.size());
+        for (SepetItem item : sepet) {
+            kitapIdleri.add(item.getKitapId());
+        }
+        Map<Long, Kitap> kitaplar = new HashMap<>();
+        for (Kitap kitap : kitapRepository.findAllById(kitapIdleri)) {
+            kitaplar.put(kitap.getId(), kitap);
+        }
+
+        Siparis siparis = new Siparis(kullanici, BigDecimal.ZERO);
+        BigDecimal toplamTutar = BigDecimal.ZERO;
+        for (SepetItem item : sepet) {
+            Kitap kitap = kitaplar.get(item.getKitapId());
+            if (kitap == null) {
+                throw new EntityNotFoundBusinessException("Kitap", item.getKitapId());
+            }
+            if (item.getAdet() <= 0) {
+                throw new BusinessException("Sipariş detayı adedi pozitif olmalıdır");
+            }
+            if (kitap.getStokMiktari() == null || kitap.getStokMiktari() < item.getAdet()) {
+                throw new BusinessException("Yetersiz stok: " + kitap.getAd() + " (stok: " + kitap.getStokMiktari() + ")");
+            }
+            SiparisDetay detay = new SiparisDetay(siparis, kitap, item.getAdet(), kitap.getFiyat());
+            siparis.getSiparisDetaylari().add(detay);
+            toplamTutar = toplamTutar.add(detay.getToplamFiyat());
+        }
+        siparis.setToplamTutar(toplamTutar);
+        return siparis;
+    }
+
+    /**
+     * Hazırlanmış siparişi ve tüm satırlarını toplu JDBC ile yaz
+     */
+    public void kaydet(Siparis siparis) {
+        kaydet(Collections.singletonList(siparis));
+    }
+
+    /**
+     * Hazırlanmış siparişleri tek batch'te, tüm satırlarını ikinci bir batch'te yaz
+     */
+    public void kaydet(List<Siparis> siparisler) {
+        List<Object[]> siparisSatirlari = new ArrayList<>(siparisler.size());
+        List<Object[]> detaySatirlari = new ArrayList<>();
+        for (Siparis siparis : siparisler) {
+            if (siparis.getId() == null) {
+                siparis.setId(idUretici.sonrakiId());
+            }
+            siparisSatirlari.add(new Object[]{siparis.getId(), Timestamp.valueOf(siparis.getSiparisTarihi()),
+                    siparis.getToplamTutar(), siparis.getDurum(), siparis.getKullaniciId()});
+            for (SiparisDetay detay : siparis.getSiparisDetaylari()) {
+                if (detay.getId() == null) {
+                    detay.setId(idUretici.sonrakiId());
+                }
+                detaySatirlari.add(new Object[]{detay.getId(), detay.getAdet(), detay.getFiyat(), siparis.getId(), detay.getKitapId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(SIPARIS_INSERT_SQL, siparisSatirlari);
+        if (!detaySatirlari.isEmpty()) {
+            jdbcTemplate.batchUpdate(DETAY_INSERT_SQL, detaySatirlari);
+        }
+    }
+}
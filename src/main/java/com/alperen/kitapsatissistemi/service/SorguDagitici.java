@@ -0,0 +1,164 @@
+package com.alperen.kitapsatissistemi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sorgu dağıtıcı - bir sayfanın birbirinden bağımsız okuma sorgularını sınırlı bir havuzda
+ * aynı anda çalıştırır. Her sorgu kendi readOnly transaction'ında (okuyucu havuzunda) çalışır.
+ * Tüm sorgular istek başına tek bir süre sınırını paylaşır; süresi dolan veya hata veren
+ * sorgunun yerine varsayılan değeri kullanılır, sayfa kalan sonuçlarla gösterilir.
+ * Havuz kuyruğu doluysa sorgu isteği yapan thread'de çalıştırılır.
+ */
+@Service
+public class SorguDagitici {
+
+    private static final Logger logger = LoggerFactory.getLogger(SorguDagitici.class);
+
+    private final TransactionTemplate okumaTemplate;
+
+    @Value("${sorgu-dagitici.thread-sayisi:4}")
+    private int threadSayisi;
+
+    @Value("${sorgu-dagitici.kuyruk-kapasitesi:64}")
+    private int kuyrukKapasitesi;
+
+    @Value("${sorgu-dagitici.zaman-asimi-ms:2000}")
+    private long zamanAsimiMs;
+
+    private ThreadPoolExecutor executor;
+
+    public SorguDagitici(PlatformTransactionManager transactionManager) {
+        this.okumaTemplate = new TransactionTemplate(transactionManager);
+        this.okumaTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void baslat() {
+        AtomicInteger sayac = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threadSayisi, threadSayisi, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(kuyrukKapasitesi), r -> {
+                    Thread thread = new Thread(r, "sorgu-" + sayac.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Yeni bir dağıtım başlat. Süre sınırı bu çağrıdan itibaren işler.
+     */
+    public Dagitim baslatDagitim() {
+        return new Dagitim(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(zamanAsimiMs));
+    }
+
+    /**
+     * Tek bir isteğin sorguları. Sorgular eklendiği anda çalışmaya başlar,
+     * sonuçlar bekle() ile toplanır.
+     */
+    public class Dagitim {
+
+        private final long bitisNanos;
+        private final Map<String, Sorgu<?>> sorgular = new LinkedHashMap<>();
+
+        private Dagitim(long bitisNanos) {
+            this.bitisNanos = bitisNanos;
+        }
+
+        public <T> Dagitim ekle(String ad, Supplier<T> sorgu, T varsayilan) {
+            CompletableFuture<T> sonuc = CompletableFuture.supplyAsync(
+                    () -> okumaTemplate.execute(status -> sorgu.get()), executor);
+            sorgular.put(ad, new Sorgu<>(sonuc, varsayilan));
+            return this;
+        }
+
+        /**
+         * Tüm sorguları süre sınırına kadar bekle. Tamamlanamayanlar varsayılan değerle döner.
+         */
+        public Sonuc bekle() {
+            Map<String, Object> degerler = new LinkedHashMap<>();
+            List<String> eksikler = new ArrayList<>();
+            for (Map.Entry<String, Sorgu<?>> giris : sorgular.entrySet()) {
+                Sorgu<?> sorgu = giris.getValue();
+                long kalan = Math.max(0, bitisNanos - System.nanoTime());
+                try {
+                    degerler.put(giris.getKey(), sorgu.sonuc.get(kalan, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    sorgu.sonuc.cancel(false);
+                    logger.warn("Sorgu süre sınırını aştı, varsayılan değer kullanılıyor: {}", giris.getKey());
+                    degerler.put(giris.getKey(), sorgu.varsayilan);
+                    eksikler.add(giris.getKey());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    degerler.put(giris.getKey(), sorgu.varsayilan);
+                    eksikler.add(giris.getKey());
+                } catch (ExecutionException e) {
+                    logger.error("Sorgu başarısız, varsayılan değer kullanılıyor: {}", giris.getKey(), e.getCause());
+                    degerler.put(giris.getKey(), sorgu.varsayilan);
+                    eksikler.add(giris.getKey());
+                }
+            }
+            return new Sonuc(degerler, eksikler);
+        }
+    }
+
+    private static class Sorgu<T> {
+        private final CompletableFuture<T> sonuc;
+        private final T varsayilan;
+
+        private Sorgu(CompletableFuture<T> sonuc, T varsayilan) {
+            this.sonuc = sonuc;
+            this.varsayilan = varsayilan;
+        }
+    }
+
+    /**
+     * Dağıtım sonucu: sorgu adı -> değer ve zamanında tamamlanamayan sorgular.
+     */
+    public static class Sonuc {
+        private final Map<String, Object> degerler;
+        private final List<String> eksikler;
+
+        private Sonuc(Map<String, Object> degerler, List<String> eksikler) {
+            this.degerler = Collections.unmodifiableMap(degerler);
+            this.eksikler = Collections.unmodifiableList(eksikler);
+        }
+
+        public Map<String, Object> getDegerler() {
+            return degerler;
+        }
+
+        public List<String> getEksikler() {
+            return eksikler;
+        }
+
+        public boolean isEksik() {
+            return !eksikler.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,663 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
+import com.alperen.kitapsatissistemi.util.BirlestirilebilirOzellik;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * SQLite session deposu - HTTP session'larını paylaşılan veritabanında tutar; aynı veritabanını
+ * kullanan tüm uygulama örnekleri aynı session'ı görür (oturum.depo=sqlite).
+ * Her özellik ayrı satırda saklanır ve istekte yalnızca değiştirilen (setAttribute/removeAttribute)
+ * özellikler yazılır; okunan özellikler ilk erişimde çözülür. Hiçbir şey değişmediyse son erişim
+ * zamanı en fazla erisim-yazma-araligi-saniye'de bir yazılır, yani çoğu istek yazma yapmaz.
+ * Yazmalar SiparisKuyrugu gibi tek yazıcı thread'inde gruplanır: aynı anda kaydedilen session'lar
+ * tek transaction ile commit edilir, istek thread'i yanıt dönmeden commit'i bekler. Böylece bir
+ * sonraki istek başka bir düğüme düşse de değişikliği görür. Bunun bedeli, özellik değiştiren her
+ * isteğin yanıtına bir grup commit süresinin eklenmesidir; yazıcı yanıt-bekleme-ms içinde commit
+ * edemezse istek KuyrukDoluException (503) alır. Bu durumda henüz yazıcıya ulaşmamış yazma iptal
+ * edilir, yani 503 alan isteğin değişikliği sonradan commit edilmez ve istek güvenle tekrarlanabilir;
+ * yazıcı yazmaya başlamışsa istek hata dönmek yerine commit'in sonucunu bekler.
+ * Eşzamanlı istekler session'ın ayrı kopyalarıyla çalışır. BirlestirilebilirOzellik olan özellikler
+ * (sepet) kopyayla ezilmez: yazıcı, yazma kilidini aldıktan sonra veritabanındaki güncel değeri okur
+ * ve isteğin değişikliklerini onun üzerine uygular; böylece aynı anda sepete eklenen ürünler kaybolmaz.
+ * Süresi dolan session'lar son_gecerlilik index'i üzerinden küçük gruplar halinde silinir.
+ */
+public class SqliteOturumDeposu implements SessionRepository<SqliteOturumDeposu.Oturum> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqliteOturumDeposu.class);
+
+    private static final String BUL_SQL = "SELECT o.olusturma, o.son_erisim, o.max_bosta_saniye, "
+            + "o.son_gecerlilik, a.ad, a.deger FROM oturumlar o "
+            + "LEFT JOIN oturum_ozellikleri a ON a.oturum_id = o.id WHERE o.id = ?";
+    private static final String OTURUM_EKLE_SQL = "INSERT OR REPLACE INTO oturumlar "
+            + "(id, olusturma, son_erisim, max_bosta_saniye, son_gecerlilik) VALUES (?, ?, ?, ?, ?)";
+    private static final String OTURUM_GUNCELLE_SQL = "UPDATE oturumlar "
+            + "SET son_erisim = ?, max_bosta_saniye = ?, son_gecerlilik = ? WHERE id = ?";
+    private static final String OTURUM_SIL_SQL = "DELETE FROM oturumlar WHERE id = ?";
+    private static final String OZELLIKLERI_SIL_SQL = "DELETE FROM oturum_ozellikleri WHERE oturum_id = ?";
+    private static final String OZELLIK_SIL_SQL = "DELETE FROM oturum_ozellikleri WHERE oturum_id = ? AND ad = ?";
+    private static final String OZELLIK_BUL_SQL = "SELECT deger FROM oturum_ozellikleri WHERE oturum_id = ? AND ad = ?";
+    // Başka bir istek session'ı bu arada sildiyse özellik yazılmaz
+    private static final String OZELLIK_YAZ_SQL = "INSERT OR REPLACE INTO oturum_ozellikleri (oturum_id, ad, deger) "
+            + "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM oturumlar WHERE id = ?)";
+    private static final String SURESI_DOLAN_OZELLIKLERI_SIL_SQL = "DELETE FROM oturum_ozellikleri WHERE oturum_id IN "
+            + "(SELECT id FROM oturumlar WHERE son_gecerlilik < ? LIMIT ?)";
+    private static final String SURESI_DOLANLARI_SIL_SQL = "DELETE FROM oturumlar WHERE id IN "
+            + "(SELECT id FROM oturumlar WHERE son_gecerlilik < ? LIMIT ?)";
+
+    private static final SerializingConverter SERILESTIRICI = new SerializingConverter();
+    private static final DeserializingConverter COZUCU =
+            new DeserializingConverter(SqliteOturumDeposu.class.getClassLoader());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration varsayilanMaxBosta;
+    private final ScheduledExecutorService temizleyici = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "oturum-temizleyici");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${oturum.sqlite.erisim-yazma-araligi-saniye:60}")
+    private long erisimYazmaAraligiSaniye;
+
+    @Value("${oturum.sqlite.kuyruk-kapasitesi:1000}")
+    private int kapasite;
+
+    @Value("${oturum.sqlite.grup-boyutu:200}")
+    private int grupBoyutu;
+
+    @Value("${oturum.sqlite.yanit-bekleme-ms:3000}")
+    private long yanitBeklemeMs;
+
+    @Value("${oturum.sqlite.temizleme-araligi-saniye:60}")
+    private long temizlemeAraligiSaniye;
+
+    @Value("${oturum.sqlite.temizleme-grubu:500}")
+    private int temizlemeGrubu;
+
+    private BlockingQueue<Yazma> kuyruk;
+    private Thread yazici;
+    private volatile boolean calisiyor;
+
+    public SqliteOturumDeposu(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              Duration varsayilanMaxBosta) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.varsayilanMaxBosta = varsayilanMaxBosta;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        kuyruk = new ArrayBlockingQueue<>(kapasite);
+        calisiyor = true;
+        yazici = new Thread(this::yaziciDongusu, "oturum-yazici");
+        yazici.setDaemon(true);
+        yazici.start();
+        temizleyici.scheduleWithFixedDelay(this::suresiDolanlariTemizle,
+                temizlemeAraligiSaniye, temizlemeAraligiSaniye, TimeUnit.SECONDS);
+        logger.info("SQLite session deposu aktif (zaman aşımı {} dk)", varsayilanMaxBosta.toMinutes());
+    }
+
+    @PreDestroy
+    public void durdur() {
+        temizleyici.shutdownNow();
+        calisiyor = false;
+        if (yazici != null) {
+            yazici.interrupt();
+            try {
+                yazici.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public Oturum createSession() {
+        return new Oturum(UUID.randomUUID().toString(), Instant.now(), varsayilanMaxBosta);
+    }
+
+    /**
+     * Session'ın değişen kısmını yaz; değişiklik yoksa veritabanına gidilmez
+     */
+    @Override
+    public void save(Oturum oturum) {
+        Yazma yazma = oturum.degisiklikleriAl(TimeUnit.SECONDS.toMillis(erisimYazmaAraligiSaniye));
+        if (yazma == null) {
+            return;
+        }
+        try {
+            yazVeBekle(yazma);
+        } catch (RuntimeException e) {
+            oturum.yazilamadi(yazma);
+            throw e;
+        }
+    }
+
+    @Override
+    public Oturum findById(String id) {
+        List<Oturum> bulunan = new ArrayList<>(1);
+        jdbcTemplate.query(BUL_SQL, rs -> {
+            if (bulunan.isEmpty()) {
+                bulunan.add(new Oturum(id, Instant.ofEpochMilli(rs.getLong("olusturma")),
+                        Instant.ofEpochMilli(rs.getLong("son_erisim")),
+                        Duration.ofSeconds(rs.getLong("max_bosta_saniye"))));
+            }
+            String ad = rs.getString("ad");
+            if (ad != null) {
+                bulunan.get(0).hamDegerler.put(ad, rs.getBytes("deger"));
+            }
+        }, id);
+        if (bulunan.isEmpty()) {
+            return null;
+        }
+        // Süresi dolmuş satırı temizleyici siler; okuma yolunda yazma yapılmaz
+        Oturum oturum = bulunan.get(0);
+        return oturum.isExpired() ? null : oturum;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        yazVeBekle(Yazma.silme(id));
+    }
+
+    private void yazVeBekle(Yazma yazma) {
+        kuyrugaAl(yazma);
+        try {
+            try {
+                yazma.sonuc.get(yanitBeklemeMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (yazma.sahiplen()) {
+                    // Yazıcı bu yazmayı artık atlar; hata dönülen değişiklik sonradan commit edilmez
+                    throw new KuyrukDoluException("Session yazılamadı: veritabanı yanıt vermiyor", e);
+                }
+                // Yazıcı yazmaya başladı; hata dönülürse istemci commit edilen değişikliği tekrarlar
+                yazma.sonuc.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BusinessException("Session yazılamadı", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Session yazılamadı", e);
+        }
+    }
+
+    private void kuyrugaAl(Yazma yazma) {
+        try {
+            if (!kuyruk.offer(yazma, yanitBeklemeMs, TimeUnit.MILLISECONDS)) {
+                throw new KuyrukDoluException("Session yazma kuyruğu dolu");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KuyrukDoluException("Session yazma kuyruğa alınamadı", e);
+        }
+    }
+
+    private void yaziciDongusu() {
+        List<Yazma> grup = new ArrayList<>(grupBoyutu);
+        while (calisiyor || !kuyruk.isEmpty()) {
+            try {
+                Yazma ilk = calisiyor ? kuyruk.poll(1, TimeUnit.SECONDS) : kuyruk.poll();
+                if (ilk == null) {
+                    continue;
+                }
+                grup.add(ilk);
+                kuyruk.drainTo(grup, grupBoyutu - 1);
+                // Beklerken zaman aşımına uğrayıp iptal edilen yazmalar atlanır
+                grup.removeIf(yazma -> !yazma.sahiplen());
+                if (!grup.isEmpty()) {
+                    grubuYaz(grup);
+                }
+            } catch (InterruptedException e) {
+                // Kapanışta kalan yazmalar boşaltılana kadar döngü devam eder
+                calisiyor = false;
+            } catch (Exception e) {
+                logger.error("Session yazıcı hatası: {}", e.getMessage(), e);
+            } finally {
+                grup.clear();
+            }
+        }
+    }
+
+    private void grubuYaz(List<Yazma> grup) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> uygula(birlestir(grup)));
+            for (Yazma yazma : grup) {
+                yazma.sonuc.complete(null);
+            }
+            logger.debug("{} session yazması tek transaction ile commit edildi", grup.size());
+        } catch (RuntimeException e) {
+            // Grup commit başarısız - hatalı yazmayı ayırmak için tek tek yaz
+            logger.warn("Session grup commit'i başarısız ({} yazma), tek tek yazılıyor: {}", grup.size(), e.getMessage());
+            for (Yazma yazma : grup) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            uygula(birlestir(Collections.singletonList(yazma))));
+                    yazma.sonuc.complete(null);
+                } catch (RuntimeException tekilHata) {
+                    yazma.sonuc.completeExceptionally(tekilHata);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gruptaki yazmaları session başına tek net değişikliğe indirger (sıra korunur)
+     */
+    private static Map<String, Yazma> birlestir(List<Yazma> grup) {
+        Map<String, Yazma> net = new LinkedHashMap<>();
+        for (Yazma yazma : grup) {
+            if (yazma.eskiId != null) {
+                net.put(yazma.eskiId, Yazma.silme(yazma.eskiId));
+            }
+            Yazma onceki = net.get(yazma.id);
+            if (onceki == null || yazma.silme || yazma.tam) {
+                net.put(yazma.id, yazma.kopya());
+            } else if (!onceki.silme) {
+                onceki.ustuneYaz(yazma);
+            }
+            // Silinmiş session'a sonradan gelen kısmi yazma yok sayılır
+        }
+        return net;
+    }
+
+    private void uygula(Map<String, Yazma> net) {
+        List<Object[]> ozellikleriSil = new ArrayList<>();
+        List<Object[]> oturumSil = new ArrayList<>();
+        List<Object[]> oturumEkle = new ArrayList<>();
+        List<Object[]> oturumGuncelle = new ArrayList<>();
+        List<Object[]> ozellikSil = new ArrayList<>();
+        List<Object[]> ozellikYaz = new ArrayList<>();
+        for (Yazma yazma : net.values()) {
+            if (yazma.silme || yazma.tam) {
+                ozellikleriSil.add(new Object[]{yazma.id});
+            }
+            if (yazma.silme) {
+                oturumSil.add(new Object[]{yazma.id});
+                continue;
+            }
+            if (yazma.tam) {
+                oturumEkle.add(new Object[]{yazma.id, yazma.olusturma, yazma.sonErisim,
+                        yazma.maxBostaSaniye, yazma.sonGecerlilik()});
+            } else {
+                oturumGuncelle.add(new Object[]{yazma.sonErisim, yazma.maxBostaSaniye,
+                        yazma.sonGecerlilik(), yazma.id});
+            }
+            for (String ad : yazma.silinecekler) {
+                ozellikSil.add(new Object[]{yazma.id, ad});
+            }
+            for (Map.Entry<String, byte[]> ozellik : yazma.yazilacaklar.entrySet()) {
+                ozellikYaz.add(new Object[]{yazma.id, ozellik.getKey(), ozellik.getValue(), yazma.id});
+            }
+        }
+        toplu(OZELLIKLERI_SIL_SQL, ozellikleriSil);
+        toplu(OTURUM_SIL_SQL, oturumSil);
+        toplu(OTURUM_EKLE_SQL, oturumEkle);
+        toplu(OTURUM_GUNCELLE_SQL, oturumGuncelle);
+        toplu(OZELLIK_SIL_SQL, ozellikSil);
+        toplu(OZELLIK_YAZ_SQL, ozellikYaz);
+        // Yukarıdaki yazmalar transaction'a yazma kilidini aldırdı; okunan değer başka düğümce değiştirilemez
+        for (Yazma yazma : net.values()) {
+            if (!yazma.silme) {
+                yazma.birlestirilecekler.forEach((ad, birlestirici) -> birlestir(yazma.id, ad, birlestirici));
+            }
+        }
+    }
+
+    private void birlestir(String oturumId, String ad, UnaryOperator<Object> birlestirici) {
+        List<byte[]> mevcut = jdbcTemplate.query(OZELLIK_BUL_SQL, (rs, i) -> rs.getBytes(1), oturumId, ad);
+        Object guncel = mevcut.isEmpty() ? null : Oturum.coz(ad, mevcut.get(0));
+        Object yeni = birlestirici.apply(guncel);
+        byte[] ham = yeni != null ? Oturum.serilestir(ad, yeni) : null;
+        if (ham != null) {
+            jdbcTemplate.update(OZELLIK_YAZ_SQL, oturumId, ad, ham, oturumId);
+        } else {
+            jdbcTemplate.update(OZELLIK_SIL_SQL, oturumId, ad);
+        }
+    }
+
+    private void toplu(String sql, List<Object[]> parametreler) {
+        if (!parametreler.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, parametreler);
+        }
+    }
+
+    private void suresiDolanlariTemizle() {
+        try {
+            long simdi = System.currentTimeMillis();
+            int toplam = 0;
+            Integer silinen;
+            // Yazıcı bağlantısı uzun süre tutulmasın diye küçük gruplar halinde silinir
+            do {
+                silinen = transactionTemplate.execute(status -> {
+                    jdbcTemplate.update(SURESI_DOLAN_OZELLIKLERI_SIL_SQL, simdi, temizlemeGrubu);
+                    return jdbcTemplate.update(SURESI_DOLANLARI_SIL_SQL, simdi, temizlemeGrubu);
+                });
+                toplam += silinen != null ? silinen : 0;
+            } while (silinen != null && silinen >= temizlemeGrubu);
+            if (toplam > 0) {
+                logger.info("Süresi dolan {} session silindi", toplam);
+            }
+        } catch (Exception e) {
+            logger.warn("Süresi dolan session'lar temizlenemedi: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Veritabanındaki bir session'ın bu istekteki hali. Özellikler ham (serileştirilmiş) olarak
+     * yüklenir, ilk okunduğunda çözülür; değiştirilen özelliklerin adları ayrıca tutulur.
+     * Async isteklerde başka thread'ler de özellik yazabildiği için eşzamanlı yapılar kullanılır.
+     */
+    public static final class Oturum implements Session {
+
+        private final Instant olusturma;
+        private final Map<String, Object> degerler = new ConcurrentHashMap<>();
+        private final Map<String, byte[]> hamDegerler = new ConcurrentHashMap<>();
+        private final Set<String> degisenler = ConcurrentHashMap.newKeySet();
+
+        private volatile String id;
+        private volatile Instant sonErisim;
+        private volatile Duration maxBosta;
+        private volatile boolean maxBostaDegisti;
+        // Veritabanına en son yazılan id ve son erişim; yeni session'da kayitliId null'dır
+        private String kayitliId;
+        private long kayitliSonErisim;
+
+        private Oturum(String id, Instant olusturma, Duration maxBosta) {
+            this.id = id;
+            this.olusturma = olusturma;
+            this.sonErisim = olusturma;
+            this.maxBosta = maxBosta;
+        }
+
+        private Oturum(String id, Instant olusturma, Instant sonErisim, Duration maxBosta) {
+            this(id, olusturma, maxBosta);
+            this.sonErisim = sonErisim;
+            this.kayitliId = id;
+            this.kayitliSonErisim = sonErisim.toEpochMilli();
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String changeSessionId() {
+            id = UUID.randomUUID().toString();
+            return id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getAttribute(String ad) {
+            Object deger = degerler.get(ad);
+            if (deger == null && hamDegerler.containsKey(ad)) {
+                synchronized (this) {
+                    deger = degerler.get(ad);
+                    byte[] ham = hamDegerler.remove(ad);
+                    if (deger == null && ham != null) {
+                        deger = coz(ad, ham);
+                        if (deger != null) {
+                            degerler.put(ad, deger);
+                        }
+                    }
+                }
+            }
+            return (T) deger;
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            Set<String> adlar = new HashSet<>(degerler.keySet());
+            adlar.addAll(hamDegerler.keySet());
+            return adlar;
+        }
+
+        @Override
+        public void setAttribute(String ad, Object deger) {
+            if (deger == null) {
+                removeAttribute(ad);
+                return;
+            }
+            degerler.put(ad, deger);
+            hamDegerler.remove(ad);
+            degisenler.add(ad);
+        }
+
+        @Override
+        public void removeAttribute(String ad) {
+            degerler.remove(ad);
+            hamDegerler.remove(ad);
+            degisenler.add(ad);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return olusturma;
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant sonErisim) {
+            this.sonErisim = sonErisim;
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return sonErisim;
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration maxBosta) {
+            this.maxBosta = maxBosta;
+            this.maxBostaDegisti = true;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return maxBosta;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return !maxBosta.isNegative() && Instant.now().isAfter(sonErisim.plus(maxBosta));
+        }
+
+        /**
+         * Son kayıttan bu yana değişenleri serileştirip yazma olarak döner; yazılacak bir şey yoksa null.
+         * Yeni veya id'si değişmiş session tüm özellikleriyle yazılır.
+         */
+        private synchronized Yazma degisiklikleriAl(long erisimYazmaAraligiMs) {
+            boolean tam = !id.equals(kayitliId);
+            long erisim = sonErisim.toEpochMilli();
+            boolean erisimYazilacak = erisim - kayitliSonErisim >= erisimYazmaAraligiMs;
+            if (!tam && degisenler.isEmpty() && !maxBostaDegisti && !erisimYazilacak) {
+                return null;
+            }
+            Yazma yazma = new Yazma(id, false, tam);
+            yazma.eskiId = tam ? kayitliId : null;
+            yazma.olusturma = olusturma.toEpochMilli();
+            yazma.sonErisim = erisim;
+            yazma.maxBostaSaniye = maxBosta.getSeconds();
+            yazma.oncekiSonErisim = kayitliSonErisim;
+            for (String ad : tam ? getAttributeNames() : new ArrayList<>(degisenler)) {
+                degisenler.remove(ad);
+                Object deger = degerler.get(ad);
+                if (!tam && deger instanceof BirlestirilebilirOzellik) {
+                    UnaryOperator<Object> birlestirici = ((BirlestirilebilirOzellik) deger).birlestirici();
+                    if (birlestirici != null) {
+                        yazma.birlestirilecekler.put(ad, birlestirici);
+                        continue;
+                    }
+                }
+                byte[] ham = deger != null ? serilestir(ad, deger) : hamDegerler.get(ad);
+                if (ham != null) {
+                    yazma.yazilacaklar.put(ad, ham);
+                } else if (!tam) {
+                    yazma.silinecekler.add(ad);
+                }
+            }
+            if (tam) {
+                degisenler.clear();
+            }
+            kayitliId = id;
+            kayitliSonErisim = erisim;
+            maxBostaDegisti = false;
+            return yazma;
+        }
+
+        /**
+         * Yazma başarısız olduysa değişiklikleri bir sonraki kayıt için geri işaretle
+         */
+        private synchronized void yazilamadi(Yazma yazma) {
+            degisenler.addAll(yazma.yazilacaklar.keySet());
+            degisenler.addAll(yazma.silinecekler);
+            // Devredilen işlemler geri verilmezse sonraki kayıt bu değişiklikleri yazmaz
+            yazma.birlestirilecekler.forEach((ad, birlestirici) -> {
+                Object deger = degerler.get(ad);
+                if (deger instanceof BirlestirilebilirOzellik) {
+                    ((BirlestirilebilirOzellik) deger).birlestiriciGeriAl(birlestirici);
+                }
+                degisenler.add(ad);
+            });
+            if (yazma.tam) {
+                kayitliId = yazma.eskiId;
+            }
+            kayitliSonErisim = yazma.oncekiSonErisim;
+            maxBostaDegisti = true;
+        }
+
+        private static byte[] serilestir(String ad, Object deger) {
+            try {
+                return SERILESTIRICI.convert(deger);
+            } catch (RuntimeException e) {
+                logger.warn("Session özelliği '{}' serileştirilemedi, yalnızca bu istekte geçerli: {}",
+                        ad, e.getMessage());
+                return null;
+            }
+        }
+
+        private static Object coz(String ad, byte[] ham) {
+            try {
+                return COZUCU.convert(ham);
+            } catch (RuntimeException e) {
+                // Sınıfı değişmiş eski bir değer; session'ın geri kalanı kullanılmaya devam eder
+                logger.warn("Session özelliği '{}' çözülemedi, yok sayılıyor: {}", ad, e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Yazıcı thread'ine giden tek bir session değişikliği
+     */
+    private static final class Yazma {
+
+        private final String id;
+        private final boolean silme;
+        private final boolean tam;
+        private final Map<String, byte[]> yazilacaklar = new HashMap<>();
+        private final Set<String> silinecekler = new HashSet<>();
+        // Güncel değere uygulanacak değişiklikler; yazilacaklar ve silinecekler'den sonra uygulanır
+        private final Map<String, UnaryOperator<Object>> birlestirilecekler = new LinkedHashMap<>();
+        private final CompletableFuture<Void> sonuc = new CompletableFuture<>();
+        // Yazıcı yazmayı almadan önce bekleyen istek zaman aşımıyla iptal edebilir; ilk alan kazanır
+        private final AtomicBoolean sahiplenildi = new AtomicBoolean();
+        private String eskiId;
+        private long olusturma;
+        private long sonErisim;
+        private long maxBostaSaniye;
+        private long oncekiSonErisim;
+
+        private Yazma(String id, boolean silme, boolean tam) {
+            this.id = id;
+            this.silme = silme;
+            this.tam = tam;
+        }
+
+        private static Yazma silme(String id) {
+            return new Yazma(id, true, false);
+        }
+
+        private boolean sahiplen() {
+            return sahiplenildi.compareAndSet(false, true);
+        }
+
+        private long sonGecerlilik() {
+            return maxBostaSaniye < 0 ? Long.MAX_VALUE : sonErisim + TimeUnit.SECONDS.toMillis(maxBostaSaniye);
+        }
+
+        /**
+         * Birleştirme için kopya; kuyruktaki asıl yazma değiştirilmez
+         */
+        private Yazma kopya() {
+            Yazma kopya = new Yazma(id, silme, tam);
+            kopya.yazilacaklar.putAll(yazilacaklar);
+            kopya.silinecekler.addAll(silinecekler);
+            kopya.birlestirilecekler.putAll(birlestirilecekler);
+            kopya.olusturma = olusturma;
+            kopya.sonErisim = sonErisim;
+            kopya.maxBostaSaniye = maxBostaSaniye;
+            return kopya;
+        }
+
+        /**
+         * Aynı session'ın sonraki kısmi yazmasını bu yazmanın üstüne uygula
+         */
+        private void ustuneYaz(Yazma sonraki) {
+            for (String ad : sonraki.silinecekler) {
+                yazilacaklar.remove(ad);
+                birlestirilecekler.remove(ad);
+                silinecekler.add(ad);
+            }
+            for (Map.Entry<String, byte[]> ozellik : sonraki.yazilacaklar.entrySet()) {
+                silinecekler.remove(ozellik.getKey());
+                birlestirilecekler.remove(ozellik.getKey());
+                yazilacaklar.put(ozellik.getKey(), ozellik.getValue());
+            }
+            // Sonraki değişiklikler öncekilerin sonucuna uygulanır
+            sonraki.birlestirilecekler.forEach((ad, birlestirici) -> birlestirilecekler.merge(ad, birlestirici,
+                    (once, sonra) -> deger -> sonra.apply(once.apply(deger))));
+            sonErisim = Math.max(sonErisim, sonraki.sonErisim);
+            maxBostaSaniye = sonraki.maxBostaSaniye;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.event.KitapDegistiEvent;
+import com.alperen.kitapsatissistemi.event.OlayYolu;
+import com.alperen.kitapsatissistemi.event.SiparisDegistiEvent;
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import com.alperen.kitapsatissistemi.exception.KuyrukDoluException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admin tabloları için toplu işlem motoru.
+ * Seçilen kayıtlar satır satır değil, parçalar halinde tek UPDATE/DELETE
+ * ifadeleriyle işlenir ve bütün işlem tek transaction içinde yapılır.
+ * İşlemler sınırlı bir arka plan havuzunda çalışır; ilerleme takip
+ * numarasıyla sorgulanabilir.
+ */
+@Service
+public class TopluIslemService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopluIslemService.class);
+
+    public static final String TIP_SIPARIS = "siparis";
+    public static final String TIP_KITAP = "kitap";
+    public static final String TIP_KULLANICI = "kullanici";
+    public static final String TIP_FAVORI = "favori";
+
+    public static final String ISLEM_SIL = "delete";
+    public static final String ISLEM_DISA_AKTAR = "export";
+
+    private static final long TAKIP_SURESI_MS = TimeUnit.MINUTES.toMillis(30);
+
+    // Sipariş durum geçişleri - admin.js (activate/deactivate) ve sipariş ekranı (approve/ship/deliver/cancel) isimleri
+    private static final Map<String, String> SIPARIS_DURUMLARI = new HashMap<>();
+
+    static {
+        SIPARIS_DURUMLARI.put("activate", "Onaylandı");
+        SIPARIS_DURUMLARI.put("approve", "Onaylandı");
+        SIPARIS_DURUMLARI.put("ship", "Kargoda");
+        SIPARIS_DURUMLARI.put("deliver", "Teslim Edildi");
+        SIPARIS_DURUMLARI.put("deactivate", "İptal Edildi");
+        SIPARIS_DURUMLARI.put("cancel", "İptal Edildi");
+    }
+
+    private static final Set<String> TIPLER = new HashSet<>(Arrays.asList(TIP_SIPARIS, TIP_KITAP, TIP_KULLANICI, TIP_FAVORI));
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final SiparisArsivService siparisArsivService;
+    private final DisaAktarimService disaAktarimService;
+    private final OlayYolu olayYolu;
+    private final ConcurrentHashMap<String, TopluIslem> islemler = new ConcurrentHashMap<>();
+
+    @Value("${admin.toplu-islem.thread-sayisi:2}")
+    private int threadSayisi;
+
+    @Value("${admin.toplu-islem.kuyruk-kapasitesi:20}")
+    private int kuyrukKapasitesi;
+
+    @Value("${admin.toplu-islem.parca-boyutu:500}")
+    private int parcaBoyutu;
+
+    @Value("${admin.toplu-islem.max-kayit:50000}")
+    private int maxKayit;
+
+    private ThreadPoolExecutor executor;
+
+    public TopluIslemService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             SiparisArsivService siparisArsivService, DisaAktarimService disaAktarimService,
+                             OlayYolu olayYolu) {
+        this.jdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.siparisArsivService = siparisArsivService;
+        this.disaAktarimService = disaAktarimService;
+        this.olayYolu = olayYolu;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        AtomicInteger sayac = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threadSayisi, threadSayisi, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(kuyrukKapasitesi), r -> {
+                    Thread thread = new Thread(r, "toplu-islem-" + sayac.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        islemler.values().forEach(islem -> dosyayiSil(islem.disaAktarim));
+    }
+
+    /**
+     * Toplu işlemi doğrula ve arka plan havuzuna gönder
+     */
+    public TopluIslem gonder(String tip, String islem, List<Long> idler) {
+        String normalTip = tip != null ? tip.trim().toLowerCase(Locale.ROOT) : null;
+        String normalIslem = islem != null ? islem.trim().toLowerCase(Locale.ROOT) : null;
+        if (normalTip == null || !TIPLER.contains(normalTip)) {
+            throw new BusinessException("Geçersiz kayıt tipi: " + tip);
+        }
+        if (normalIslem == null || normalIslem.isEmpty()) {
+            throw new BusinessException("İşlem seçilmedi");
+        }
+        if (!ISLEM_SIL.equals(normalIslem) && !ISLEM_DISA_AKTAR.equals(normalIslem)
+                && !(TIP_SIPARIS.equals(normalTip) && SIPARIS_DURUMLARI.containsKey(normalIslem))) {
+            throw new BusinessException("'" + islem + "' işlemi " + normalTip + " kayıtları için desteklenmiyor");
+        }
+        if (idler == null || idler.isEmpty()) {
+            throw new BusinessException("Lütfen en az bir kayıt seçin");
+        }
+        List<Long> tekilIdler = new ArrayList<>(new LinkedHashSet<>(idler));
+        tekilIdler.removeIf(id -> id == null);
+        if (tekilIdler.size() > maxKayit) {
+            throw new BusinessException("Tek seferde en fazla " + maxKayit + " kayıt işlenebilir");
+        }
+
+        eskiIslemleriTemizle();
+        TopluIslem topluIslem = new TopluIslem(normalTip, normalIslem, tekilIdler.size());
+        islemler.put(topluIslem.getId(), topluIslem);
+        try {
+            executor.execute(() -> calistir(topluIslem, tekilIdler));
+        } catch (RejectedExecutionException e) {
+            islemler.remove(topluIslem.getId());
+            throw new KuyrukDoluException("Çok fazla toplu işlem bekliyor, lütfen biraz sonra tekrar deneyin.", e);
+        }
+        return topluIslem;
+    }
+
+    /**
+     * Takip numarasına göre toplu işlemi getir
+     */
+    public Optional<TopluIslem> getIslem(String id) {
+        return Optional.ofNullable(islemler.get(id));
+    }
+
+    /**
+     * İşlemin bitmesini en fazla verilen süre kadar bekle
+     */
+    public boolean bekle(TopluIslem topluIslem, long beklemeMs) {
+        try {
+            return topluIslem.bitti.await(beklemeMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void calistir(TopluIslem topluIslem, List<Long> idler) {
+        topluIslem.durum = TopluIslem.CALISIYOR;
+        long baslangic = System.currentTimeMillis();
+        try {
+            if (ISLEM_DISA_AKTAR.equals(topluIslem.getIslem())) {
+                topluIslem.disaAktarim = disaAktar(topluIslem, idler);
+            } else {
+                // Tüm parçalar tek transaction: ya hepsi uygulanır ya hiçbiri
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (List<Long> parca : parcala(idler)) {
+                        topluIslem.etkilenen.addAndGet(uygula(topluIslem, parca));
+                        topluIslem.islenen.addAndGet(parca.size());
+                    }
+                    if (TIP_SIPARIS.equals(topluIslem.getTip()) && topluIslem.getEtkilenen() > 0) {
+                        olayYolu.yayinla(new SiparisDegistiEvent(ISLEM_SIL.equals(topluIslem.getIslem())
+                                ? SiparisDegistiEvent.SILINDI : SiparisDegistiEvent.GUNCELLENDI, idler));
+                    }
+                    if (TIP_KITAP.equals(topluIslem.getTip()) && topluIslem.getEtkilenen() > 0) {
+                        olayYolu.yayinla(new KitapDegistiEvent(null));
+                    }
+                });
+            }
+            topluIslem.durum = TopluIslem.TAMAMLANDI;
+            logger.info("Toplu işlem {} ({} {}): {}/{} kayıt etkilendi, {} ms", topluIslem.getId(), topluIslem.getIslem(),
+                    topluIslem.getTip(), topluIslem.getEtkilenen(), topluIslem.getToplam(), System.currentTimeMillis() - baslangic);
+        } catch (RuntimeException e) {
+            topluIslem.islenen.set(0);
+            topluIslem.etkilenen.set(0);
+            topluIslem.mesaj = e.getMessage();
+            topluIslem.durum = TopluIslem.HATA;
+            logger.error("Toplu işlem {} başarısız: {}", topluIslem.getId(), e.getMessage(), e);
+        } finally {
+            topluIslem.bitti.countDown();
+        }
+    }
+
+    private int uygula(TopluIslem topluIslem, List<Long> parca) {
+        MapSqlParameterSource parametreler = new MapSqlParameterSource("idler", parca);
+        String tip = topluIslem.getTip();
+        if (!ISLEM_SIL.equals(topluIslem.getIslem())) {
+            parametreler.addValue("durum", SIPARIS_DURUMLARI.get(topluIslem.getIslem()));
+            return jdbc.update("UPDATE siparisler SET durum = :durum WHERE id IN (:idler) AND durum <> :durum", parametreler);
+        }
+        switch (tip) {
+            case TIP_SIPARIS:
+                jdbc.update("DELETE FROM siparis_detaylari WHERE siparis_id IN (:idler)", parametreler);
+                return jdbc.update("DELETE FROM siparisler WHERE id IN (:idler)", parametreler);
+            case TIP_KITAP:
+                // Siparişlerde (arşiv dahil) geçen kitaplar tekil silmedeki gibi atlanır
+                String silinebilirKitaplar = "SELECT k.id FROM kitaplar k WHERE k.id IN (:idler) AND NOT EXISTS "
+                        + "(SELECT 1 FROM siparis_detaylari sd WHERE sd.kitap_id = k.id) AND NOT EXISTS "
+                        + "(SELECT 1 FROM " + siparisArsivService.getDetayTablosu() + " sd WHERE sd.kitap_id = k.id)";
+                jdbc.update("DELETE FROM favoriler WHERE kitap_id IN (" + silinebilirKitaplar + ")", parametreler);
+                jdbc.update("DELETE FROM sepet_kalemleri WHERE kitap_id IN (" + silinebilirKitaplar + ")", parametreler);
+                return jdbc.update("DELETE FROM kitaplar WHERE id IN (" + silinebilirKitaplar + ")", parametreler);
+            case TIP_KULLANICI:
+                // Siparişi (arşiv dahil) olan kullanıcılar tekil silmedeki gibi atlanır
+                String silinebilirKullanicilar = "SELECT k.id FROM kullanicilar k WHERE k.id IN (:idler) AND NOT EXISTS "
+                        + "(SELECT 1 FROM siparisler s WHERE s.kullanici_id = k.id) AND NOT EXISTS "
+                        + "(SELECT 1 FROM " + siparisArsivService.getSiparisTablosu() + " s WHERE s.kullanici_id = k.id)";
+                jdbc.update("DELETE FROM favoriler WHERE kullanici_id IN (" + silinebilirKullanicilar + ")", parametreler);
+                jdbc.update("DELETE FROM sepet_kalemleri WHERE kullanici_id IN (" + silinebilirKullanicilar + ")", parametreler);
+                return jdbc.update("DELETE FROM kullanicilar WHERE id IN (" + silinebilirKullanicilar + ")", parametreler);
+            case TIP_FAVORI:
+                return jdbc.update("DELETE FROM favoriler WHERE id IN (:idler)", parametreler);
+            default:
+                throw new BusinessException("Geçersiz kayıt tipi: " + tip);
+        }
+    }
+
+    // Satırlar dışa aktarım servisiyle akışlı olarak geçici dosyaya yazılır; indirme dosyadan yapılır
+    private Path disaAktar(TopluIslem topluIslem, List<Long> idler) {
+        List<DisaAktarimService.Aktarim> aktarimlar = disaAktarimService.hazirla(topluIslem.getTip(), idler);
+        Path dosya = null;
+        try {
+            dosya = Files.createTempFile("toplu-" + topluIslem.getTip() + "-", ".csv");
+            try (Writer cikti = Files.newBufferedWriter(dosya, StandardCharsets.UTF_8)) {
+                for (DisaAktarimService.Aktarim aktarim : aktarimlar) {
+                    topluIslem.etkilenen.addAndGet((int) disaAktarimService.yaz(aktarim, cikti));
+                    topluIslem.islenen.addAndGet(aktarim.getSeciliKayitSayisi());
+                }
+            }
+            return dosya;
+        } catch (IOException e) {
+            dosyayiSil(dosya);
+            throw new UncheckedIOException("Dışa aktarım dosyası yazılamadı", e);
+        } catch (RuntimeException e) {
+            dosyayiSil(dosya);
+            throw e;
+        }
+    }
+
+    private static void dosyayiSil(Path dosya) {
+        if (dosya == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(dosya);
+        } catch (IOException e) {
+            logger.warn("Dışa aktarım dosyası silinemedi: {}", dosya, e);
+        }
+    }
+
+    // SQLite tek ifadede en fazla 999 parametre kabul eder
+    private List<List<Long>> parcala(List<Long> idler) {
+        int boyut = Math.max(1, Math.min(parcaBoyutu, 900));
+        List<List<Long>> parcalar = new ArrayList<>((idler.size() + boyut - 1) / boyut);
+        for (int i = 0; i < idler.size(); i += boyut) {
+            parcalar.add(idler.subList(i, Math.min(i + boyut, idler.size())));
+        }
+        return parcalar;
+    }
+
+    private void eskiIslemleriTemizle() {
+        long sinir = System.currentTimeMillis() - TAKIP_SURESI_MS;
+        islemler.values().removeIf(islem -> {
+            if (islem.isBitti() && islem.getOlusturmaZamani() < sinir) {
+                dosyayiSil(islem.disaAktarim);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Arka planda çalışan toplu işlem - ilerleme ve sonuç bilgisini taşır
+     */
+    public static class TopluIslem {
+
+        public static final String KUYRUKTA = "KUYRUKTA";
+        public static final String CALISIYOR = "CALISIYOR";
+        public static final String TAMAMLANDI = "TAMAMLANDI";
+        public static final String HATA = "HATA";
+
+        private final String id = UUID.randomUUID().toString();
+        private final long olusturmaZamani = System.currentTimeMillis();
+        private final String tip;
+        private final String islem;
+        private final int toplam;
+        private final AtomicInteger islenen = new AtomicInteger();
+        private final AtomicInteger etkilenen = new AtomicInteger();
+        private final CountDownLatch bitti = new CountDownLatch(1);
+        private volatile String durum = KUYRUKTA;
+        private volatile String mesaj;
+        private volatile Path disaAktarim;
+
+        TopluIslem(String tip, String islem, int toplam) {
+            this.tip = tip;
+            this.islem = islem;
+            this.toplam = toplam;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getOlusturmaZamani() {
+            return olusturmaZamani;
+        }
+
+        public String getTip() {
+            return tip;
+        }
+
+        public String getIslem() {
+            return islem;
+        }
+
+        public int getToplam() {
+            return toplam;
+        }
+
+        public int getIslenen() {
+            return islenen.get();
+        }
+
+        /**
+         * Gerçekten değişen (veya dışa aktarılan) kayıt sayısı
+         */
+        public int getEtkilenen() {
+            return etkilenen.get();
+        }
+
+        public int getYuzde() {
+            return toplam == 0 ? 100 : (int) (islenen.get() * 100L / toplam);
+        }
+
+        public String getDurum() {
+            return durum;
+        }
+
+        public String getMesaj() {
+            return mesaj;
+        }
+
+        public boolean isBitti() {
+            return bitti.getCount() == 0;
+        }
+
+        /**
+         * Dışa aktarma işlemlerinin CSV dosyası
+         */
+        public Path getDisaAktarim() {
+            return disaAktarim;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.alperen.kitapsatissistemi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yenileme (refresh) token servisi - API istemcilerinin süresi dolan erişim token'ını
+ * yeniden giriş yapmadan yenilemesini sağlar. Token'lar rastgele ve opaktır; veritabanında
+ * yalnızca SHA-256 özetleri saklanır.
+ * Her yenilemede token tek kullanımlıktır: eskisi kullanılmış olarak işaretlenir, aynı aileden
+ * yenisi verilir. Kullanılmış bir token tekrar gelirse token çalınmış sayılır ve ailenin tüm
+ * token'ları iptal edilir. Süresi dolan kayıtlar arka planda periyodik olarak silinir.
+ */
+@Service
+public class YenilemeTokeniService {
+
+    private static final Logger logger = LoggerFactory.getLogger(YenilemeTokeniService.class);
+
+    private static final String EKLE_SQL = "INSERT INTO yenileme_tokenlari "
+            + "(token_hash, aile, kullanici_id, son_gecerlilik, kullanildi) VALUES (?, ?, ?, ?, 0)";
+    private static final String BUL_SQL = "SELECT aile, kullanici_id, son_gecerlilik, kullanildi "
+            + "FROM yenileme_tokenlari WHERE token_hash = ?";
+    private static final String KULLANILDI_SQL = "UPDATE yenileme_tokenlari SET kullanildi = 1 "
+            + "WHERE token_hash = ? AND kullanildi = 0";
+    private static final String AILE_SIL_SQL = "DELETE FROM yenileme_tokenlari WHERE aile = ?";
+    private static final String TEMIZLE_SQL = "DELETE FROM yenileme_tokenlari WHERE son_gecerlilik < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom rastgele = new SecureRandom();
+    private final ScheduledExecutorService temizleyici = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "yenileme-tokeni-temizleyici");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${api.jwt.yenileme-suresi-gun:14}")
+    private long yenilemeSuresiGun;
+
+    public YenilemeTokeniService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        temizleyici.scheduleWithFixedDelay(this::suresiDolanlariTemizle, 1, 60, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        temizleyici.shutdownNow();
+    }
+
+    /**
+     * Girişte yeni bir token ailesi başlatır
+     */
+    public String olustur(Long kullaniciId) {
+        return transactionTemplate.execute(status -> ekle(rastgeleDeger(16), kullaniciId));
+    }
+
+    /**
+     * Token'ı kullanılmış olarak işaretleyip aynı aileden yenisini verir.
+     * Token bilinmiyorsa, süresi dolmuşsa veya daha önce kullanılmışsa boş döner.
+     */
+    public Optional<Yenileme> yenile(String token) {
+        if (!StringUtils.hasText(token)) {
+            return Optional.empty();
+        }
+        String tokenHash = ozet(token);
+        return transactionTemplate.execute(status -> {
+            List<Kayit> kayitlar = jdbcTemplate.query(BUL_SQL, (rs, i) -> new Kayit(rs.getString("aile"),
+                    rs.getLong("kullanici_id"), rs.getLong("son_gecerlilik"), rs.getInt("kullanildi") == 1), tokenHash);
+            if (kayitlar.isEmpty()) {
+                return Optional.<Yenileme>empty();
+            }
+            Kayit kayit = kayitlar.get(0);
+            if (kayit.kullanildi || jdbcTemplate.update(KULLANILDI_SQL, tokenHash) == 0) {
+                int iptal = jdbcTemplate.update(AILE_SIL_SQL, kayit.aile);
+                logger.warn("Kullanılmış yenileme token'ı tekrar gönderildi; kullanıcı {} için {} token iptal edildi",
+                        kayit.kullaniciId, iptal);
+                return Optional.<Yenileme>empty();
+            }
+            if (kayit.sonGecerlilik < System.currentTimeMillis()) {
+                jdbcTemplate.update(AILE_SIL_SQL, kayit.aile);
+                return Optional.<Yenileme>empty();
+            }
+            return Optional.of(new Yenileme(kayit.kullaniciId, ekle(kayit.aile, kayit.kullaniciId)));
+        });
+    }
+
+    /**
+     * Token'ın ailesindeki tüm token'ları iptal et (çıkış)
+     */
+    public void iptalEt(String token) {
+        if (!StringUtils.hasText(token)) {
+            return;
+        }
+        String tokenHash = ozet(token);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> aile = jdbcTemplate.queryForList("SELECT aile FROM yenileme_tokenlari WHERE token_hash = ?",
+                    String.class, tokenHash);
+            if (!aile.isEmpty()) {
+                jdbcTemplate.update(AILE_SIL_SQL, aile.get(0));
+            }
+        });
+    }
+
+    private String ekle(String aile, Long kullaniciId) {
+        String token = rastgeleDeger(32);
+        long sonGecerlilik = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(yenilemeSuresiGun);
+        jdbcTemplate.update(EKLE_SQL, ozet(token), aile, kullaniciId, sonGecerlilik);
+        return token;
+    }
+
+    private void suresiDolanlariTemizle() {
+        try {
+            Integer silinen = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(TEMIZLE_SQL, System.currentTimeMillis()));
+            if (silinen != null && silinen > 0) {
+                logger.info("Süresi dolan {} yenileme token'ı silindi", silinen);
+            }
+        } catch (Exception e) {
+            logger.warn("Yenileme token'ları temizlenemedi: {}", e.getMessage());
+        }
+    }
+
+    private String rastgeleDeger(int bayt) {
+        byte[] deger = new byte[bayt];
+        rastgele.nextBytes(deger);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(deger);
+    }
+
+    private static String ozet(String token) {
+        try {
+            byte[] ozet = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(ozet.length * 2);
+            for (byte b : ozet) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
+        }
+    }
+
+    private static class Kayit {
+        private final String aile;
+        private final long kullaniciId;
+        private final long sonGecerlilik;
+        private final boolean kullanildi;
+
+        private Kayit(String aile, long kullaniciId, long sonGecerlilik, boolean kullanildi) {
+            this.aile = aile;
+            this.kullaniciId = kullaniciId;
+            this.sonGecerlilik = sonGecerlilik;
+            this.kullanildi = kullanildi;
+        }
+    }
+
+    /**
+     * Yenileme sonucu: token'ın sahibi ve yerine verilen yeni token
+     */
+    public static class Yenileme {
+        private final Long kullaniciId;
+        private final String yenilemeTokeni;
+
+        private Yenileme(Long kullaniciId, String yenilemeTokeni) {
+            this.kullaniciId = kullaniciId;
+            this.yenilemeTokeni = yenilemeTokeni;
+        }
+
+        public Long getKullaniciId() {
+            return kullaniciId;
+        }
+
+        public String getYenilemeTokeni() {
+            return yenilemeTokeni;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.event.OlayAbonesi;
+import com.alperen.kitapsatissistemi.event.SiparisDegistiEvent;
+import com.alperen.kitapsatissistemi.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sipariş zaman serisi - oluşturulan siparişlerin sayısı ve tutarı son bir saat için dakika,
+ * son bir hafta için saat dilimlerinde tutulur. Her aralık sabit boyutlu bir halkadır; dilim
+ * sayaçları LongAdder'dır, süresi geçen dilim yeni döneme ilk yazan tarafından CAS ile değiştirilir.
+ * Bellek sabittir, okumalar veritabanına gitmez. Başlangıçta son bir haftanın siparişleriyle
+ * doldurulur; sonrasında olay yolundan parti parti gelen sipariş oluşturma olaylarıyla beslenir.
+ * Yükleme olaylardan önce kuyruğa alınır; yüklemenin saydığı siparişlerin olayları id'lerine göre atlanır.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class ZamanSerisiService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZamanSerisiService.class);
+
+    public static final String SAAT = "saat";
+    public static final String HAFTA = "hafta";
+
+    private static final ZoneId ZAMAN_DILIMI = ZoneId.systemDefault();
+    private static final DateTimeFormatter DAKIKA_ETIKETI = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter SAAT_ETIKETI = DateTimeFormatter.ofPattern("dd.MM HH:00");
+
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final SiparisArsivService siparisArsivService;
+
+    private final Halka dakikalar = new Halka(TimeUnit.MINUTES.toMillis(1), 60);
+    private final Halka saatler = new Halka(TimeUnit.HOURS.toMillis(1), 168);
+
+    // Olaylar bu thread'de işlenir; commit eden thread'in bağlantısı kullanılmaz
+    private ExecutorService yazici;
+
+    // Yüklemeden sonra olayları gelecek siparişler bu süreden çok gecikmez; sonra küme bırakılır
+    private static final long YUKLEME_OLAY_PENCERESI_MS = TimeUnit.MINUTES.toMillis(10);
+
+    // Başlangıç yüklemesinin saydığı siparişler; olaylarda tekrar sayılmaz. Yalnızca yazıcı thread'i kullanır
+    private Set<Long> yuklenenIdler = new HashSet<>();
+    private long yuklemeZamani;
+
+    public ZamanSerisiService(JdbcTemplate jdbcTemplate, SiparisArsivService siparisArsivService) {
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.siparisArsivService = siparisArsivService;
+    }
+
+    @PostConstruct
+    public void baslat() {
+        yazici = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "zaman-serisi");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Abonelerin kuyruğa aldığı olaylardan önce çalışır; yükleme arka planda yapılır
+        yazici.execute(this::yukle);
+    }
+
+    @PreDestroy
+    public void durdur() {
+        yazici.shutdownNow();
+    }
+
+    /**
+     * Olay yolundan gelen partideki tüm yeni siparişler tek sorguyla eklenir.
+     */
+    @OlayAbonesi(SiparisDegistiEvent.class)
+    public void siparislerDegisti(List<SiparisDegistiEvent> olaylar) {
+        List<Long> idler = new ArrayList<>();
+        for (SiparisDegistiEvent event : olaylar) {
+            if (SiparisDegistiEvent.OLUSTURULDU.equals(event.getTur())) {
+                idler.addAll(event.getSiparisIdleri());
+            }
+        }
+        if (!idler.isEmpty()) {
+            yazici.execute(() -> siparisleriEkle(idler));
+        }
+    }
+
+    /**
+     * Bir siparişi zaman serisine ekle.
+     */
+    public void kaydet(long zamanMs, BigDecimal tutar) {
+        long kurus = tutar != null ? tutar.movePointRight(2).longValue() : 0;
+        dakikalar.ekle(zamanMs, kurus);
+        saatler.ekle(zamanMs, kurus);
+    }
+
+    /**
+     * Aralığın serisini getir: saat (son 60 dakika, dakikalık) veya hafta (son 168 saat, saatlik).
+     * Son dilim içinde bulunulan dilimdir.
+     */
+    public Seri getSeri(String aralik) {
+        String normal = aralik != null ? aralik.trim().toLowerCase(Locale.ROOT) : "";
+        if (SAAT.equals(normal)) {
+            return dakikalar.oku(normal, System.currentTimeMillis(), DAKIKA_ETIKETI);
+        }
+        if (HAFTA.equals(normal)) {
+            return saatler.oku(normal, System.currentTimeMillis(), SAAT_ETIKETI);
+        }
+        throw new BusinessException("Geçersiz aralık: " + aralik);
+    }
+
+    private void yukle() {
+        try {
+            long baslama = System.currentTimeMillis();
+            String kolonlar = "id, siparis_tarihi, toplam_tutar";
+            String sql = "SELECT " + kolonlar + " FROM siparisler WHERE siparis_tarihi >= :baslangic"
+                    + " UNION ALL SELECT " + kolonlar + " FROM " + siparisArsivService.getSiparisTablosu()
+                    + " WHERE siparis_tarihi >= :baslangic";
+            MapSqlParameterSource parametreler = new MapSqlParameterSource("baslangic",
+                    new Timestamp(baslama - saatler.dilimMs * saatler.boyut));
+            long[] sayac = new long[1];
+            namedJdbc.query(sql, parametreler, rs -> {
+                yuklenenIdler.add(rs.getLong(1));
+                kaydet(rs.getLong(2), rs.getBigDecimal(3));
+                sayac[0]++;
+            });
+            yuklemeZamani = System.currentTimeMillis();
+            logger.info("Sipariş zaman serisi yüklendi: {} sipariş ({} ms)", sayac[0], System.currentTimeMillis() - baslama);
+        } catch (Exception e) {
+            logger.error("Sipariş zaman serisi yüklenemedi", e);
+        }
+    }
+
+    private void siparisleriEkle(List<Long> siparisIdleri) {
+        if (yuklenenIdler != null && System.currentTimeMillis() - yuklemeZamani > YUKLEME_OLAY_PENCERESI_MS) {
+            yuklenenIdler = null;
+        }
+        try {
+            // Id'ler commit'ten önce atandığından en büyük id ile değil, yüklenen kümeyle ayıklanır
+            namedJdbc.query("SELECT id, siparis_tarihi, toplam_tutar FROM siparisler WHERE id IN (:idler)",
+                    new MapSqlParameterSource("idler", siparisIdleri), rs -> {
+                        if (yuklenenIdler == null || !yuklenenIdler.remove(rs.getLong(1))) {
+                            kaydet(rs.getLong(2), rs.getBigDecimal(3));
+                        }
+                    });
+        } catch (Exception e) {
+            logger.error("Sipariş zaman serisi güncellenemedi: {}", siparisIdleri, e);
+        }
+    }
+
+    /**
+     * Sabit boyutlu dilim halkası. Dilim, dönem numarasıyla (zaman / dilim süresi) etiketlenir;
+     * halkada aynı yere düşen eski dönemin dilimi yeni dönemle değiştirilir.
+     */
+    private static class Halka {
+        private final long dilimMs;
+        private final int boyut;
+        private final AtomicReferenceArray<Dilim> dilimler;
+
+        private Halka(long dilimMs, int boyut) {
+            this.dilimMs = dilimMs;
+            this.boyut = boyut;
+            this.dilimler = new AtomicReferenceArray<>(boyut);
+            for (int i = 0; i < boyut; i++) {
+                dilimler.set(i, new Dilim(Long.MIN_VALUE));
+            }
+        }
+
+        private void ekle(long zamanMs, long kurus) {
+            long donem = Math.floorDiv(zamanMs, dilimMs);
+            if (donem <= Math.floorDiv(System.currentTimeMillis(), dilimMs) - boyut) {
+                return;
+            }
+            int yer = (int) Math.floorMod(donem, (long) boyut);
+            while (true) {
+                Dilim dilim = dilimler.get(yer);
+                if (dilim.donem == donem) {
+                    dilim.siparis.increment();
+                    dilim.kurus.add(kurus);
+                    return;
+                }
+                if (dilim.donem > donem) {
+                    // Halkanın gerisinde kalmış kayıt
+                    return;
+                }
+                dilimler.compareAndSet(yer, dilim, new Dilim(donem));
+            }
+        }
+
+        private Seri oku(String aralik, long simdiMs, DateTimeFormatter etiketBicimi) {
+            long sonDonem = Math.floorDiv(simdiMs, dilimMs);
+            long ilkDonem = sonDonem - boyut + 1;
+            String[] etiketler = new String[boyut];
+            long[] siparisler = new long[boyut];
+            BigDecimal[] ciro = new BigDecimal[boyut];
+            for (int i = 0; i < boyut; i++) {
+                long donem = ilkDonem + i;
+                Dilim dilim = dilimler.get((int) Math.floorMod(donem, (long) boyut));
+                boolean guncel = dilim.donem == donem;
+                etiketler[i] = LocalDateTime.ofInstant(Instant.ofEpochMilli(donem * dilimMs), ZAMAN_DILIMI).format(etiketBicimi);
+                siparisler[i] = guncel ? dilim.siparis.sum() : 0;
+                ciro[i] = BigDecimal.valueOf(guncel ? dilim.kurus.sum() : 0, 2);
+            }
+            return new Seri(aralik, dilimMs / 1000, ilkDonem * dilimMs, etiketler, siparisler, ciro);
+        }
+    }
+
+    private static class Dilim {
+        private final long donem;
+        private final LongAdder siparis = new LongAdder();
+        private final LongAdder kurus = new LongAdder();
+
+        private Dilim(long donem) {
+            this.donem = donem;
+        }
+    }
+
+    /**
+     * Grafik için seri: dilim başına etiket, sipariş sayısı ve ciro.
+     */
+    public static class Seri {
+        private final String aralik;
+        private final long dilimSaniye;
+        private final long baslangic;
+        private final String[] etiketler;
+        private final long[] siparisler;
+        private final BigDecimal[] ciro;
+
+        private Seri(String aralik, long dilimSaniye, long baslangic, String[] etiketler, long[] siparisler, BigDecimal[] ciro) {
+            this.aralik = aralik;
+            this.dilimSaniye = dilimSaniye;
+            this.baslangic = baslangic;
+            this.etiketler = etiketler;
+            this.siparisler = siparisler;
+            this.ciro = ciro;
+        }
+
+        public String getAralik() {
+            return aralik;
+        }
+
+        public long getDilimSaniye() {
+            return dilimSaniye;
+        }
+
+        public long getBaslangic() {
+            return baslangic;
+        }
+
+        public String[] getEtiketler() {
+            return etiketler;
+        }
+
+        public long[] getSiparisler() {
+            return siparisler;
+        }
+
+        public BigDecimal[] getCiro() {
+            return ciro;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.alperen.kitapsatissistemi.util;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Aynı session'a eşzamanlı gelen isteklerin değiştirebileceği session özelliği.
+ * Paylaşılan session deposu bu özelliği isteğin kopyasıyla ezmek yerine, yazma kilidi
+ * altında veritabanındaki güncel değere isteğin değişikliklerini uygular.
+ */
+public interface BirlestirilebilirOzellik {
+
+    /**
+     * Son çağrıdan beri bu kopyada yapılan değişiklikleri güncel değere uygulayan işlem (güncel değer
+     * yoksa null gelir). Değişiklikler işlemle birlikte devredilir; aynı istekte session ikinci kez
+     * kaydedilirse yalnızca sonraki değişiklikler uygulanır. Değişiklikler bilinmiyorsa null döner;
+     * bu durumda kopyanın kendisi yazılır.
+     */
+    UnaryOperator<Object> birlestirici();
+
+    /**
+     * Yazılamayan birleştirme işlemini geri al; değişiklikler bir sonraki kayıtta yeniden uygulanır
+     */
+    void birlestiriciGeriAl(UnaryOperator<Object> birlestirici);
+}
@@ -0,0 +1,90 @@
+package com.alperen.kitapsatissistemi.util;
+
+import java.time.Instant;
+
+/**
+ * Zaman sıralı ID üretici (Snowflake benzeri).
+ * ID = [zaman (ms, 41 bit)] [düğüm (5 bit)] [sıra (7 bit)]
+ * Toplam 53 bit kullanılır; ID'ler Long içinde saklanır ve JavaScript'te
+ * (Number.MAX_SAFE_INTEGER) hassasiyet kaybı olmadan taşınır.
+ * Saat geri giderse son zaman damgasından devam edilir, ID'ler hiçbir zaman azalmaz.
+ */
+public class ZamanSiraliIdUretici {
+
+    /** Özel epoch: 2024-01-01T00:00:00Z - 41 bit ile 2093 yılına kadar yeter */
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    public static final int DUGUM_BIT = 5;
+    public static final int SIRA_BIT = 7;
+    public static final int MAX_DUGUM_ID = (1 << DUGUM_BIT) - 1;
+
+    private static final int ZAMAN_KAYDIRMA = DUGUM_BIT + SIRA_BIT;
+    private static final long SIRA_MASKESI = (1L << SIRA_BIT) - 1;
+
+    // Hibernate generator'ı Spring bean'i değildir; uygulamadaki tek üreticiye buradan erişir
+    private static volatile ZamanSiraliIdUretici aktif;
+
+    private final long dugumId;
+    private long sonZaman = -1;
+    private long sira;
+
+    public ZamanSiraliIdUretici(int dugumId) {
+        if (dugumId < 0 || dugumId > MAX_DUGUM_ID) {
+            throw new IllegalArgumentException("Düğüm ID'si 0-" + MAX_DUGUM_ID + " aralığında olmalıdır: " + dugumId);
+        }
+        this.dugumId = dugumId;
+    }
+
+    public static void setAktif(ZamanSiraliIdUretici uretici) {
+        aktif = uretici;
+    }
+
+    public static ZamanSiraliIdUretici getAktif() {
+        ZamanSiraliIdUretici uretici = aktif;
+        if (uretici == null) {
+            throw new IllegalStateException("Zaman sıralı ID üretici henüz başlatılmadı");
+        }
+        return uretici;
+    }
+
+    /**
+     * Sonraki ID'yi üret
+     */
+    public synchronized long sonrakiId() {
+        long zaman = Math.max(System.currentTimeMillis() - EPOCH, sonZaman);
+        if (zaman == sonZaman) {
+            sira = (sira + 1) & SIRA_MASKESI;
+            if (sira == 0) {
+                // Bu milisaniyenin sırası doldu - mantıksal saati bir ileri al
+                zaman = ++sonZaman;
+            }
+        } else {
+            sira = 0;
+        }
+        sonZaman = zaman;
+        return (zaman << ZAMAN_KAYDIRMA) | (dugumId << SIRA_BIT) | sira;
+    }
+
+    /**
+     * Üretilecek ID'lerin verilen ID'den büyük olmasını garanti et.
+     * Eski (IDENTITY) kayıtlar ve saati geride kalmış bir yeniden başlatma için kullanılır.
+     */
+    public synchronized void enAzindan(long mevcutEnBuyukId) {
+        long zaman = (mevcutEnBuyukId >>> ZAMAN_KAYDIRMA) + 1;
+        if (zaman > sonZaman) {
+            sonZaman = zaman;
+            sira = 0;
+        }
+    }
+
+    /**
+     * ID'nin üretildiği an (epoch ms)
+     */
+    public static long zamanDamgasi(long id) {
+        return (id >>> ZAMAN_KAYDIRMA) + EPOCH;
+    }
+
+    public long getDugumId() {
+        return dugumId;
+    }
+}
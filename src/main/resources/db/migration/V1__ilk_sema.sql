@@ -0,0 +1,73 @@
+-- İlk şema: JPA entity tabloları (ddl-auto=update'in ürettiği şemayla aynı)
+-- Arşiv, satış özeti ve idempotency tabloları kendi servislerinde oluşturulur.
+-- Bu tablolardan önce oluşturulmuş veritabanları sürüm 1 olarak baseline'lanır.
+
+CREATE TABLE IF NOT EXISTS kategoriler (
+    id integer not null,
+    aciklama varchar(500),
+    ad varchar(100) not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS kitaplar (
+    id integer not null,
+    aciklama varchar(1000),
+    ad varchar(200) not null,
+    fiyat numeric(18,2) not null,
+    resim_url varchar(500),
+    stok_miktari integer not null check (stok_miktari>=0),
+    yazar varchar(100) not null,
+    kategori_id integer not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS kullanicilar (
+    id integer not null,
+    ad_soyad varchar(100) not null,
+    email varchar(100) not null,
+    kayit_tarihi datetime not null,
+    rol varchar(50) not null,
+    sifre_hash varchar(255) not null,
+    primary key (id),
+    unique (email)
+);
+
+CREATE TABLE IF NOT EXISTS favoriler (
+    id integer not null,
+    kitap_id integer not null,
+    kullanici_id integer not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS sepet_kalemleri (
+    id integer not null,
+    adet integer not null check (adet>=1),
+    fiyat numeric(18,2) not null,
+    guncelleme_tarihi datetime not null,
+    kitap_id integer not null,
+    kullanici_id integer not null,
+    primary key (id),
+    unique (kullanici_id, kitap_id)
+);
+
+CREATE TABLE IF NOT EXISTS siparisler (
+    id integer not null,
+    durum varchar(50),
+    siparis_tarihi datetime not null,
+    toplam_tutar numeric(18,2) not null,
+    kullanici_id integer not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS siparis_detaylari (
+    id integer not null,
+    adet integer not null check (adet>=1),
+    fiyat numeric(18,2) not null,
+    kitap_id integer not null,
+    siparis_id integer not null,
+    primary key (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_siparisler_kullanici ON siparisler (kullanici_id, id);
+CREATE INDEX IF NOT EXISTS ix_siparisler_tarih ON siparisler (siparis_tarihi);
+CREATE INDEX IF NOT EXISTS ix_siparis_detaylari_siparis ON siparis_detaylari (siparis_id);
@@ -0,0 +1,14 @@
+-- API yenileme (refresh) token'ları. Token'ın kendisi değil SHA-256 özeti saklanır.
+-- Aynı girişten türeyen token'lar aynı aileyi paylaşır; tekrar kullanımda aile toptan silinir.
+
+CREATE TABLE IF NOT EXISTS yenileme_tokenlari (
+    token_hash varchar(64) not null,
+    aile varchar(32) not null,
+    kullanici_id integer not null,
+    son_gecerlilik integer not null,
+    kullanildi integer not null default 0,
+    primary key (token_hash)
+);
+
+CREATE INDEX IF NOT EXISTS ix_yenileme_tokenlari_aile ON yenileme_tokenlari (aile);
+CREATE INDEX IF NOT EXISTS ix_yenileme_tokenlari_son_gecerlilik ON yenileme_tokenlari (son_gecerlilik);
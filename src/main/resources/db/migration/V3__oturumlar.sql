@@ -0,0 +1,21 @@
+-- Paylaşılan HTTP session deposu (oturum.depo=sqlite). Her özellik ayrı satırda, Java
+-- serileştirmesiyle saklanır; böylece yalnızca değişen özellikler yazılır.
+-- son_gecerlilik = son_erisim + max_bosta_saniye; süresi dolanlar bu index üzerinden silinir.
+
+CREATE TABLE IF NOT EXISTS oturumlar (
+    id varchar(36) not null,
+    olusturma integer not null,
+    son_erisim integer not null,
+    max_bosta_saniye integer not null,
+    son_gecerlilik integer not null,
+    primary key (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_oturumlar_son_gecerlilik ON oturumlar (son_gecerlilik);
+
+CREATE TABLE IF NOT EXISTS oturum_ozellikleri (
+    oturum_id varchar(36) not null,
+    ad varchar(200) not null,
+    deger blob not null,
+    primary key (oturum_id, ad)
+) WITHOUT ROWID;
@@ -0,0 +1,8 @@
+-- Düğümler arasında paylaşılan uygulama ayarları (ör. ölçülen BCrypt maliyeti).
+-- İlk yazan düğümün değeri geçerlidir; satır silinirse değer yeniden belirlenir.
+
+CREATE TABLE IF NOT EXISTS uygulama_ayarlari (
+    ad varchar(100) not null,
+    deger varchar(200) not null,
+    primary key (ad)
+);
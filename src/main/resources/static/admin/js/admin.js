@@ -19,6 +19,7 @@ document.addEventListener('DOMContentLoaded', function() {
     initializeModals();
     initializeDataTables();
     initializeCharts();
+    initializeCanliAkis();
 });
 
 /**
@@ -275,6 +276,12 @@ function initializeCharts() {
         if (ordersChartCanvas) {
             initializeOrdersChart(ordersChartCanvas);
         }
+        
+        // Order time series chart (dashboard)
+        const zamanSerisiCanvas = document.getElementById('zamanSerisiChart');
+        if (zamanSerisiCanvas) {
+            initializeZamanSerisiChart(zamanSerisiCanvas);
+        }
     }
 }
 
@@ -453,12 +460,33 @@ function copyToClipboard(text) {
 }
 
 /**
- * Export data
+ * Export data - admin tablolarını akışlı CSV olarak indirir
  */
-function exportData(format = 'excel') {
+function exportData() {
+    const tipler = {
+        '/admin/siparisler': 'siparis',
+        '/admin/kitaplar': 'kitap',
+        '/admin/kullanicilar': 'kullanici',
+        '/admin/favoriler': 'favori'
+    };
     const currentUrl = new URL(window.location);
-    currentUrl.searchParams.set('export', format);
-    window.open(currentUrl.toString(), '_blank');
+    const sayfa = Object.keys(tipler).find(yol => currentUrl.pathname.startsWith(yol));
+    if (!sayfa) {
+        showAlert('Bu sayfa için dışa aktarma desteklenmiyor.', 'warning');
+        return;
+    }
+    // Durum yalnızca siparişlerde, tarih aralığı siparişler ve kullanıcılarda geçerli
+    const filtreler = {
+        siparis: ['durum', 'baslangic', 'bitis'],
+        kullanici: ['baslangic', 'bitis']
+    };
+    const exportUrl = new URL('/admin/disa-aktar/' + tipler[sayfa], window.location.origin);
+    (filtreler[tipler[sayfa]] || []).forEach(ad => {
+        if (currentUrl.searchParams.get(ad)) {
+            exportUrl.searchParams.set(ad, currentUrl.searchParams.get(ad));
+        }
+    });
+    window.location.href = exportUrl.toString();
 }
 
 /**
@@ -550,6 +578,151 @@ function initializeOrdersChart(canvas) {
     });
 }
 
+/**
+ * Initialize order time series chart - son 1 saat (dakikalık) / son 1 hafta (saatlik)
+ */
+function initializeZamanSerisiChart(canvas) {
+    const chart = new Chart(canvas.getContext('2d'), {
+        type: 'bar',
+        data: {
+            labels: [],
+            datasets: [{
+                type: 'line',
+                label: 'Ciro',
+                data: [],
+                borderColor: 'rgb(102, 126, 234)',
+                backgroundColor: 'rgba(102, 126, 234, 0.1)',
+                tension: 0.3,
+                yAxisID: 'ciro'
+            }, {
+                label: 'Sipariş',
+                data: [],
+                backgroundColor: 'rgba(255, 193, 7, 0.6)',
+                yAxisID: 'siparis'
+            }]
+        },
+        options: {
+            responsive: true,
+            animation: false,
+            scales: {
+                ciro: {
+                    position: 'left',
+                    beginAtZero: true,
+                    ticks: {
+                        callback: function(value) {
+                            return formatCurrency(value);
+                        }
+                    }
+                },
+                siparis: {
+                    position: 'right',
+                    beginAtZero: true,
+                    grid: { drawOnChartArea: false },
+                    ticks: { precision: 0 }
+                }
+            }
+        }
+    });
+    
+    let aralik = 'saat';
+    const yukle = function() {
+        fetch(`/admin/dashboard/zaman-serisi?aralik=${aralik}`)
+            .then(response => response.json())
+            .then(seri => {
+                chart.data.labels = seri.etiketler;
+                chart.data.datasets[0].data = seri.ciro;
+                chart.data.datasets[1].data = seri.siparisler;
+                chart.update();
+            })
+            .catch(error => console.error('Zaman serisi yüklenemedi:', error));
+    };
+    
+    document.querySelectorAll('[data-zaman-serisi]').forEach(button => {
+        button.addEventListener('click', function() {
+            document.querySelectorAll('[data-zaman-serisi]').forEach(b => b.classList.remove('active'));
+            this.classList.add('active');
+            aralik = this.dataset.zamanSerisi;
+            yukle();
+        });
+    });
+    
+    yukle();
+    setInterval(yukle, 30000);
+}
+
+/**
+ * Dashboard canlı akışı (Server-Sent Events) - olaylar listeye eklenir, metrikler kartları günceller.
+ * Bağlantı koparsa EventSource kendiliğinden yeniden bağlanır.
+ */
+function initializeCanliAkis() {
+    const liste = document.getElementById('canliAkis');
+    if (!liste || typeof EventSource === 'undefined') {
+        return;
+    }
+    const durum = document.getElementById('canliAkisDurumu');
+    const maxSatir = 20;
+    
+    const durumGoster = function(metin, sinif) {
+        if (durum) {
+            durum.className = 'badge align-self-center me-2 ' + sinif;
+            durum.innerHTML = '<i class="fas fa-circle"></i> ' + metin;
+        }
+    };
+    
+    const satirEkle = function(ikon, renk, metin) {
+        const bos = liste.querySelector('.text-muted');
+        if (bos && liste.children.length === 1) {
+            bos.remove();
+        }
+        const satir = document.createElement('li');
+        satir.className = 'mb-2';
+        const saat = new Date().toLocaleTimeString('tr-TR');
+        satir.innerHTML = `<i class="fas ${ikon} ${renk} me-2"></i><small class="text-muted me-2">${saat}</small>`;
+        satir.appendChild(document.createTextNode(metin));
+        liste.prepend(satir);
+        while (liste.children.length > maxSatir) {
+            liste.lastElementChild.remove();
+        }
+    };
+    
+    const siparisMetni = function(veri) {
+        const ilkler = veri.siparisler.map(s => `#${s.id} ${s.musteri} (${formatCurrency(s.toplamTutar)}) ${s.durum}`);
+        const kalan = veri.adet - veri.siparisler.length;
+        return ilkler.join(', ') + (kalan > 0 ? ` ve ${kalan} sipariş daha` : '');
+    };
+    
+    const kaynak = new EventSource('/admin/dashboard/canli');
+    kaynak.onopen = () => durumGoster('Canlı', 'bg-success');
+    kaynak.onerror = () => durumGoster('Yeniden bağlanıyor', 'bg-warning');
+    
+    kaynak.addEventListener('siparis-olusturuldu', e => {
+        satirEkle('fa-shopping-cart', 'text-warning', 'Yeni sipariş: ' + siparisMetni(JSON.parse(e.data)));
+    });
+    kaynak.addEventListener('siparis-durumu', e => {
+        satirEkle('fa-exchange-alt', 'text-info', 'Durum değişti: ' + siparisMetni(JSON.parse(e.data)));
+    });
+    kaynak.addEventListener('siparis-silindi', e => {
+        const veri = JSON.parse(e.data);
+        satirEkle('fa-trash', 'text-danger', `${veri.adet} sipariş silindi`);
+    });
+    kaynak.addEventListener('dusuk-stok', e => {
+        const kitap = JSON.parse(e.data);
+        satirEkle('fa-exclamation-triangle', 'text-danger', `Düşük stok: ${kitap.ad} (${kitap.stok} adet)`);
+    });
+    kaynak.addEventListener('yeni-kullanici', e => {
+        const kullanici = JSON.parse(e.data);
+        satirEkle('fa-user-plus', 'text-primary', `Yeni kullanıcı: ${kullanici.adSoyad} (${kullanici.email})`);
+    });
+    kaynak.addEventListener('metrik', e => {
+        const metrik = JSON.parse(e.data);
+        document.querySelectorAll('[data-metrik]').forEach(el => {
+            if (metrik[el.dataset.metrik] !== undefined) {
+                el.textContent = metrik[el.dataset.metrik];
+            }
+        });
+    });
+}
+
 /**
  * Bulk actions
  */
@@ -626,23 +799,37 @@ function executeBulkAction(action, selectedItems) {
         // Show loading
         showAlert('İşlem gerçekleştiriliyor...', 'info');
         
+        const headers = {
+            'Content-Type': 'application/json',
+        };
+        const csrfToken = document.querySelector('meta[name="_csrf"]');
+        const csrfHeader = document.querySelector('meta[name="_csrf_header"]');
+        if (csrfToken && csrfHeader) {
+            headers[csrfHeader.content] = csrfToken.content;
+        }
+        
+        // Kayıt tipi tablo üzerindeki data-bulk-type ile verilebilir, yoksa sunucu sayfadan belirler
+        const bulkActionSelect = document.getElementById('bulkAction');
+        const type = bulkActionSelect ? bulkActionSelect.dataset.bulkType : undefined;
+        
         // Send request to server
         fetch('/admin/bulk-action', {
             method: 'POST',
-            headers: {
-                'Content-Type': 'application/json',
-            },
+            headers: headers,
             body: JSON.stringify({
                 action: action,
-                items: selectedItems
+                items: selectedItems,
+                tip: type
             })
         })
-        .then(response => {
-            if (response.ok) {
-                showAlert('İşlem başarıyla tamamlandı.', 'success');
-                setTimeout(() => window.location.reload(), 1000);
+        .then(response => response.json().then(result => ({ status: response.status, result: result })))
+        .then(({ status, result }) => {
+            if (status === 202) {
+                trackBulkAction(result.id);
+            } else if (status === 200) {
+                completeBulkAction(result);
             } else {
-                showAlert('İşlem gerçekleştirilirken hata oluştu.', 'danger');
+                showAlert(result.message || 'İşlem gerçekleştirilirken hata oluştu.', 'danger');
             }
         })
         .catch(error => {
@@ -651,6 +838,40 @@ function executeBulkAction(action, selectedItems) {
     }
 }
 
+/**
+ * Poll a running bulk action until it finishes
+ */
+function trackBulkAction(id) {
+    fetch(`/admin/bulk-action/${id}`)
+        .then(response => response.json())
+        .then(result => {
+            if (result.durum === 'KUYRUKTA' || result.durum === 'CALISIYOR') {
+                showAlert(`İşlem sürüyor... %${result.yuzde} (${result.islenen}/${result.toplam})`, 'info');
+                setTimeout(() => trackBulkAction(id), 1000);
+            } else if (result.durum === 'HATA') {
+                showAlert(result.message || 'İşlem gerçekleştirilirken hata oluştu.', 'danger');
+            } else {
+                completeBulkAction(result);
+            }
+        })
+        .catch(error => {
+            showAlert('İşlem durumu alınamadı.', 'danger');
+        });
+}
+
+/**
+ * Finish a bulk action: download exports, reload otherwise
+ */
+function completeBulkAction(result) {
+    if (result.exportUrl) {
+        window.location.href = result.exportUrl;
+        showAlert(`${result.etkilenen} kayıt dışa aktarıldı.`, 'success');
+        return;
+    }
+    showAlert(`İşlem başarıyla tamamlandı. (${result.etkilenen}/${result.toplam} kayıt)`, 'success');
+    setTimeout(() => window.location.reload(), 1000);
+}
+
 // Initialize bulk actions when DOM is loaded
 document.addEventListener('DOMContentLoaded', function() {
     initializeBulkActions();
@@ -0,0 +1,127 @@
+package com.alperen.kitapsatissistemi.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class OlayYoluTest {
+
+    private static final int OLAY_SAYISI = 20_000;
+
+    private static CountDownLatch yavasAboneKilidi;
+
+    private AnnotationConfigApplicationContext context;
+
+    @BeforeEach
+    void kur() {
+        yavasAboneKilidi = new CountDownLatch(1);
+        context = new AnnotationConfigApplicationContext();
+        Map<String, Object> ayarlar = new HashMap<>();
+        ayarlar.put("olay-yolu.kapasite", 16);
+        ayarlar.put("olay-yolu.parti-boyutu", 4);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", ayarlar));
+        context.register(OlayYolu.class, YavasAbone.class, HizliAbone.class);
+        context.refresh();
+    }
+
+    @AfterEach
+    void kapat() {
+        yavasAboneKilidi.countDown();
+        context.close();
+    }
+
+    @Test
+    void halkaDolunceYayinlayanBeklemezYalnizcaYavasAboneOlayKaybeder() throws Exception {
+        OlayYolu olayYolu = context.getBean(OlayYolu.class);
+
+        long baslama = System.nanoTime();
+        for (int i = 0; i < OLAY_SAYISI; i++) {
+            olayYolu.yayinla(i);
+        }
+        // Yavaş abone kilitliyken yayın beklemeden bitmeli
+        assertTrue(System.nanoTime() - baslama < TimeUnit.SECONDS.toNanos(5), "yayınlayan bekledi");
+
+        yavasAboneKilidi.countDown();
+        yetismesiniBekle(olayYolu);
+
+        for (OlayYolu.TuketiciMetrigi metrik : olayYolu.getMetrikler().getTuketiciler()) {
+            List<Integer> alinan = ((KayitliAbone) context.getBean(metrik.getAd())).alinan;
+            siraliVeTekil(metrik.getAd(), alinan);
+            // Her olay ya işlendi ya da kayıp sayıldı
+            assertEquals(OLAY_SAYISI, alinan.size() + metrik.getKayip(), metrik.getAd() + " işlenen + kayıp");
+        }
+        OlayYolu.TuketiciMetrigi yavas = metrik(olayYolu, context.getBeanNamesForType(YavasAbone.class)[0]);
+        assertTrue(yavas.getKayip() > 0, "yavaş abone olay kaybetmeliydi");
+    }
+
+    // Yeniden yazılan yuvadan okunan olay eski sırayla işlenirse tekrar veya sırasızlık görülür
+    private static void siraliVeTekil(String ad, List<Integer> alinan) {
+        synchronized (alinan) {
+            for (int i = 1; i < alinan.size(); i++) {
+                if (alinan.get(i) <= alinan.get(i - 1)) {
+                    fail(ad + ": " + alinan.get(i - 1) + " sonrasında " + alinan.get(i) + " işlendi");
+                }
+            }
+        }
+    }
+
+    private static void yetismesiniBekle(OlayYolu olayYolu) throws InterruptedException {
+        long sinir = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < sinir) {
+            boolean yetisti = true;
+            for (OlayYolu.TuketiciMetrigi metrik : olayYolu.getMetrikler().getTuketiciler()) {
+                yetisti &= metrik.getGecikme() == 0;
+            }
+            if (yetisti) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("aboneler yetişemedi");
+    }
+
+    private static OlayYolu.TuketiciMetrigi metrik(OlayYolu olayYolu, String ad) {
+        for (OlayYolu.TuketiciMetrigi metrik : olayYolu.getMetrikler().getTuketiciler()) {
+            if (metrik.getAd().equals(ad)) {
+                return metrik;
+            }
+        }
+        throw new AssertionError(ad + " bulunamadı");
+    }
+
+    abstract static class KayitliAbone {
+
+        final List<Integer> alinan = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    static class YavasAbone extends KayitliAbone {
+
+        @OlayAbonesi
+        public void al(Integer olay) throws InterruptedException {
+            yavasAboneKilidi.await(30, TimeUnit.SECONDS);
+            alinan.add(olay);
+        }
+    }
+
+    static class HizliAbone extends KayitliAbone {
+
+        @OlayAbonesi
+        public void al(Integer olay) {
+            alinan.add(olay);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.alperen.kitapsatissistemi.security;
+
+import com.alperen.kitapsatissistemi.service.IdempotencyDeposu;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTest {
+
+    private static final String YOL = "/api/siparisler";
+
+    private IdempotencyDeposu depo;
+    private IdempotencyFilter filtre;
+    private final AtomicInteger islenen = new AtomicInteger();
+
+    @BeforeEach
+    void kur() {
+        depo = new IdempotencyDeposu(null, null);
+        ReflectionTestUtils.setField(depo, "ttlDakika", 60L);
+        ReflectionTestUtils.setField(depo, "maxKayit", 100);
+        ReflectionTestUtils.setField(depo, "kalici", false);
+        depo.baslat();
+
+        filtre = new IdempotencyFilter();
+        ReflectionTestUtils.setField(filtre, "idempotencyDeposu", depo);
+        ReflectionTestUtils.setField(filtre, "aktif", true);
+        ReflectionTestUtils.setField(filtre, "yollar", Arrays.asList("/api/**"));
+        ReflectionTestUtils.setField(filtre, "haricYollar", Arrays.asList("/api/kullanicilar/login"));
+        ReflectionTestUtils.setField(filtre, "beklemeMs", 1000L);
+        ReflectionTestUtils.setField(filtre, "maxGovdeBoyutu", 1 << 20);
+    }
+
+    @AfterEach
+    void kapat() {
+        depo.durdur();
+    }
+
+    @Test
+    void ayniIstekSaklananYanitlaTekrarOynatilir() throws Exception {
+        MockHttpServletResponse ilk = gonder("k1", "{\"kitapId\":1}", olusturan("{\"id\":42}"));
+        assertEquals(201, ilk.getStatus());
+        assertEquals("{\"id\":42}", ilk.getContentAsString());
+
+        MockHttpServletResponse tekrar = gonder("k1", "{\"kitapId\":1}", olusturan("{\"id\":43}"));
+
+        assertEquals(1, islenen.get());
+        assertEquals(201, tekrar.getStatus());
+        assertEquals("{\"id\":42}", tekrar.getContentAsString());
+        assertEquals("/api/siparisler/42", tekrar.getHeader("Location"));
+        assertEquals("true", tekrar.getHeader("Idempotent-Replayed"));
+    }
+
+    @Test
+    void ayniAnahtarFarkliGovdeyle422Doner() throws Exception {
+        gonder("k2", "{\"kitapId\":1}", olusturan("{\"id\":42}"));
+
+        MockHttpServletResponse farkli = gonder("k2", "{\"kitapId\":2}", olusturan("{\"id\":43}"));
+
+        assertEquals(1, islenen.get());
+        assertEquals(422, farkli.getStatus());
+    }
+
+    @Test
+    void asyncYanitDispatchSonundaSaklanir() throws Exception {
+        AtomicReference<ServletResponse> asyncYanit = new AtomicReference<>();
+        MockHttpServletRequest istek = istek("k3", "{\"kitapId\":1}");
+        istek.setAsyncSupported(true);
+        MockHttpServletResponse yanit = new MockHttpServletResponse();
+        filtre.doFilter(istek, yanit, (req, res) -> {
+            islenen.incrementAndGet();
+            req.startAsync(req, res);
+            asyncYanit.set(res);
+        });
+        // Async sonuç hazır değilken yanıt saklanmamış olmalı
+        assertFalse(depo.getYanit(anahtar("k3")).isPresent());
+
+        istek.setAsyncStarted(false);
+        istek.setDispatcherType(DispatcherType.ASYNC);
+        filtre.doFilter(istek, asyncYanit.get(), olusturan("{\"id\":42}"));
+
+        assertEquals("{\"id\":42}", yanit.getContentAsString());
+        MockHttpServletResponse tekrar = gonder("k3", "{\"kitapId\":1}", olusturan("{\"id\":43}"));
+        assertEquals(1, islenen.get());
+        assertEquals("{\"id\":42}", tekrar.getContentAsString());
+    }
+
+    @Test
+    void dispatchGelmedenBitenAsyncIstekAnahtariSerbestBirakir() throws Exception {
+        MockHttpServletRequest istek = istek("k4", "{\"kitapId\":1}");
+        istek.setAsyncSupported(true);
+        AtomicReference<AsyncContext> baglam = new AtomicReference<>();
+        filtre.doFilter(istek, new MockHttpServletResponse(), (req, res) -> baglam.set(req.startAsync(req, res)));
+        assertNotNull(depo.baslatVeyaKatil(anahtar("k4")));
+
+        // Bağlantı koptu: yalnızca onComplete çağrılır
+        baglam.get().complete();
+
+        assertNull(depo.baslatVeyaKatil(anahtar("k4")));
+    }
+
+    @Test
+    void tekrarOkunabilirGovdeReadListenerIleOkunur() throws Exception {
+        ByteArrayOutputStream okunan = new ByteArrayOutputStream();
+        AtomicInteger bitti = new AtomicInteger();
+        filtre.doFilter(istek("k5", "{\"kitapId\":1}"), new MockHttpServletResponse(), (req, res) -> {
+            ServletInputStream girdi = req.getInputStream();
+            girdi.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (girdi.isReady() && !girdi.isFinished()) {
+                        okunan.write(girdi.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    bitti.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+            });
+        });
+
+        assertEquals("{\"kitapId\":1}", new String(okunan.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(1, bitti.get());
+    }
+
+    private MockHttpServletResponse gonder(String anahtar, String govde, FilterChain zincir) throws Exception {
+        MockHttpServletResponse yanit = new MockHttpServletResponse();
+        filtre.doFilter(istek(anahtar, govde), yanit, zincir);
+        return yanit;
+    }
+
+    private MockHttpServletRequest istek(String anahtar, String govde) {
+        MockHttpServletRequest istek = new MockHttpServletRequest("POST", YOL);
+        istek.setServletPath(YOL);
+        istek.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        istek.setContent(govde.getBytes(StandardCharsets.UTF_8));
+        istek.addHeader(IdempotencyFilter.IDEMPOTENCY_HEADER, anahtar);
+        return istek;
+    }
+
+    // Filtredeki kapsam: oturum ve kullanıcı yoksa istemci IP'si
+    private static String anahtar(String anahtar) {
+        return "ip:127.0.0.1|" + YOL + "|" + anahtar;
+    }
+
+    private FilterChain olusturan(String govde) {
+        return (req, res) -> {
+            if (req.getDispatcherType() != DispatcherType.ASYNC) {
+                islenen.incrementAndGet();
+            }
+            StreamUtils.copyToByteArray(req.getInputStream());
+            HttpServletResponse yanit = (HttpServletResponse) res;
+            yanit.setStatus(201);
+            yanit.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            yanit.setHeader("Location", YOL + "/42");
+            yanit.getOutputStream().write(govde.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.alperen.kitapsatissistemi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DisaAktarimServiceTest {
+
+    @TempDir
+    Path klasor;
+
+    private JdbcTemplate jdbcTemplate;
+    private DisaAktarimService servis;
+
+    @BeforeEach
+    void kur() throws Exception {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + klasor.resolve("aktarim.db"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String sema = StreamUtils.copyToString(new ClassPathResource("db/migration/V1__ilk_sema.sql").getInputStream(),
+                StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+        for (String ifade : sema.split(";")) {
+            if (!ifade.trim().isEmpty()) {
+                jdbcTemplate.execute(ifade);
+            }
+        }
+        servis = new DisaAktarimService(jdbcTemplate, null);
+        servis.baslat();
+    }
+
+    @Test
+    void formulIleBaslayanHucrelerMetinOlarakYazilir() throws Exception {
+        kullaniciEkle(1L, "=HYPERLINK(\"http://kotu.example\",\"tikla\")", "a@example.com");
+        kullaniciEkle(2L, "@SUM(A1:A2)", "-2+3@example.com");
+        kullaniciEkle(3L, "Ayşe Yılmaz", "ayse@example.com");
+
+        String csv = yaz(servis.hazirla(TopluIslemService.TIP_KULLANICI, Arrays.asList(1L, 2L, 3L)));
+
+        String[] satirlar = csv.split("\n");
+        assertEquals(4, satirlar.length);
+        assertEquals("1,\"'=HYPERLINK(\"\"http://kotu.example\"\",\"\"tikla\"\")\",a@example.com,Musteri,",
+                satirSonuHaric(satirlar[1]));
+        assertEquals("2,'@SUM(A1:A2),'-2+3@example.com,Musteri,", satirSonuHaric(satirlar[2]));
+        assertEquals("3,Ayşe Yılmaz,ayse@example.com,Musteri,", satirSonuHaric(satirlar[3]));
+    }
+
+    @Test
+    void sayiKolonlariDegistirilmez() throws Exception {
+        jdbcTemplate.update("INSERT INTO kategoriler (id, ad) VALUES (1, 'Roman')");
+        jdbcTemplate.update("INSERT INTO kitaplar (id, ad, yazar, fiyat, stok_miktari, kategori_id) "
+                + "VALUES (5, '+Artı', 'Yazar', 12.5, 3, 1)");
+
+        String csv = yaz(servis.hazirla(TopluIslemService.TIP_KITAP, Arrays.asList(5L)));
+
+        assertEquals("5,'+Artı,Yazar,12.5,3,1", csv.split("\n")[1]);
+    }
+
+    private void kullaniciEkle(long id, String adSoyad, String email) {
+        jdbcTemplate.update("INSERT INTO kullanicilar (id, ad_soyad, email, kayit_tarihi, rol, sifre_hash) "
+                + "VALUES (?, ?, ?, ?, 'Musteri', 'x')", id, adSoyad, email, 0L);
+    }
+
+    private String yaz(Iterable<DisaAktarimService.Aktarim> aktarimlar) throws Exception {
+        StringWriter cikti = new StringWriter();
+        for (DisaAktarimService.Aktarim aktarim : aktarimlar) {
+            servis.yaz(aktarim, cikti);
+        }
+        return cikti.toString();
+    }
+
+    // Son kolon kayıt tarihidir; saat dilimine bağlı olduğundan karşılaştırılmaz
+    private static String satirSonuHaric(String satir) {
+        return satir.substring(0, satir.lastIndexOf(',') + 1);
+    }
+}
@@ -0,0 +1,114 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.service.IdempotencyDeposu.KayitliYanit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IdempotencyDeposuTest {
+
+    private static final int ANAHTAR_SAYISI = 2000;
+    private static final int THREAD_SAYISI = 8;
+
+    private IdempotencyDeposu depo;
+
+    @BeforeEach
+    void kur() {
+        depo = new IdempotencyDeposu(null, null);
+        ReflectionTestUtils.setField(depo, "ttlDakika", 60L);
+        ReflectionTestUtils.setField(depo, "maxKayit", ANAHTAR_SAYISI * 2);
+        ReflectionTestUtils.setField(depo, "kalici", false);
+        depo.baslat();
+    }
+
+    @AfterEach
+    void kapat() {
+        depo.durdur();
+    }
+
+    @Test
+    void tamamlananAnahtarTekrarSahiplenilmez() {
+        assertNull(depo.baslatVeyaKatil("a"));
+        KayitliYanit yanit = yanit();
+        depo.tamamla("a", yanit);
+
+        // Yanıt kontrolünü kaçırmış bir istek: sahiplik alınsa bile saklanan yanıt döner
+        CompletableFuture<KayitliYanit> sonuc = depo.baslatVeyaKatil("a");
+        assertNotNull(sonuc);
+        assertSame(yanit, sonuc.getNow(null));
+        assertNull(depo.baslatVeyaKatil("b"));
+    }
+
+    @Test
+    void ayniAnahtarlaEszamanliIsteklerIslemiBirKezYapar() throws Exception {
+        AtomicIntegerArray calisma = new AtomicIntegerArray(ANAHTAR_SAYISI);
+        CountDownLatch basla = new CountDownLatch(1);
+        ExecutorService havuz = Executors.newFixedThreadPool(THREAD_SAYISI);
+        try {
+            List<Future<?>> isler = new ArrayList<>();
+            for (int t = 0; t < THREAD_SAYISI; t++) {
+                isler.add(havuz.submit(() -> {
+                    basla.await();
+                    // Thread'ler anahtarları aynı sırayla gezer; her anahtarda farklı aşamalarda karşılaşırlar
+                    for (int i = 0; i < ANAHTAR_SAYISI; i++) {
+                        KayitliYanit sonuc = istekGonder("k" + i, i, calisma);
+                        assertEquals(201, sonuc.getDurumKodu());
+                    }
+                    return null;
+                }));
+            }
+            basla.countDown();
+            for (Future<?> is : isler) {
+                is.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            havuz.shutdownNow();
+        }
+        for (int i = 0; i < ANAHTAR_SAYISI; i++) {
+            assertEquals(1, calisma.get(i), "anahtar k" + i + " için işlem sayısı");
+        }
+    }
+
+    // IdempotencyFilter'daki döngünün aynısı
+    private KayitliYanit istekGonder(String anahtar, int indeks, AtomicIntegerArray calisma) throws Exception {
+        while (true) {
+            Optional<KayitliYanit> kayitli = depo.getYanit(anahtar);
+            if (kayitli.isPresent()) {
+                return kayitli.get();
+            }
+            CompletableFuture<KayitliYanit> suren = depo.baslatVeyaKatil(anahtar);
+            if (suren == null) {
+                calisma.incrementAndGet(indeks);
+                KayitliYanit yanit = yanit();
+                depo.tamamla(anahtar, yanit);
+                return yanit;
+            }
+            KayitliYanit yanit = suren.get(10, TimeUnit.SECONDS);
+            if (yanit != null) {
+                return yanit;
+            }
+        }
+    }
+
+    private static KayitliYanit yanit() {
+        return new KayitliYanit("parmak-izi", 201, "application/json", null, new byte[]{'{', '}'},
+                System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,175 @@
+package com.alperen.kitapsatissistemi.service;
+
+import com.alperen.kitapsatissistemi.entity.Sepet;
+import com.alperen.kitapsatissistemi.entity.SepetItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SqliteOturumDeposuTest {
+
+    private static final int ISTEK_SAYISI = 16;
+    private static final long ORTAK_KITAP = 1000L;
+
+    @TempDir
+    Path klasor;
+
+    private SqliteOturumDeposu depo;
+
+    @BeforeEach
+    void kur() throws Exception {
+        SQLiteConfig ayar = new SQLiteConfig();
+        ayar.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        ayar.setBusyTimeout(10_000);
+        SQLiteDataSource dataSource = new SQLiteDataSource(ayar);
+        dataSource.setUrl("jdbc:sqlite:" + klasor.resolve("oturum.db"));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String sema = StreamUtils.copyToString(new ClassPathResource("db/migration/V3__oturumlar.sql").getInputStream(),
+                StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+        for (String ifade : sema.split(";")) {
+            if (!ifade.trim().isEmpty()) {
+                jdbcTemplate.execute(ifade);
+            }
+        }
+
+        depo = new SqliteOturumDeposu(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(depo, "erisimYazmaAraligiSaniye", 60L);
+        ReflectionTestUtils.setField(depo, "kapasite", 1000);
+        ReflectionTestUtils.setField(depo, "grupBoyutu", 200);
+        ReflectionTestUtils.setField(depo, "yanitBeklemeMs", 10_000L);
+        ReflectionTestUtils.setField(depo, "temizlemeAraligiSaniye", 3600L);
+        ReflectionTestUtils.setField(depo, "temizlemeGrubu", 500);
+        depo.baslat();
+    }
+
+    @AfterEach
+    void kapat() {
+        depo.durdur();
+    }
+
+    @Test
+    void ayniSessionaEszamanliSepetDegisiklikleriKaybolmaz() throws Exception {
+        SqliteOturumDeposu.Oturum oturum = depo.createSession();
+        oturum.setAttribute("KullaniciId", 7L);
+        oturum.setAttribute(SepetService.SEPET_SESSION_KEY, new Sepet(7L));
+        depo.save(oturum);
+        String id = oturum.getId();
+
+        // Tüm istekler session'ı kaydetmeden önce okur; her biri kendi kopyasını değiştirir
+        CyclicBarrier hepsiOkudu = new CyclicBarrier(ISTEK_SAYISI);
+        ExecutorService havuz = Executors.newFixedThreadPool(ISTEK_SAYISI);
+        try {
+            List<Future<?>> istekler = new ArrayList<>();
+            for (int i = 0; i < ISTEK_SAYISI; i++) {
+                long kitapId = i + 1;
+                istekler.add(havuz.submit(() -> {
+                    SqliteOturumDeposu.Oturum kopya = depo.findById(id);
+                    Sepet sepet = kopya.getAttribute(SepetService.SEPET_SESSION_KEY);
+                    sepet.ekle(kitapId, "Kitap " + kitapId, BigDecimal.TEN, null, 1);
+                    sepet.ekle(ORTAK_KITAP, "Ortak", BigDecimal.ONE, null, 1);
+                    kopya.setAttribute(SepetService.SEPET_SESSION_KEY, sepet);
+                    hepsiOkudu.await(10, TimeUnit.SECONDS);
+                    depo.save(kopya);
+                    return null;
+                }));
+            }
+            for (Future<?> istek : istekler) {
+                istek.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            havuz.shutdownNow();
+        }
+
+        Sepet son = depo.findById(id).getAttribute(SepetService.SEPET_SESSION_KEY);
+        assertNotNull(son);
+        assertEquals(ISTEK_SAYISI + 1, son.getBoyut());
+        assertEquals(ISTEK_SAYISI * 2, son.getToplamAdet());
+        SepetItem ortak = son.getItems().stream().filter(item -> item.getKitapId() == ORTAK_KITAP).findFirst().orElse(null);
+        assertNotNull(ortak);
+        assertEquals(ISTEK_SAYISI, ortak.getAdet());
+    }
+
+    @Test
+    void ayniIstekteIkinciKayitIslemleriTekrarlamaz() {
+        SqliteOturumDeposu.Oturum oturum = depo.createSession();
+        oturum.setAttribute(SepetService.SEPET_SESSION_KEY, new Sepet(7L));
+        depo.save(oturum);
+
+        SqliteOturumDeposu.Oturum kopya = depo.findById(oturum.getId());
+        Sepet sepet = kopya.getAttribute(SepetService.SEPET_SESSION_KEY);
+        sepet.ekle(1L, "Kitap", BigDecimal.TEN, null, 2);
+        kopya.setAttribute(SepetService.SEPET_SESSION_KEY, sepet);
+        depo.save(kopya);
+        // Sepet değişmeden yeniden işaretlenip kaydedilirse adet ikinci kez eklenmemeli
+        kopya.setAttribute(SepetService.SEPET_SESSION_KEY, sepet);
+        depo.save(kopya);
+
+        Sepet son = depo.findById(oturum.getId()).getAttribute(SepetService.SEPET_SESSION_KEY);
+        assertEquals(2, son.getToplamAdet());
+    }
+
+    @Test
+    void geriAlinanSepetIslemleriSonrakiBirlestirmedeUygulanir() {
+        Sepet sepet = new Sepet(7L);
+        sepet.ekle(1L, "Kitap", BigDecimal.TEN, null, 1);
+        SqliteOturumDeposu.Oturum oturum = depo.createSession();
+        oturum.setAttribute(SepetService.SEPET_SESSION_KEY, sepet);
+        depo.save(oturum);
+
+        Sepet kopya = depo.findById(oturum.getId()).getAttribute(SepetService.SEPET_SESSION_KEY);
+        kopya.ekle(2L, "İkinci", BigDecimal.ONE, null, 1);
+        UnaryOperator<Object> yazilamayan = kopya.birlestirici();
+        kopya.birlestiriciGeriAl(yazilamayan);
+        kopya.ekle(3L, "Üçüncü", BigDecimal.ONE, null, 1);
+
+        Sepet guncel = (Sepet) kopya.birlestirici().apply(new Sepet(7L));
+        assertEquals(2, guncel.getBoyut());
+        assertEquals(2L, guncel.getItems().get(0).getKitapId());
+        assertEquals(3L, guncel.getItems().get(1).getKitapId());
+    }
+
+    @Test
+    void sepetiKaldiranIstekBirlestirmeyiAtlar() {
+        SqliteOturumDeposu.Oturum oturum = depo.createSession();
+        oturum.setAttribute(SepetService.SEPET_SESSION_KEY, new Sepet(7L));
+        depo.save(oturum);
+
+        SqliteOturumDeposu.Oturum ekleyen = depo.findById(oturum.getId());
+        SqliteOturumDeposu.Oturum kaldiran = depo.findById(oturum.getId());
+        Sepet sepet = ekleyen.getAttribute(SepetService.SEPET_SESSION_KEY);
+        sepet.ekle(1L, "Kitap", BigDecimal.TEN, null, 2);
+        ekleyen.setAttribute(SepetService.SEPET_SESSION_KEY, sepet);
+        depo.save(ekleyen);
+        kaldiran.removeAttribute(SepetService.SEPET_SESSION_KEY);
+        depo.save(kaldiran);
+
+        assertNull(depo.findById(oturum.getId()).getAttribute(SepetService.SEPET_SESSION_KEY));
+    }
+}